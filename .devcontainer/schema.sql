@@ -4,6 +4,9 @@ CREATE DATABASE office_management;
 \c office_management;
 
 -- Drop tables if they exist (in correct order due to foreign keys)
+DROP TABLE IF EXISTS occupancy_samples;
+DROP TABLE IF EXISTS outbox_events;
+DROP TABLE IF EXISTS seat_reservations;
 DROP TABLE IF EXISTS seats;
 DROP TABLE IF EXISTS employees;
 DROP TABLE IF EXISTS office_rooms;
@@ -15,19 +18,27 @@ DROP SEQUENCE IF EXISTS employee_seq;
 DROP SEQUENCE IF EXISTS seat_seq;
 DROP SEQUENCE IF EXISTS office_room_seq;
 DROP SEQUENCE IF EXISTS floor_seq;
+DROP SEQUENCE IF EXISTS seat_reservation_seq;
+DROP SEQUENCE IF EXISTS outbox_event_seq;
+DROP SEQUENCE IF EXISTS occupancy_sample_seq;
 
 -- Create sequences
 CREATE SEQUENCE employee_seq START WITH 1 INCREMENT BY 1;
 CREATE SEQUENCE seat_seq START WITH 1 INCREMENT BY 1;
 CREATE SEQUENCE office_room_seq START WITH 1 INCREMENT BY 1;
 CREATE SEQUENCE floor_seq START WITH 1 INCREMENT BY 1;
+-- Reservations are inserted in batches, so IDs are allocated 50 at a time
+CREATE SEQUENCE seat_reservation_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE outbox_event_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE occupancy_sample_seq START WITH 1 INCREMENT BY 50;
 
 -- Create tables in correct order (no forward references)
 CREATE TABLE floors (
     id BIGINT DEFAULT nextval('floor_seq') PRIMARY KEY,
     floor_number INTEGER NOT NULL,
     name VARCHAR(255),
-    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_floors_floor_number UNIQUE (floor_number)
 );
 
 -- Create a separate table for planimetry data
@@ -47,7 +58,8 @@ CREATE TABLE office_rooms (
     y FLOAT DEFAULT 0,
     width FLOAT DEFAULT 300,
     height FLOAT DEFAULT 200,
-    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_office_rooms_floor_room_number UNIQUE (floor_id, room_number)
 );
 
 CREATE TABLE employees (
@@ -67,7 +79,9 @@ CREATE TABLE seats (
     width FLOAT DEFAULT 100,
     height FLOAT DEFAULT 100,
     rotation FLOAT DEFAULT 0,
-    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+    capacity INTEGER CHECK (capacity > 0), -- NULL means any number of employees can share the seat
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_seats_room_seat_number UNIQUE (room_id, seat_number)
 );
 
 CREATE TABLE employee_seat_assignments (
@@ -76,6 +90,51 @@ CREATE TABLE employee_seat_assignments (
     PRIMARY KEY (employee_id, seat_id)
 );
 
+-- Hot-desk bookings, the interval is [start_time, end_time)
+CREATE TABLE seat_reservations (
+    id BIGINT PRIMARY KEY,
+    seat_id BIGINT NOT NULL,
+    employee_id BIGINT NOT NULL,
+    start_time TIMESTAMP NOT NULL,
+    end_time TIMESTAMP NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_seat_reservations_seat FOREIGN KEY (seat_id) REFERENCES seats (id),
+    CONSTRAINT fk_seat_reservations_employee FOREIGN KEY (employee_id) REFERENCES employees (id),
+    CHECK (end_time > start_time)
+);
+
+CREATE INDEX idx_seat_reservations_end_time ON seat_reservations (end_time);
+
+-- Change events waiting for the outbox relay, deleted once delivered
+CREATE TABLE outbox_events (
+    id BIGINT PRIMARY KEY,
+    event_type VARCHAR(255) NOT NULL,
+    aggregate_type VARCHAR(255) NOT NULL,
+    aggregate_id BIGINT,
+    floor_id BIGINT,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    -- Set while a relay delivers the event, other relays skip it until then
+    claimed_until TIMESTAMP
+);
+
+-- Occupancy time series: minute samples, summarized into hour and day rows.
+-- A NULL floor_id is the whole office, a NULL room_id a whole floor.
+CREATE TABLE occupancy_samples (
+    id BIGINT PRIMARY KEY,
+    resolution VARCHAR(16) NOT NULL,
+    floor_id BIGINT,
+    room_id BIGINT,
+    bucket_start TIMESTAMP NOT NULL,
+    samples INTEGER NOT NULL,
+    seats BIGINT NOT NULL,
+    occupied_avg DOUBLE PRECISION NOT NULL,
+    occupied_min BIGINT NOT NULL,
+    occupied_max BIGINT NOT NULL
+);
+
+CREATE INDEX idx_occupancy_samples_series ON occupancy_samples (resolution, floor_id, room_id, bucket_start);
+
 -- Insert sample data in correct order
 -- 1. First, insert floors
 INSERT INTO floors (floor_number, name) VALUES
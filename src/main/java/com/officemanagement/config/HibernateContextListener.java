@@ -1,6 +1,12 @@
 package com.officemanagement.config;
 
+import com.officemanagement.event.OutboxRelay;
+import com.officemanagement.service.OccupancyHistory;
+import com.officemanagement.service.OccupancyIndex;
+import com.officemanagement.service.StatsCounters;
 import com.officemanagement.util.HibernateUtil;
+import com.officemanagement.util.ReplicaRouting;
+import com.officemanagement.util.Startup;
 import javax.servlet.ServletContextListener;
 import javax.servlet.ServletContextEvent;
 import javax.servlet.annotation.WebListener;
@@ -10,12 +16,36 @@ public class HibernateContextListener implements ServletContextListener {
     
     @Override
     public void contextInitialized(ServletContextEvent sce) {
-        // Initialize Hibernate SessionFactory
-        HibernateUtil.getSessionFactory();
+        // Initialize Hibernate SessionFactory in the background, requests get 503 until the
+        // whole startup is done (see ReadinessFilter and GET /api/health/ready)
+        Startup.track(HibernateUtil.bootAsync().thenAccept(sessionFactory -> {
+            // Build the in-memory occupancy index from the seat assignments
+            Startup.phase("occupancy index", () -> OccupancyIndex.getInstance().rebuild(sessionFactory));
+
+            // Seed the totals behind /stats and check them against the database now and then
+            Startup.phase("stats counters", () -> StatsCounters.getInstance().reload(sessionFactory));
+            StatsCounters.getInstance().start(sessionFactory);
+
+            // Deliver change events from the outbox table to the downstream sinks
+            OutboxRelay.getInstance().start(sessionFactory);
+
+            // Record occupancy over time, with hourly and daily rollups
+            OccupancyHistory.getInstance().start(sessionFactory);
+
+            // Serve read-only requests from the read replica, if there is one
+            if (HibernateUtil.getReplicaSessionFactory() != null) {
+                ReplicaRouting.getInstance().start(sessionFactory, HibernateUtil.getReplicaSessionFactory());
+            }
+        }));
     }
     
     @Override
     public void contextDestroyed(ServletContextEvent sce) {
+        ReplicaRouting.getInstance().stop();
+        OccupancyHistory.getInstance().stop();
+        OutboxRelay.getInstance().stop();
+        StatsCounters.getInstance().stop();
+
         // Clean up Hibernate SessionFactory
         HibernateUtil.shutdown();
     }
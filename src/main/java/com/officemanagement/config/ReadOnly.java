@@ -0,0 +1,25 @@
+package com.officemanagement.config;
+
+import org.glassfish.jersey.internal.inject.AnnotationLiteral;
+
+import javax.inject.Qualifier;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Qualifies the read-only Hibernate session of a request, see {@link ReadOnlySessionFeature}.
+ */
+@Qualifier
+@Target({ElementType.FIELD, ElementType.PARAMETER})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReadOnly {
+
+    final class Literal extends AnnotationLiteral<ReadOnly> implements ReadOnly {
+        public static final ReadOnly INSTANCE = new Literal();
+
+        private Literal() {
+        }
+    }
+}
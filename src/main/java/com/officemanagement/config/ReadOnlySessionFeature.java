@@ -0,0 +1,49 @@
+package com.officemanagement.config;
+
+import com.officemanagement.util.HibernateUtil;
+import org.glassfish.jersey.internal.inject.AbstractBinder;
+import org.glassfish.jersey.internal.inject.DisposableSupplier;
+import org.glassfish.jersey.process.internal.RequestScoped;
+import org.hibernate.Session;
+
+import javax.ws.rs.core.Feature;
+import javax.ws.rs.core.FeatureContext;
+import javax.ws.rs.ext.Provider;
+
+/**
+ * Provides a {@link ReadOnly} Hibernate session per request. Resources inject it as
+ * {@code @ReadOnly Provider<Session>}: the session is only opened when a resource method
+ * asks for it, which is after {@link ReplicaRoutingFilter} has chosen the database, and it
+ * is closed when the request ends, whatever the outcome.
+ */
+@Provider
+public class ReadOnlySessionFeature implements Feature {
+
+    @Override
+    public boolean configure(FeatureContext context) {
+        context.register(new AbstractBinder() {
+            @Override
+            protected void configure() {
+                bindFactory(ReadOnlySessionSupplier.class)
+                    .to(Session.class)
+                    .qualifiedBy(ReadOnly.Literal.INSTANCE)
+                    .in(RequestScoped.class);
+            }
+        });
+        return true;
+    }
+
+    static class ReadOnlySessionSupplier implements DisposableSupplier<Session> {
+        @Override
+        public Session get() {
+            return HibernateUtil.openReadOnlySession();
+        }
+
+        @Override
+        public void dispose(Session session) {
+            if (session.isOpen()) {
+                session.close();
+            }
+        }
+    }
+}
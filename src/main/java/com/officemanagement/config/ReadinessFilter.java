@@ -0,0 +1,45 @@
+package com.officemanagement.config;
+
+import com.officemanagement.util.AppSettings;
+import com.officemanagement.util.Startup;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.PreMatching;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.Provider;
+
+/**
+ * Answers 503 with a Retry-After header until the startup is done, instead of holding
+ * requests on the SessionFactory being built. The health and metrics endpoints are always
+ * served.
+ */
+@Provider
+@PreMatching
+public class ReadinessFilter implements ContainerRequestFilter {
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        String path = requestContext.getUriInfo().getPath();
+        if (path.startsWith("/")) {
+            path = path.substring(1);
+        }
+        if (path.startsWith("health") || path.startsWith("metrics")) {
+            return;
+        }
+        Startup.State state = Startup.state();
+        if (state == Startup.State.READY) {
+            return;
+        }
+        String message = state == Startup.State.FAILED
+            ? "Service failed to start"
+            : "Service is starting, retry later";
+        requestContext.abortWith(Response.status(Response.Status.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, AppSettings.getInt("boot.retryAfterSeconds", 5))
+            .type(MediaType.TEXT_PLAIN)
+            .entity(message)
+            .build());
+    }
+}
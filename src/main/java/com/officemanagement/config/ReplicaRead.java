@@ -0,0 +1,17 @@
+package com.officemanagement.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a resource method that only reads, so that {@link ReplicaRoutingFilter} may serve it
+ * from the read replica. The method must read through the {@link ReadOnly} session of the
+ * request: it is opened on first use, once the filter has run, whereas the resource instance
+ * and the SessionFactory taken by its constructor exist before.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReplicaRead {
+}
@@ -0,0 +1,81 @@
+package com.officemanagement.config;
+
+import com.officemanagement.util.ReplicaRouting;
+import org.hibernate.SessionFactory;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.ext.Provider;
+import java.lang.reflect.Method;
+
+/**
+ * Routes {@link ReplicaRead} methods to the read replica when one is configured and
+ * returns a consistency token with every successful write.
+ *
+ * Clients that send the token of their last write back in {@value #CONSISTENCY_TOKEN}
+ * read from the primary until the replica has that write. The response header
+ * {@value #READ_SOURCE} tells which database answered a read.
+ */
+@Provider
+public class ReplicaRoutingFilter implements ContainerRequestFilter, ContainerResponseFilter {
+    public static final String CONSISTENCY_TOKEN = "X-Consistency-Token";
+    public static final String READ_SOURCE = "X-Read-Source";
+
+    @Context
+    private ResourceInfo resourceInfo;
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        // Set for every request, so that nothing leaks from one request to the next
+        ReplicaRouting.use(null);
+        ReplicaRouting routing = ReplicaRouting.getInstance();
+        if (!routing.isEnabled() || !isReplicaRead()) {
+            return;
+        }
+        SessionFactory replica = routing.route(parseToken(requestContext.getHeaderString(CONSISTENCY_TOKEN)));
+        ReplicaRouting.use(replica);
+        requestContext.setProperty(READ_SOURCE, replica != null ? "replica" : "primary");
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        ReplicaRouting.use(null);
+        ReplicaRouting routing = ReplicaRouting.getInstance();
+        if (!routing.isEnabled()) {
+            return;
+        }
+        Object source = requestContext.getProperty(READ_SOURCE);
+        if (source != null) {
+            responseContext.getHeaders().putSingle(READ_SOURCE, source);
+        } else if (isWrite(requestContext.getMethod()) && responseContext.getStatus() < 400) {
+            responseContext.getHeaders().putSingle(CONSISTENCY_TOKEN, routing.writeToken());
+        }
+    }
+
+    private boolean isReplicaRead() {
+        Method method = resourceInfo != null ? resourceInfo.getResourceMethod() : null;
+        return method != null && method.isAnnotationPresent(ReplicaRead.class);
+    }
+
+    private static boolean isWrite(String method) {
+        return !HttpMethod.GET.equals(method) && !HttpMethod.HEAD.equals(method)
+            && !HttpMethod.OPTIONS.equals(method);
+    }
+
+    private static Long parseToken(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(token.trim());
+        } catch (NumberFormatException e) {
+            // Unreadable token: play safe and read from the primary
+            return Long.MAX_VALUE;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.officemanagement.config;
+
+import com.officemanagement.util.Metrics;
+import org.glassfish.jersey.server.model.ResourceMethod;
+import org.glassfish.jersey.server.monitoring.ApplicationEvent;
+import org.glassfish.jersey.server.monitoring.ApplicationEventListener;
+import org.glassfish.jersey.server.monitoring.RequestEvent;
+import org.glassfish.jersey.server.monitoring.RequestEventListener;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.ext.Provider;
+import java.lang.reflect.Method;
+
+/**
+ * Times every request matched to a resource method, from its arrival until the response
+ * is written, into the latency histograms of {@link Metrics}. Event streams are left out:
+ * they last as long as the client stays connected.
+ */
+@Provider
+public class RequestMetricsListener implements ApplicationEventListener {
+
+    @Override
+    public void onEvent(ApplicationEvent event) {
+    }
+
+    @Override
+    public RequestEventListener onRequest(RequestEvent requestEvent) {
+        long start = System.nanoTime();
+        return event -> {
+            if (event.getType() != RequestEvent.Type.FINISHED) {
+                return;
+            }
+            ResourceMethod resourceMethod = event.getUriInfo().getMatchedResourceMethod();
+            if (resourceMethod == null
+                    || resourceMethod.getProducedTypes().contains(MediaType.SERVER_SENT_EVENTS_TYPE)) {
+                return;
+            }
+            Method method = resourceMethod.getInvocable().getDefinitionMethod();
+            int status = event.getContainerResponse() != null ? event.getContainerResponse().getStatus() : 500;
+            Metrics.getInstance().recordRequest(method, status, System.nanoTime() - start);
+        };
+    }
+}
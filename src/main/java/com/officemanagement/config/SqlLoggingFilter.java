@@ -0,0 +1,50 @@
+package com.officemanagement.config;
+
+import com.officemanagement.util.AppSettings;
+import com.officemanagement.util.SqlLogging;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.ext.Provider;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Chooses the requests whose SQL is logged (see {@link SqlLogging}): a random sample of
+ * {@code log.sql.sampleRate}, and any request carrying the {@code X-Log-SQL} header with
+ * the value of {@code log.sql.token}. Without a token the header is ignored.
+ */
+@Provider
+public class SqlLoggingFilter implements ContainerRequestFilter, ContainerResponseFilter {
+    public static final String LOG_SQL = "X-Log-SQL";
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        SqlLogging.end();
+        if (requested(requestContext.getHeaderString(LOG_SQL)) || sampled()) {
+            SqlLogging.begin();
+        }
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        SqlLogging.end();
+    }
+
+    private static boolean requested(String header) {
+        if (header == null) {
+            return false;
+        }
+        String token = AppSettings.get("log.sql.token", "");
+        return !token.isEmpty() && MessageDigest.isEqual(
+            header.trim().getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static boolean sampled() {
+        double rate = AppSettings.getDouble("log.sql.sampleRate", 0);
+        return rate > 0 && ThreadLocalRandom.current().nextDouble() < rate;
+    }
+}
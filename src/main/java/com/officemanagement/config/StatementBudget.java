@@ -0,0 +1,16 @@
+package com.officemanagement.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Maximum number of JDBC statements a resource method may run per request, overriding
+ * {@code query.budget.maxStatements} (see {@link StatementBudgetFilter}).
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface StatementBudget {
+    int value();
+}
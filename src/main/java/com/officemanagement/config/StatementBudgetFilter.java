@@ -0,0 +1,72 @@
+package com.officemanagement.config;
+
+import com.officemanagement.util.AppSettings;
+import com.officemanagement.util.RequestStatements;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.Provider;
+import java.lang.reflect.Method;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Counts the JDBC statements of every request and reports them, with the time they took,
+ * in a {@code Server-Timing} header. A request above its statement budget is logged with
+ * the statements it repeated, or answered with 500 when {@code query.budget.failOnExceed}
+ * is set, so that N+1 queries show up in development and tests.
+ */
+@Provider
+public class StatementBudgetFilter implements ContainerRequestFilter, ContainerResponseFilter {
+    private static final Logger logger = LoggerFactory.getLogger(StatementBudgetFilter.class);
+
+    @Context
+    private ResourceInfo resourceInfo;
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        RequestStatements.begin(requestContext.getMethod(), "/" + requestContext.getUriInfo().getPath());
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        RequestStatements statements = RequestStatements.end();
+        if (statements == null) {
+            return;
+        }
+        if (AppSettings.getBoolean("query.serverTiming", true)) {
+            responseContext.getHeaders().add("Server-Timing", String.format(Locale.ROOT,
+                "db;dur=%.3f;desc=\"%d statements\"", statements.getMillis(), statements.getStatements()));
+        }
+
+        int budget = budget();
+        if (budget < 0 || statements.getStatements() <= budget) {
+            return;
+        }
+        Map<String, Integer> repeated = statements.repeated(AppSettings.getInt("query.budget.repeatThreshold", 3));
+        logger.warn("{} {} ran {} statements, over its budget of {}{}", statements.getMethod(),
+            statements.getPath(), statements.getStatements(), budget,
+            repeated.isEmpty() ? "" : "; repeated (possible N+1): " + repeated);
+        if (AppSettings.getBoolean("query.budget.failOnExceed", false)) {
+            responseContext.setStatus(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode());
+            responseContext.setEntity("Statement budget exceeded: " + statements.getStatements()
+                + " statements, budget " + budget, null, MediaType.TEXT_PLAIN_TYPE);
+        }
+    }
+
+    private int budget() {
+        Method method = resourceInfo != null ? resourceInfo.getResourceMethod() : null;
+        if (method != null && method.isAnnotationPresent(StatementBudget.class)) {
+            return method.getAnnotation(StatementBudget.class).value();
+        }
+        return AppSettings.getInt("query.budget.maxStatements", 25);
+    }
+}
@@ -0,0 +1,138 @@
+package com.officemanagement.event;
+
+import com.officemanagement.model.Employee;
+import com.officemanagement.model.OfficeRoom;
+import com.officemanagement.model.Seat;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Compact diff describing a committed change to an entity on a floor.
+ * Only the fields that changed are carried, together with the floor version
+ * assigned when the change is published.
+ */
+public class FloorChange {
+    public static final String ROOM = "room";
+    public static final String SEAT = "seat";
+
+    public static final String CREATED = "created";
+    public static final String UPDATED = "updated";
+    public static final String DELETED = "deleted";
+
+    private final Long floorId;
+    private final String entityType;
+    private final Long entityId;
+    private final String action;
+    private final Map<String, Object> changes;
+    private long version;
+
+    public FloorChange(Long floorId, String entityType, Long entityId, String action, Map<String, Object> changes) {
+        this.floorId = floorId;
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.action = action;
+        this.changes = changes != null
+            ? Collections.unmodifiableMap(new LinkedHashMap<>(changes))
+            : Collections.emptyMap();
+    }
+
+    public static FloorChange updated(Long floorId, String entityType, Long entityId, Map<String, Object> changes) {
+        return new FloorChange(floorId, entityType, entityId, UPDATED, changes);
+    }
+
+    /**
+     * Snapshot of the occupancy of a seat, taken while its employees collection is loaded
+     */
+    public static FloorChange seatOccupancy(Seat seat) {
+        return seatOccupancy(floorIdOf(seat), seat.getId(), seat.getEmployees().stream()
+            .map(Employee::getId)
+            .collect(Collectors.toList()));
+    }
+
+    /**
+     * Occupancy of a seat known only by its identifiers, as read by set-based queries
+     */
+    public static FloorChange seatOccupancy(Long floorId, Long seatId, Collection<Long> employeeIds) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        changes.put("occupied", !employeeIds.isEmpty());
+        changes.put("employeeIds", employeeIds.stream()
+            .sorted()
+            .collect(Collectors.toList()));
+        return updated(floorId, SEAT, seatId, changes);
+    }
+
+    public static FloorChange seatCreated(Seat seat) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        changes.put("roomId", seat.getRoom().getId());
+        changes.put("seatNumber", seat.getSeatNumber());
+        changes.put("x", seat.getX());
+        changes.put("y", seat.getY());
+        changes.put("width", seat.getWidth());
+        changes.put("height", seat.getHeight());
+        changes.put("rotation", seat.getRotation());
+        return new FloorChange(floorIdOf(seat), SEAT, seat.getId(), CREATED, changes);
+    }
+
+    public static FloorChange seatDeleted(Seat seat) {
+        return seatDeleted(floorIdOf(seat), seat.getId());
+    }
+
+    public static FloorChange seatDeleted(Long floorId, Long seatId) {
+        return new FloorChange(floorId, SEAT, seatId, DELETED, null);
+    }
+
+    public static FloorChange roomCreated(OfficeRoom room) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        changes.put("name", room.getName());
+        changes.put("roomNumber", room.getRoomNumber());
+        changes.put("x", room.getX());
+        changes.put("y", room.getY());
+        changes.put("width", room.getWidth());
+        changes.put("height", room.getHeight());
+        return new FloorChange(room.getFloor() != null ? room.getFloor().getId() : null, ROOM, room.getId(),
+            CREATED, changes);
+    }
+
+    public static FloorChange roomDeleted(Long floorId, Long roomId) {
+        return new FloorChange(floorId, ROOM, roomId, DELETED, null);
+    }
+
+    private static Long floorIdOf(Seat seat) {
+        if (seat.getRoom() == null || seat.getRoom().getFloor() == null) {
+            return null;
+        }
+        return seat.getRoom().getFloor().getId();
+    }
+
+    public Long getFloorId() {
+        return floorId;
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public Map<String, Object> getChanges() {
+        return changes;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    void setVersion(long version) {
+        this.version = version;
+    }
+}
@@ -0,0 +1,131 @@
+package com.officemanagement.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.officemanagement.util.AppSettings;
+import com.officemanagement.util.TransactionHooks;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.ws.rs.sse.Sse;
+import javax.ws.rs.sse.SseEventSink;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fans out committed floor changes to the server-sent event subscribers of that floor.
+ *
+ * Publishing never blocks: each subscriber owns a bounded queue that is drained on a
+ * small shared executor. A subscriber that falls behind loses its pending diffs and
+ * receives a single "resync" event telling it to reload the floor.
+ */
+public class FloorEventBroadcaster {
+    private static final Logger logger = LoggerFactory.getLogger(FloorEventBroadcaster.class);
+    private static final FloorEventBroadcaster INSTANCE = new FloorEventBroadcaster(
+        AppSettings.getInt("events.floor.queueCapacity", 256),
+        AppSettings.getInt("events.floor.dispatchThreads", 2));
+
+    private final ObjectMapper objectMapper;
+    private final int queueCapacity;
+    private final ExecutorService dispatcher;
+    private final ConcurrentHashMap<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Set<FloorSubscription>> subscriptions = new ConcurrentHashMap<>();
+
+    FloorEventBroadcaster(int queueCapacity, int dispatchThreads) {
+        this.queueCapacity = queueCapacity;
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.registerModule(new JavaTimeModule());
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.dispatcher = Executors.newFixedThreadPool(dispatchThreads, runnable -> {
+            Thread thread = new Thread(runnable, "floor-events-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static FloorEventBroadcaster getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Register a new subscriber for the given floor and send it the current version,
+     * which is the baseline any following diff applies to.
+     */
+    public FloorSubscription subscribe(Long floorId, SseEventSink sink, Sse sse) {
+        FloorSubscription subscription = new FloorSubscription(this, floorId, sink, sse, queueCapacity);
+        subscriptions.computeIfAbsent(floorId, id -> new CopyOnWriteArraySet<>()).add(subscription);
+        subscription.sendSync(currentVersion(floorId));
+        logger.debug("New subscriber for floor {} ({} active)", floorId, subscriberCount(floorId));
+        return subscription;
+    }
+
+    /**
+     * Assign the next floor version to the change and queue it for every subscriber.
+     */
+    public void publish(FloorChange change) {
+        if (change.getFloorId() == null) {
+            return;
+        }
+        change.setVersion(versions.computeIfAbsent(change.getFloorId(), id -> new AtomicLong()).incrementAndGet());
+
+        Set<FloorSubscription> floorSubscriptions = subscriptions.get(change.getFloorId());
+        if (floorSubscriptions == null || floorSubscriptions.isEmpty()) {
+            return;
+        }
+
+        // Serialize once, every subscriber shares the same payload
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(change);
+        } catch (JsonProcessingException e) {
+            logger.error("Could not serialize floor change for floor {}", change.getFloorId(), e);
+            return;
+        }
+
+        for (FloorSubscription subscription : floorSubscriptions) {
+            subscription.offer(change.getVersion(), payload);
+        }
+    }
+
+    /**
+     * Publish the changes once the current transaction of the session commits.
+     */
+    public void publishAfterCommit(Session session, List<FloorChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        List<FloorChange> pending = new ArrayList<>(changes);
+        TransactionHooks.afterCommit(session, () -> pending.forEach(this::publish));
+    }
+
+    public long currentVersion(Long floorId) {
+        AtomicLong version = versions.get(floorId);
+        return version != null ? version.get() : 0L;
+    }
+
+    public int subscriberCount(Long floorId) {
+        Set<FloorSubscription> floorSubscriptions = subscriptions.get(floorId);
+        return floorSubscriptions != null ? floorSubscriptions.size() : 0;
+    }
+
+    void schedule(FloorSubscription subscription) {
+        dispatcher.execute(subscription::drain);
+    }
+
+    void unsubscribe(FloorSubscription subscription) {
+        Set<FloorSubscription> floorSubscriptions = subscriptions.get(subscription.getFloorId());
+        if (floorSubscriptions != null) {
+            floorSubscriptions.remove(subscription);
+        }
+    }
+}
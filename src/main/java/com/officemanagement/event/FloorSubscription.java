@@ -0,0 +1,158 @@
+package com.officemanagement.event;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.sse.OutboundSseEvent;
+import javax.ws.rs.sse.Sse;
+import javax.ws.rs.sse.SseEventSink;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A single SSE client listening to one floor.
+ *
+ * Pending diffs sit in a bounded queue; at most one dispatcher task drains it at a time,
+ * so events reach the client in version order.
+ */
+public class FloorSubscription {
+    private static final Logger logger = LoggerFactory.getLogger(FloorSubscription.class);
+
+    static final String SYNC_EVENT = "sync";
+    static final String DIFF_EVENT = "diff";
+    static final String RESYNC_EVENT = "resync";
+
+    private final FloorEventBroadcaster broadcaster;
+    private final Long floorId;
+    private final SseEventSink sink;
+    private final Sse sse;
+    private final BlockingQueue<PendingEvent> queue;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private volatile boolean resyncRequested;
+    private volatile boolean closed;
+
+    FloorSubscription(FloorEventBroadcaster broadcaster, Long floorId, SseEventSink sink, Sse sse, int queueCapacity) {
+        this.broadcaster = broadcaster;
+        this.floorId = floorId;
+        this.sink = sink;
+        this.sse = sse;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    public Long getFloorId() {
+        return floorId;
+    }
+
+    public long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    void sendSync(long version) {
+        send(SYNC_EVENT, version, syncPayload(version));
+    }
+
+    /**
+     * Queue a diff without blocking. When the queue is full the subscriber is considered
+     * too slow: its backlog is discarded and it will be asked to reload the floor.
+     */
+    void offer(long version, String payload) {
+        if (closed) {
+            return;
+        }
+        if (!queue.offer(new PendingEvent(version, payload))) {
+            droppedEvents.addAndGet(queue.size() + 1L);
+            queue.clear();
+            resyncRequested = true;
+        }
+        scheduleDrain();
+    }
+
+    void drain() {
+        try {
+            while (!closed) {
+                if (resyncRequested) {
+                    resyncRequested = false;
+                    queue.clear();
+                    long version = broadcaster.currentVersion(floorId);
+                    send(RESYNC_EVENT, version, syncPayload(version));
+                    continue;
+                }
+                PendingEvent next = queue.poll();
+                if (next == null) {
+                    break;
+                }
+                send(DIFF_EVENT, next.version, next.payload);
+            }
+        } finally {
+            scheduled.set(false);
+        }
+        // An offer may have arrived after the last poll but before the flag was reset
+        if (!closed && (resyncRequested || !queue.isEmpty())) {
+            scheduleDrain();
+        }
+    }
+
+    void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        queue.clear();
+        broadcaster.unsubscribe(this);
+        try {
+            sink.close();
+        } catch (RuntimeException e) {
+            logger.debug("Error closing event sink for floor {}", floorId, e);
+        }
+    }
+
+    private void scheduleDrain() {
+        if (scheduled.compareAndSet(false, true)) {
+            broadcaster.schedule(this);
+        }
+    }
+
+    private void send(String name, long version, String payload) {
+        if (sink.isClosed()) {
+            close();
+            return;
+        }
+        OutboundSseEvent event = sse.newEventBuilder()
+            .name(name)
+            .id(String.valueOf(version))
+            .mediaType(MediaType.APPLICATION_JSON_TYPE)
+            .data(String.class, payload)
+            .build();
+        try {
+            sink.send(event).whenComplete((result, error) -> {
+                if (error != null) {
+                    close();
+                }
+            });
+        } catch (RuntimeException e) {
+            close();
+        }
+    }
+
+    private String syncPayload(long version) {
+        return "{\"floorId\":" + floorId + ",\"version\":" + version + "}";
+    }
+
+    private static final class PendingEvent {
+        private final long version;
+        private final String payload;
+
+        private PendingEvent(long version, String payload) {
+            this.version = version;
+            this.payload = payload;
+        }
+    }
+}
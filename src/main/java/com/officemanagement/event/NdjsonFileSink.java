@@ -0,0 +1,47 @@
+package com.officemanagement.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.officemanagement.model.OutboxEvent;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends events to a local newline-delimited JSON file. Each batch is forced to disk
+ * before it counts as delivered.
+ */
+public class NdjsonFileSink implements OutboxSink {
+    private final Path file;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public NdjsonFileSink(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public String getName() {
+        return "file:" + file;
+    }
+
+    @Override
+    public synchronized void deliver(List<OutboxEvent> events) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(OutboxSink.toNdjson(events, objectMapper).getBytes(StandardCharsets.UTF_8));
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.officemanagement.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.officemanagement.model.OutboxEvent;
+import com.officemanagement.util.AppSettings;
+import org.hibernate.Session;
+
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes change events for downstream systems into the outbox table, inside the
+ * transaction of the change itself: either both commit or neither does. The
+ * {@link OutboxRelay} delivers them afterwards. Nothing is written unless
+ * {@code outbox.enabled} is set.
+ */
+public final class Outbox {
+    public static final String ASSIGNMENT = "assignment";
+
+    private static final boolean ENABLED = AppSettings.getBoolean("outbox.enabled", false);
+    private static final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private Outbox() {
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Record the same diffs that are published on the floor event streams.
+     */
+    public static void record(Session session, List<FloorChange> changes) {
+        for (FloorChange change : changes) {
+            record(session, change.getEntityType() + "." + change.getAction(), change.getEntityType(),
+                change.getEntityId(), change.getFloorId(), change.getChanges());
+        }
+    }
+
+    /**
+     * Record that an employee got or lost a seat.
+     */
+    public static void recordAssignment(Session session, Long employeeId, Long seatId, Long floorId, boolean assigned) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("employeeId", employeeId);
+        payload.put("seatId", seatId);
+        record(session, ASSIGNMENT + "." + (assigned ? FloorChange.CREATED : FloorChange.DELETED), ASSIGNMENT,
+            employeeId, floorId, payload);
+    }
+
+    public static void record(Session session, String eventType, String aggregateType, Long aggregateId,
+                              Long floorId, Object payload) {
+        if (!ENABLED) {
+            return;
+        }
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        session.save(new OutboxEvent(eventType, aggregateType, aggregateId, floorId, json));
+    }
+}
@@ -0,0 +1,307 @@
+package com.officemanagement.event;
+
+import com.officemanagement.model.OutboxEvent;
+import com.officemanagement.util.AppSettings;
+import org.hibernate.LockMode;
+import org.hibernate.LockOptions;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Delivers the events of the outbox table to the configured sinks, in batches and in id
+ * order, on a single background thread.
+ *
+ * Each batch is first claimed in a short transaction, which lets other relays skip it
+ * until the claim runs out after {@code outbox.claimTimeoutMs}, then delivered with no
+ * transaction or row lock held, and deleted in a second transaction once every sink
+ * accepted it. Delivery is therefore at least once: a crash or a failing sink leads to
+ * the same events being sent again. While a batch is retried, sinks that already accepted
+ * part of it are not sent those events again. Failed attempts are retried with
+ * exponential backoff.
+ */
+public class OutboxRelay {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+    private static final OutboxRelay INSTANCE = new OutboxRelay(configuredSinks(),
+        AppSettings.getInt("outbox.batchSize", 100),
+        AppSettings.getLong("outbox.pollIntervalMs", 500),
+        AppSettings.getLong("outbox.maxBackoffMs", 60000),
+        AppSettings.getLong("outbox.claimTimeoutMs", 60000));
+
+    private final List<OutboxSink> sinks;
+    private final int batchSize;
+    private final long pollIntervalMillis;
+    private final long maxBackoffMillis;
+    private final long claimMillis;
+
+    // Events each sink accepted that are not deleted yet, only touched under the monitor
+    private final Map<OutboxSink, Set<Long>> accepted = new HashMap<>();
+    private ScheduledExecutorService scheduler;
+    private int consecutiveFailures;
+    private long nextAttemptAt;
+
+    private final LongAdder deliveredEvents = new LongAdder();
+    private final LongAdder deliveredBatches = new LongAdder();
+    private final LongAdder failedAttempts = new LongAdder();
+    private final LongAdder totalLagMillis = new LongAdder();
+    private final LongAccumulator maxLagMillis = new LongAccumulator(Long::max, 0);
+    private volatile long lastLagMillis;
+    private volatile LocalDateTime lastDeliveryAt;
+
+    OutboxRelay(List<OutboxSink> sinks, int batchSize, long pollIntervalMillis, long maxBackoffMillis,
+                long claimMillis) {
+        this.sinks = new ArrayList<>(sinks);
+        this.batchSize = batchSize;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.claimMillis = claimMillis;
+        this.sinks.forEach(sink -> accepted.put(sink, new HashSet<>()));
+    }
+
+    public static OutboxRelay getInstance() {
+        return INSTANCE;
+    }
+
+    private static List<OutboxSink> configuredSinks() {
+        List<OutboxSink> sinks = new ArrayList<>();
+        String file = AppSettings.get("outbox.file.path", "");
+        if (!file.trim().isEmpty()) {
+            sinks.add(new NdjsonFileSink(Paths.get(file.trim())));
+        }
+        String webhook = AppSettings.get("outbox.webhook.url", "");
+        if (!webhook.trim().isEmpty()) {
+            sinks.add(new WebhookSink(URI.create(webhook.trim()),
+                Duration.ofMillis(AppSettings.getLong("outbox.webhook.timeoutMs", 5000))));
+        }
+        return sinks;
+    }
+
+    /**
+     * Start polling the outbox in the background. Without any sink there is nothing to do.
+     */
+    public synchronized void start(SessionFactory sessionFactory) {
+        if (scheduler != null || !Outbox.isEnabled()) {
+            return;
+        }
+        if (sinks.isEmpty()) {
+            logger.warn("No outbox sink configured, change events stay in the outbox table");
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> poll(sessionFactory),
+            pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+        logger.info("Outbox relay started, delivering to {}", sinkNames());
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    private synchronized void poll(SessionFactory sessionFactory) {
+        if (System.currentTimeMillis() < nextAttemptAt) {
+            return;
+        }
+        try {
+            // Drain the backlog batch after batch, then wait for the next poll
+            while (relayOnce(sessionFactory) == batchSize) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+            }
+            consecutiveFailures = 0;
+        } catch (Exception e) {
+            consecutiveFailures++;
+            long backoff = Math.min(maxBackoffMillis, pollIntervalMillis << Math.min(consecutiveFailures, 20));
+            nextAttemptAt = System.currentTimeMillis() + backoff;
+            logger.warn("Outbox delivery failed ({} in a row), retrying in {} ms: {}",
+                consecutiveFailures, backoff, e.getMessage());
+        }
+    }
+
+    /**
+     * Deliver one batch of pending events to every sink and delete it.
+     *
+     * @return the number of events delivered
+     */
+    public synchronized int relayOnce(SessionFactory sessionFactory) throws Exception {
+        List<OutboxEvent> batch;
+        try {
+            batch = claim(sessionFactory);
+        } catch (RuntimeException e) {
+            failedAttempts.increment();
+            throw e;
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> ids = batch.stream().map(OutboxEvent::getId).collect(Collectors.toList());
+        try {
+            for (OutboxSink sink : sinks) {
+                Set<Long> done = accepted.get(sink);
+                List<OutboxEvent> pending = batch.stream()
+                    .filter(event -> !done.contains(event.getId()))
+                    .collect(Collectors.toList());
+                if (!pending.isEmpty()) {
+                    sink.deliver(pending);
+                    pending.forEach(event -> done.add(event.getId()));
+                }
+            }
+
+            try (Session session = sessionFactory.openSession()) {
+                session.beginTransaction();
+                session.createQuery("delete from OutboxEvent e where e.id in :ids")
+                    .setParameterList("ids", ids)
+                    .executeUpdate();
+                session.getTransaction().commit();
+            }
+        } catch (Exception e) {
+            failedAttempts.increment();
+            release(sessionFactory, ids, e);
+            throw e;
+        }
+        accepted.values().forEach(done -> done.removeAll(ids));
+        recordDelivery(batch);
+        return batch.size();
+    }
+
+    /**
+     * Claim the oldest unclaimed events. Rows another relay is claiming at the same time
+     * are skipped rather than waited for.
+     */
+    private List<OutboxEvent> claim(SessionFactory sessionFactory) {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEvent> batch = session.createQuery(
+                "from OutboxEvent e where e.claimedUntil is null or e.claimedUntil < :now order by e.id",
+                OutboxEvent.class)
+                .setParameter("now", now)
+                .setLockOptions(new LockOptions(LockMode.UPGRADE_SKIPLOCKED))
+                .setMaxResults(batchSize)
+                .list();
+            if (!batch.isEmpty()) {
+                session.createQuery("update OutboxEvent e set e.claimedUntil = :until where e.id in :ids")
+                    .setParameter("until", now.plus(Duration.ofMillis(claimMillis)))
+                    .setParameterList("ids", batch.stream().map(OutboxEvent::getId).collect(Collectors.toList()))
+                    .executeUpdate();
+            }
+            session.getTransaction().commit();
+            return batch;
+        }
+    }
+
+    /**
+     * Give up the claim on a batch that failed, so that the retry does not wait for the
+     * claim to run out. If that fails too, it runs out anyway.
+     */
+    private void release(SessionFactory sessionFactory, List<Long> ids, Exception failure) {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            session.createQuery("update OutboxEvent e set e.claimedUntil = null where e.id in :ids")
+                .setParameterList("ids", ids)
+                .executeUpdate();
+            session.getTransaction().commit();
+        } catch (RuntimeException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    private void recordDelivery(List<OutboxEvent> batch) {
+        LocalDateTime now = LocalDateTime.now();
+        long lag = 0;
+        for (OutboxEvent event : batch) {
+            lag = Math.max(0, Duration.between(event.getCreatedAt(), now).toMillis());
+            totalLagMillis.add(lag);
+            maxLagMillis.accumulate(lag);
+        }
+        lastLagMillis = lag;
+        lastDeliveryAt = now;
+        deliveredEvents.add(batch.size());
+        deliveredBatches.increment();
+    }
+
+    private List<String> sinkNames() {
+        return sinks.stream().map(OutboxSink::getName).collect(Collectors.toList());
+    }
+
+    /**
+     * Delivery counters of this instance, together with the backlog read from the database.
+     */
+    public Metrics metrics(SessionFactory sessionFactory) {
+        long pending;
+        LocalDateTime oldest;
+        try (Session session = sessionFactory.openSession()) {
+            Object[] backlog = session.createQuery(
+                "select count(e), min(e.createdAt) from OutboxEvent e", Object[].class)
+                .uniqueResult();
+            pending = (Long) backlog[0];
+            oldest = (LocalDateTime) backlog[1];
+        }
+        long delivered = deliveredEvents.sum();
+        Metrics metrics = new Metrics();
+        metrics.sinks = Collections.unmodifiableList(sinkNames());
+        metrics.pendingEvents = pending;
+        metrics.oldestPendingAgeMillis = oldest != null
+            ? Math.max(0, Duration.between(oldest, LocalDateTime.now()).toMillis())
+            : 0;
+        metrics.deliveredEvents = delivered;
+        metrics.deliveredBatches = deliveredBatches.sum();
+        metrics.failedAttempts = failedAttempts.sum();
+        metrics.lastLagMillis = lastLagMillis;
+        metrics.maxLagMillis = maxLagMillis.get();
+        metrics.averageLagMillis = delivered > 0 ? totalLagMillis.sum() / (double) delivered : 0;
+        metrics.lastDeliveryAt = lastDeliveryAt;
+        return metrics;
+    }
+
+    public static class Metrics {
+        private List<String> sinks;
+        private long pendingEvents;
+        private long oldestPendingAgeMillis;
+        private long deliveredEvents;
+        private long deliveredBatches;
+        private long failedAttempts;
+        private long lastLagMillis;
+        private long maxLagMillis;
+        private double averageLagMillis;
+        private LocalDateTime lastDeliveryAt;
+
+        public List<String> getSinks() { return sinks; }
+        public long getPendingEvents() { return pendingEvents; }
+        public long getOldestPendingAgeMillis() { return oldestPendingAgeMillis; }
+        public long getDeliveredEvents() { return deliveredEvents; }
+        public long getDeliveredBatches() { return deliveredBatches; }
+        public long getFailedAttempts() { return failedAttempts; }
+        public long getLastLagMillis() { return lastLagMillis; }
+        public long getMaxLagMillis() { return maxLagMillis; }
+        public double getAverageLagMillis() { return averageLagMillis; }
+        public LocalDateTime getLastDeliveryAt() { return lastDeliveryAt; }
+    }
+}
@@ -0,0 +1,39 @@
+package com.officemanagement.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.officemanagement.model.OutboxEvent;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destination of outbox events. A sink either accepts a whole batch or throws, in which
+ * case the relay delivers the batch again later. Events can therefore arrive more than
+ * once; consumers deduplicate on the event id.
+ */
+public interface OutboxSink {
+
+    String getName();
+
+    void deliver(List<OutboxEvent> events) throws IOException;
+
+    /**
+     * One JSON document per event and per line, with the payload embedded as JSON.
+     */
+    static String toNdjson(List<OutboxEvent> events, ObjectMapper objectMapper) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (OutboxEvent event : events) {
+            ObjectNode line = objectMapper.createObjectNode();
+            line.put("id", event.getId());
+            line.put("type", event.getEventType());
+            line.put("aggregateType", event.getAggregateType());
+            line.put("aggregateId", event.getAggregateId());
+            line.put("floorId", event.getFloorId());
+            line.put("createdAt", event.getCreatedAt().toString());
+            line.set("payload", objectMapper.readTree(event.getPayload()));
+            lines.append(objectMapper.writeValueAsString(line)).append('\n');
+        }
+        return lines.toString();
+    }
+}
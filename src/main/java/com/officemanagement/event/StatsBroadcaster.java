@@ -0,0 +1,299 @@
+package com.officemanagement.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.officemanagement.service.StatsCounters;
+import com.officemanagement.service.StatsCounters.Counter;
+import com.officemanagement.util.AppSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.sse.OutboundSseEvent;
+import javax.ws.rs.sse.Sse;
+import javax.ws.rs.sse.SseEventSink;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Pushes the totals of {@code GET /stats} to server-sent event subscribers.
+ *
+ * Nothing polls: the stats counters report every committed change, and changes arriving
+ * within the minimum interval are folded into a single push of the latest snapshot. A
+ * snapshot equal to the last one sent is not pushed at all. One thread serializes each
+ * snapshot once and offers it to every subscriber without blocking.
+ *
+ * As for floor events, each subscriber owns a bounded queue drained on a small shared
+ * executor, so a slow client only delays itself. A subscriber that falls behind loses its
+ * backlog and gets the latest snapshot, which holds everything it missed. Subscribers that
+ * heard nothing for a while get a heartbeat comment, which keeps proxies from closing the
+ * stream and finds clients that went away.
+ */
+public class StatsBroadcaster {
+    private static final Logger logger = LoggerFactory.getLogger(StatsBroadcaster.class);
+    private static final StatsBroadcaster INSTANCE = createInstance();
+
+    static final String STATS_EVENT = "stats";
+    static final String HEARTBEAT_COMMENT = "heartbeat";
+
+    private final Supplier<Map<String, Long>> snapshots;
+    private final long minIntervalMillis;
+    private final int queueCapacity;
+    private final long heartbeatMillis;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ScheduledExecutorService pusher;
+    private final ExecutorService dispatcher;
+    private final ConcurrentHashMap<SseEventSink, Subscriber> subscribers = new ConcurrentHashMap<>();
+    private final AtomicBoolean pushScheduled = new AtomicBoolean();
+    // Only written by the pusher thread
+    private Map<String, Long> lastSnapshot;
+    private volatile long lastPushMillis;
+    private long version;
+
+    StatsBroadcaster(Supplier<Map<String, Long>> snapshots, long minIntervalMillis, int queueCapacity,
+                     int dispatchThreads, long heartbeatMillis) {
+        this.snapshots = snapshots;
+        this.minIntervalMillis = minIntervalMillis;
+        this.queueCapacity = queueCapacity;
+        this.heartbeatMillis = heartbeatMillis;
+        this.pusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stats-push");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger threadCount = new AtomicInteger();
+        this.dispatcher = Executors.newFixedThreadPool(dispatchThreads, runnable -> {
+            Thread thread = new Thread(runnable, "stats-events-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (heartbeatMillis > 0) {
+            pusher.scheduleWithFixedDelay(this::heartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public static StatsBroadcaster getInstance() {
+        return INSTANCE;
+    }
+
+    private static StatsBroadcaster createInstance() {
+        StatsCounters counters = StatsCounters.getInstance();
+        StatsBroadcaster broadcaster = new StatsBroadcaster(() -> {
+            // Same fields as GET /stats
+            Map<String, Long> snapshot = new LinkedHashMap<>();
+            snapshot.put("totalEmployees", counters.get(Counter.EMPLOYEES));
+            snapshot.put("totalFloors", counters.get(Counter.FLOORS));
+            snapshot.put("totalOffices", counters.get(Counter.ROOMS));
+            snapshot.put("totalSeats", counters.get(Counter.SEATS));
+            return snapshot;
+        }, AppSettings.getLong("events.stats.minIntervalMs", 1000),
+            AppSettings.getInt("events.stats.queueCapacity", 16),
+            AppSettings.getInt("events.stats.dispatchThreads", 1),
+            AppSettings.getLong("events.stats.heartbeatMs", 15000));
+        counters.addListener(broadcaster::changed);
+        return broadcaster;
+    }
+
+    /**
+     * Register a subscriber and send it the current snapshot.
+     */
+    public void subscribe(SseEventSink sink, Sse sse) {
+        Subscriber subscriber = new Subscriber(sink, sse);
+        subscribers.put(sink, subscriber);
+        pusher.execute(() -> {
+            Map<String, Long> snapshot = read();
+            if (snapshot == null) {
+                return;
+            }
+            if (snapshot.equals(lastSnapshot)) {
+                // Unless a push made after it joined already reached it
+                if (subscriber.offeredVersion != version) {
+                    subscriber.offer(version, serialize(snapshot));
+                }
+            } else {
+                // Changed while nobody was listening: everyone gets the new snapshot
+                publish(snapshot);
+            }
+        });
+        logger.debug("New stats subscriber ({} active)", subscribers.size());
+    }
+
+    /**
+     * Note that the stats may have changed. The push happens at once when the last one is
+     * older than the minimum interval, otherwise when the interval is over.
+     */
+    public void changed() {
+        if (subscribers.isEmpty() || !pushScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        long delay = Math.max(0, lastPushMillis + minIntervalMillis - System.currentTimeMillis());
+        pusher.schedule(this::push, delay, TimeUnit.MILLISECONDS);
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    private void push() {
+        // Changes from now on need another push
+        pushScheduled.set(false);
+        Map<String, Long> snapshot = read();
+        if (snapshot != null && !snapshot.equals(lastSnapshot)) {
+            publish(snapshot);
+        }
+    }
+
+    private void publish(Map<String, Long> snapshot) {
+        lastSnapshot = snapshot;
+        lastPushMillis = System.currentTimeMillis();
+        version++;
+
+        // Serialize once, every subscriber shares the same payload
+        String payload = serialize(snapshot);
+        subscribers.values().forEach(subscriber -> subscriber.offer(version, payload));
+    }
+
+    private void heartbeat() {
+        long idleSince = System.currentTimeMillis() - heartbeatMillis;
+        for (Subscriber subscriber : subscribers.values()) {
+            if (subscriber.lastSentMillis <= idleSince) {
+                subscriber.offer(-1, null);
+            }
+        }
+    }
+
+    private Map<String, Long> read() {
+        try {
+            return snapshots.get();
+        } catch (RuntimeException e) {
+            logger.warn("Could not read the stats to push: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private String serialize(Map<String, Long> snapshot) {
+        try {
+            return objectMapper.writeValueAsString(snapshot);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize stats", e);
+        }
+    }
+
+    /**
+     * A stats stream client. Pending events sit in a bounded queue; at most one dispatcher
+     * task drains it at a time, so snapshots reach the client in version order.
+     */
+    private final class Subscriber {
+        private final SseEventSink sink;
+        private final Sse sse;
+        private final BlockingQueue<PendingEvent> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        // Only touched by the pusher thread
+        private long offeredVersion = -1;
+        private volatile long lastSentMillis = System.currentTimeMillis();
+        private volatile boolean closed;
+
+        private Subscriber(SseEventSink sink, Sse sse) {
+            this.sink = sink;
+            this.sse = sse;
+        }
+
+        /**
+         * Queue a snapshot, or a heartbeat without payload, without blocking. When the
+         * queue is full the backlog is discarded: the snapshot replaces all of it.
+         */
+        void offer(long id, String payload) {
+            if (closed) {
+                return;
+            }
+            PendingEvent event = new PendingEvent(id, payload);
+            if (payload != null) {
+                offeredVersion = id;
+                if (!queue.offer(event)) {
+                    queue.clear();
+                    queue.offer(event);
+                }
+            } else if (!queue.isEmpty() || !queue.offer(event)) {
+                // Something is on its way already
+                return;
+            }
+            if (scheduled.compareAndSet(false, true)) {
+                dispatcher.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                PendingEvent next;
+                while (!closed && (next = queue.poll()) != null) {
+                    send(next);
+                }
+            } finally {
+                scheduled.set(false);
+            }
+            // An offer may have arrived after the last poll but before the flag was reset
+            if (!closed && !queue.isEmpty() && scheduled.compareAndSet(false, true)) {
+                dispatcher.execute(this::drain);
+            }
+        }
+
+        private void send(PendingEvent pending) {
+            if (sink.isClosed()) {
+                close();
+                return;
+            }
+            OutboundSseEvent event = pending.payload == null
+                ? sse.newEventBuilder().comment(HEARTBEAT_COMMENT).build()
+                : sse.newEventBuilder()
+                    .name(STATS_EVENT)
+                    .id(String.valueOf(pending.id))
+                    .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                    .data(String.class, pending.payload)
+                    .build();
+            try {
+                sink.send(event).whenComplete((result, error) -> {
+                    if (error != null) {
+                        close();
+                    }
+                });
+                lastSentMillis = System.currentTimeMillis();
+            } catch (RuntimeException e) {
+                close();
+            }
+        }
+
+        private void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.clear();
+            subscribers.remove(sink);
+            try {
+                sink.close();
+            } catch (RuntimeException e) {
+                logger.debug("Error closing stats event sink", e);
+            }
+        }
+    }
+
+    private static final class PendingEvent {
+        private final long id;
+        private final String payload;
+
+        private PendingEvent(long id, String payload) {
+            this.id = id;
+            this.payload = payload;
+        }
+    }
+}
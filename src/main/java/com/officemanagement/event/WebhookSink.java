@@ -0,0 +1,58 @@
+package com.officemanagement.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.officemanagement.model.OutboxEvent;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Posts each batch of events as newline-delimited JSON to an HTTP endpoint. Any status
+ * other than 2xx means the batch was not accepted and is retried.
+ */
+public class WebhookSink implements OutboxSink {
+    private final URI endpoint;
+    private final Duration timeout;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public WebhookSink(URI endpoint, Duration timeout) {
+        this.endpoint = endpoint;
+        this.timeout = timeout;
+        this.client = HttpClient.newBuilder()
+            .connectTimeout(timeout)
+            .build();
+    }
+
+    @Override
+    public String getName() {
+        return "webhook:" + endpoint;
+    }
+
+    @Override
+    public void deliver(List<OutboxEvent> events) throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(endpoint)
+            .timeout(timeout)
+            .header("Content-Type", "application/x-ndjson")
+            // Lets the receiver recognize a batch it has already seen
+            .header("X-Outbox-Event-Ids", events.get(0).getId() + "-" + events.get(events.size() - 1).getId())
+            .POST(HttpRequest.BodyPublishers.ofString(OutboxSink.toNdjson(events, objectMapper)))
+            .build();
+        HttpResponse<Void> response;
+        try {
+            response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while posting outbox events to " + endpoint);
+        }
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("Webhook " + endpoint + " answered " + response.statusCode());
+        }
+    }
+}
@@ -19,7 +19,9 @@ public class CORSFilter implements Filter {
 
         httpResponse.setHeader("Access-Control-Allow-Origin", "http://localhost:4200");
         httpResponse.setHeader("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
-        httpResponse.setHeader("Access-Control-Allow-Headers", "Content-Type, Authorization");
+        httpResponse.setHeader("Access-Control-Allow-Headers", "Content-Type, Authorization, X-Consistency-Token, X-Log-SQL");
+        httpResponse.setHeader("Access-Control-Expose-Headers", "X-Consistency-Token, X-Read-Source");
+        httpResponse.setHeader("Timing-Allow-Origin", "http://localhost:4200");
         httpResponse.setHeader("Access-Control-Allow-Credentials", "true");
 
         // Handle preflight requests
@@ -0,0 +1,99 @@
+package com.officemanagement.filter;
+
+import com.officemanagement.util.VirtualThreads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.*;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs each API request on a virtual thread of its own (setting server.virtualThreads).
+ * The container thread goes back to its pool as soon as the request is handed over, so a
+ * slow database parks cheap virtual threads instead of exhausting the container's pool.
+ * How many of them reach the database at once is up to the admission gate of the
+ * connection pool (see GatedConnectionProvider).
+ *
+ * Event streams stay on the container thread, Jersey suspends those requests itself.
+ */
+public class VirtualThreadFilter implements Filter {
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadFilter.class);
+
+    private ExecutorService executor;
+
+    public VirtualThreadFilter() {
+    }
+
+    // For tests, which cannot count on virtual threads
+    VirtualThreadFilter(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        if (executor != null || !VirtualThreads.enabled("server.virtualThreads")) {
+            return;
+        }
+        try {
+            executor = VirtualThreads.newPerTaskExecutor();
+            logger.info("API requests run on virtual threads");
+        } catch (IllegalStateException e) {
+            logger.warn("API requests stay on container threads: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        if (executor == null || !request.isAsyncSupported() || request.isAsyncStarted()
+                || isEventStream((HttpServletRequest) request)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        AsyncContext async = request.startAsync(request, response);
+        // The request ends when the virtual thread is done with it, however long that takes
+        async.setTimeout(0);
+        try {
+            executor.execute(() -> handle(async, chain, request, response));
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            handle(async, chain, request, response);
+        }
+    }
+
+    private static void handle(AsyncContext async, FilterChain chain, ServletRequest request, ServletResponse response) {
+        try {
+            chain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            logger.error("Request {} failed", ((HttpServletRequest) request).getRequestURI(), e);
+            if (!response.isCommitted()) {
+                try {
+                    ((HttpServletResponse) response).sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                } catch (IOException | IllegalStateException ignored) {
+                    // The client is gone or the response was taken over, nothing more to say
+                }
+            }
+        } finally {
+            async.complete();
+        }
+    }
+
+    private static boolean isEventStream(HttpServletRequest request) {
+        String accept = request.getHeader("Accept");
+        String uri = request.getRequestURI();
+        return (accept != null && accept.contains("text/event-stream"))
+            || (uri != null && (uri.endsWith("/events") || uri.endsWith("/stream")));
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+}
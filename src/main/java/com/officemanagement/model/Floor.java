@@ -2,13 +2,21 @@ package com.officemanagement.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import javax.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "floors")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Floor.CACHE_REGION)
+@Table(name = "floors", uniqueConstraints =
+    @UniqueConstraint(name = Floor.UNIQUE_FLOOR_NUMBER, columnNames = "floor_number"))
 public class Floor {
+    public static final String UNIQUE_FLOOR_NUMBER = "uk_floors_floor_number";
+    public static final String CACHE_REGION = "floors";
+    public static final String ROOMS_CACHE_REGION = "floor-rooms";
+
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "floor_seq")
     @SequenceGenerator(name = "floor_seq", sequenceName = "floor_seq", allocationSize = 1)
@@ -24,6 +32,7 @@ public class Floor {
     private LocalDateTime createdAt;
 
     @OneToMany(mappedBy = "floor", fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Floor.ROOMS_CACHE_REGION)
     @JsonIgnoreProperties("floor")
     private Set<OfficeRoom> rooms = new HashSet<>();
     
@@ -0,0 +1,168 @@
+package com.officemanagement.model;
+
+import javax.persistence.*;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Occupancy of a room, a floor or the whole office over one time bucket. Rows are only
+ * ever inserted, and deleted once they fall out of the retention of their resolution.
+ *
+ * Minute rows hold the samples as they were taken; hour and day rows summarize the rows
+ * of the resolution below them. Bucket starts are UTC, so every hour and day has the same
+ * length whatever the daylight saving changes of the office.
+ */
+@Entity
+@Table(name = "occupancy_samples",
+    indexes = @Index(name = "idx_occupancy_samples_series", columnList = "resolution, floor_id, room_id, bucket_start"))
+public class OccupancySample {
+    public static final String SEQUENCE = "occupancy_sample_seq";
+
+    public enum Resolution {
+        MINUTE(ChronoUnit.MINUTES), HOUR(ChronoUnit.HOURS), DAY(ChronoUnit.DAYS);
+
+        private final ChronoUnit unit;
+
+        Resolution(ChronoUnit unit) {
+            this.unit = unit;
+        }
+
+        public Duration getDuration() {
+            return unit.getDuration();
+        }
+
+        /**
+         * Start of the bucket holding the given time.
+         */
+        public LocalDateTime truncate(LocalDateTime time) {
+            return time.truncatedTo(unit);
+        }
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = SEQUENCE)
+    @SequenceGenerator(name = SEQUENCE, sequenceName = SEQUENCE, allocationSize = 50)
+    @Column(name = "id", nullable = false, updatable = false)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "resolution", nullable = false, length = 16)
+    private Resolution resolution;
+
+    // Null for the whole office
+    @Column(name = "floor_id")
+    private Long floorId;
+
+    // Null for a whole floor
+    @Column(name = "room_id")
+    private Long roomId;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    // Number of samples summarized by this row
+    @Column(name = "samples", nullable = false)
+    private int samples;
+
+    @Column(name = "seats", nullable = false)
+    private long seats;
+
+    @Column(name = "occupied_avg", nullable = false)
+    private double occupiedAvg;
+
+    @Column(name = "occupied_min", nullable = false)
+    private long occupiedMin;
+
+    @Column(name = "occupied_max", nullable = false)
+    private long occupiedMax;
+
+    public OccupancySample() {}
+
+    public OccupancySample(Resolution resolution, Long floorId, Long roomId, LocalDateTime bucketStart) {
+        this.resolution = resolution;
+        this.floorId = floorId;
+        this.roomId = roomId;
+        this.bucketStart = bucketStart;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Resolution getResolution() {
+        return resolution;
+    }
+
+    public void setResolution(Resolution resolution) {
+        this.resolution = resolution;
+    }
+
+    public Long getFloorId() {
+        return floorId;
+    }
+
+    public void setFloorId(Long floorId) {
+        this.floorId = floorId;
+    }
+
+    public Long getRoomId() {
+        return roomId;
+    }
+
+    public void setRoomId(Long roomId) {
+        this.roomId = roomId;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public int getSamples() {
+        return samples;
+    }
+
+    public void setSamples(int samples) {
+        this.samples = samples;
+    }
+
+    public long getSeats() {
+        return seats;
+    }
+
+    public void setSeats(long seats) {
+        this.seats = seats;
+    }
+
+    public double getOccupiedAvg() {
+        return occupiedAvg;
+    }
+
+    public void setOccupiedAvg(double occupiedAvg) {
+        this.occupiedAvg = occupiedAvg;
+    }
+
+    public long getOccupiedMin() {
+        return occupiedMin;
+    }
+
+    public void setOccupiedMin(long occupiedMin) {
+        this.occupiedMin = occupiedMin;
+    }
+
+    public long getOccupiedMax() {
+        return occupiedMax;
+    }
+
+    public void setOccupiedMax(long occupiedMax) {
+        this.occupiedMax = occupiedMax;
+    }
+}
@@ -2,13 +2,21 @@ package com.officemanagement.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import javax.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "office_rooms")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = OfficeRoom.CACHE_REGION)
+@Table(name = "office_rooms", uniqueConstraints =
+    @UniqueConstraint(name = OfficeRoom.UNIQUE_ROOM_NUMBER, columnNames = {"floor_id", "room_number"}))
 public class OfficeRoom {
+    public static final String UNIQUE_ROOM_NUMBER = "uk_office_rooms_floor_room_number";
+    public static final String CACHE_REGION = "rooms";
+    public static final String SEATS_CACHE_REGION = "room-seats";
+
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "office_room_seq")
     @SequenceGenerator(name = "office_room_seq", sequenceName = "office_room_seq", allocationSize = 1)
@@ -41,6 +49,7 @@ public class OfficeRoom {
     private LocalDateTime createdAt;
 
     @OneToMany(mappedBy = "room", fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = OfficeRoom.SEATS_CACHE_REGION)
     @JsonIgnoreProperties("room")
     private Set<Seat> seats = new HashSet<>();
 
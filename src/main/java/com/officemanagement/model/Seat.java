@@ -1,18 +1,27 @@
 package com.officemanagement.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import javax.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "seats")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Seat.CACHE_REGION)
+@Table(name = "seats", uniqueConstraints =
+    @UniqueConstraint(name = Seat.UNIQUE_SEAT_NUMBER, columnNames = {"room_id", "seat_number"}))
 public class Seat {
+    public static final String UNIQUE_SEAT_NUMBER = "uk_seats_room_seat_number";
+    public static final String CACHE_REGION = "seats";
+    public static final String SEQUENCE = "seat_seq";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "seat_seq")
-    @SequenceGenerator(name = "seat_seq", sequenceName = "seat_seq", allocationSize = 1)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = SEQUENCE)
+    @SequenceGenerator(name = SEQUENCE, sequenceName = SEQUENCE, allocationSize = 1)
     @Column(name = "id", nullable = false, updatable = false)
     private Long id;
 
@@ -39,9 +48,14 @@ public class Seat {
     @Column(name = "rotation")
     private Float rotation = 0f;
 
+    // Maximum number of employees that can share the seat, null means no limit
+    @Column(name = "capacity")
+    private Integer capacity;
+
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
+    // Not cached: occupancy changes far more often than the seat itself
     @ManyToMany(mappedBy = "seats")
     @JsonIgnoreProperties("seats")
     private Set<Employee> employees = new HashSet<>();
@@ -117,6 +131,31 @@ public class Seat {
         this.rotation = rotation;
     }
 
+    public Integer getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(Integer capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Whether the seat is at its capacity. A seat without a capacity is never full.
+     */
+    @JsonIgnore
+    public boolean isFull() {
+        return capacity != null && employees.size() >= capacity;
+    }
+
+    /**
+     * Whether automatic assignments may pick the seat: below its capacity, or empty when it
+     * has none, so that they spread employees instead of piling them on a shared seat.
+     */
+    @JsonIgnore
+    public boolean isFree() {
+        return employees.size() < (capacity != null ? capacity : 1);
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
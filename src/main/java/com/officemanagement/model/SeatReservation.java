@@ -0,0 +1,94 @@
+package com.officemanagement.model;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Time-slotted hot-desk booking of a seat by an employee.
+ * The booked interval is half-open: [startTime, endTime).
+ */
+@Entity
+@Table(name = "seat_reservations")
+public class SeatReservation {
+    // Named in the schema, a booking of a seat or employee deleted meanwhile violates them
+    public static final String FK_SEAT = "fk_seat_reservations_seat";
+    public static final String FK_EMPLOYEE = "fk_seat_reservations_employee";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "seat_reservation_seq")
+    @SequenceGenerator(name = "seat_reservation_seq", sequenceName = "seat_reservation_seq", allocationSize = 50)
+    @Column(name = "id", nullable = false, updatable = false)
+    private Long id;
+
+    @Column(name = "seat_id", nullable = false)
+    private Long seatId;
+
+    @Column(name = "employee_id", nullable = false)
+    private Long employeeId;
+
+    @Column(name = "start_time", nullable = false)
+    private LocalDateTime startTime;
+
+    @Column(name = "end_time", nullable = false)
+    private LocalDateTime endTime;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    public SeatReservation() {}
+
+    public SeatReservation(Long seatId, Long employeeId, LocalDateTime startTime, LocalDateTime endTime) {
+        this.seatId = seatId;
+        this.employeeId = employeeId;
+        this.startTime = startTime;
+        this.endTime = endTime;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getSeatId() {
+        return seatId;
+    }
+
+    public void setSeatId(Long seatId) {
+        this.seatId = seatId;
+    }
+
+    public Long getEmployeeId() {
+        return employeeId;
+    }
+
+    public void setEmployeeId(Long employeeId) {
+        this.employeeId = employeeId;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalDateTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalDateTime endTime) {
+        this.endTime = endTime;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
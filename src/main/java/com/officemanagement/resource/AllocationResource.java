@@ -0,0 +1,351 @@
+package com.officemanagement.resource;
+
+import com.officemanagement.event.FloorChange;
+import com.officemanagement.event.FloorEventBroadcaster;
+import com.officemanagement.event.Outbox;
+import com.officemanagement.model.Employee;
+import com.officemanagement.model.Seat;
+import com.officemanagement.service.OccupancyIndex;
+import com.officemanagement.service.ReservationEngine;
+import com.officemanagement.service.SeatAllocator;
+import com.officemanagement.service.SeatLocks;
+import com.officemanagement.util.AppSettings;
+import com.officemanagement.util.HibernateUtil;
+import com.officemanagement.util.RowLocks;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.query.Query;
+
+import javax.ws.rs.*;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Bulk seat allocation: compute a plan for many employees at once, review it, then apply
+ * it in a single transaction.
+ */
+@Path("/allocations")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+public class AllocationResource {
+    private static final long DEFAULT_TIME_BUDGET_MS = AppSettings.getLong("allocation.timeBudgetMs", 500);
+    private static final long MAX_TIME_BUDGET_MS = AppSettings.getLong("allocation.maxTimeBudgetMs", 10000);
+    private static final SeatAllocator ALLOCATOR = new SeatAllocator(
+        AppSettings.getInt("allocation.workers", Math.min(4, Runtime.getRuntime().availableProcessors())));
+
+    private final SessionFactory sessionFactory;
+
+    public AllocationResource() {
+        this.sessionFactory = HibernateUtil.getSessionFactory();
+    }
+
+    // DTO for a plan request
+    public static class AllocationRequest {
+        private String occupation;
+        private List<Long> employeeIds;
+        private Long floorId;
+        private List<Long> roomIds;
+        private Long timeBudgetMs;
+        private Long seed;
+
+        public String getOccupation() { return occupation; }
+        public void setOccupation(String occupation) { this.occupation = occupation; }
+        public List<Long> getEmployeeIds() { return employeeIds; }
+        public void setEmployeeIds(List<Long> employeeIds) { this.employeeIds = employeeIds; }
+        public Long getFloorId() { return floorId; }
+        public void setFloorId(Long floorId) { this.floorId = floorId; }
+        public List<Long> getRoomIds() { return roomIds; }
+        public void setRoomIds(List<Long> roomIds) { this.roomIds = roomIds; }
+        public Long getTimeBudgetMs() { return timeBudgetMs; }
+        public void setTimeBudgetMs(Long timeBudgetMs) { this.timeBudgetMs = timeBudgetMs; }
+        public Long getSeed() { return seed; }
+        public void setSeed(Long seed) { this.seed = seed; }
+    }
+
+    // DTO for applying a previewed plan
+    public static class ApplyRequest {
+        private List<PlannedSeat> assignments;
+        private boolean releaseCurrentSeats = true;
+
+        public List<PlannedSeat> getAssignments() { return assignments; }
+        public void setAssignments(List<PlannedSeat> assignments) { this.assignments = assignments; }
+        public boolean isReleaseCurrentSeats() { return releaseCurrentSeats; }
+        public void setReleaseCurrentSeats(boolean releaseCurrentSeats) { this.releaseCurrentSeats = releaseCurrentSeats; }
+    }
+
+    public static class PlannedSeat {
+        private Long employeeId;
+        private Long seatId;
+
+        public Long getEmployeeId() { return employeeId; }
+        public void setEmployeeId(Long employeeId) { this.employeeId = employeeId; }
+        public Long getSeatId() { return seatId; }
+        public void setSeatId(Long seatId) { this.seatId = seatId; }
+    }
+
+    /**
+     * Compute a plan without changing anything. Employees are grouped by occupation, and
+     * only free seats of the target floor or rooms are considered.
+     */
+    @POST
+    @Path("/preview")
+    public Response preview(AllocationRequest request) {
+        if (request == null || (isBlank(request.getOccupation()) && isEmpty(request.getEmployeeIds()))) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity("Either occupation or employeeIds is required")
+                .build();
+        }
+
+        if (request.getFloorId() == null && isEmpty(request.getRoomIds())) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity("Either floorId or roomIds is required")
+                .build();
+        }
+
+        long timeBudget = request.getTimeBudgetMs() != null ? request.getTimeBudgetMs() : DEFAULT_TIME_BUDGET_MS;
+        if (timeBudget < 0 || timeBudget > MAX_TIME_BUDGET_MS) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity("timeBudgetMs must be between 0 and " + MAX_TIME_BUDGET_MS)
+                .build();
+        }
+
+        List<SeatAllocator.Member> members = new ArrayList<>();
+        List<SeatAllocator.Slot> slots = new ArrayList<>();
+        try (Session session = sessionFactory.openSession()) {
+            StringBuilder employeeQuery = new StringBuilder("select e.id, e.occupation from Employee e where 1 = 1");
+            if (!isBlank(request.getOccupation())) {
+                employeeQuery.append(" and lower(e.occupation) = :occupation");
+            }
+            if (!isEmpty(request.getEmployeeIds())) {
+                employeeQuery.append(" and e.id in :employeeIds");
+            }
+            Query<Object[]> employees = session.createQuery(employeeQuery.append(" order by e.id").toString(), Object[].class);
+            if (!isBlank(request.getOccupation())) {
+                employees.setParameter("occupation", request.getOccupation().trim().toLowerCase());
+            }
+            if (!isEmpty(request.getEmployeeIds())) {
+                employees.setParameterList("employeeIds", request.getEmployeeIds());
+            }
+            for (Object[] row : employees.list()) {
+                members.add(new SeatAllocator.Member((Long) row[0], (String) row[1]));
+            }
+
+            // Same notion of a free seat as the automatic assignment, see Seat.isFree()
+            String scope = request.getFloorId() != null ? "s.room.floor.id = :floorId" : "s.room.id in :roomIds";
+            Query<Object[]> seats = session.createQuery(
+                "select s.id, s.room.id, s.x, s.y, s.width, s.height from Seat s " +
+                "where " + scope + " and size(s.employees) < coalesce(s.capacity, 1) " +
+                "order by s.id", Object[].class);
+            if (request.getFloorId() != null) {
+                seats.setParameter("floorId", request.getFloorId());
+            } else {
+                seats.setParameterList("roomIds", request.getRoomIds());
+            }
+            // Seats with hot-desk bookings that have not ended cannot be assigned, see assignSeat
+            ReservationEngine reservations = ReservationEngine.getInstance();
+            LocalDateTime now = LocalDateTime.now();
+            for (Object[] row : seats.list()) {
+                if (reservations.isBookedAfter((Long) row[0], now)) {
+                    continue;
+                }
+                slots.add(new SeatAllocator.Slot((Long) row[0], (Long) row[1],
+                    center(row[2], row[4]), center(row[3], row[5])));
+            }
+        }
+
+        long seed = request.getSeed() != null ? request.getSeed() : System.nanoTime();
+        SeatAllocator.Plan plan = ALLOCATOR.allocate(members, slots, timeBudget, seed);
+        return Response.ok(plan).build();
+    }
+
+    /**
+     * Apply a previewed plan in one transaction: either every employee gets the planned
+     * seat, or nothing changes and the seats that are no longer free are reported.
+     */
+    @POST
+    @Path("/apply")
+    public Response apply(ApplyRequest request) {
+        if (request == null || isEmpty(request.getAssignments())) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity("At least one assignment is required")
+                .build();
+        }
+
+        Set<Long> seatIds = new LinkedHashSet<>();
+        Set<Long> employeeIds = new LinkedHashSet<>();
+        for (PlannedSeat assignment : request.getAssignments()) {
+            if (assignment == null || assignment.getEmployeeId() == null || assignment.getSeatId() == null) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Every assignment needs an employeeId and a seatId")
+                    .build();
+            }
+            if (!seatIds.add(assignment.getSeatId()) || !employeeIds.add(assignment.getEmployeeId())) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Each employee and each seat may appear only once in a plan")
+                    .build();
+            }
+        }
+
+        // Seats the employees sit on now, read without locks only to know which locks to take
+        Set<Long> lockedSeatIds = new TreeSet<>(seatIds);
+        if (request.isReleaseCurrentSeats()) {
+            try (Session session = sessionFactory.openSession()) {
+                lockedSeatIds.addAll(EmployeeResource.assignedSeats(session, employeeIds));
+            }
+        }
+
+        while (true) {
+            // Same lock order as single assignments: in-process stripes first, then seat rows,
+            // on the planned seats and on the seats released by the plan
+            List<Lock> locks = SeatLocks.forSeats(lockedSeatIds);
+            locks.forEach(Lock::lock);
+            try (Session session = sessionFactory.openSession()) {
+                session.beginTransaction();
+                if (!RowLocks.forUpdate(session, "seats", lockedSeatIds).containsAll(seatIds)) {
+                    session.getTransaction().rollback();
+                    return Response.status(Response.Status.BAD_REQUEST)
+                        .entity("Referenced seat does not exist")
+                        .build();
+                }
+
+                // Read again under the locks, an employee may have taken another seat meanwhile
+                if (request.isReleaseCurrentSeats()) {
+                    Set<Long> currentSeatIds = EmployeeResource.assignedSeats(session, employeeIds);
+                    if (!lockedSeatIds.containsAll(currentSeatIds)) {
+                        session.getTransaction().rollback();
+                        lockedSeatIds.addAll(currentSeatIds);
+                        continue;
+                    }
+                }
+                return apply(session, request, seatIds, employeeIds);
+            } finally {
+                for (int i = locks.size() - 1; i >= 0; i--) {
+                    locks.get(i).unlock();
+                }
+            }
+        }
+    }
+
+    private Response apply(Session session, ApplyRequest request, Set<Long> seatIds, Set<Long> employeeIds) {
+        List<Employee> employees = session.createQuery(
+            "select distinct e from Employee e left join fetch e.seats where e.id in :ids", Employee.class)
+            .setParameterList("ids", employeeIds)
+            .list();
+        if (employees.size() != employeeIds.size()) {
+            session.getTransaction().rollback();
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity("Referenced employee does not exist")
+                .build();
+        }
+
+        // Load the occupants of every seat involved with one query
+        Set<Long> touchedSeatIds = new HashSet<>(seatIds);
+        if (request.isReleaseCurrentSeats()) {
+            employees.forEach(employee -> employee.getSeats().forEach(seat -> touchedSeatIds.add(seat.getId())));
+        }
+        Map<Long, Seat> seats = new HashMap<>();
+        session.createQuery("select distinct s from Seat s left join fetch s.employees where s.id in :ids", Seat.class)
+            .setParameterList("ids", touchedSeatIds)
+            .list()
+            .forEach(seat -> seats.put(seat.getId(), seat));
+        Map<Long, Employee> employeesById = new HashMap<>();
+        employees.forEach(employee -> employeesById.put(employee.getId(), employee));
+
+        // Seats held before the plan, to report assignments that really changed
+        Map<Long, Set<Long>> seatsBefore = seatIdsByEmployee(employees);
+
+        if (request.isReleaseCurrentSeats()) {
+            for (Employee employee : employees) {
+                for (Seat seat : new ArrayList<>(employee.getSeats())) {
+                    employee.removeSeat(seat);
+                }
+            }
+        }
+
+        // Bookings are checked under the seat stripes, which reservations take as well
+        ReservationEngine reservations = ReservationEngine.getInstance();
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> unavailable = new ArrayList<>();
+        for (PlannedSeat assignment : request.getAssignments()) {
+            Seat seat = seats.get(assignment.getSeatId());
+            if (!seat.isFree() || reservations.isBookedAfter(seat.getId(), now)) {
+                unavailable.add(seat.getId());
+            } else {
+                employeesById.get(assignment.getEmployeeId()).addSeat(seat);
+            }
+        }
+        if (!unavailable.isEmpty()) {
+            session.getTransaction().rollback();
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Some planned seats are no longer free, preview the allocation again");
+            response.put("unavailableSeatIds", unavailable);
+            return Response.status(Response.Status.CONFLICT).entity(response).build();
+        }
+
+        // Join table rows are written as JDBC batches on flush
+        List<FloorChange> changes = new ArrayList<>();
+        for (Seat seat : seats.values()) {
+            OccupancyIndex.getInstance().seatOccupancyAfterCommit(session, seat);
+            changes.add(FloorChange.seatOccupancy(seat));
+        }
+        Map<Long, Set<Long>> seatsAfter = seatIdsByEmployee(employees);
+        for (Employee employee : employees) {
+            recordAssignments(session, employee.getId(), seatsAfter.get(employee.getId()), seatsBefore.get(employee.getId()), seats, true);
+            recordAssignments(session, employee.getId(), seatsBefore.get(employee.getId()), seatsAfter.get(employee.getId()), seats, false);
+        }
+        Outbox.record(session, changes);
+        FloorEventBroadcaster.getInstance().publishAfterCommit(session, changes);
+        session.getTransaction().commit();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("assigned", request.getAssignments().size());
+        response.put("seatsUpdated", seats.size());
+        return Response.ok(response).build();
+    }
+
+    private static Map<Long, Set<Long>> seatIdsByEmployee(List<Employee> employees) {
+        Map<Long, Set<Long>> seatIds = new HashMap<>();
+        for (Employee employee : employees) {
+            Set<Long> ids = new HashSet<>();
+            employee.getSeats().forEach(seat -> ids.add(seat.getId()));
+            seatIds.put(employee.getId(), ids);
+        }
+        return seatIds;
+    }
+
+    // Record an assignment event for every seat in one set but not in the other
+    private static void recordAssignments(Session session, Long employeeId, Set<Long> seatIds, Set<Long> except,
+                                          Map<Long, Seat> seats, boolean assigned) {
+        for (Long seatId : seatIds) {
+            if (!except.contains(seatId)) {
+                Seat seat = seats.get(seatId);
+                Long floorId = seat.getRoom().getFloor() != null ? seat.getRoom().getFloor().getId() : null;
+                Outbox.recordAssignment(session, employeeId, seatId, floorId, assigned);
+            }
+        }
+    }
+
+    private static double center(Object position, Object size) {
+        double start = position != null ? ((Number) position).doubleValue() : 0;
+        double extent = size != null ? ((Number) size).doubleValue() : 0;
+        return start + extent / 2;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    private static boolean isEmpty(List<?> values) {
+        return values == null || values.isEmpty();
+    }
+}
@@ -0,0 +1,13 @@
+package com.officemanagement.resource;
+
+import java.util.List;
+
+/**
+ * Request body of the bulk delete endpoints
+ */
+public class BulkDeleteRequest {
+    private List<Long> ids;
+
+    public List<Long> getIds() { return ids; }
+    public void setIds(List<Long> ids) { this.ids = ids; }
+}
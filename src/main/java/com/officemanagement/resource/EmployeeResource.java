@@ -1,18 +1,43 @@
 package com.officemanagement.resource;
 
+import com.officemanagement.config.ReadOnly;
+import com.officemanagement.config.ReplicaRead;
+import com.officemanagement.event.FloorChange;
+import com.officemanagement.event.FloorEventBroadcaster;
+import com.officemanagement.event.Outbox;
 import com.officemanagement.model.Employee;
 import com.officemanagement.model.Seat;
+import com.officemanagement.service.OccupancyIndex;
+import com.officemanagement.service.ReservationEngine;
+import com.officemanagement.service.SeatLocks;
+import com.officemanagement.service.StatsCounters;
+import com.officemanagement.util.Batches;
 import com.officemanagement.util.HibernateUtil;
+import com.officemanagement.util.RowLocks;
+import org.hibernate.LockMode;
+import org.hibernate.LockOptions;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.query.Query;
 
+import javax.inject.Inject;
+import javax.inject.Provider;
 import javax.ws.rs.*;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
 
 // Add static inner class for pagination response
 class PageResponse<T> {
@@ -47,56 +72,64 @@ class PageResponse<T> {
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
 public class EmployeeResource {
+    // Seats locked at once when picking a free seat automatically
+    private static final int AUTO_ASSIGN_CANDIDATES = 8;
+    private static final int AUTO_ASSIGN_ATTEMPTS = 3;
+
     private final SessionFactory sessionFactory;
+    // Opened on first use and closed at the end of the request
+    private final Provider<Session> readOnlySession;
 
-    public EmployeeResource() {
+    @Inject
+    public EmployeeResource(@ReadOnly Provider<Session> readOnlySession) {
         this.sessionFactory = HibernateUtil.getSessionFactory();
+        this.readOnlySession = readOnlySession;
     }
 
     @GET
     @Path("/{id}")
+    @ReplicaRead
     public Response getEmployee(@PathParam("id") Long id) {
-        try (Session session = sessionFactory.openSession()) {
-            Employee employee = session.createQuery(
-                "select distinct e from Employee e " +
-                "left join fetch e.seats s " +
-                "left join fetch s.room r " +
-                "left join fetch r.floor f " +
-                "left join fetch s.employees " +
-                "where e.id = :id", 
-                Employee.class)
-                .setParameter("id", id)
-                .uniqueResult();
-            
-            if (employee == null) {
-                return Response.status(Response.Status.NOT_FOUND).build();
-            }
-            
-            return Response.ok(employee).build();
+        Session session = readOnlySession.get();
+        Employee employee = session.createQuery(
+            "select distinct e from Employee e " +
+            "left join fetch e.seats s " +
+            "left join fetch s.room r " +
+            "left join fetch r.floor f " +
+            "left join fetch s.employees " +
+            "where e.id = :id", 
+            Employee.class)
+            .setParameter("id", id)
+            .uniqueResult();
+        
+        if (employee == null) {
+            return Response.status(Response.Status.NOT_FOUND).build();
         }
+        
+        return Response.ok(employee).build();
     }
 
     @GET
     @Path("/{id}/seats")
+    @ReplicaRead
     public Response getEmployeeSeats(@PathParam("id") Long id) {
-        try (Session session = sessionFactory.openSession()) {
-            Employee employee = session.createQuery(
-                "select distinct e from Employee e " +
-                "left join fetch e.seats s " +
-                "left join fetch s.room r " +
-                "left join fetch r.floor f " +
-                "left join fetch s.employees " +
-                "where e.id = :id", 
-                Employee.class)
-                .setParameter("id", id)
-                .uniqueResult();
-            
-            if (employee == null) {
-                return Response.status(Response.Status.NOT_FOUND).build();
-            }
-            
-            return Response.ok(employee.getSeats()).build();
+        Session session = readOnlySession.get();
+        Employee employee = session.createQuery(
+            "select distinct e from Employee e " +
+            "left join fetch e.seats s " +
+            "left join fetch s.room r " +
+            "left join fetch r.floor f " +
+            "left join fetch s.employees " +
+            "where e.id = :id", 
+            Employee.class)
+            .setParameter("id", id)
+            .uniqueResult();
+        
+        if (employee == null) {
+            return Response.status(Response.Status.NOT_FOUND).build();
         }
+        
+        return Response.ok(employee.getSeats()).build();
     }
 
     @POST
@@ -118,6 +151,7 @@ public class EmployeeResource {
             session.beginTransaction();
             employee.setCreatedAt(LocalDateTime.now());
             session.save(employee);
+            StatsCounters.getInstance().addAfterCommit(session, StatsCounters.Counter.EMPLOYEES, 1);
             session.getTransaction().commit();
             return Response.status(Response.Status.CREATED).entity(employee).build();
         }
@@ -126,6 +160,9 @@ public class EmployeeResource {
     @PUT
     @Path("/{id}/assign-seat/{seatId}")
     public Response assignSeat(@PathParam("id") Long employeeId, @PathParam("seatId") Long seatId) {
+        // Requests for the same seat queue up here instead of racing each other to the database
+        Lock seatLock = SeatLocks.forSeat(seatId);
+        seatLock.lock();
         try (Session session = sessionFactory.openSession()) {
             session.beginTransaction();
             
@@ -134,17 +171,41 @@ public class EmployeeResource {
                 return Response.status(Response.Status.NOT_FOUND).entity("Employee not found").build();
             }
 
-            Seat seat = session.get(Seat.class, seatId);
+            // SELECT ... FOR UPDATE: other application instances wait on the seat row
+            Seat seat = session.get(Seat.class, seatId, LockMode.PESSIMISTIC_WRITE);
             if (seat == null) {
                 return Response.status(Response.Status.NOT_FOUND).entity("Seat not found").build();
             }
 
+            // The seat is locked, so the assignments read here cannot change before commit
+            if (!employee.getSeats().contains(seat) && seat.isFull()) {
+                return Response.status(Response.Status.CONFLICT)
+                    .entity("Seat " + seat.getSeatNumber() + " is already at full capacity")
+                    .build();
+            }
+
+            // Hot-desk bookings keep the seat free for their holders
+            if (!employee.getSeats().contains(seat)
+                    && ReservationEngine.getInstance().isBookedAfter(seatId, LocalDateTime.now())) {
+                return Response.status(Response.Status.CONFLICT)
+                    .entity("Seat " + seat.getSeatNumber() + " has upcoming reservations and cannot be assigned")
+                    .build();
+            }
+
             // Add seat to employee's seats
+            boolean newlyAssigned = !employee.getSeats().contains(seat);
             employee.addSeat(seat);
             
             // Update both entities
             session.update(employee);
             
+            OccupancyIndex.getInstance().seatOccupancyAfterCommit(session, seat);
+            List<FloorChange> changes = Collections.singletonList(FloorChange.seatOccupancy(seat));
+            if (newlyAssigned) {
+                Outbox.recordAssignment(session, employeeId, seatId, changes.get(0).getFloorId(), true);
+                Outbox.record(session, changes);
+            }
+            FloorEventBroadcaster.getInstance().publishAfterCommit(session, changes);
             session.getTransaction().commit();
             
             /* 
@@ -180,6 +241,112 @@ public class EmployeeResource {
                 .setParameter("id", employeeId)
                 .uniqueResult();
             
+            return Response.ok(refreshedEmployee).build();
+        } finally {
+            seatLock.unlock();
+        }
+    }
+
+    /**
+     * Assign the first seat with room left on a floor or in a room. Concurrent callers
+     * skip seats that are being assigned by someone else instead of queueing behind them.
+     */
+    @PUT
+    @Path("/{id}/assign-seat/auto")
+    public Response assignAnySeat(
+            @PathParam("id") Long employeeId,
+            @QueryParam("floorId") Long floorId,
+            @QueryParam("roomId") Long roomId) {
+        if (floorId == null && roomId == null) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity("Either floorId or roomId is required")
+                .build();
+        }
+
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+
+            Employee employee = session.get(Employee.class, employeeId);
+            if (employee == null) {
+                return Response.status(Response.Status.NOT_FOUND).entity("Employee not found").build();
+            }
+
+            // Same rule as Seat.isFree()
+            String scope = roomId != null
+                ? "s.room.id = :scopeId"
+                : "s.room.id in (select r.id from OfficeRoom r where r.floor.id = :scopeId)";
+            Query<Seat> candidateQuery = session.createQuery(
+                "from Seat s where " + scope + " " +
+                "and size(s.employees) < coalesce(s.capacity, 1) " +
+                "and :employee not member of s.employees " +
+                "order by s.id", Seat.class)
+                .setParameter("scopeId", roomId != null ? roomId : floorId)
+                .setParameter("employee", employee)
+                // FOR UPDATE SKIP LOCKED where the database supports it
+                .setLockOptions(new LockOptions(LockMode.UPGRADE_SKIPLOCKED))
+                .setMaxResults(AUTO_ASSIGN_CANDIDATES);
+
+            Seat picked = null;
+            Lock seatLock = null;
+            try {
+                for (int attempt = 0; picked == null && attempt < AUTO_ASSIGN_ATTEMPTS; attempt++) {
+                    List<Seat> candidates = candidateQuery.list();
+                    if (candidates.isEmpty()) {
+                        break;
+                    }
+                    LocalDateTime now = LocalDateTime.now();
+                    for (Seat candidate : candidates) {
+                        if (ReservationEngine.getInstance().isBookedAfter(candidate.getId(), now)) {
+                            continue;
+                        }
+                        Lock candidateLock = SeatLocks.forSeat(candidate.getId());
+                        // Busy in this JVM: move on, like SKIP LOCKED does for other instances
+                        if (!candidateLock.tryLock()) {
+                            continue;
+                        }
+                        // Without SKIP LOCKED the query may have waited for a concurrent assignment, check again
+                        if (candidate.isFree()) {
+                            picked = candidate;
+                            seatLock = candidateLock;
+                            break;
+                        }
+                        candidateLock.unlock();
+                    }
+                }
+
+                if (picked == null) {
+                    return Response.status(Response.Status.CONFLICT)
+                        .entity("No free seat available")
+                        .build();
+                }
+
+                employee.addSeat(picked);
+                session.update(employee);
+
+                OccupancyIndex.getInstance().seatOccupancyAfterCommit(session, picked);
+                List<FloorChange> changes = Collections.singletonList(FloorChange.seatOccupancy(picked));
+                Outbox.recordAssignment(session, employeeId, picked.getId(), changes.get(0).getFloorId(), true);
+                Outbox.record(session, changes);
+                FloorEventBroadcaster.getInstance().publishAfterCommit(session, changes);
+                session.getTransaction().commit();
+            } finally {
+                if (seatLock != null) {
+                    seatLock.unlock();
+                }
+            }
+
+            // Reload after commit, see assignSeat
+            Employee refreshedEmployee = session.createQuery(
+                "select distinct e from Employee e " +
+                "left join fetch e.seats s " +
+                "left join fetch s.room r " +
+                "left join fetch r.floor f " +
+                "left join fetch s.employees " +
+                "where e.id = :id", 
+                Employee.class)
+                .setParameter("id", employeeId)
+                .uniqueResult();
+
             return Response.ok(refreshedEmployee).build();
         }
     }
@@ -187,6 +354,9 @@ public class EmployeeResource {
     @DELETE
     @Path("/{employeeId}/unassign-seat/{seatId}")
     public Response unassignSeat(@PathParam("employeeId") Long employeeId, @PathParam("seatId") Long seatId) {
+        // Same locks as assignSeat, so that occupancy counts reach the index in commit order
+        Lock seatLock = SeatLocks.forSeat(seatId);
+        seatLock.lock();
         try (Session session = sessionFactory.openSession()) {
             session.beginTransaction();
             
@@ -195,7 +365,7 @@ public class EmployeeResource {
                 return Response.status(Response.Status.NOT_FOUND).entity("Employee not found").build();
             }
 
-            Seat seat = session.get(Seat.class, seatId);
+            Seat seat = session.get(Seat.class, seatId, LockMode.PESSIMISTIC_WRITE);
             if (seat == null) {
                 return Response.status(Response.Status.NOT_FOUND).entity("Seat not found").build();
             }
@@ -209,6 +379,11 @@ public class EmployeeResource {
             employee.removeSeat(seat);
             session.update(employee);
             
+            OccupancyIndex.getInstance().seatOccupancyAfterCommit(session, seat);
+            List<FloorChange> changes = Collections.singletonList(FloorChange.seatOccupancy(seat));
+            Outbox.recordAssignment(session, employeeId, seatId, changes.get(0).getFloorId(), false);
+            Outbox.record(session, changes);
+            FloorEventBroadcaster.getInstance().publishAfterCommit(session, changes);
             session.getTransaction().commit();
             
             /* 
@@ -234,46 +409,179 @@ public class EmployeeResource {
                 .uniqueResult();
             
             return Response.ok(refreshedEmployee).build();
+        } finally {
+            seatLock.unlock();
         }
     }
 
     @DELETE
     @Path("/{id}")
     public Response deleteEmployee(@PathParam("id") Long id) {
+        if (deleteEmployees(Collections.singleton(id)).isEmpty()) {
+            return Response.status(Response.Status.NOT_FOUND)
+                .entity("Employee not found")
+                .build();
+        }
+        return Response.status(Response.Status.NO_CONTENT).build();
+    }
+
+    /**
+     * Delete many employees at once. Employees that do not exist are reported, not treated as an error.
+     */
+    @POST
+    @Path("/delete")
+    public Response deleteEmployees(BulkDeleteRequest request) {
+        if (request == null || request.getIds() == null || request.getIds().isEmpty()
+            || request.getIds().contains(null)) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity("A non-empty list of employee ids is required")
+                .build();
+        }
+
+        Set<Long> ids = new LinkedHashSet<>(request.getIds());
+        List<Long> deleted = deleteEmployees(ids);
+        ids.removeAll(deleted);
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("deleted", deleted.size());
+        response.put("deletedIds", deleted);
+        response.put("notFoundIds", ids);
+        return Response.ok(response).build();
+    }
+
+    /**
+     * Delete employees together with their seat assignments and reservations using
+     * set-based statements only, without loading the employees or their seats.
+     *
+     * @return the IDs of the employees that existed and were deleted
+     */
+    private List<Long> deleteEmployees(Collection<Long> ids) {
+        // Seats the employees sit on, read without locks only to know which locks to take
+        Set<Long> seatIds;
         try (Session session = sessionFactory.openSession()) {
-            session.beginTransaction();
-            
-            // Check if employee exists
-            Employee employee = session.get(Employee.class, id);
-            if (employee == null) {
-                return Response.status(Response.Status.NOT_FOUND)
-                    .entity("Employee not found")
-                    .build();
+            seatIds = assignedSeats(session, ids);
+        }
+
+        while (true) {
+            // Same lock order as assignments: in-process stripes first, then seat rows
+            List<Lock> locks = SeatLocks.forSeats(seatIds);
+            locks.forEach(Lock::lock);
+            try (Session session = sessionFactory.openSession()) {
+                session.beginTransaction();
+                RowLocks.forUpdate(session, "seats", seatIds);
+
+                // Read again under the locks, an employee may have taken another seat meanwhile
+                Set<Long> freedSeatIds = assignedSeats(session, ids);
+                if (!seatIds.containsAll(freedSeatIds)) {
+                    session.getTransaction().rollback();
+                    seatIds.addAll(freedSeatIds);
+                    continue;
+                }
+                return deleteEmployees(session, ids, freedSeatIds);
+            } finally {
+                for (int i = locks.size() - 1; i >= 0; i--) {
+                    locks.get(i).unlock();
+                }
             }
-            
-            // Get all seats associated with this employee
-            Set<Seat> seats = new HashSet<>(employee.getSeats());
-            
-            // Remove the employee from all associated seats
-            for (Seat seat : seats) {
-                seat.getEmployees().remove(employee);
-                session.update(seat);
+        }
+    }
+
+    private List<Long> deleteEmployees(Session session, Collection<Long> ids, Set<Long> seatIds) {
+        // Employee rows last, so that no assignment to another seat commits before the delete
+        List<Long> existing = RowLocks.forUpdate(session, "employees", ids);
+        if (existing.isEmpty()) {
+            session.getTransaction().rollback();
+            return Collections.emptyList();
+        }
+
+        // Removed assignments as (employee ID, seat ID), for the change events
+        List<Object[]> removedAssignments = new ArrayList<>();
+        for (List<Long> chunk : Batches.partition(existing)) {
+            for (Object row : session.createNativeQuery(
+                    "select employee_id, seat_id from employee_seat_assignments where employee_id in (:ids)")
+                    .setParameterList("ids", chunk)
+                    .list()) {
+                removedAssignments.add((Object[]) row);
             }
-            
-            // Clear the employee's seats collection
-            employee.getSeats().clear();
-            session.update(employee);
-            
-            // Delete the employee
-            session.delete(employee);
-            session.getTransaction().commit();
-            
-            return Response.status(Response.Status.NO_CONTENT).build();
         }
+
+        for (List<Long> chunk : Batches.partition(existing)) {
+            session.createNativeQuery("delete from employee_seat_assignments where employee_id in (:ids)")
+                .addSynchronizedEntityClass(Seat.class)
+                .addSynchronizedEntityClass(Employee.class)
+                .setParameterList("ids", chunk)
+                .executeUpdate();
+            session.createQuery("delete from SeatReservation r where r.employeeId in :ids")
+                .setParameterList("ids", chunk)
+                .executeUpdate();
+            session.createQuery("delete from Employee e where e.id in :ids")
+                .setParameterList("ids", chunk)
+                .executeUpdate();
+        }
+
+        // Read back who still sits on the freed seats, for the index and the floor streams
+        List<FloorChange> changes = new ArrayList<>(seatIds.size());
+        Map<Long, Long> floorBySeat = new HashMap<>();
+        for (List<Long> chunk : Batches.partition(seatIds)) {
+            Map<Long, Object[]> seats = new LinkedHashMap<>();
+            Map<Long, List<Long>> occupants = new HashMap<>();
+            List<?> rows = session.createNativeQuery(
+                "select s.id, s.room_id, r.floor_id, a.employee_id from seats s " +
+                "join office_rooms r on r.id = s.room_id " +
+                "left join employee_seat_assignments a on a.seat_id = s.id " +
+                "where s.id in (:ids)")
+                .setParameterList("ids", chunk)
+                .list();
+            for (Object value : rows) {
+                Object[] row = (Object[]) value;
+                long seatId = ((Number) row[0]).longValue();
+                seats.putIfAbsent(seatId, row);
+                List<Long> employees = occupants.computeIfAbsent(seatId, key -> new ArrayList<>());
+                if (row[3] != null) {
+                    employees.add(((Number) row[3]).longValue());
+                }
+            }
+            seats.forEach((seatId, row) -> {
+                Long roomId = ((Number) row[1]).longValue();
+                Long floorId = row[2] != null ? ((Number) row[2]).longValue() : null;
+                List<Long> employees = occupants.get(seatId);
+                floorBySeat.put(seatId, floorId);
+                OccupancyIndex.getInstance().seatOccupancyAfterCommit(session, seatId, roomId, floorId, employees.size());
+                changes.add(FloorChange.seatOccupancy(floorId, seatId, employees));
+            });
+        }
+
+        ReservationEngine.getInstance().employeesRemovedAfterCommit(session, existing);
+        StatsCounters.getInstance().addAfterCommit(session, StatsCounters.Counter.EMPLOYEES, -existing.size());
+        for (Object[] assignment : removedAssignments) {
+            Long seatId = ((Number) assignment[1]).longValue();
+            Outbox.recordAssignment(session, ((Number) assignment[0]).longValue(), seatId, floorBySeat.get(seatId), false);
+        }
+        Outbox.record(session, changes);
+        FloorEventBroadcaster.getInstance().publishAfterCommit(session, changes);
+        session.getTransaction().commit();
+        return existing;
+    }
+
+    /**
+     * IDs of the seats the employees are assigned to.
+     */
+    static Set<Long> assignedSeats(Session session, Collection<Long> employeeIds) {
+        Set<Long> seatIds = new TreeSet<>();
+        for (List<Long> chunk : Batches.partition(employeeIds)) {
+            for (Object seatId : session.createNativeQuery(
+                    "select distinct seat_id from employee_seat_assignments where employee_id in (:ids)")
+                    .setParameterList("ids", chunk)
+                    .list()) {
+                seatIds.add(((Number) seatId).longValue());
+            }
+        }
+        return seatIds;
     }
 
     @GET
     @Path("/search")
+    @ReplicaRead
     public Response searchEmployees(
             @QueryParam("search") @DefaultValue("") String searchTerm,
             @QueryParam("page") @DefaultValue("0") int page,
@@ -300,35 +608,34 @@ public class EmployeeResource {
                 .build();
         }
 
-        try (Session session = sessionFactory.openSession()) {
-            // Create the base query for total count
-            String countQuery = "select count(distinct e) from Employee e " +
-                    "where lower(e.fullName) like lower(:searchTerm) " +
-                    "or lower(e.occupation) like lower(:searchTerm)";
-            
-            Long totalElements = session.createQuery(countQuery, Long.class)
-                    .setParameter("searchTerm", "%" + searchTerm + "%")
-                    .uniqueResult();
-
-            // Create the main query with pagination
-            String query = "select distinct e from Employee e " +
-                    "left join fetch e.seats s " +
-                    "left join fetch s.room r " +
-                    "left join fetch s.employees " +
-                    "where lower(e.fullName) like lower(:searchTerm) " +
-                    "or lower(e.occupation) like lower(:searchTerm)";
-
-            List<Employee> employees = session.createQuery(query, Employee.class)
-                    .setParameter("searchTerm", "%" + searchTerm + "%")
-                    .setFirstResult(page * size)
-                    .setMaxResults(size)
-                    .list();
-
-            PageResponse<Employee> pageResponse = new PageResponse<>(
-                employees, totalElements, page, size
-            );
-
-            return Response.ok(pageResponse).build();
-        }
+        Session session = readOnlySession.get();
+        // Create the base query for total count
+        String countQuery = "select count(distinct e) from Employee e " +
+                "where lower(e.fullName) like lower(:searchTerm) " +
+                "or lower(e.occupation) like lower(:searchTerm)";
+        
+        Long totalElements = session.createQuery(countQuery, Long.class)
+                .setParameter("searchTerm", "%" + searchTerm + "%")
+                .uniqueResult();
+
+        // Create the main query with pagination
+        String query = "select distinct e from Employee e " +
+                "left join fetch e.seats s " +
+                "left join fetch s.room r " +
+                "left join fetch s.employees " +
+                "where lower(e.fullName) like lower(:searchTerm) " +
+                "or lower(e.occupation) like lower(:searchTerm)";
+
+        List<Employee> employees = session.createQuery(query, Employee.class)
+                .setParameter("searchTerm", "%" + searchTerm + "%")
+                .setFirstResult(page * size)
+                .setMaxResults(size)
+                .list();
+
+        PageResponse<Employee> pageResponse = new PageResponse<>(
+            employees, totalElements, page, size
+        );
+
+        return Response.ok(pageResponse).build();
     }
 }
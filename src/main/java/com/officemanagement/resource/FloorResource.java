@@ -1,85 +1,172 @@
 package com.officemanagement.resource;
 
+import com.officemanagement.config.ReadOnly;
+import com.officemanagement.config.ReplicaRead;
+import com.officemanagement.event.FloorEventBroadcaster;
 import com.officemanagement.model.Floor;
 import com.officemanagement.model.FloorPlanimetry;
+import com.officemanagement.service.FloorHeatmap;
+import com.officemanagement.service.OccupancyIndex;
+import com.officemanagement.service.StatsCounters;
+import com.officemanagement.util.ConstraintViolations;
 import com.officemanagement.util.HibernateUtil;
+import com.officemanagement.util.TransactionHooks;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.persistence.PersistenceException;
 import javax.ws.rs.*;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.sse.Sse;
+import javax.ws.rs.sse.SseEventSink;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Path("/floors")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
 public class FloorResource {
     private final SessionFactory sessionFactory;
+    // Opened on first use and closed at the end of the request
+    private final Provider<Session> readOnlySession;
 
-    public FloorResource() {
+    @Inject
+    public FloorResource(@ReadOnly Provider<Session> readOnlySession) {
         this.sessionFactory = HibernateUtil.getSessionFactory();
+        this.readOnlySession = readOnlySession;
     }
 
     @GET
+    @ReplicaRead
     public Response getAllFloors() {
-        try (Session session = sessionFactory.openSession()) {
-            List<Floor> floors = session.createQuery(
-                    "select new Floor(f.id, f.name, f.floorNumber) from Floor f",
-                    Floor.class).list();
-            return Response.ok(floors).build();
-        }
+        Session session = readOnlySession.get();
+        List<Floor> floors = session.createQuery(
+                "select new Floor(f.id, f.name, f.floorNumber) from Floor f",
+                Floor.class).list();
+        return Response.ok(floors).build();
     }
 
     @GET
     @Path("/{id}")
+    @ReplicaRead
     public Response getFloor(@PathParam("id") Long id) {
+        Session session = readOnlySession.get();
+        // Using criteria to fetch the floor and its associations
+        Floor floor = session.createQuery(
+                "select distinct f from Floor f " +
+                        "left join fetch f.rooms r " +
+                        "left join fetch r.seats s " +
+                        "left join fetch s.employees " +
+                        "where f.id = :id",
+                Floor.class)
+                .setParameter("id", id)
+                .uniqueResult();
+
+        if (floor == null) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+
+        return Response.ok(floor).build();
+    }
+
+    /**
+     * Seat occupancy of a floor, answered from the in-memory occupancy index. Only the
+     * existence of the floor is checked, usually in the second-level cache. Floors
+     * without seats report zero seats.
+     */
+    @GET
+    @Path("/{id}/occupancy")
+    public Response getFloorOccupancy(@PathParam("id") Long id) {
         try (Session session = sessionFactory.openSession()) {
-            // Using criteria to fetch the floor and its associations
-            Floor floor = session.createQuery(
-                    "select distinct f from Floor f " +
-                            "left join fetch f.rooms r " +
-                            "left join fetch r.seats s " +
-                            "left join fetch s.employees " +
-                            "where f.id = :id",
-                    Floor.class)
-                    .setParameter("id", id)
-                    .uniqueResult();
+            if (session.get(Floor.class, id) == null) {
+                return Response.status(Response.Status.NOT_FOUND)
+                    .entity("Floor not found")
+                    .build();
+            }
+        }
 
-            if (floor == null) {
-                return Response.status(Response.Status.NOT_FOUND).build();
+        OccupancyIndex index = OccupancyIndex.getInstance();
+        OccupancyIndex.FloorOccupancy occupancy = index.floorOccupancy(id);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("floorId", id);
+        response.put("totalSeats", occupancy.getTotalSeats());
+        response.put("occupiedSeats", occupancy.getOccupiedSeats());
+        response.put("occupancyRatio", occupancy.getOccupancyRatio());
+        response.put("freeSeatIds", index.freeSeatsOnFloor(id).toArray());
+        response.put("rooms", occupancy.getRooms());
+        return Response.ok(response).build();
+    }
+
+    /**
+     * Server-sent event stream of committed geometry and occupancy diffs for a floor.
+     * The first event ("sync") carries the current floor version; every "diff" event
+     * carries the version it produces. A "resync" event means diffs were dropped and
+     * the client should reload the floor with GET /floors/{id}.
+     */
+    @GET
+    @Path("/{id}/events")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    public void streamFloorEvents(@PathParam("id") Long id, @Context SseEventSink eventSink, @Context Sse sse) {
+        try (Session session = sessionFactory.openSession()) {
+            if (session.get(Floor.class, id) == null) {
+                throw new NotFoundException("Floor not found");
             }
+        }
+        FloorEventBroadcaster.getInstance().subscribe(id, eventSink, sse);
+    }
 
-            return Response.ok(floor).build();
+    /**
+     * Seat utilization of the floor as a heatmap over its floor plan. The image is reused
+     * until the next change published for the floor.
+     */
+    @GET
+    @Path("/{id}/heatmap.png")
+    @Produces("image/png")
+    public Response getHeatmap(@PathParam("id") Long id) {
+        byte[] png = FloorHeatmap.getInstance().render(sessionFactory, id);
+        if (png == null) {
+            return Response.status(Response.Status.NOT_FOUND)
+                    .entity("Floor not found")
+                    .type(MediaType.TEXT_PLAIN)
+                    .build();
         }
+        return Response.ok(png)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=floor" + id + "-heatmap.png")
+                .build();
     }
 
     @GET
     @Path("/{id}/svg")
     @Produces("image/svg+xml")
+    @ReplicaRead
     public Response getFloorPlan(@PathParam("id") Long id) {
-        try (Session session = sessionFactory.openSession()) {
-            // Query the floor_planimetry table directly
-            String planimetry = session.createQuery(
-                    "select fp.planimetry from FloorPlanimetry fp where fp.floorId = :id", String.class)
-                    .setParameter("id", id)
-                    .uniqueResult();
-
-            if (planimetry == null || planimetry.isEmpty()) {
-                return Response.status(Response.Status.NOT_FOUND)
-                        .entity("No floor plan found for floor ID: " + id)
-                        .type(MediaType.TEXT_PLAIN)
-                        .build();
-            }
-
-            return Response.ok(planimetry)
-                    .header(HttpHeaders.CONTENT_TYPE, "image/svg+xml")
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=floor" + id + ".svg")
+        Session session = readOnlySession.get();
+        // Query the floor_planimetry table directly
+        String planimetry = session.createQuery(
+                "select fp.planimetry from FloorPlanimetry fp where fp.floorId = :id", String.class)
+                .setParameter("id", id)
+                .uniqueResult();
+
+        if (planimetry == null || planimetry.isEmpty()) {
+            return Response.status(Response.Status.NOT_FOUND)
+                    .entity("No floor plan found for floor ID: " + id)
+                    .type(MediaType.TEXT_PLAIN)
                     .build();
         }
+
+        return Response.ok(planimetry)
+                .header(HttpHeaders.CONTENT_TYPE, "image/svg+xml")
+                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=floor" + id + ".svg")
+                .build();
     }
 
     @POST
@@ -98,22 +185,24 @@ public class FloorResource {
         }
 
         try (Session session = sessionFactory.openSession()) {
-            // Check for duplicate floor number
-            Long count = session.createQuery(
-                    "SELECT COUNT(f) FROM Floor f WHERE f.floorNumber = :floorNumber", Long.class)
-                    .setParameter("floorNumber", floor.getFloorNumber())
-                    .uniqueResult();
-
-            if (count > 0) {
-                return Response.status(Response.Status.CONFLICT)
-                        .entity("A floor with number " + floor.getFloorNumber() + " already exists")
-                        .build();
-            }
-
             session.beginTransaction();
             floor.setCreatedAt(LocalDateTime.now());
-            session.save(floor);
-            session.getTransaction().commit();
+            try {
+                session.save(floor);
+                StatsCounters.getInstance().addAfterCommit(session, StatsCounters.Counter.FLOORS, 1);
+                session.getTransaction().commit();
+            } catch (PersistenceException e) {
+                // Duplicate floor numbers are rejected by the unique constraint
+                if (session.getTransaction().isActive()) {
+                    session.getTransaction().rollback();
+                }
+                if (ConstraintViolations.violates(e, Floor.UNIQUE_FLOOR_NUMBER)) {
+                    return Response.status(Response.Status.CONFLICT)
+                            .entity("A floor with number " + floor.getFloorNumber() + " already exists")
+                            .build();
+                }
+                throw e;
+            }
             return Response.status(Response.Status.CREATED).entity(floor).build();
         }
     }
@@ -142,37 +231,40 @@ public class FloorResource {
                         .build();
             }
 
-            // Check for duplicate floor number (excluding current floor)
-            Long count = session.createQuery(
-                    "SELECT COUNT(f) FROM Floor f WHERE f.floorNumber = :floorNumber AND f.id != :id", Long.class)
-                    .setParameter("floorNumber", floor.getFloorNumber())
-                    .setParameter("id", id)
-                    .uniqueResult();
-
-            if (count > 0) {
-                return Response.status(Response.Status.CONFLICT)
-                        .entity("A floor with number " + floor.getFloorNumber() + " already exists")
-                        .build();
-            }
-
             session.beginTransaction();
             existingFloor.setName(floor.getName());
             existingFloor.setFloorNumber(floor.getFloorNumber());
             session.update(existingFloor);
             
-            // Fetch the floor with all associations BEFORE committing the transaction
-            // This prevents LazyInitializationException during JSON serialization
-            Floor updatedFloor = session.createQuery(
-                    "select distinct f from Floor f " +
-                            "left join fetch f.rooms r " +
-                            "left join fetch r.seats s " +
-                            "left join fetch s.employees " +
-                            "where f.id = :id",
-                    Floor.class)
-                    .setParameter("id", id)
-                    .uniqueResult();
-            
-            session.getTransaction().commit();
+            Floor updatedFloor;
+            try {
+                // Write the change first, so that a duplicate floor number surfaces here
+                session.flush();
+
+                // Fetch the floor with all associations BEFORE committing the transaction
+                // This prevents LazyInitializationException during JSON serialization
+                updatedFloor = session.createQuery(
+                        "select distinct f from Floor f " +
+                                "left join fetch f.rooms r " +
+                                "left join fetch r.seats s " +
+                                "left join fetch s.employees " +
+                                "where f.id = :id",
+                        Floor.class)
+                        .setParameter("id", id)
+                        .uniqueResult();
+
+                session.getTransaction().commit();
+            } catch (PersistenceException e) {
+                if (session.getTransaction().isActive()) {
+                    session.getTransaction().rollback();
+                }
+                if (ConstraintViolations.violates(e, Floor.UNIQUE_FLOOR_NUMBER)) {
+                    return Response.status(Response.Status.CONFLICT)
+                            .entity("A floor with number " + floor.getFloorNumber() + " already exists")
+                            .build();
+                }
+                throw e;
+            }
             return Response.ok(updatedFloor).build();
         }
     }
@@ -208,6 +300,8 @@ public class FloorResource {
                     .executeUpdate();
 
             session.delete(floor);
+            StatsCounters.getInstance().addAfterCommit(session, StatsCounters.Counter.FLOORS, -1);
+            TransactionHooks.afterCommit(session, () -> FloorHeatmap.getInstance().evict(id));
             session.getTransaction().commit();
             return Response.noContent().build();
         }
@@ -250,6 +344,8 @@ public class FloorResource {
                 session.update(planimetry);
             }
 
+            // The heatmap is drawn over the old plan
+            TransactionHooks.afterCommit(session, () -> FloorHeatmap.getInstance().evict(id));
             session.getTransaction().commit();
             return Response.ok().build();
         }
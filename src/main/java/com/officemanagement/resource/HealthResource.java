@@ -0,0 +1,87 @@
+package com.officemanagement.resource;
+
+import org.hibernate.Session;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import com.officemanagement.util.AppSettings;
+import com.officemanagement.util.HibernateUtil;
+import com.officemanagement.util.ReplicaRouting;
+import com.officemanagement.util.Startup;
+
+/**
+ * Probes for load balancers and orchestrators. Both answer while the SessionFactory is
+ * still being built; only readiness touches the database, and only once it is built.
+ */
+@Path("/health")
+public class HealthResource {
+
+    /**
+     * The process is up and serving requests: 503 once the startup failed, since only a
+     * restart gets it going again
+     */
+    @GET
+    @Path("/live")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response live() {
+        if (Startup.state() == Startup.State.FAILED) {
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("status", "DOWN");
+            body.put("error", Startup.failure());
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE).entity(body).build();
+        }
+        return Response.ok(Map.of("status", "UP")).build();
+    }
+
+    /**
+     * The startup is done and the primary database answers a trivial query: 200 with the
+     * duration of each startup phase, otherwise 503
+     */
+    @GET
+    @Path("/ready")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response ready() {
+        Startup.State state = Startup.state();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", state.name());
+        body.put("phases", Startup.phases());
+        if (ReplicaRouting.getInstance().isEnabled()) {
+            body.put("replica", ReplicaRouting.getInstance().status());
+        }
+        if (state == Startup.State.READY) {
+            String failure = checkDatabase();
+            if (failure == null) {
+                return Response.ok(body).build();
+            }
+            body.put("status", "DATABASE_UNAVAILABLE");
+            body.put("error", failure);
+        }
+        if (state == Startup.State.FAILED) {
+            body.put("error", Startup.failure());
+        }
+        return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, AppSettings.getInt("boot.retryAfterSeconds", 5))
+            .entity(body)
+            .build();
+    }
+
+    /**
+     * Run select 1 on the primary, null when it answered, otherwise why it did not.
+     */
+    private static String checkDatabase() {
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            session.createNativeQuery("select 1")
+                .setTimeout(AppSettings.getInt("health.databaseTimeoutSeconds", 2))
+                .uniqueResult();
+            return null;
+        } catch (RuntimeException e) {
+            return e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.officemanagement.resource;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Response;
+import com.officemanagement.util.Metrics;
+
+/**
+ * Scrape endpoint for Prometheus. Served while the application starts, with the request
+ * and pool metrics only until the SessionFactory is built.
+ */
+@Path("/metrics")
+public class MetricsResource {
+    static final String PROMETHEUS_TEXT = "text/plain; version=0.0.4; charset=utf-8";
+
+    @GET
+    @Produces(PROMETHEUS_TEXT)
+    public Response getMetrics() {
+        return Response.ok(Metrics.getInstance().scrape(), PROMETHEUS_TEXT).build();
+    }
+}
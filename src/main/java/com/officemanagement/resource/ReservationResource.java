@@ -0,0 +1,309 @@
+package com.officemanagement.resource;
+
+import com.officemanagement.config.ReadOnly;
+import com.officemanagement.model.SeatReservation;
+import com.officemanagement.service.OccupancyIndex;
+import com.officemanagement.service.ReservationEngine;
+import com.officemanagement.service.SeatLocks;
+import com.officemanagement.util.AppSettings;
+import com.officemanagement.util.ConstraintViolations;
+import com.officemanagement.util.HibernateUtil;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.ws.rs.*;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+
+@Path("/reservations")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+public class ReservationResource {
+    private static final Logger logger = LoggerFactory.getLogger(ReservationResource.class);
+
+    // Keep in line with hibernate.jdbc.batch_size
+    private static final int BATCH_SIZE = 50;
+    private static final int MAX_RESERVATIONS_PER_REQUEST = 1000;
+
+    private static final LocalTime DAY_START = LocalTime.parse(AppSettings.get("reservations.dayStart", "08:00"));
+    private static final LocalTime MIDDAY = LocalTime.parse(AppSettings.get("reservations.midday", "13:00"));
+    private static final LocalTime DAY_END = LocalTime.parse(AppSettings.get("reservations.dayEnd", "18:00"));
+
+    private final SessionFactory sessionFactory;
+    // Opened on first use and closed at the end of the request
+    private final Provider<Session> readOnlySession;
+
+    @Inject
+    public ReservationResource(@ReadOnly Provider<Session> readOnlySession) {
+        this.sessionFactory = HibernateUtil.getSessionFactory();
+        this.readOnlySession = readOnlySession;
+    }
+
+    /**
+     * Day or half-day slot of a booking
+     */
+    public enum Slot {
+        MORNING, AFTERNOON, FULL_DAY;
+
+        LocalDateTime start(LocalDate date) {
+            return date.atTime(this == AFTERNOON ? MIDDAY : DAY_START);
+        }
+
+        LocalDateTime end(LocalDate date) {
+            return date.atTime(this == MORNING ? MIDDAY : DAY_END);
+        }
+    }
+
+    // DTO for a booking request
+    public static class ReservationRequest {
+        private Long seatId;
+        private Long employeeId;
+        private LocalDate date;
+        private Slot slot = Slot.FULL_DAY;
+
+        public Long getSeatId() { return seatId; }
+        public void setSeatId(Long seatId) { this.seatId = seatId; }
+        public Long getEmployeeId() { return employeeId; }
+        public void setEmployeeId(Long employeeId) { this.employeeId = employeeId; }
+        public LocalDate getDate() { return date; }
+        public void setDate(LocalDate date) { this.date = date; }
+        public Slot getSlot() { return slot; }
+        public void setSlot(Slot slot) { this.slot = slot; }
+    }
+
+    @GET
+    @Path("/{id}")
+    public Response getReservation(@PathParam("id") Long id) {
+        Session session = readOnlySession.get();
+        SeatReservation reservation = session.get(SeatReservation.class, id);
+        if (reservation == null) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        return Response.ok(reservation).build();
+    }
+
+    /**
+     * Book one or more seats. The whole batch is accepted or rejected: conflicts are
+     * checked in memory first, then all bookings are inserted in one batched transaction.
+     */
+    @POST
+    public Response createReservations(List<ReservationRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity("At least one reservation is required")
+                .build();
+        }
+
+        if (requests.size() > MAX_RESERVATIONS_PER_REQUEST) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity("Cannot create more than " + MAX_RESERVATIONS_PER_REQUEST + " reservations at once")
+                .build();
+        }
+
+        LocalDateTime requestedAt = LocalDateTime.now();
+        for (ReservationRequest request : requests) {
+            if (request == null || request.getSeatId() == null || request.getEmployeeId() == null
+                    || request.getDate() == null || request.getSlot() == null) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Seat, employee, date and slot are required for every reservation")
+                    .build();
+            }
+            // A slot that is still running can be booked for the rest of it
+            if (!request.getSlot().end(request.getDate()).isAfter(requestedAt)) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Cannot book a seat in the past")
+                    .build();
+            }
+        }
+
+        try (Session session = sessionFactory.openSession()) {
+            // Validate references with one query per entity type
+            Set<Long> seatIds = new HashSet<>();
+            Set<Long> employeeIds = new HashSet<>();
+            for (ReservationRequest request : requests) {
+                seatIds.add(request.getSeatId());
+                employeeIds.add(request.getEmployeeId());
+            }
+            List<Long> existingSeats = session.createQuery(
+                "select s.id from Seat s where s.id in :ids", Long.class)
+                .setParameterList("ids", seatIds)
+                .list();
+            List<Long> existingEmployees = session.createQuery(
+                "select e.id from Employee e where e.id in :ids", Long.class)
+                .setParameterList("ids", employeeIds)
+                .list();
+            if (existingSeats.size() != seatIds.size()) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Referenced seat does not exist")
+                    .build();
+            }
+            if (existingEmployees.size() != employeeIds.size()) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Referenced employee does not exist")
+                    .build();
+            }
+
+            // Same stripes as the assignment paths, held until the bookings are in the engine:
+            // an assignment either reached the occupancy index before the check below, or
+            // waits and then sees the bookings through isBookedAfter
+            List<Lock> locks = SeatLocks.forSeats(seatIds);
+            locks.forEach(Lock::lock);
+            try {
+                return createReservations(session, requests, seatIds);
+            } finally {
+                for (int i = locks.size() - 1; i >= 0; i--) {
+                    locks.get(i).unlock();
+                }
+            }
+        }
+    }
+
+    private Response createReservations(Session session, List<ReservationRequest> requests, Set<Long> seatIds) {
+        // Seats permanently assigned to someone are not available for hot-desking
+        OccupancyIndex occupancyIndex = OccupancyIndex.getInstance();
+        for (Long seatId : seatIds) {
+            if (occupancyIndex.isOccupied(seatId)) {
+                return Response.status(Response.Status.CONFLICT)
+                    .entity("Seat " + seatId + " is permanently assigned and cannot be booked")
+                    .build();
+            }
+        }
+
+        List<ReservationEngine.Booking> bookings = new ArrayList<>();
+        for (ReservationRequest request : requests) {
+            bookings.add(new ReservationEngine.Booking(request.getSeatId(), request.getEmployeeId(),
+                request.getSlot().start(request.getDate()), request.getSlot().end(request.getDate())));
+        }
+
+        ReservationEngine.Hold hold = ReservationEngine.getInstance().hold(bookings);
+        if (!hold.isAccepted()) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Some reservations conflict with existing bookings");
+            response.put("conflicts", hold.getConflicts());
+            return Response.status(Response.Status.CONFLICT).entity(response).build();
+        }
+
+        try {
+            session.beginTransaction();
+            LocalDateTime now = LocalDateTime.now();
+            List<SeatReservation> reservations = new ArrayList<>();
+            for (int i = 0; i < requests.size(); i++) {
+                ReservationRequest request = requests.get(i);
+                SeatReservation reservation = new SeatReservation(request.getSeatId(), request.getEmployeeId(),
+                    request.getSlot().start(request.getDate()), request.getSlot().end(request.getDate()));
+                reservation.setCreatedAt(now);
+                session.save(reservation);
+                reservations.add(reservation);
+
+                // Send the inserts as JDBC batches and keep the persistence context small
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    session.flush();
+                    session.clear();
+                }
+            }
+            session.getTransaction().commit();
+
+            List<Long> reservationIds = new ArrayList<>();
+            reservations.forEach(reservation -> reservationIds.add(reservation.getId()));
+            hold.confirm(reservationIds);
+
+            return Response.status(Response.Status.CREATED).entity(reservations).build();
+        } catch (RuntimeException e) {
+            hold.release();
+            if (session.getTransaction().isActive()) {
+                session.getTransaction().rollback();
+            }
+            if (ConstraintViolations.violates(e, SeatReservation.FK_SEAT)
+                    || ConstraintViolations.violates(e, SeatReservation.FK_EMPLOYEE)) {
+                return Response.status(Response.Status.CONFLICT)
+                    .entity("A referenced seat or employee was deleted meanwhile")
+                    .build();
+            }
+            logger.error("Failed to create reservations", e);
+            return Response.serverError()
+                .entity("Failed to create reservations")
+                .build();
+        }
+    }
+
+    @DELETE
+    @Path("/{id}")
+    public Response cancelReservation(@PathParam("id") Long id) {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+
+            SeatReservation reservation = session.get(SeatReservation.class, id);
+            if (reservation == null) {
+                return Response.status(Response.Status.NOT_FOUND)
+                    .entity("Reservation not found")
+                    .build();
+            }
+
+            session.delete(reservation);
+            ReservationEngine.getInstance().cancelAfterCommit(session, id);
+            session.getTransaction().commit();
+
+            return Response.noContent().build();
+        }
+    }
+
+    /**
+     * Seats of a floor that are neither permanently assigned nor booked between from and to.
+     * Answered from the in-memory occupancy index and reservation schedules.
+     */
+    @GET
+    @Path("/availability")
+    public Response getAvailability(
+            @QueryParam("floorId") Long floorId,
+            @QueryParam("from") String from,
+            @QueryParam("to") String to) {
+        if (floorId == null || from == null || to == null) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity("floorId, from and to are required")
+                .build();
+        }
+
+        LocalDateTime start;
+        LocalDateTime end;
+        try {
+            start = LocalDateTime.parse(from);
+            end = LocalDateTime.parse(to);
+        } catch (DateTimeParseException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity("from and to must be ISO-8601 date-times, e.g. 2024-03-21T08:00")
+                .build();
+        }
+
+        if (!end.isAfter(start)) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity("to must be after from")
+                .build();
+        }
+
+        Roaring64Bitmap candidates = OccupancyIndex.getInstance().freeSeatsOnFloor(floorId);
+        Roaring64Bitmap free = ReservationEngine.getInstance().freeSeats(candidates, start, end);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("floorId", floorId);
+        response.put("from", from);
+        response.put("to", to);
+        response.put("freeSeatIds", free.toArray());
+        return Response.ok(response).build();
+    }
+}
@@ -1,17 +1,43 @@
 package com.officemanagement.resource;
 
+import com.officemanagement.config.ReadOnly;
+import com.officemanagement.config.ReplicaRead;
+import com.officemanagement.event.FloorChange;
+import com.officemanagement.event.FloorEventBroadcaster;
+import com.officemanagement.event.Outbox;
 import com.officemanagement.model.OfficeRoom;
 import com.officemanagement.model.Seat;
 import com.officemanagement.model.Floor;
+import com.officemanagement.service.OccupancyIndex;
+import com.officemanagement.service.SeatLayout;
+import com.officemanagement.service.StatsCounters;
+import com.officemanagement.util.AppSettings;
+import com.officemanagement.util.ConstraintViolations;
 import com.officemanagement.util.HibernateUtil;
+import com.officemanagement.util.TransactionHooks;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.Transaction;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
 
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.persistence.PersistenceException;
 import javax.ws.rs.*;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.HashMap;
@@ -21,23 +47,73 @@ import java.util.List;
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
 public class RoomResource {
+    private static final int MAX_GENERATED_SEATS = AppSettings.getInt("layout.maxSeats", 1000);
+
     private final SessionFactory sessionFactory;
+    // Opened on first use and closed at the end of the request
+    private final Provider<Session> readOnlySession;
 
-    public RoomResource() {
+    @Inject
+    public RoomResource(@ReadOnly Provider<Session> readOnlySession) {
         this.sessionFactory = HibernateUtil.getSessionFactory();
+        this.readOnlySession = readOnlySession;
+    }
+
+    // DTO for generating a grid of seats in a room
+    public static class SeatLayoutRequest {
+        private Integer rows;
+        private Integer columns;
+        private Float seatWidth = 100f;
+        private Float seatHeight = 100f;
+        private Float spacingX = 0f;
+        private Float spacingY = 0f;
+        private Integer aisleEvery = 0;
+        private Float aisleWidth = 0f;
+        private Float rotation = 0f;
+        private SeatLayout.Numbering numbering = SeatLayout.Numbering.ROW_MAJOR;
+        private String prefix;
+        private Integer startNumber = 1;
+        private Integer capacity;
+
+        public Integer getRows() { return rows; }
+        public void setRows(Integer rows) { this.rows = rows; }
+        public Integer getColumns() { return columns; }
+        public void setColumns(Integer columns) { this.columns = columns; }
+        public Float getSeatWidth() { return seatWidth; }
+        public void setSeatWidth(Float seatWidth) { this.seatWidth = seatWidth; }
+        public Float getSeatHeight() { return seatHeight; }
+        public void setSeatHeight(Float seatHeight) { this.seatHeight = seatHeight; }
+        public Float getSpacingX() { return spacingX; }
+        public void setSpacingX(Float spacingX) { this.spacingX = spacingX; }
+        public Float getSpacingY() { return spacingY; }
+        public void setSpacingY(Float spacingY) { this.spacingY = spacingY; }
+        public Integer getAisleEvery() { return aisleEvery; }
+        public void setAisleEvery(Integer aisleEvery) { this.aisleEvery = aisleEvery; }
+        public Float getAisleWidth() { return aisleWidth; }
+        public void setAisleWidth(Float aisleWidth) { this.aisleWidth = aisleWidth; }
+        public Float getRotation() { return rotation; }
+        public void setRotation(Float rotation) { this.rotation = rotation; }
+        public SeatLayout.Numbering getNumbering() { return numbering; }
+        public void setNumbering(SeatLayout.Numbering numbering) { this.numbering = numbering; }
+        public String getPrefix() { return prefix; }
+        public void setPrefix(String prefix) { this.prefix = prefix; }
+        public Integer getStartNumber() { return startNumber; }
+        public void setStartNumber(Integer startNumber) { this.startNumber = startNumber; }
+        public Integer getCapacity() { return capacity; }
+        public void setCapacity(Integer capacity) { this.capacity = capacity; }
     }
 
     @GET
+    @ReplicaRead
     public Response getAllRooms() {
-        try (Session session = sessionFactory.openSession()) {
-            List<OfficeRoom> rooms = session.createQuery(
-                    "select distinct r from OfficeRoom r " +
-                            "left join fetch r.floor f " +
-                            "left join fetch r.seats s " +
-                            "left join fetch s.employees",
-                    OfficeRoom.class).list();
-            return Response.ok(rooms).build();
-        }
+        Session session = readOnlySession.get();
+        List<OfficeRoom> rooms = session.createQuery(
+                "select distinct r from OfficeRoom r " +
+                        "left join fetch r.floor f " +
+                        "left join fetch r.seats s " +
+                        "left join fetch s.employees",
+                OfficeRoom.class).list();
+        return Response.ok(rooms).build();
     }
 
     @POST
@@ -73,24 +149,26 @@ public class RoomResource {
                     .build();
             }
 
-            // Check for duplicate room number in the same floor
-            Long count = session.createQuery(
-                "SELECT COUNT(r) FROM OfficeRoom r WHERE r.floor.id = :floorId AND r.roomNumber = :roomNumber", Long.class)
-                .setParameter("floorId", floor.getId())
-                .setParameter("roomNumber", room.getRoomNumber())
-                .uniqueResult();
-
-            if (count > 0) {
-                return Response.status(Response.Status.CONFLICT)
-                    .entity("A room with number " + room.getRoomNumber() + " already exists on this floor")
-                    .build();
-            }
-
             room.setFloor(floor);
             room.setCreatedAt(LocalDateTime.now());
             
-            session.save(room);
-            session.getTransaction().commit();
+            try {
+                session.save(room);
+                StatsCounters.getInstance().addAfterCommit(session, StatsCounters.Counter.ROOMS, 1);
+                List<FloorChange> changes = Collections.singletonList(FloorChange.roomCreated(room));
+                Outbox.record(session, changes);
+                FloorEventBroadcaster.getInstance().publishAfterCommit(session, changes);
+                session.getTransaction().commit();
+            } catch (PersistenceException e) {
+                // Duplicate room numbers on a floor are rejected by the unique constraint
+                if (session.getTransaction().isActive()) {
+                    session.getTransaction().rollback();
+                }
+                if (ConstraintViolations.violates(e, OfficeRoom.UNIQUE_ROOM_NUMBER)) {
+                    return duplicateRoomNumber(room.getRoomNumber());
+                }
+                throw e;
+            }
             
             return Response.status(Response.Status.CREATED)
                 .entity(room)
@@ -100,106 +178,213 @@ public class RoomResource {
 
     @GET
     @Path("/{id}")
+    @ReplicaRead
     public Response getRoom(@PathParam("id") Long id) {
-        try (Session session = sessionFactory.openSession()) {
-            OfficeRoom room = session.createQuery(
-                "select distinct r from OfficeRoom r " +
-                "left join fetch r.seats s " +
-                "left join fetch s.employees " +
-                "where r.id = :id", OfficeRoom.class)
-                .setParameter("id", id)
-                .uniqueResult();
-                
-            if (room == null) {
-                return Response.status(Response.Status.NOT_FOUND).build();
-            }
-            
-            // Create a custom response that excludes the floor's planimetry data
-            Map<String, Object> response = new HashMap<>();
-            response.put("id", room.getId());
-            response.put("name", room.getName());
-            response.put("roomNumber", room.getRoomNumber());
-            response.put("x", room.getX());
-            response.put("y", room.getY());
-            response.put("width", room.getWidth());
-            response.put("height", room.getHeight());
-            response.put("createdAt", room.getCreatedAt());
-            
-            // Include floor details but exclude planimetry
-            if (room.getFloor() != null) {
-                Map<String, Object> floorInfo = new HashMap<>();
-                floorInfo.put("id", room.getFloor().getId());
-                floorInfo.put("name", room.getFloor().getName());
-                floorInfo.put("floorNumber", room.getFloor().getFloorNumber());
-                response.put("floor", floorInfo);
-            }
+        Session session = readOnlySession.get();
+        OfficeRoom room = session.createQuery(
+            "select distinct r from OfficeRoom r " +
+            "left join fetch r.seats s " +
+            "left join fetch s.employees " +
+            "where r.id = :id", OfficeRoom.class)
+            .setParameter("id", id)
+            .uniqueResult();
             
-            // Include seats
-            if (room.getSeats() != null && !room.getSeats().isEmpty()) {
-                Set<Map<String, Object>> seatsList = new java.util.HashSet<>();
-                for (Seat seat : room.getSeats()) {
-                    Map<String, Object> seatInfo = new HashMap<>();
-                    seatInfo.put("id", seat.getId());
-                    seatInfo.put("seatNumber", seat.getSeatNumber());
-                    seatInfo.put("x", seat.getX());
-                    seatInfo.put("y", seat.getY());
-                    seatInfo.put("width", seat.getWidth());
-                    seatInfo.put("height", seat.getHeight());
-                    seatInfo.put("rotation", seat.getRotation());
-                    
-                    // Include employee IDs if any are assigned to this seat
-                    if (seat.getEmployees() != null && !seat.getEmployees().isEmpty()) {
-                        Set<Long> employeeIds = seat.getEmployees().stream()
-                            .map(employee -> employee.getId())
-                            .collect(java.util.stream.Collectors.toSet());
-                        seatInfo.put("employeeIds", employeeIds);
-                    }
-                    
-                    seatsList.add(seatInfo);
+        if (room == null) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        
+        // Create a custom response that excludes the floor's planimetry data
+        Map<String, Object> response = new HashMap<>();
+        response.put("id", room.getId());
+        response.put("name", room.getName());
+        response.put("roomNumber", room.getRoomNumber());
+        response.put("x", room.getX());
+        response.put("y", room.getY());
+        response.put("width", room.getWidth());
+        response.put("height", room.getHeight());
+        response.put("createdAt", room.getCreatedAt());
+        
+        // Include floor details but exclude planimetry
+        if (room.getFloor() != null) {
+            Map<String, Object> floorInfo = new HashMap<>();
+            floorInfo.put("id", room.getFloor().getId());
+            floorInfo.put("name", room.getFloor().getName());
+            floorInfo.put("floorNumber", room.getFloor().getFloorNumber());
+            response.put("floor", floorInfo);
+        }
+        
+        // Include seats
+        if (room.getSeats() != null && !room.getSeats().isEmpty()) {
+            Set<Map<String, Object>> seatsList = new java.util.HashSet<>();
+            for (Seat seat : room.getSeats()) {
+                Map<String, Object> seatInfo = new HashMap<>();
+                seatInfo.put("id", seat.getId());
+                seatInfo.put("seatNumber", seat.getSeatNumber());
+                seatInfo.put("x", seat.getX());
+                seatInfo.put("y", seat.getY());
+                seatInfo.put("width", seat.getWidth());
+                seatInfo.put("height", seat.getHeight());
+                seatInfo.put("rotation", seat.getRotation());
+                
+                // Include employee IDs if any are assigned to this seat
+                if (seat.getEmployees() != null && !seat.getEmployees().isEmpty()) {
+                    Set<Long> employeeIds = seat.getEmployees().stream()
+                        .map(employee -> employee.getId())
+                        .collect(java.util.stream.Collectors.toSet());
+                    seatInfo.put("employeeIds", employeeIds);
                 }
-                response.put("seats", seatsList);
+                
+                seatsList.add(seatInfo);
             }
-            
-            return Response.ok(response).build();
+            response.put("seats", seatsList);
         }
+        
+        return Response.ok(response).build();
     }
 
     @GET
     @Path("/{id}/seats")
+    @ReplicaRead
     public Response getRoomSeats(@PathParam("id") Long id) {
-        try (Session session = sessionFactory.openSession()) {
-            OfficeRoom room = session.createQuery(
-                "select distinct r from OfficeRoom r " +
-                "left join fetch r.seats " +
-                "where r.id = :id", OfficeRoom.class)
-                .setParameter("id", id)
-                .uniqueResult();
+        Session session = readOnlySession.get();
+        OfficeRoom room = session.createQuery(
+            "select distinct r from OfficeRoom r " +
+            "left join fetch r.seats " +
+            "where r.id = :id", OfficeRoom.class)
+            .setParameter("id", id)
+            .uniqueResult();
+            
+        if (room == null) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        
+        Set<Seat> seats = room.getSeats();
+        
+        // Create a custom response with just the seat data
+        Set<Map<String, Object>> seatsList = new java.util.HashSet<>();
+        if (seats != null) {
+            for (Seat seat : seats) {
+                Map<String, Object> seatInfo = new HashMap<>();
+                seatInfo.put("id", seat.getId());
+                seatInfo.put("seatNumber", seat.getSeatNumber());
+                seatInfo.put("x", seat.getX());
+                seatInfo.put("y", seat.getY());
+                seatInfo.put("width", seat.getWidth());
+                seatInfo.put("height", seat.getHeight());
+                seatInfo.put("rotation", seat.getRotation());
+                seatInfo.put("roomId", id);
                 
+                seatsList.add(seatInfo);
+            }
+        }
+        
+        return Response.ok(seatsList).build();
+    }
+
+    /**
+     * Create a whole grid of seats in the room with one request. Seat IDs are taken from the
+     * sequence with a single query and the seats are written as one JDBC batch, so the cost
+     * hardly depends on the number of seats.
+     */
+    @POST
+    @Path("/{id}/seats/generate")
+    public Response generateSeats(@PathParam("id") Long id, SeatLayoutRequest request) {
+        String invalid = validate(request);
+        if (invalid != null) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity(invalid)
+                .build();
+        }
+
+        SeatLayout layout = new SeatLayout(request.getRows(), request.getColumns(),
+            request.getSeatWidth(), request.getSeatHeight(), request.getSpacingX(), request.getSpacingY(),
+            request.getAisleEvery(), request.getAisleWidth(), request.getRotation());
+
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+
+            OfficeRoom room = session.get(OfficeRoom.class, id);
             if (room == null) {
-                return Response.status(Response.Status.NOT_FOUND).build();
+                return Response.status(Response.Status.NOT_FOUND)
+                    .entity("Room not found")
+                    .build();
             }
-            
-            Set<Seat> seats = room.getSeats();
-            
-            // Create a custom response with just the seat data
-            Set<Map<String, Object>> seatsList = new java.util.HashSet<>();
-            if (seats != null) {
+
+            String prefix = request.getPrefix() != null ? request.getPrefix() : room.getRoomNumber() + "-";
+            List<SeatLayout.Placement> placements = layout.place(
+                valueOr(room.getX(), 0f), valueOr(room.getY(), 0f),
+                valueOr(room.getWidth(), 0f), valueOr(room.getHeight(), 0f),
+                request.getNumbering(), prefix, request.getStartNumber());
+            if (placements == null) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("The layout does not fit in the room")
+                    .build();
+            }
+
+            List<Long> ids = nextSeatIds(session, placements.size());
+
+            LocalDateTime createdAt = LocalDateTime.now();
+            List<Seat> seats = new ArrayList<>(placements.size());
+            for (int i = 0; i < placements.size(); i++) {
+                SeatLayout.Placement placement = placements.get(i);
+                Seat seat = new Seat();
+                seat.setId(ids.get(i));
+                seat.setRoom(room);
+                seat.setSeatNumber(placement.getSeatNumber());
+                seat.setX(placement.getX());
+                seat.setY(placement.getY());
+                seat.setWidth(placement.getWidth());
+                seat.setHeight(placement.getHeight());
+                seat.setRotation(placement.getRotation());
+                seat.setCapacity(request.getCapacity());
+                seat.setCreatedAt(createdAt);
+                seats.add(seat);
+            }
+
+            try {
+                session.doWork(connection -> insertSeats(connection, seats));
+                // Inserted behind Hibernate's back, so the cached seats of the room are stale
+                TransactionHooks.afterCommit(session, () -> sessionFactory.getCache()
+                    .evictCollectionData(OfficeRoom.class.getName() + ".seats", id));
+                StatsCounters.getInstance().addAfterCommit(session, StatsCounters.Counter.SEATS, seats.size());
+                List<FloorChange> changes = new ArrayList<>(seats.size());
                 for (Seat seat : seats) {
-                    Map<String, Object> seatInfo = new HashMap<>();
-                    seatInfo.put("id", seat.getId());
-                    seatInfo.put("seatNumber", seat.getSeatNumber());
-                    seatInfo.put("x", seat.getX());
-                    seatInfo.put("y", seat.getY());
-                    seatInfo.put("width", seat.getWidth());
-                    seatInfo.put("height", seat.getHeight());
-                    seatInfo.put("rotation", seat.getRotation());
-                    seatInfo.put("roomId", id);
-                    
-                    seatsList.add(seatInfo);
+                    OccupancyIndex.getInstance().seatPlacedAfterCommit(session, seat);
+                    changes.add(FloorChange.seatCreated(seat));
+                }
+                Outbox.record(session, changes);
+                FloorEventBroadcaster.getInstance().publishAfterCommit(session, changes);
+                session.getTransaction().commit();
+            } catch (PersistenceException e) {
+                if (session.getTransaction().isActive()) {
+                    session.getTransaction().rollback();
                 }
+                if (ConstraintViolations.violates(e, Seat.UNIQUE_SEAT_NUMBER)) {
+                    return Response.status(Response.Status.CONFLICT)
+                        .entity("Some of the generated seat numbers already exist in this room")
+                        .build();
+                }
+                throw e;
             }
-            
-            return Response.ok(seatsList).build();
+
+            List<Map<String, Object>> seatsList = new ArrayList<>(seats.size());
+            for (Seat seat : seats) {
+                Map<String, Object> seatInfo = new LinkedHashMap<>();
+                seatInfo.put("id", seat.getId());
+                seatInfo.put("seatNumber", seat.getSeatNumber());
+                seatInfo.put("x", seat.getX());
+                seatInfo.put("y", seat.getY());
+                seatInfo.put("width", seat.getWidth());
+                seatInfo.put("height", seat.getHeight());
+                seatInfo.put("rotation", seat.getRotation());
+                seatInfo.put("roomId", id);
+                seatsList.add(seatInfo);
+            }
+            Map<String, Object> response = new HashMap<>();
+            response.put("roomId", id);
+            response.put("created", seatsList.size());
+            response.put("seats", seatsList);
+            return Response.status(Response.Status.CREATED).entity(response).build();
         }
     }
 
@@ -245,31 +430,62 @@ public class RoomResource {
                     .build();
             }
 
-            // Check for duplicate room number in the same floor (excluding current room)
-            Long count = session.createQuery(
-                "SELECT COUNT(r) FROM OfficeRoom r WHERE r.floor.id = :floorId AND r.roomNumber = :roomNumber AND r.id != :roomId", Long.class)
-                .setParameter("floorId", floor.getId())
-                .setParameter("roomNumber", room.getRoomNumber())
-                .setParameter("roomId", id)
-                .uniqueResult();
-
-            if (count > 0) {
-                return Response.status(Response.Status.CONFLICT)
-                    .entity("A room with number " + room.getRoomNumber() + " already exists on this floor")
-                    .build();
+            // Seats follow their room when it moves to another floor
+            Long previousFloorId = existingRoom.getFloor() != null ? existingRoom.getFloor().getId() : null;
+            boolean moved = !floor.getId().equals(previousFloorId);
+            if (moved) {
+                OccupancyIndex.getInstance().roomMovedAfterCommit(session, id, floor.getId());
             }
 
             existingRoom.setName(room.getName());
             existingRoom.setRoomNumber(room.getRoomNumber());
             existingRoom.setFloor(floor);
             
-            session.update(existingRoom);
-            session.getTransaction().commit();
+            try {
+                session.update(existingRoom);
+                List<FloorChange> changes = new ArrayList<>();
+                if (moved) {
+                    // The room and its seats leave one floor plan and appear on the other
+                    for (Seat seat : existingRoom.getSeats()) {
+                        changes.add(FloorChange.seatDeleted(previousFloorId, seat.getId()));
+                    }
+                    changes.add(FloorChange.roomDeleted(previousFloorId, id));
+                    changes.add(FloorChange.roomCreated(existingRoom));
+                    for (Seat seat : existingRoom.getSeats()) {
+                        changes.add(FloorChange.seatCreated(seat));
+                        if (!seat.getEmployees().isEmpty()) {
+                            changes.add(FloorChange.seatOccupancy(seat));
+                        }
+                    }
+                } else {
+                    Map<String, Object> roomChanges = new LinkedHashMap<>();
+                    roomChanges.put("name", existingRoom.getName());
+                    roomChanges.put("roomNumber", existingRoom.getRoomNumber());
+                    changes.add(FloorChange.updated(floor.getId(), FloorChange.ROOM, id, roomChanges));
+                }
+                Outbox.record(session, changes);
+                FloorEventBroadcaster.getInstance().publishAfterCommit(session, changes);
+                session.getTransaction().commit();
+            } catch (PersistenceException e) {
+                if (session.getTransaction().isActive()) {
+                    session.getTransaction().rollback();
+                }
+                if (ConstraintViolations.violates(e, OfficeRoom.UNIQUE_ROOM_NUMBER)) {
+                    return duplicateRoomNumber(room.getRoomNumber());
+                }
+                throw e;
+            }
             
             return Response.ok(existingRoom).build();
         }
     }
 
+    private static Response duplicateRoomNumber(String roomNumber) {
+        return Response.status(Response.Status.CONFLICT)
+            .entity("A room with number " + roomNumber + " already exists on this floor")
+            .build();
+    }
+
     @DELETE
     @Path("/{id}")
     public Response deleteRoom(@PathParam("id") Long id) {
@@ -297,6 +513,11 @@ public class RoomResource {
             }
             
             session.delete(room);
+            StatsCounters.getInstance().addAfterCommit(session, StatsCounters.Counter.ROOMS, -1);
+            List<FloorChange> changes = Collections.singletonList(
+                FloorChange.roomDeleted(room.getFloor() != null ? room.getFloor().getId() : null, id));
+            Outbox.record(session, changes);
+            FloorEventBroadcaster.getInstance().publishAfterCommit(session, changes);
             session.getTransaction().commit();
             
             return Response.noContent().build();
@@ -321,8 +542,13 @@ public class RoomResource {
                     .build();
             }
             
-            // Update room geometry
-            updateGeometryProperties(room, geometryData);
+            // Update room geometry, keeping track of what changed for the floor event stream
+            Long floorId = room.getFloor() != null ? room.getFloor().getId() : null;
+            List<FloorChange> changes = new ArrayList<>();
+            Map<String, Object> roomChanges = updateGeometryProperties(room, geometryData);
+            if (!roomChanges.isEmpty()) {
+                changes.add(FloorChange.updated(floorId, FloorChange.ROOM, room.getId(), roomChanges));
+            }
             session.update(room);
             
             // Check if seat geometries were provided
@@ -350,12 +576,17 @@ public class RoomResource {
                     Seat seat = session.get(Seat.class, seatId);
                     if (seat != null && seat.getRoom().getId().equals(id)) {
                         // Update seat geometry
-                        updateGeometryProperties(seat, seatGeometry);
+                        Map<String, Object> seatChanges = updateGeometryProperties(seat, seatGeometry);
+                        if (!seatChanges.isEmpty()) {
+                            changes.add(FloorChange.updated(floorId, FloorChange.SEAT, seat.getId(), seatChanges));
+                        }
                         session.update(seat);
                     }
                 }
             }
             
+            Outbox.record(session, changes);
+            FloorEventBroadcaster.getInstance().publishAfterCommit(session, changes);
             transaction.commit();
             
             // Query the room again to return fresh data
@@ -406,6 +637,86 @@ public class RoomResource {
         }
     }
     
+    private static String validate(SeatLayoutRequest request) {
+        if (request == null || request.getRows() == null || request.getColumns() == null
+            || request.getRows() < 1 || request.getColumns() < 1) {
+            return "rows and columns must be at least 1";
+        }
+        if ((long) request.getRows() * request.getColumns() > MAX_GENERATED_SEATS) {
+            return "At most " + MAX_GENERATED_SEATS + " seats can be generated at once";
+        }
+        if (request.getSeatWidth() == null || request.getSeatHeight() == null
+            || request.getSeatWidth() <= 0 || request.getSeatHeight() <= 0) {
+            return "Seat width and height must be positive";
+        }
+        if (request.getSpacingX() == null || request.getSpacingY() == null || request.getAisleWidth() == null
+            || request.getSpacingX() < 0 || request.getSpacingY() < 0 || request.getAisleWidth() < 0) {
+            return "Spacing and aisle width must not be negative";
+        }
+        if (request.getAisleEvery() == null || request.getAisleEvery() < 0) {
+            return "aisleEvery must not be negative";
+        }
+        if (request.getRotation() == null || request.getNumbering() == null
+            || request.getStartNumber() == null || request.getStartNumber() < 0) {
+            return "rotation, numbering and a non-negative startNumber are required";
+        }
+        if (request.getCapacity() != null && request.getCapacity() <= 0) {
+            return "Seat capacity must be positive";
+        }
+        return null;
+    }
+
+    private static void insertSeats(Connection connection, List<Seat> seats) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "insert into seats (id, seat_number, room_id, x, y, width, height, rotation, capacity, created_at) " +
+                "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (Seat seat : seats) {
+                statement.setLong(1, seat.getId());
+                statement.setString(2, seat.getSeatNumber());
+                statement.setLong(3, seat.getRoom().getId());
+                statement.setFloat(4, seat.getX());
+                statement.setFloat(5, seat.getY());
+                statement.setFloat(6, seat.getWidth());
+                statement.setFloat(7, seat.getHeight());
+                statement.setFloat(8, seat.getRotation());
+                statement.setObject(9, seat.getCapacity(), Types.INTEGER);
+                statement.setTimestamp(10, Timestamp.valueOf(seat.getCreatedAt()));
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    /**
+     * Draw IDs for new seats from the seat sequence. On PostgreSQL (and H2, which has
+     * generate_series too) all of them come in one round trip; other databases get the
+     * next-value statement of their dialect once per seat.
+     */
+    private static List<Long> nextSeatIds(Session session, int count) {
+        Dialect dialect = session.getSessionFactory().unwrap(SessionFactoryImplementor.class)
+            .getJdbcServices().getDialect();
+        List<Long> ids = new ArrayList<>(count);
+        if (dialect instanceof PostgreSQL81Dialect || dialect instanceof H2Dialect) {
+            for (Object value : session.createNativeQuery(
+                    "select " + dialect.getSelectSequenceNextValString(Seat.SEQUENCE) +
+                    " from generate_series(1, :count)")
+                    .setParameter("count", count)
+                    .list()) {
+                ids.add(((Number) value).longValue());
+            }
+        } else {
+            String nextValue = dialect.getSequenceNextValString(Seat.SEQUENCE);
+            for (int i = 0; i < count; i++) {
+                ids.add(((Number) session.createNativeQuery(nextValue).uniqueResult()).longValue());
+            }
+        }
+        return ids;
+    }
+
+    private static float valueOr(Float value, float fallback) {
+        return value != null ? value : fallback;
+    }
+
     /**
      * Helper method to extract a float value from a geometry data map
      */
@@ -422,39 +733,74 @@ public class RoomResource {
     }
     
     /**
-     * Update geometry properties for a room
+     * Update geometry properties for a room, returning the properties that actually changed
      */
-    private void updateGeometryProperties(OfficeRoom room, Map<String, Object> geometryData) {
+    private Map<String, Object> updateGeometryProperties(OfficeRoom room, Map<String, Object> geometryData) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        
         Float x = getFloatValue(geometryData, "x");
-        if (x != null) room.setX(x);
+        if (x != null && !x.equals(room.getX())) {
+            room.setX(x);
+            changes.put("x", x);
+        }
         
         Float y = getFloatValue(geometryData, "y");
-        if (y != null) room.setY(y);
+        if (y != null && !y.equals(room.getY())) {
+            room.setY(y);
+            changes.put("y", y);
+        }
         
         Float width = getFloatValue(geometryData, "width");
-        if (width != null) room.setWidth(width);
+        if (width != null && !width.equals(room.getWidth())) {
+            room.setWidth(width);
+            changes.put("width", width);
+        }
         
         Float height = getFloatValue(geometryData, "height");
-        if (height != null) room.setHeight(height);
+        if (height != null && !height.equals(room.getHeight())) {
+            room.setHeight(height);
+            changes.put("height", height);
+        }
+        
+        return changes;
     }
     
     /**
-     * Update geometry properties for a seat
+     * Update geometry properties for a seat, returning the properties that actually changed
      */
-    private void updateGeometryProperties(Seat seat, Map<String, Object> geometryData) {
+    private Map<String, Object> updateGeometryProperties(Seat seat, Map<String, Object> geometryData) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        
         Float x = getFloatValue(geometryData, "x");
-        if (x != null) seat.setX(x);
+        if (x != null && !x.equals(seat.getX())) {
+            seat.setX(x);
+            changes.put("x", x);
+        }
         
         Float y = getFloatValue(geometryData, "y");
-        if (y != null) seat.setY(y);
+        if (y != null && !y.equals(seat.getY())) {
+            seat.setY(y);
+            changes.put("y", y);
+        }
         
         Float width = getFloatValue(geometryData, "width");
-        if (width != null) seat.setWidth(width);
+        if (width != null && !width.equals(seat.getWidth())) {
+            seat.setWidth(width);
+            changes.put("width", width);
+        }
         
         Float height = getFloatValue(geometryData, "height");
-        if (height != null) seat.setHeight(height);
+        if (height != null && !height.equals(seat.getHeight())) {
+            seat.setHeight(height);
+            changes.put("height", height);
+        }
         
         Float rotation = getFloatValue(geometryData, "rotation");
-        if (rotation != null) seat.setRotation(rotation);
+        if (rotation != null && !rotation.equals(seat.getRotation())) {
+            seat.setRotation(rotation);
+            changes.put("rotation", rotation);
+        }
+        
+        return changes;
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -1,48 +1,77 @@
 package com.officemanagement.resource;
 
+import com.officemanagement.config.ReadOnly;
+import com.officemanagement.config.ReplicaRead;
+import com.officemanagement.event.FloorChange;
+import com.officemanagement.event.FloorEventBroadcaster;
+import com.officemanagement.event.Outbox;
 import com.officemanagement.model.Seat;
 import com.officemanagement.model.OfficeRoom;
 import com.officemanagement.model.Employee;
+import com.officemanagement.service.OccupancyIndex;
+import com.officemanagement.service.ReservationEngine;
+import com.officemanagement.service.SeatLocks;
+import com.officemanagement.service.StatsCounters;
+import com.officemanagement.util.Batches;
+import com.officemanagement.util.ConstraintViolations;
 import com.officemanagement.util.HibernateUtil;
+import com.officemanagement.util.RowLocks;
+import org.hibernate.LockMode;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.persistence.PersistenceException;
 import javax.ws.rs.*;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.locks.Lock;
 
 @Path("/seats")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
 public class SeatResource {
     private final SessionFactory sessionFactory;
+    // Opened on first use and closed at the end of the request
+    private final Provider<Session> readOnlySession;
 
-    public SeatResource() {
+    @Inject
+    public SeatResource(@ReadOnly Provider<Session> readOnlySession) {
         this.sessionFactory = HibernateUtil.getSessionFactory();
+        this.readOnlySession = readOnlySession;
     }
 
     @GET
     @Path("/{id}")
+    @ReplicaRead
     public Response getSeat(@PathParam("id") Long id) {
-        try (Session session = sessionFactory.openSession()) {
-            // Using join fetch to eagerly load the employees collection
-            Seat seat = session.createQuery(
-                "select distinct s from Seat s " +
-                "left join fetch s.employees " +
-                "left join fetch s.room " +
-                "where s.id = :id", Seat.class)
-                .setParameter("id", id)
-                .uniqueResult();
-                
-            if (seat == null) {
-                return Response.status(Response.Status.NOT_FOUND).build();
-            }
+        Session session = readOnlySession.get();
+        // Using join fetch to eagerly load the employees collection
+        Seat seat = session.createQuery(
+            "select distinct s from Seat s " +
+            "left join fetch s.employees " +
+            "left join fetch s.room " +
+            "where s.id = :id", Seat.class)
+            .setParameter("id", id)
+            .uniqueResult();
             
-            return Response.ok(seat).build();
+        if (seat == null) {
+            return Response.status(Response.Status.NOT_FOUND).build();
         }
+        
+        return Response.ok(seat).build();
     }
 
     @POST
@@ -57,6 +86,12 @@ public class SeatResource {
                     .build();
             }
             
+            if (seat.getCapacity() != null && seat.getCapacity() <= 0) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Seat capacity must be positive")
+                    .build();
+            }
+            
             // Validate that room is provided
             if (seat.getRoom() == null || seat.getRoom().getId() == null) {
                 return Response.status(Response.Status.BAD_REQUEST)
@@ -72,20 +107,6 @@ public class SeatResource {
                     .build();
             }
 
-            // Check for duplicate seat number in the same room
-            Long count = session.createQuery(
-                "SELECT COUNT(s) FROM Seat s WHERE s.room.id = :roomId AND s.seatNumber = :seatNumber",
-                Long.class)
-                .setParameter("roomId", room.getId())
-                .setParameter("seatNumber", seat.getSeatNumber().trim())
-                .getSingleResult();
-
-            if (count > 0) {
-                return Response.status(Response.Status.CONFLICT)
-                    .entity("A seat with number " + seat.getSeatNumber() + " already exists in this room")
-                    .build();
-            }
-            
             // Set the room and creation timestamp
             seat.setRoom(room);
             if (seat.getCreatedAt() == null) {
@@ -98,9 +119,24 @@ public class SeatResource {
                 seat.setEmployees(new HashSet<>());
             }
             
-            // Save the seat
-            session.save(seat);
-            session.getTransaction().commit();
+            // Save the seat, duplicate seat numbers in a room are rejected by the unique constraint
+            try {
+                session.save(seat);
+                OccupancyIndex.getInstance().seatPlacedAfterCommit(session, seat);
+                StatsCounters.getInstance().addAfterCommit(session, StatsCounters.Counter.SEATS, 1);
+                List<FloorChange> changes = Collections.singletonList(FloorChange.seatCreated(seat));
+                Outbox.record(session, changes);
+                FloorEventBroadcaster.getInstance().publishAfterCommit(session, changes);
+                session.getTransaction().commit();
+            } catch (PersistenceException e) {
+                if (session.getTransaction().isActive()) {
+                    session.getTransaction().rollback();
+                }
+                if (ConstraintViolations.violates(e, Seat.UNIQUE_SEAT_NUMBER)) {
+                    return duplicateSeatNumber(seat.getSeatNumber());
+                }
+                throw e;
+            }
             
             return Response.status(Response.Status.CREATED)
                 .entity(seat)
@@ -115,16 +151,34 @@ public class SeatResource {
     @PUT
     @Path("/{id}")
     public Response updateSeat(@PathParam("id") Long id, Seat updatedSeat) {
+        // Capacity changes must not race with assignments to the same seat
+        Lock seatLock = SeatLocks.forSeat(id);
+        seatLock.lock();
         try (Session session = sessionFactory.openSession()) {
             session.beginTransaction();
             
             // Check if seat exists
-            Seat existingSeat = session.get(Seat.class, id);
+            Seat existingSeat = session.get(Seat.class, id, LockMode.PESSIMISTIC_WRITE);
             if (existingSeat == null) {
                 return Response.status(Response.Status.NOT_FOUND)
                     .entity("Seat not found")
                     .build();
             }
+
+            if (updatedSeat.getSeatNumber() == null || updatedSeat.getSeatNumber().trim().isEmpty()) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Seat number is required")
+                    .build();
+            }
+
+            // Also loads the employees the response lists
+            int assigned = existingSeat.getEmployees().size();
+            // Without a capacity in the request the seat keeps its own
+            if (updatedSeat.getCapacity() != null && updatedSeat.getCapacity() < Math.max(1, assigned)) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Seat capacity must be positive and cover the employees already assigned")
+                    .build();
+            }
             
             // Validate that room is provided
             if (updatedSeat.getRoom() == null || updatedSeat.getRoom().getId() == null) {
@@ -141,65 +195,152 @@ public class SeatResource {
                     .build();
             }
 
-            // Check for duplicate seat number in the same room (excluding current seat)
-            String hql = "FROM Seat s WHERE s.room.id = :roomId AND s.seatNumber = :seatNumber AND s.id != :seatId";
-            Long count = session.createQuery(hql, Seat.class)
-                .setParameter("roomId", room.getId())
-                .setParameter("seatNumber", updatedSeat.getSeatNumber())
-                .setParameter("seatId", id)
-                .stream()
-                .count();
-
-            if (count > 0) {
-                return Response.status(Response.Status.CONFLICT)
-                    .entity("A seat with number " + updatedSeat.getSeatNumber() + " already exists in this room")
-                    .build();
-            }
-            
-            // Update the seat properties
-            existingSeat.setSeatNumber(updatedSeat.getSeatNumber());
+            // Update the seat properties, the number trimmed as on create so that " A1" and "A1" collide
+            existingSeat.setSeatNumber(updatedSeat.getSeatNumber().trim());
             existingSeat.setRoom(room);
+            if (updatedSeat.getCapacity() != null) {
+                existingSeat.setCapacity(updatedSeat.getCapacity());
+            }
             
             // Save the changes
-            session.update(existingSeat);
-            session.getTransaction().commit();
+            try {
+                session.update(existingSeat);
+                OccupancyIndex.getInstance().seatPlacedAfterCommit(session, existingSeat);
+                Map<String, Object> seatChanges = new LinkedHashMap<>();
+                seatChanges.put("seatNumber", existingSeat.getSeatNumber());
+                seatChanges.put("roomId", room.getId());
+                seatChanges.put("capacity", existingSeat.getCapacity());
+                List<FloorChange> changes = Collections.singletonList(FloorChange.updated(
+                    room.getFloor() != null ? room.getFloor().getId() : null, FloorChange.SEAT, id, seatChanges));
+                Outbox.record(session, changes);
+                FloorEventBroadcaster.getInstance().publishAfterCommit(session, changes);
+                session.getTransaction().commit();
+            } catch (PersistenceException e) {
+                if (session.getTransaction().isActive()) {
+                    session.getTransaction().rollback();
+                }
+                if (ConstraintViolations.violates(e, Seat.UNIQUE_SEAT_NUMBER)) {
+                    return duplicateSeatNumber(updatedSeat.getSeatNumber());
+                }
+                throw e;
+            }
             
             return Response.ok(existingSeat).build();
+        } finally {
+            seatLock.unlock();
         }
     }
 
+    private static Response duplicateSeatNumber(String seatNumber) {
+        return Response.status(Response.Status.CONFLICT)
+            .entity("A seat with number " + seatNumber + " already exists in this room")
+            .build();
+    }
+
     @DELETE
     @Path("/{id}")
     public Response deleteSeat(@PathParam("id") Long id) {
+        if (deleteSeats(Collections.singleton(id)).isEmpty()) {
+            return Response.status(Response.Status.NOT_FOUND)
+                .entity("Seat not found")
+                .build();
+        }
+        return Response.status(Response.Status.NO_CONTENT).build();
+    }
+
+    /**
+     * Delete many seats at once. Seats that do not exist are reported, not treated as an error.
+     */
+    @POST
+    @Path("/delete")
+    public Response deleteSeats(BulkDeleteRequest request) {
+        if (request == null || request.getIds() == null || request.getIds().isEmpty()
+            || request.getIds().contains(null)) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity("A non-empty list of seat ids is required")
+                .build();
+        }
+
+        Set<Long> ids = new LinkedHashSet<>(request.getIds());
+        List<Long> deleted = deleteSeats(ids);
+        ids.removeAll(deleted);
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("deleted", deleted.size());
+        response.put("deletedIds", deleted);
+        response.put("notFoundIds", ids);
+        return Response.ok(response).build();
+    }
+
+    /**
+     * Delete seats together with their assignments and reservations using set-based
+     * statements only, without loading the seats or their employees.
+     *
+     * @return the IDs of the seats that existed and were deleted
+     */
+    private List<Long> deleteSeats(Collection<Long> ids) {
+        // Same lock order as assignments: in-process stripes first, then seat rows
+        List<Lock> locks = SeatLocks.forSeats(ids);
+        locks.forEach(Lock::lock);
         try (Session session = sessionFactory.openSession()) {
             session.beginTransaction();
-            
-            // Check if seat exists
-            Seat seat = session.get(Seat.class, id);
-            if (seat == null) {
-                return Response.status(Response.Status.NOT_FOUND)
-                    .entity("Seat not found")
-                    .build();
+            List<Long> existing = RowLocks.forUpdate(session, "seats", ids);
+            if (existing.isEmpty()) {
+                session.getTransaction().rollback();
+                return Collections.emptyList();
             }
-            
-            // Get all employees associated with this seat
-            Set<Employee> employees = new HashSet<>(seat.getEmployees());
-            
-            // Remove the seat from all associated employees
-            for (Employee employee : employees) {
-                employee.getSeats().remove(seat);
-                session.update(employee);
+
+            Map<Long, Long> floorBySeat = new LinkedHashMap<>();
+            for (List<Long> chunk : Batches.partition(existing)) {
+                session.createQuery(
+                    "select s.id, f.id from Seat s join s.room r left join r.floor f where s.id in :ids", Object[].class)
+                    .setParameterList("ids", chunk)
+                    .list()
+                    .forEach(row -> floorBySeat.put((Long) row[0], (Long) row[1]));
             }
-            
-            // Clear the seat's employees collection
-            seat.getEmployees().clear();
-            session.update(seat);
-            
-            // Delete the seat
-            session.delete(seat);
+
+            // Removed assignments as (employee ID, seat ID), for the change events
+            List<Object[]> removedAssignments = new ArrayList<>();
+            for (List<Long> chunk : Batches.partition(existing)) {
+                for (Object row : session.createNativeQuery(
+                        "select employee_id, seat_id from employee_seat_assignments where seat_id in (:ids)")
+                        .setParameterList("ids", chunk)
+                        .list()) {
+                    removedAssignments.add((Object[]) row);
+                }
+            }
+
+            for (List<Long> chunk : Batches.partition(existing)) {
+                session.createNativeQuery("delete from employee_seat_assignments where seat_id in (:ids)")
+                    .addSynchronizedEntityClass(Seat.class)
+                    .addSynchronizedEntityClass(Employee.class)
+                    .setParameterList("ids", chunk)
+                    .executeUpdate();
+                session.createQuery("delete from SeatReservation r where r.seatId in :ids")
+                    .setParameterList("ids", chunk)
+                    .executeUpdate();
+                session.createQuery("delete from Seat s where s.id in :ids")
+                    .setParameterList("ids", chunk)
+                    .executeUpdate();
+            }
+
+            OccupancyIndex.getInstance().seatsRemovedAfterCommit(session, existing);
+            ReservationEngine.getInstance().seatsRemovedAfterCommit(session, existing);
+            StatsCounters.getInstance().addAfterCommit(session, StatsCounters.Counter.SEATS, -existing.size());
+            for (Object[] assignment : removedAssignments) {
+                Long seatId = ((Number) assignment[1]).longValue();
+                Outbox.recordAssignment(session, ((Number) assignment[0]).longValue(), seatId, floorBySeat.get(seatId), false);
+            }
+            List<FloorChange> changes = new ArrayList<>(existing.size());
+            floorBySeat.forEach((seatId, floorId) -> changes.add(FloorChange.seatDeleted(floorId, seatId)));
+            Outbox.record(session, changes);
+            FloorEventBroadcaster.getInstance().publishAfterCommit(session, changes);
             session.getTransaction().commit();
-            
-            return Response.status(Response.Status.NO_CONTENT).build();
+            return existing;
+        } finally {
+            for (int i = locks.size() - 1; i >= 0; i--) {
+                locks.get(i).unlock();
+            }
         }
     }
-} 
\ No newline at end of file
+}
@@ -3,11 +3,31 @@ package com.officemanagement.resource;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
-import org.hibernate.Session;
+import javax.ws.rs.sse.Sse;
+import javax.ws.rs.sse.SseEventSink;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import org.hibernate.SessionFactory;
+import com.officemanagement.event.OutboxRelay;
+import com.officemanagement.event.StatsBroadcaster;
+import com.officemanagement.model.OccupancySample;
+import com.officemanagement.service.OccupancyHistory;
+import com.officemanagement.service.OccupancyReport;
+import com.officemanagement.service.StatsCounters;
+import com.officemanagement.util.EntityCaches;
 import com.officemanagement.util.HibernateUtil;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 @Path("/stats") // Base path for all stats-related endpoints
@@ -41,37 +61,244 @@ public class StatsResource {
         }
     }
 
+    /**
+     * Totals kept in memory by {@link StatsCounters}, answered without touching the database
+     */
     @GET
     @Produces(MediaType.APPLICATION_JSON) // Return JSON response
     public Response getStats() {
-        Session session = null;
         try {
-            session = sessionFactory.openSession();
-            // Get counts using getSingleResult instead of uniqueResult
-            Long totalEmployees = session.createQuery("SELECT COUNT(e) FROM Employee e", Long.class)
-                                      .getSingleResult();
-
-            Long totalFloors = session.createQuery("SELECT COUNT(f) FROM Floor f", Long.class)
-                                   .getSingleResult();
-
-            Long totalOffices = session.createQuery("SELECT COUNT(o) FROM OfficeRoom o", Long.class)
-                                    .getSingleResult();
-
-            Long totalSeats = session.createQuery("SELECT COUNT(s) FROM Seat s", Long.class)
-                                  .getSingleResult();
-
-            StatsDTO stats = new StatsDTO(totalEmployees, totalFloors, totalOffices, totalSeats);
+            StatsCounters counters = StatsCounters.getInstance();
+            StatsDTO stats = new StatsDTO(
+                counters.get(StatsCounters.Counter.EMPLOYEES),
+                counters.get(StatsCounters.Counter.FLOORS),
+                counters.get(StatsCounters.Counter.ROOMS),
+                counters.get(StatsCounters.Counter.SEATS));
             return Response.ok(stats).build();
         } catch (Exception e) {
             // Handle errors and return an appropriate response
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity(new ErrorResponse("Failed to retrieve stats: " + e.getMessage()))
                     .build();
-        } finally {
-            if (session != null && session.isOpen()) {
-                session.close();
+        }
+    }
+
+    /**
+     * Server-sent events with the same totals as GET /stats: one "stats" event on connect,
+     * then one whenever they change, at most every events.stats.minIntervalMs.
+     */
+    @GET
+    @Path("/stream")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    public void streamStats(@Context SseEventSink eventSink, @Context Sse sse) {
+        StatsBroadcaster.getInstance().subscribe(eventSink, sse);
+    }
+
+    /**
+     * Seats, occupied seats and employees with several seats per floor and room,
+     * optionally for a single floor
+     */
+    @GET
+    @Path("/occupancy")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getOccupancy(@QueryParam("floorId") Long floorId) {
+        OccupancyReport.Report report = OccupancyReport.getInstance().get(sessionFactory, floorId);
+        if (report == null) {
+            return Response.status(Response.Status.NOT_FOUND)
+                .entity("Floor not found")
+                .build();
+        }
+        return Response.ok(report).build();
+    }
+
+    /**
+     * Occupancy over time of a room, a floor or the whole office. Without an explicit
+     * resolution the finest one that keeps the response small is used. Times are UTC;
+     * from and to may also carry their own offset.
+     */
+    @GET
+    @Path("/history")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getHistory(
+            @QueryParam("floorId") Long floorId,
+            @QueryParam("roomId") Long roomId,
+            @QueryParam("from") String from,
+            @QueryParam("to") String to,
+            @QueryParam("resolution") String resolution) {
+        if (roomId != null && floorId == null) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity("floorId is required with roomId")
+                .build();
+        }
+
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        LocalDateTime end;
+        LocalDateTime start;
+        try {
+            end = to != null ? parseUtc(to) : now;
+            start = from != null ? parseUtc(from) : end.minus(Duration.ofDays(1));
+        } catch (DateTimeParseException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity("from and to must be ISO-8601 date-times, e.g. 2024-03-21T08:00")
+                .build();
+        }
+        if (!end.isAfter(start)) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity("to must be after from")
+                .build();
+        }
+
+        OccupancyHistory history = OccupancyHistory.getInstance();
+        OccupancySample.Resolution level;
+        if (resolution == null) {
+            level = history.pickResolution(start, end, now);
+        } else {
+            try {
+                level = OccupancySample.Resolution.valueOf(resolution.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("resolution must be minute, hour or day")
+                    .build();
+            }
+        }
+
+        HistoryDTO response = new HistoryDTO();
+        response.floorId = floorId;
+        response.roomId = roomId;
+        response.from = start;
+        response.to = end;
+        response.resolution = level.name().toLowerCase(Locale.ROOT);
+        for (OccupancySample sample : history.query(sessionFactory, floorId, roomId, start, end, level)) {
+            response.points.add(new PointDTO(sample));
+        }
+        return Response.ok(response).build();
+    }
+
+    /**
+     * Backlog and delivery lag of the change events sent to downstream systems
+     */
+    @GET
+    @Path("/outbox")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getOutboxStats() {
+        return Response.ok(OutboxRelay.getInstance().metrics(sessionFactory)).build();
+    }
+
+    /**
+     * Hits and misses of the second-level cache, overall and per region
+     */
+    @GET
+    @Path("/cache")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getCacheStats() {
+        Statistics statistics = sessionFactory.getStatistics();
+        CacheStatsDTO stats = new CacheStatsDTO();
+        stats.enabled = statistics.isStatisticsEnabled()
+            && sessionFactory.getSessionFactoryOptions().isSecondLevelCacheEnabled();
+        stats.hits = statistics.getSecondLevelCacheHitCount();
+        stats.misses = statistics.getSecondLevelCacheMissCount();
+        stats.puts = statistics.getSecondLevelCachePutCount();
+        stats.hitRatio = hitRatio(stats.hits, stats.misses);
+        if (stats.enabled) {
+            for (String name : EntityCaches.REGIONS) {
+                CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(name);
+                RegionStatsDTO regionStats = new RegionStatsDTO();
+                regionStats.region = name;
+                regionStats.hits = region.getHitCount();
+                regionStats.misses = region.getMissCount();
+                regionStats.puts = region.getPutCount();
+                regionStats.hitRatio = hitRatio(region.getHitCount(), region.getMissCount());
+                stats.regions.add(regionStats);
             }
         }
+        return Response.ok(stats).build();
+    }
+
+    private static double hitRatio(long hits, long misses) {
+        return hits + misses > 0 ? hits / (double) (hits + misses) : 0;
+    }
+
+    /**
+     * A UTC date-time, either without offset or with one it is converted from.
+     */
+    private static LocalDateTime parseUtc(String value) {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            return OffsetDateTime.parse(value).withOffsetSameInstant(ZoneOffset.UTC).toLocalDateTime();
+        }
+    }
+
+    public static class HistoryDTO {
+        private Long floorId;
+        private Long roomId;
+        private LocalDateTime from;
+        private LocalDateTime to;
+        private String resolution;
+        private final List<PointDTO> points = new ArrayList<>();
+
+        public Long getFloorId() { return floorId; }
+        public Long getRoomId() { return roomId; }
+        public LocalDateTime getFrom() { return from; }
+        public LocalDateTime getTo() { return to; }
+        public String getResolution() { return resolution; }
+        public List<PointDTO> getPoints() { return points; }
+    }
+
+    public static class PointDTO {
+        private final LocalDateTime time;
+        private final int samples;
+        private final long seats;
+        private final double occupiedAvg;
+        private final long occupiedMin;
+        private final long occupiedMax;
+
+        PointDTO(OccupancySample sample) {
+            this.time = sample.getBucketStart();
+            this.samples = sample.getSamples();
+            this.seats = sample.getSeats();
+            this.occupiedAvg = sample.getOccupiedAvg();
+            this.occupiedMin = sample.getOccupiedMin();
+            this.occupiedMax = sample.getOccupiedMax();
+        }
+
+        public LocalDateTime getTime() { return time; }
+        public int getSamples() { return samples; }
+        public long getSeats() { return seats; }
+        public double getOccupiedAvg() { return occupiedAvg; }
+        public long getOccupiedMin() { return occupiedMin; }
+        public long getOccupiedMax() { return occupiedMax; }
+        public double getFreeRatio() { return seats == 0 ? 0.0 : (seats - occupiedAvg) / seats; }
+    }
+
+    public static class CacheStatsDTO {
+        private boolean enabled;
+        private long hits;
+        private long misses;
+        private long puts;
+        private double hitRatio;
+        private final List<RegionStatsDTO> regions = new ArrayList<>();
+
+        public boolean isEnabled() { return enabled; }
+        public long getHits() { return hits; }
+        public long getMisses() { return misses; }
+        public long getPuts() { return puts; }
+        public double getHitRatio() { return hitRatio; }
+        public List<RegionStatsDTO> getRegions() { return regions; }
+    }
+
+    public static class RegionStatsDTO {
+        private String region;
+        private long hits;
+        private long misses;
+        private long puts;
+        private double hitRatio;
+
+        public String getRegion() { return region; }
+        public long getHits() { return hits; }
+        public long getMisses() { return misses; }
+        public long getPuts() { return puts; }
+        public double getHitRatio() { return hitRatio; }
     }
 
     // Error response class
@@ -0,0 +1,358 @@
+package com.officemanagement.service;
+
+import com.officemanagement.event.FloorEventBroadcaster;
+import com.officemanagement.model.Floor;
+import com.officemanagement.util.AppSettings;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.ImageIO;
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * PNG heatmap of seat utilization drawn over the floor plan.
+ *
+ * Every seat spreads a Gaussian kernel around its center. Summing the kernels of all
+ * seats and of the occupied ones gives two density grids; their ratio is the local
+ * utilization, shown from blue (free) to red (taken), and the seat density sets how
+ * opaque the color is, so areas without seats stay clear. Rows of the grid are computed
+ * in parallel on the common fork-join pool.
+ *
+ * The image is at most {@code heatmap.width} pixels wide and four times that high, with the
+ * same scale on both axes. The floor plan raster is cached per floor until its SVG changes,
+ * and the finished image until the next change published for the floor: every seat or room
+ * created, deleted, moved or assigned publishes one.
+ */
+public class FloorHeatmap {
+    private static final Logger logger = LoggerFactory.getLogger(FloorHeatmap.class);
+    private static final FloorHeatmap INSTANCE = new FloorHeatmap(
+        AppSettings.getInt("heatmap.width", 1200),
+        AppSettings.getDouble("heatmap.sigma", 80));
+
+    // Rows computed by one fork-join task
+    private static final int ROWS_PER_TASK = 16;
+    // Kernels are cut off at this many standard deviations
+    private static final double CUTOFF_SIGMAS = 3;
+    // Opacity of the heat layer where the seats are densest
+    private static final double MAX_ALPHA = 0.65;
+    // Margin around the seats when a floor has no plan, in floor units
+    private static final double MARGIN = 100;
+
+    private final int width;
+    private final double sigma;
+    private final ConcurrentMap<Long, Background> backgrounds = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Rendered> rendered = new ConcurrentHashMap<>();
+
+    FloorHeatmap(int width, double sigma) {
+        this.width = width;
+        this.sigma = sigma;
+    }
+
+    public static FloorHeatmap getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Heatmap of a floor as PNG, null when the floor does not exist.
+     */
+    public byte[] render(SessionFactory sessionFactory, Long floorId) {
+        // Read before the data: a change made meanwhile gets a new image on the next call
+        long version = FloorEventBroadcaster.getInstance().currentVersion(floorId);
+        Rendered cached = rendered.get(floorId);
+        if (cached != null && cached.version == version) {
+            return cached.png;
+        }
+
+        long start = System.nanoTime();
+        List<Object[]> seats;
+        List<Object[]> rooms;
+        Background background;
+        try (Session session = sessionFactory.openSession()) {
+            if (session.get(Floor.class, floorId) == null) {
+                return null;
+            }
+            seats = session.createQuery(
+                    "select s.x, s.y, s.width, s.height, size(s.employees) from Seat s " +
+                    "where s.room.floor.id = :floorId", Object[].class)
+                .setParameter("floorId", floorId)
+                .list();
+            rooms = session.createQuery(
+                    "select r.x, r.y, r.width, r.height from OfficeRoom r where r.floor.id = :floorId", Object[].class)
+                .setParameter("floorId", floorId)
+                .list();
+            background = background(session, floorId, seats, rooms);
+        }
+
+        byte[] png = encode(draw(background, seats, rooms));
+        rendered.put(floorId, new Rendered(version, png));
+        logger.debug("Heatmap of floor {} rendered in {} ms ({} seats)",
+            floorId, (System.nanoTime() - start) / 1_000_000, seats.size());
+        return png;
+    }
+
+    /**
+     * Forget the images of a floor, for example when its plan was replaced.
+     */
+    public void evict(Long floorId) {
+        backgrounds.remove(floorId);
+        rendered.remove(floorId);
+    }
+
+    public void clear() {
+        backgrounds.clear();
+        rendered.clear();
+    }
+
+    private Background background(Session session, Long floorId, List<Object[]> seats, List<Object[]> rooms) {
+        LocalDateTime lastUpdated = session.createQuery(
+                "select fp.lastUpdated from FloorPlanimetry fp where fp.floorId = :floorId", LocalDateTime.class)
+            .setParameter("floorId", floorId)
+            .uniqueResult();
+        Background cached = backgrounds.get(floorId);
+        if (cached != null && cached.hasPlan && Objects.equals(cached.lastUpdated, lastUpdated)) {
+            return cached;
+        }
+
+        if (lastUpdated != null) {
+            String svg = session.createQuery(
+                    "select fp.planimetry from FloorPlanimetry fp where fp.floorId = :floorId", String.class)
+                .setParameter("floorId", floorId)
+                .uniqueResult();
+            if (svg != null && !svg.isEmpty()) {
+                try {
+                    FloorPlanRaster plan = FloorPlanRaster.parse(svg);
+                    Rectangle2D area = plan.getViewBox();
+                    double scale = scale(area);
+                    Background background = new Background(true, lastUpdated, area, scale, plan.rasterize(scale));
+                    backgrounds.put(floorId, background);
+                    return background;
+                } catch (IllegalArgumentException e) {
+                    logger.warn("Floor plan of floor {} cannot be drawn: {}", floorId, e.getMessage());
+                }
+            }
+        }
+
+        // No usable plan: a blank area around the rooms and seats, not worth caching
+        Rectangle2D area = null;
+        for (List<Object[]> shapes : List.of(rooms, seats)) {
+            for (Object[] shape : shapes) {
+                Rectangle2D bounds = new Rectangle2D.Double(
+                    number(shape[0]), number(shape[1]), number(shape[2]), number(shape[3]));
+                area = area == null ? bounds : area.createUnion(bounds);
+            }
+        }
+        if (area == null) {
+            area = new Rectangle2D.Double(0, 0, 1000, 1000);
+        }
+        area = new Rectangle2D.Double(area.getX() - MARGIN, area.getY() - MARGIN,
+            area.getWidth() + 2 * MARGIN, area.getHeight() + 2 * MARGIN);
+        double scale = scale(area);
+        BufferedImage image = new BufferedImage((int) Math.max(1, Math.round(area.getWidth() * scale)),
+            (int) Math.max(1, Math.round(area.getHeight() * scale)), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, image.getWidth(), image.getHeight());
+        g.dispose();
+        return new Background(false, lastUpdated, area, scale, image);
+    }
+
+    private BufferedImage draw(Background background, List<Object[]> seats, List<Object[]> rooms) {
+        int imageWidth = background.image.getWidth();
+        int imageHeight = background.image.getHeight();
+        double scale = background.scale;
+
+        // Seat centers and occupancy in image coordinates
+        int count = seats.size();
+        double[] centerX = new double[count];
+        double[] centerY = new double[count];
+        boolean[] occupied = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            Object[] seat = seats.get(i);
+            centerX[i] = (number(seat[0]) + number(seat[2]) / 2 - background.area.getX()) * scale;
+            centerY[i] = (number(seat[1]) + number(seat[3]) / 2 - background.area.getY()) * scale;
+            occupied[i] = ((Number) seat[4]).intValue() > 0;
+        }
+
+        int[] heat = new int[imageWidth * imageHeight];
+        ForkJoinPool.commonPool().invoke(new HeatRows(
+            heat, imageWidth, imageHeight, centerX, centerY, occupied, sigma * scale, 0, imageHeight));
+        BufferedImage heatLayer = new BufferedImage(imageWidth, imageHeight, BufferedImage.TYPE_INT_ARGB);
+        heatLayer.setRGB(0, 0, imageWidth, imageHeight, heat, 0, imageWidth);
+
+        BufferedImage image = new BufferedImage(imageWidth, imageHeight, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.drawImage(background.image, 0, 0, null);
+            g.setComposite(AlphaComposite.SrcOver);
+            g.drawImage(heatLayer, 0, 0, null);
+
+            // Room outlines on top, so the heat can be read against them
+            AffineTransform floorToImage = AffineTransform.getScaleInstance(scale, scale);
+            floorToImage.translate(-background.area.getX(), -background.area.getY());
+            g.setColor(new Color(60, 60, 60));
+            g.setStroke(new BasicStroke(1.5f));
+            for (Object[] room : rooms) {
+                g.draw(floorToImage.createTransformedShape(new Rectangle2D.Double(
+                    number(room[0]), number(room[1]), number(room[2]), number(room[3]))));
+            }
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    /**
+     * Pixels per floor unit: the area fills the configured width, unless that would make the
+     * image more than four times as high, in which case a narrower image keeps the proportions.
+     */
+    private double scale(Rectangle2D area) {
+        return Math.min(width / area.getWidth(), 4.0 * width / area.getHeight());
+    }
+
+    private static byte[] encode(BufferedImage image) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(image, "png", out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static double number(Object value) {
+        return value != null ? ((Number) value).doubleValue() : 0;
+    }
+
+    /**
+     * Colors the rows [fromRow, toRow) of the heat layer, splitting the range until it is
+     * small enough to be done by one task.
+     */
+    static class HeatRows extends RecursiveAction {
+        private final int[] heat;
+        private final int imageWidth;
+        private final int imageHeight;
+        private final double[] centerX;
+        private final double[] centerY;
+        private final boolean[] occupied;
+        private final double sigma;
+        private final int fromRow;
+        private final int toRow;
+
+        HeatRows(int[] heat, int imageWidth, int imageHeight, double[] centerX, double[] centerY,
+                 boolean[] occupied, double sigma, int fromRow, int toRow) {
+            this.heat = heat;
+            this.imageWidth = imageWidth;
+            this.imageHeight = imageHeight;
+            this.centerX = centerX;
+            this.centerY = centerY;
+            this.occupied = occupied;
+            this.sigma = sigma;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+        }
+
+        @Override
+        protected void compute() {
+            if (toRow - fromRow > ROWS_PER_TASK) {
+                int middle = (fromRow + toRow) >>> 1;
+                invokeAll(
+                    new HeatRows(heat, imageWidth, imageHeight, centerX, centerY, occupied, sigma, fromRow, middle),
+                    new HeatRows(heat, imageWidth, imageHeight, centerX, centerY, occupied, sigma, middle, toRow));
+                return;
+            }
+
+            double cutoff = CUTOFF_SIGMAS * sigma;
+            double twoSigmaSquared = 2 * sigma * sigma;
+            double[] seatDensity = new double[imageWidth];
+            double[] occupiedDensity = new double[imageWidth];
+            for (int row = fromRow; row < toRow; row++) {
+                Arrays.fill(seatDensity, 0);
+                Arrays.fill(occupiedDensity, 0);
+                double y = row + 0.5;
+                for (int i = 0; i < centerX.length; i++) {
+                    double dy = y - centerY[i];
+                    if (Math.abs(dy) > cutoff) {
+                        continue;
+                    }
+                    int first = Math.max(0, (int) Math.floor(centerX[i] - cutoff));
+                    int last = Math.min(imageWidth - 1, (int) Math.ceil(centerX[i] + cutoff));
+                    for (int x = first; x <= last; x++) {
+                        double dx = x + 0.5 - centerX[i];
+                        double weight = Math.exp(-(dx * dx + dy * dy) / twoSigmaSquared);
+                        seatDensity[x] += weight;
+                        if (occupied[i]) {
+                            occupiedDensity[x] += weight;
+                        }
+                    }
+                }
+                int offset = row * imageWidth;
+                for (int x = 0; x < imageWidth; x++) {
+                    heat[offset + x] = color(seatDensity[x], occupiedDensity[x]);
+                }
+            }
+        }
+
+        /**
+         * Blue to red by utilization, more opaque where there are more seats.
+         */
+        static int color(double seatDensity, double occupiedDensity) {
+            // Under one percent of a lone seat's peak
+            if (seatDensity < 0.01) {
+                return 0;
+            }
+            double utilization = Math.min(1, occupiedDensity / seatDensity);
+            int rgb = Color.HSBtoRGB((float) ((1 - utilization) * 240 / 360), 1f, 1f) & 0xFFFFFF;
+            int alpha = (int) Math.round(255 * MAX_ALPHA * Math.min(1, seatDensity));
+            return alpha << 24 | rgb;
+        }
+    }
+
+    private static final class Background {
+        private final boolean hasPlan;
+        private final LocalDateTime lastUpdated;
+        private final Rectangle2D area;
+        // Pixels per floor unit, on both axes
+        private final double scale;
+        private final BufferedImage image;
+
+        private Background(boolean hasPlan, LocalDateTime lastUpdated, Rectangle2D area, double scale,
+                           BufferedImage image) {
+            this.hasPlan = hasPlan;
+            this.lastUpdated = lastUpdated;
+            this.area = area;
+            this.scale = scale;
+            this.image = image;
+        }
+    }
+
+    private static final class Rendered {
+        private final long version;
+        private final byte[] png;
+
+        private Rendered(long version, byte[] png) {
+            this.version = version;
+            this.png = png;
+        }
+    }
+}
@@ -0,0 +1,468 @@
+package com.officemanagement.service;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Draws the SVG floor plans stored in floor_planimetry onto an image.
+ *
+ * Only the part of SVG the floor plans use is supported: groups, paths, rectangles,
+ * lines, polylines, polygons, circles and ellipses, with their transforms and plain fill
+ * and stroke colors. Elliptical arcs in paths are drawn as straight lines. Anything else
+ * is skipped.
+ */
+public class FloorPlanRaster {
+    private static final Pattern NUMBER = Pattern.compile("[-+]?(?:\\d+\\.?\\d*|\\.\\d+)(?:[eE][-+]?\\d+)?");
+    private static final Pattern PATH_TOKEN = Pattern.compile("[MmLlHhVvCcSsQqTtAaZz]|" + NUMBER.pattern());
+    private static final Pattern TRANSFORM = Pattern.compile("(matrix|translate|scale|rotate)\\s*\\(([^)]*)\\)");
+
+    private final Rectangle2D viewBox;
+    private final Element root;
+
+    private FloorPlanRaster(Rectangle2D viewBox, Element root) {
+        this.viewBox = viewBox;
+        this.root = root;
+    }
+
+    /**
+     * Parse a floor plan. External DTDs are never fetched.
+     *
+     * @throws IllegalArgumentException if the document is not an SVG image
+     */
+    public static FloorPlanRaster parse(String svg) {
+        Document document;
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+            factory.setExpandEntityReferences(false);
+            DocumentBuilder builder = factory.newDocumentBuilder();
+            document = builder.parse(new InputSource(new StringReader(svg)));
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid SVG: " + e.getMessage(), e);
+        }
+        Element root = document.getDocumentElement();
+        if (!"svg".equals(localName(root))) {
+            throw new IllegalArgumentException("Not an SVG document");
+        }
+
+        Rectangle2D viewBox = null;
+        double[] box = numbers(root.getAttribute("viewBox"));
+        if (box.length == 4 && box[2] > 0 && box[3] > 0) {
+            viewBox = new Rectangle2D.Double(box[0], box[1], box[2], box[3]);
+        } else {
+            double width = length(root.getAttribute("width"));
+            double height = length(root.getAttribute("height"));
+            if (width > 0 && height > 0) {
+                viewBox = new Rectangle2D.Double(0, 0, width, height);
+            }
+        }
+        if (viewBox == null) {
+            throw new IllegalArgumentException("SVG without a viewBox or size");
+        }
+        return new FloorPlanRaster(viewBox, root);
+    }
+
+    /**
+     * Area of the floor plan in floor coordinates.
+     */
+    public Rectangle2D getViewBox() {
+        return viewBox;
+    }
+
+    /**
+     * Draw the floor plan with the given transform from floor to image coordinates.
+     */
+    public void draw(Graphics2D graphics, AffineTransform floorToImage) {
+        Graphics2D g = (Graphics2D) graphics.create();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            drawChildren(g, root, floorToImage, Color.BLACK, null, 1.0);
+        } finally {
+            g.dispose();
+        }
+    }
+
+    /**
+     * Draw the floor plan over a white background on a new image, {@code scale} pixels per
+     * plan unit in both directions.
+     */
+    public BufferedImage rasterize(double scale) {
+        int width = (int) Math.max(1, Math.round(viewBox.getWidth() * scale));
+        int height = (int) Math.max(1, Math.round(viewBox.getHeight() * scale));
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            AffineTransform floorToImage = AffineTransform.getScaleInstance(scale, scale);
+            floorToImage.translate(-viewBox.getX(), -viewBox.getY());
+            draw(g, floorToImage);
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    private void drawChildren(Graphics2D g, Element parent, AffineTransform transform,
+                              Color fill, Color stroke, double strokeWidth) {
+        NodeList children = parent.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            Node node = children.item(i);
+            if (node instanceof Element) {
+                drawElement(g, (Element) node, transform, fill, stroke, strokeWidth);
+            }
+        }
+    }
+
+    private void drawElement(Graphics2D g, Element element, AffineTransform parentTransform,
+                             Color parentFill, Color parentStroke, double parentStrokeWidth) {
+        if ("none".equals(element.getAttribute("display"))) {
+            return;
+        }
+        AffineTransform transform = new AffineTransform(parentTransform);
+        transform.concatenate(transform(element.getAttribute("transform")));
+        String fillValue = presentation(element, "fill");
+        String strokeValue = presentation(element, "stroke");
+        String strokeWidthValue = presentation(element, "stroke-width");
+        Color fill = fillValue != null ? color(fillValue) : parentFill;
+        Color stroke = strokeValue != null ? color(strokeValue) : parentStroke;
+        double strokeWidth = strokeWidthValue != null ? length(strokeWidthValue) : parentStrokeWidth;
+
+        String name = localName(element);
+        if ("g".equals(name) || "svg".equals(name)) {
+            drawChildren(g, element, transform, fill, stroke, strokeWidth);
+            return;
+        }
+        Shape shape = shape(name, element);
+        if (shape == null) {
+            return;
+        }
+        Shape onImage = transform.createTransformedShape(shape);
+        if (fill != null && !"line".equals(name) && !"polyline".equals(name)) {
+            g.setColor(fill);
+            g.fill(onImage);
+        }
+        if (stroke != null) {
+            double scale = Math.sqrt(Math.abs(transform.getDeterminant()));
+            g.setColor(stroke);
+            g.setStroke(new BasicStroke((float) Math.max(strokeWidth * scale, 0.5)));
+            g.draw(onImage);
+        }
+    }
+
+    /**
+     * Presentation property from the style attribute, or else from the attribute of the
+     * same name; null when neither sets it.
+     */
+    private static String presentation(Element element, String property) {
+        for (String declaration : element.getAttribute("style").split(";")) {
+            int colon = declaration.indexOf(':');
+            if (colon > 0 && declaration.substring(0, colon).trim().equals(property)) {
+                return declaration.substring(colon + 1).trim();
+            }
+        }
+        return element.hasAttribute(property) ? element.getAttribute(property) : null;
+    }
+
+    private static Shape shape(String name, Element element) {
+        switch (name) {
+            case "path":
+                return path(element.getAttribute("d"));
+            case "rect":
+                return new Rectangle2D.Double(
+                    length(element.getAttribute("x")), length(element.getAttribute("y")),
+                    length(element.getAttribute("width")), length(element.getAttribute("height")));
+            case "line":
+                return new Line2D.Double(
+                    length(element.getAttribute("x1")), length(element.getAttribute("y1")),
+                    length(element.getAttribute("x2")), length(element.getAttribute("y2")));
+            case "polyline":
+            case "polygon":
+                double[] points = numbers(element.getAttribute("points"));
+                if (points.length < 4) {
+                    return null;
+                }
+                Path2D.Double polygon = new Path2D.Double();
+                polygon.moveTo(points[0], points[1]);
+                for (int i = 2; i + 1 < points.length; i += 2) {
+                    polygon.lineTo(points[i], points[i + 1]);
+                }
+                if ("polygon".equals(name)) {
+                    polygon.closePath();
+                }
+                return polygon;
+            case "circle":
+                double r = length(element.getAttribute("r"));
+                return new Ellipse2D.Double(length(element.getAttribute("cx")) - r,
+                    length(element.getAttribute("cy")) - r, 2 * r, 2 * r);
+            case "ellipse":
+                double rx = length(element.getAttribute("rx"));
+                double ry = length(element.getAttribute("ry"));
+                return new Ellipse2D.Double(length(element.getAttribute("cx")) - rx,
+                    length(element.getAttribute("cy")) - ry, 2 * rx, 2 * ry);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Path data to a shape, see the SVG path grammar.
+     */
+    static Path2D path(String data) {
+        List<String> tokens = new ArrayList<>();
+        Matcher matcher = PATH_TOKEN.matcher(data);
+        while (matcher.find()) {
+            tokens.add(matcher.group());
+        }
+
+        Path2D.Double path = new Path2D.Double();
+        double x = 0;
+        double y = 0;
+        double startX = 0;
+        double startY = 0;
+        // Last control point, for the smooth curve commands
+        double controlX = 0;
+        double controlY = 0;
+        char command = 0;
+        char previous = 0;
+        int i = 0;
+        while (i < tokens.size()) {
+            String token = tokens.get(i);
+            if (Character.isLetter(token.charAt(0))) {
+                command = token.charAt(0);
+                i++;
+                if (command == 'Z' || command == 'z') {
+                    path.closePath();
+                    x = startX;
+                    y = startY;
+                    previous = command;
+                    continue;
+                }
+            } else if (command == 0) {
+                // Numbers before any command
+                i++;
+                continue;
+            }
+
+            boolean relative = Character.isLowerCase(command);
+            double baseX = relative ? x : 0;
+            double baseY = relative ? y : 0;
+            int arguments = arguments(command);
+            if (i + arguments > tokens.size()) {
+                break;
+            }
+            double[] a = new double[arguments];
+            for (int k = 0; k < arguments; k++) {
+                a[k] = Double.parseDouble(tokens.get(i + k));
+            }
+            i += arguments;
+
+            switch (Character.toUpperCase(command)) {
+                case 'M':
+                    x = baseX + a[0];
+                    y = baseY + a[1];
+                    path.moveTo(x, y);
+                    startX = x;
+                    startY = y;
+                    // Following pairs are lines
+                    command = relative ? 'l' : 'L';
+                    break;
+                case 'L':
+                    x = baseX + a[0];
+                    y = baseY + a[1];
+                    path.lineTo(x, y);
+                    break;
+                case 'H':
+                    x = baseX + a[0];
+                    path.lineTo(x, y);
+                    break;
+                case 'V':
+                    y = (relative ? y : 0) + a[0];
+                    path.lineTo(x, y);
+                    break;
+                case 'C':
+                    path.curveTo(baseX + a[0], baseY + a[1], baseX + a[2], baseY + a[3], baseX + a[4], baseY + a[5]);
+                    controlX = baseX + a[2];
+                    controlY = baseY + a[3];
+                    x = baseX + a[4];
+                    y = baseY + a[5];
+                    break;
+                case 'S': {
+                    boolean smooth = "CcSs".indexOf(previous) >= 0;
+                    double firstX = smooth ? 2 * x - controlX : x;
+                    double firstY = smooth ? 2 * y - controlY : y;
+                    path.curveTo(firstX, firstY, baseX + a[0], baseY + a[1], baseX + a[2], baseY + a[3]);
+                    controlX = baseX + a[0];
+                    controlY = baseY + a[1];
+                    x = baseX + a[2];
+                    y = baseY + a[3];
+                    break;
+                }
+                case 'Q':
+                    path.quadTo(baseX + a[0], baseY + a[1], baseX + a[2], baseY + a[3]);
+                    controlX = baseX + a[0];
+                    controlY = baseY + a[1];
+                    x = baseX + a[2];
+                    y = baseY + a[3];
+                    break;
+                case 'T': {
+                    boolean smooth = "QqTt".indexOf(previous) >= 0;
+                    controlX = smooth ? 2 * x - controlX : x;
+                    controlY = smooth ? 2 * y - controlY : y;
+                    x = baseX + a[0];
+                    y = baseY + a[1];
+                    path.quadTo(controlX, controlY, x, y);
+                    break;
+                }
+                case 'A':
+                    x = baseX + a[5];
+                    y = baseY + a[6];
+                    path.lineTo(x, y);
+                    break;
+                default:
+                    break;
+            }
+            previous = command;
+        }
+        return path;
+    }
+
+    private static int arguments(char command) {
+        switch (Character.toUpperCase(command)) {
+            case 'H':
+            case 'V':
+                return 1;
+            case 'M':
+            case 'L':
+            case 'T':
+                return 2;
+            case 'S':
+            case 'Q':
+                return 4;
+            case 'C':
+                return 6;
+            case 'A':
+                return 7;
+            default:
+                return 0;
+        }
+    }
+
+    static AffineTransform transform(String value) {
+        AffineTransform transform = new AffineTransform();
+        if (value == null || value.isEmpty()) {
+            return transform;
+        }
+        Matcher matcher = TRANSFORM.matcher(value);
+        while (matcher.find()) {
+            double[] a = numbers(matcher.group(2));
+            switch (matcher.group(1)) {
+                case "matrix":
+                    if (a.length == 6) {
+                        transform.concatenate(new AffineTransform(a[0], a[1], a[2], a[3], a[4], a[5]));
+                    }
+                    break;
+                case "translate":
+                    if (a.length >= 1) {
+                        transform.translate(a[0], a.length > 1 ? a[1] : 0);
+                    }
+                    break;
+                case "scale":
+                    if (a.length >= 1) {
+                        transform.scale(a[0], a.length > 1 ? a[1] : a[0]);
+                    }
+                    break;
+                case "rotate":
+                    if (a.length == 3) {
+                        transform.rotate(Math.toRadians(a[0]), a[1], a[2]);
+                    } else if (a.length == 1) {
+                        transform.rotate(Math.toRadians(a[0]));
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return transform;
+    }
+
+    private static Color color(String value) {
+        String color = value.trim().toLowerCase();
+        if (color.isEmpty() || "none".equals(color) || "transparent".equals(color)) {
+            return null;
+        }
+        if (color.startsWith("#")) {
+            String hex = color.substring(1);
+            if (hex.length() == 3) {
+                hex = "" + hex.charAt(0) + hex.charAt(0) + hex.charAt(1) + hex.charAt(1) + hex.charAt(2) + hex.charAt(2);
+            }
+            try {
+                return new Color(Integer.parseInt(hex, 16));
+            } catch (NumberFormatException e) {
+                return Color.BLACK;
+            }
+        }
+        switch (color) {
+            case "white":
+                return Color.WHITE;
+            case "gray":
+            case "grey":
+                return Color.GRAY;
+            case "red":
+                return Color.RED;
+            case "blue":
+                return Color.BLUE;
+            case "green":
+                return Color.GREEN;
+            default:
+                return Color.BLACK;
+        }
+    }
+
+    private static double length(String value) {
+        double[] parsed = numbers(value);
+        return parsed.length > 0 ? parsed[0] : 0;
+    }
+
+    private static double[] numbers(String value) {
+        if (value == null) {
+            return new double[0];
+        }
+        List<Double> parsed = new ArrayList<>();
+        Matcher matcher = NUMBER.matcher(value);
+        while (matcher.find()) {
+            parsed.add(Double.parseDouble(matcher.group()));
+        }
+        return parsed.stream().mapToDouble(Double::doubleValue).toArray();
+    }
+
+    private static String localName(Node node) {
+        String name = node.getLocalName() != null ? node.getLocalName() : node.getNodeName();
+        int colon = name.indexOf(':');
+        return colon >= 0 ? name.substring(colon + 1) : name;
+    }
+}
@@ -0,0 +1,311 @@
+package com.officemanagement.service;
+
+import com.officemanagement.model.OccupancySample;
+import com.officemanagement.model.OccupancySample.Resolution;
+import com.officemanagement.util.AppSettings;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.Query;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Occupancy over time, per room, per floor and for the whole office.
+ *
+ * A background sampler records the current occupancy as minute rows at a fixed interval.
+ * Completed hours are then summarized into hour rows and completed days into day rows,
+ * and each resolution is purged after its own retention, so long ranges are answered from
+ * a few coarse rows while recent ones keep their detail.
+ *
+ * Buckets are in UTC, so a daylight saving change never makes two hours share a bucket
+ * or leaves a day with 23 or 25 hours of rows. Samples are taken at most once a minute:
+ * a minute row holds a single sample.
+ */
+public class OccupancyHistory {
+    private static final Logger logger = LoggerFactory.getLogger(OccupancyHistory.class);
+    private static final OccupancyHistory INSTANCE = new OccupancyHistory();
+
+    static final long MIN_SAMPLE_INTERVAL_SECONDS = 60;
+
+    private final long sampleIntervalSeconds = sampleIntervalSeconds();
+    private final int maxPoints = AppSettings.getInt("history.maxPoints", 500);
+    private ScheduledExecutorService scheduler;
+    // Minute of the last sample taken, to never write a minute twice
+    private LocalDateTime lastSampled;
+
+    private OccupancyHistory() {
+    }
+
+    public static OccupancyHistory getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * How long rows of a resolution are kept, null when they are never purged.
+     */
+    public static Duration retention(Resolution resolution) {
+        long days = AppSettings.getLong("history.retentionDays." + resolution.name().toLowerCase(Locale.ROOT),
+            resolution == Resolution.MINUTE ? 2 : resolution == Resolution.HOUR ? 90 : 0);
+        return days > 0 ? Duration.ofDays(days) : null;
+    }
+
+    /**
+     * Record the current occupancy as minute rows: one for the office, one per floor and
+     * one per room. A minute that was already sampled is left as it is.
+     *
+     * @param at UTC time of the sample
+     */
+    public synchronized void sample(SessionFactory sessionFactory, LocalDateTime at) {
+        LocalDateTime bucket = Resolution.MINUTE.truncate(at);
+        if (bucket.equals(lastSampled)) {
+            logger.debug("Occupancy of {} already sampled", bucket);
+            return;
+        }
+        OccupancyReport.Report report = OccupancyReport.load(sessionFactory, null);
+        List<OccupancySample> samples = new ArrayList<>();
+        samples.add(sample(bucket, null, null, report.getSeats(), report.getOccupiedSeats()));
+        for (OccupancyReport.FloorStats floor : report.getFloors()) {
+            samples.add(sample(bucket, floor.getFloorId(), null, floor.getSeats(), floor.getOccupiedSeats()));
+            for (OccupancyReport.RoomStats room : floor.getRooms()) {
+                samples.add(sample(bucket, floor.getFloorId(), room.getRoomId(), room.getSeats(), room.getOccupiedSeats()));
+            }
+        }
+        save(sessionFactory, samples);
+        lastSampled = bucket;
+    }
+
+    /**
+     * Summarize the completed hours and days that have no rows of their own yet.
+     * Running it again for the same time adds nothing.
+     *
+     * @return number of rows written
+     */
+    public int rollup(SessionFactory sessionFactory, LocalDateTime now) {
+        return rollup(sessionFactory, Resolution.MINUTE, Resolution.HOUR, now)
+            + rollup(sessionFactory, Resolution.HOUR, Resolution.DAY, now);
+    }
+
+    /**
+     * Delete the rows past the retention of their resolution. Rows are only deleted once
+     * the resolution above summarizes them.
+     *
+     * @return number of rows deleted
+     */
+    public int purge(SessionFactory sessionFactory, LocalDateTime now) {
+        int deleted = 0;
+        for (Resolution resolution : Resolution.values()) {
+            Duration retention = retention(resolution);
+            if (retention == null) {
+                continue;
+            }
+            LocalDateTime cutoff = now.minus(retention);
+            if (resolution != Resolution.DAY) {
+                Resolution coarser = Resolution.values()[resolution.ordinal() + 1];
+                LocalDateTime summarized = summarizedUntil(sessionFactory, coarser);
+                if (summarized == null) {
+                    continue;
+                }
+                if (summarized.isBefore(cutoff)) {
+                    cutoff = summarized;
+                }
+            }
+            try (Session session = sessionFactory.openSession()) {
+                Transaction tx = session.beginTransaction();
+                deleted += session.createQuery(
+                        "delete from OccupancySample s where s.resolution = :resolution and s.bucketStart < :cutoff")
+                    .setParameter("resolution", resolution)
+                    .setParameter("cutoff", cutoff)
+                    .executeUpdate();
+                tx.commit();
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Finest resolution that still covers from and returns at most history.maxPoints
+     * buckets per series.
+     */
+    public Resolution pickResolution(LocalDateTime from, LocalDateTime to, LocalDateTime now) {
+        Duration range = Duration.between(from, to);
+        for (Resolution resolution : Resolution.values()) {
+            Duration retention = retention(resolution);
+            boolean retained = retention == null || !from.isBefore(now.minus(retention));
+            if (retained && range.dividedBy(resolution.getDuration()) <= maxPoints) {
+                return resolution;
+            }
+        }
+        return Resolution.DAY;
+    }
+
+    /**
+     * Rows of one series between from (inclusive) and to (exclusive). A null floorId is the
+     * whole office, a null roomId the whole floor.
+     */
+    public List<OccupancySample> query(SessionFactory sessionFactory, Long floorId, Long roomId,
+                                       LocalDateTime from, LocalDateTime to, Resolution resolution) {
+        try (Session session = sessionFactory.openSession()) {
+            Query<OccupancySample> query = session.createQuery(
+                    "from OccupancySample s where s.resolution = :resolution " +
+                    (floorId != null ? "and s.floorId = :floorId " : "and s.floorId is null ") +
+                    (roomId != null ? "and s.roomId = :roomId " : "and s.roomId is null ") +
+                    "and s.bucketStart >= :from and s.bucketStart < :to " +
+                    "order by s.bucketStart", OccupancySample.class)
+                .setParameter("resolution", resolution)
+                .setParameter("from", from)
+                .setParameter("to", to);
+            if (floorId != null) {
+                query.setParameter("floorId", floorId);
+            }
+            if (roomId != null) {
+                query.setParameter("roomId", roomId);
+            }
+            return query.list();
+        }
+    }
+
+    /**
+     * Sample, roll up and purge in the background.
+     */
+    public synchronized void start(SessionFactory sessionFactory) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "occupancy-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(() -> {
+            LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+            try {
+                sample(sessionFactory, now);
+                int written = rollup(sessionFactory, now);
+                int deleted = purge(sessionFactory, now);
+                if (written > 0 || deleted > 0) {
+                    logger.debug("Occupancy history: {} rows rolled up, {} rows purged", written, deleted);
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Occupancy sampling failed: {}", e.getMessage());
+            }
+        }, sampleIntervalSeconds, sampleIntervalSeconds, TimeUnit.SECONDS);
+        logger.info("Occupancy sampler started, one sample every {} s", sampleIntervalSeconds);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    private static long sampleIntervalSeconds() {
+        long seconds = AppSettings.getLong("history.sampleIntervalSeconds", MIN_SAMPLE_INTERVAL_SECONDS);
+        if (seconds < MIN_SAMPLE_INTERVAL_SECONDS) {
+            logger.warn("history.sampleIntervalSeconds={} is below the {} s minute rows hold, using {} s",
+                seconds, MIN_SAMPLE_INTERVAL_SECONDS, MIN_SAMPLE_INTERVAL_SECONDS);
+            return MIN_SAMPLE_INTERVAL_SECONDS;
+        }
+        return seconds;
+    }
+
+    private int rollup(SessionFactory sessionFactory, Resolution source, Resolution target, LocalDateTime now) {
+        LocalDateTime end = target.truncate(now);
+        LocalDateTime summarized = summarizedUntil(sessionFactory, target);
+        Dialect dialect = sessionFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        // The database groups the finer rows of one bucket and writes the summaries itself,
+        // nothing is loaded; ids come from the sequence of the entity
+        String insert =
+            "insert into occupancy_samples (id, resolution, floor_id, room_id, bucket_start, " +
+            "samples, seats, occupied_avg, occupied_min, occupied_max) " +
+            "select " + dialect.getSelectSequenceNextValString(OccupancySample.SEQUENCE) + ", " +
+            ":target, floor_id, room_id, :bucket, sum(samples), max(seats), " +
+            "sum(occupied_avg * samples) / sum(samples), min(occupied_min), max(occupied_max) " +
+            "from occupancy_samples " +
+            "where resolution = :source and bucket_start >= :bucket and bucket_start < :bucketEnd " +
+            "group by floor_id, room_id";
+
+        int written = 0;
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            LocalDateTime bucket = firstBucket(session, source, target, summarized);
+            while (bucket != null && bucket.isBefore(end)) {
+                LocalDateTime bucketEnd = bucket.plus(target.getDuration());
+                written += session.createNativeQuery(insert)
+                    .addSynchronizedEntityClass(OccupancySample.class)
+                    .setParameter("target", target.name())
+                    .setParameter("source", source.name())
+                    .setParameter("bucket", bucket)
+                    .setParameter("bucketEnd", bucketEnd)
+                    .executeUpdate();
+                // Skip the buckets without finer rows, e.g. while the sampler was stopped
+                bucket = firstBucket(session, source, target, bucketEnd);
+            }
+            tx.commit();
+        }
+        return written;
+    }
+
+    /**
+     * Bucket of the target resolution holding the first source row from the given time on,
+     * or from the start of the history when it is null.
+     */
+    private static LocalDateTime firstBucket(Session session, Resolution source, Resolution target, LocalDateTime from) {
+        Query<LocalDateTime> query = session.createQuery(
+                "select min(s.bucketStart) from OccupancySample s where s.resolution = :resolution" +
+                (from != null ? " and s.bucketStart >= :from" : ""), LocalDateTime.class)
+            .setParameter("resolution", source);
+        if (from != null) {
+            query.setParameter("from", from);
+        }
+        LocalDateTime first = query.uniqueResult();
+        return first != null ? target.truncate(first) : null;
+    }
+
+    /**
+     * End of the last bucket written at a resolution, null when it has no rows.
+     */
+    private static LocalDateTime summarizedUntil(SessionFactory sessionFactory, Resolution resolution) {
+        try (Session session = sessionFactory.openSession()) {
+            LocalDateTime last = session.createQuery(
+                    "select max(s.bucketStart) from OccupancySample s where s.resolution = :resolution",
+                    LocalDateTime.class)
+                .setParameter("resolution", resolution)
+                .uniqueResult();
+            return last != null ? last.plus(resolution.getDuration()) : null;
+        }
+    }
+
+    private static OccupancySample sample(LocalDateTime bucket, Long floorId, Long roomId, long seats, long occupied) {
+        OccupancySample sample = new OccupancySample(Resolution.MINUTE, floorId, roomId, bucket);
+        sample.setSamples(1);
+        sample.setSeats(seats);
+        sample.setOccupiedAvg(occupied);
+        sample.setOccupiedMin(occupied);
+        sample.setOccupiedMax(occupied);
+        return sample;
+    }
+
+    private static void save(SessionFactory sessionFactory, List<OccupancySample> samples) {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            for (OccupancySample sample : samples) {
+                session.save(sample);
+            }
+            tx.commit();
+        }
+    }
+}
@@ -0,0 +1,414 @@
+package com.officemanagement.service;
+
+import com.officemanagement.model.Seat;
+import com.officemanagement.util.HibernateUtil;
+import com.officemanagement.util.TransactionHooks;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * In-memory index of seat occupancy, partitioned by floor and room.
+ *
+ * Every partition keeps two compressed bitmaps of seat IDs: all seats and occupied
+ * seats. Free seats, occupancy ratios and set intersections are then answered with
+ * bitmap operations instead of loading seats and their employees.
+ *
+ * The index is built with a single query at startup (or lazily on first use) and kept
+ * up to date by the write paths once their transaction commits. Writers of a seat's
+ * occupancy hold its {@link SeatLocks} lock until after the commit, so the counts they
+ * capture reach the index in commit order.
+ */
+public class OccupancyIndex {
+    private static final Logger logger = LoggerFactory.getLogger(OccupancyIndex.class);
+    private static final OccupancyIndex INSTANCE = new OccupancyIndex();
+
+    private static final String LOAD_QUERY =
+        "select s.id, s.room_id, r.floor_id, coalesce(a.assignments, 0) " +
+        "from seats s " +
+        "join office_rooms r on r.id = s.room_id " +
+        "left join (select seat_id, count(*) as assignments " +
+        "           from employee_seat_assignments group by seat_id) a on a.seat_id = s.id";
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private State state = new State();
+    // Updates committed while a rebuild scans the database, replayed on the new state
+    private List<Consumer<State>> replay;
+    private volatile boolean loaded;
+
+    public static OccupancyIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Rebuild the whole index from the database with one scan of the seat assignments.
+     * The scan runs without the lock; updates committed meanwhile are replayed on the new
+     * state before it replaces the current one.
+     */
+    public synchronized void rebuild(SessionFactory sessionFactory) {
+        long start = System.nanoTime();
+        List<Consumer<State>> committedMeanwhile = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            replay = committedMeanwhile;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        State fresh = new State();
+        int seats;
+        try (Session session = sessionFactory.openSession()) {
+            List<?> rows = session.createNativeQuery(LOAD_QUERY).list();
+            for (Object row : rows) {
+                Object[] columns = (Object[]) row;
+                fresh.put(toLong(columns[0]), toLong(columns[1]), toLong(columns[2]),
+                    (int) Math.min(Integer.MAX_VALUE, toLong(columns[3])));
+            }
+            seats = rows.size();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                replay = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            // Absolute values in commit order: replaying what the scan already saw is harmless
+            committedMeanwhile.forEach(update -> update.accept(fresh));
+            replay = null;
+            state = fresh;
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Occupancy index built with {} seats in {} ms",
+            seats, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // ---- Updates, applied after the surrounding transaction commits ----
+
+    /**
+     * Record the current occupancy of a seat once the transaction commits.
+     * The employee count is captured now, while the seat's collection is loaded.
+     */
+    public void seatOccupancyAfterCommit(Session session, Seat seat) {
+        long seatId = seat.getId();
+        Long roomId = seat.getRoom().getId();
+        Long floorId = floorIdOf(seat);
+        int employees = seat.getEmployees().size();
+        TransactionHooks.afterCommit(session, () -> update(seatId, roomId, floorId, employees));
+    }
+
+    /**
+     * Same as {@link #seatOccupancyAfterCommit(Session, Seat)}, for seats that were not loaded.
+     */
+    public void seatOccupancyAfterCommit(Session session, long seatId, Long roomId, Long floorId, int employees) {
+        TransactionHooks.afterCommit(session, () -> update(seatId, roomId, floorId, employees));
+    }
+
+    /**
+     * Register a new or moved seat once the transaction commits, keeping its occupancy.
+     */
+    public void seatPlacedAfterCommit(Session session, Seat seat) {
+        long seatId = seat.getId();
+        Long roomId = seat.getRoom().getId();
+        Long floorId = floorIdOf(seat);
+        TransactionHooks.afterCommit(session, () -> place(seatId, roomId, floorId));
+    }
+
+    public void seatsRemovedAfterCommit(Session session, Collection<Long> seatIds) {
+        List<Long> removed = new ArrayList<>(seatIds);
+        TransactionHooks.afterCommit(session, () -> remove(removed));
+    }
+
+    /**
+     * Move all seats of a room to another floor once the transaction commits.
+     */
+    public void roomMovedAfterCommit(Session session, Long roomId, Long floorId) {
+        TransactionHooks.afterCommit(session, () -> moveRoom(roomId, floorId));
+    }
+
+    void update(long seatId, Long roomId, Long floorId, int employees) {
+        apply(state -> state.put(seatId, roomId, floorId, employees));
+    }
+
+    void place(long seatId, Long roomId, Long floorId) {
+        apply(state -> {
+            SeatEntry existing = state.seats.get(seatId);
+            state.put(seatId, roomId, floorId, existing != null ? existing.employees : 0);
+        });
+    }
+
+    void remove(Collection<Long> seatIds) {
+        apply(state -> seatIds.forEach(state::remove));
+    }
+
+    void moveRoom(Long roomId, Long floorId) {
+        apply(state -> {
+            Roaring64Bitmap roomSeats = state.roomSeats.get(roomId != null ? roomId : -1L);
+            if (roomSeats == null) {
+                return;
+            }
+            for (long seatId : roomSeats.toArray()) {
+                SeatEntry entry = state.seats.get(seatId);
+                state.put(seatId, roomId, floorId, entry.employees);
+            }
+        });
+    }
+
+    /**
+     * Apply a committed change to the index, and to the one being rebuilt if any.
+     */
+    private void apply(Consumer<State> update) {
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                update.accept(state);
+            }
+            if (replay != null) {
+                replay.add(update);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ---- Queries ----
+
+    public boolean isOccupied(long seatId) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            SeatEntry entry = state.seats.get(seatId);
+            return entry != null && entry.employees > 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Roaring64Bitmap seatsOnFloor(Long floorId) {
+        return copyOf(() -> state.floorSeats.get(floorId));
+    }
+
+    public Roaring64Bitmap occupiedSeatsOnFloor(Long floorId) {
+        return copyOf(() -> state.floorOccupied.get(floorId));
+    }
+
+    public Roaring64Bitmap freeSeatsOnFloor(Long floorId) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            Roaring64Bitmap free = orEmpty(state.floorSeats.get(floorId)).clone();
+            free.andNot(orEmpty(state.floorOccupied.get(floorId)));
+            return free;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Roaring64Bitmap seatsInRoom(Long roomId) {
+        return copyOf(() -> state.roomSeats.get(roomId));
+    }
+
+    public Roaring64Bitmap freeSeatsInRoom(Long roomId) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            Roaring64Bitmap free = orEmpty(state.roomSeats.get(roomId)).clone();
+            free.andNot(orEmpty(state.roomOccupied.get(roomId)));
+            return free;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Occupancy of a floor and of each of its rooms that has seats.
+     */
+    public FloorOccupancy floorOccupancy(Long floorId) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            Roaring64Bitmap floorSeats = orEmpty(state.floorSeats.get(floorId));
+            Roaring64Bitmap floorOccupied = orEmpty(state.floorOccupied.get(floorId));
+
+            List<RoomOccupancy> rooms = new ArrayList<>();
+            long floorKey = floorId != null ? floorId : -1L;
+            for (Map.Entry<Long, Long> entry : state.roomFloors.entrySet()) {
+                if (entry.getValue() != floorKey) {
+                    continue;
+                }
+                Long roomId = entry.getKey();
+                rooms.add(new RoomOccupancy(roomId,
+                    orEmpty(state.roomSeats.get(roomId)).getLongCardinality(),
+                    orEmpty(state.roomOccupied.get(roomId)).getLongCardinality()));
+            }
+            return new FloorOccupancy(floorId, floorSeats.getLongCardinality(), floorOccupied.getLongCardinality(), rooms);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    rebuild(HibernateUtil.getSessionFactory());
+                }
+            }
+        }
+    }
+
+    private Roaring64Bitmap copyOf(Supplier<Roaring64Bitmap> bitmap) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return orEmpty(bitmap.get()).clone();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Roaring64Bitmap orEmpty(Roaring64Bitmap bitmap) {
+        return bitmap != null ? bitmap : new Roaring64Bitmap();
+    }
+
+    private static Long floorIdOf(Seat seat) {
+        return seat.getRoom().getFloor() != null ? seat.getRoom().getFloor().getId() : null;
+    }
+
+    private static long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : -1L;
+    }
+
+    /**
+     * Occupancy totals of a floor, with a breakdown per room
+     */
+    public static class FloorOccupancy {
+        private final Long floorId;
+        private final long totalSeats;
+        private final long occupiedSeats;
+        private final List<RoomOccupancy> rooms;
+
+        FloorOccupancy(Long floorId, long totalSeats, long occupiedSeats, List<RoomOccupancy> rooms) {
+            this.floorId = floorId;
+            this.totalSeats = totalSeats;
+            this.occupiedSeats = occupiedSeats;
+            this.rooms = rooms;
+        }
+
+        public Long getFloorId() { return floorId; }
+        public long getTotalSeats() { return totalSeats; }
+        public long getOccupiedSeats() { return occupiedSeats; }
+        public double getOccupancyRatio() { return ratio(occupiedSeats, totalSeats); }
+        public List<RoomOccupancy> getRooms() { return rooms; }
+    }
+
+    public static class RoomOccupancy {
+        private final Long roomId;
+        private final long totalSeats;
+        private final long occupiedSeats;
+
+        RoomOccupancy(Long roomId, long totalSeats, long occupiedSeats) {
+            this.roomId = roomId;
+            this.totalSeats = totalSeats;
+            this.occupiedSeats = occupiedSeats;
+        }
+
+        public Long getRoomId() { return roomId; }
+        public long getTotalSeats() { return totalSeats; }
+        public long getOccupiedSeats() { return occupiedSeats; }
+        public double getOccupancyRatio() { return ratio(occupiedSeats, totalSeats); }
+    }
+
+    private static double ratio(long part, long total) {
+        return total == 0 ? 0.0 : (double) part / total;
+    }
+
+    private static final class SeatEntry {
+        private final long roomId;
+        private final long floorId;
+        private final int employees;
+
+        private SeatEntry(long roomId, long floorId, int employees) {
+            this.roomId = roomId;
+            this.floorId = floorId;
+            this.employees = employees;
+        }
+    }
+
+    /**
+     * Mutable index structures, only touched while holding the write lock, or by the
+     * rebuild before they are published.
+     */
+    private static final class State {
+        private final Map<Long, SeatEntry> seats = new HashMap<>();
+        private final Map<Long, Roaring64Bitmap> floorSeats = new HashMap<>();
+        private final Map<Long, Roaring64Bitmap> floorOccupied = new HashMap<>();
+        private final Map<Long, Roaring64Bitmap> roomSeats = new HashMap<>();
+        private final Map<Long, Roaring64Bitmap> roomOccupied = new HashMap<>();
+        private final Map<Long, Long> roomFloors = new HashMap<>();
+
+        void put(long seatId, Long roomId, Long floorId, int employees) {
+            remove(seatId);
+            long room = roomId != null ? roomId : -1L;
+            long floor = floorId != null ? floorId : -1L;
+            seats.put(seatId, new SeatEntry(room, floor, employees));
+            roomFloors.put(room, floor);
+            bitmap(roomSeats, room).addLong(seatId);
+            bitmap(floorSeats, floor).addLong(seatId);
+            if (employees > 0) {
+                bitmap(roomOccupied, room).addLong(seatId);
+                bitmap(floorOccupied, floor).addLong(seatId);
+            }
+        }
+
+        void remove(long seatId) {
+            SeatEntry entry = seats.remove(seatId);
+            if (entry == null) {
+                return;
+            }
+            clear(roomSeats, entry.roomId, seatId);
+            clear(roomOccupied, entry.roomId, seatId);
+            clear(floorSeats, entry.floorId, seatId);
+            clear(floorOccupied, entry.floorId, seatId);
+            if (!roomSeats.containsKey(entry.roomId)) {
+                roomFloors.remove(entry.roomId);
+            }
+        }
+
+        private static Roaring64Bitmap bitmap(Map<Long, Roaring64Bitmap> partitions, long key) {
+            return partitions.computeIfAbsent(key, k -> new Roaring64Bitmap());
+        }
+
+        private static void clear(Map<Long, Roaring64Bitmap> partitions, long key, long seatId) {
+            Roaring64Bitmap bitmap = partitions.get(key);
+            if (bitmap != null) {
+                bitmap.removeLong(seatId);
+                if (bitmap.isEmpty()) {
+                    partitions.remove(key);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.officemanagement.service;
+
+import com.officemanagement.util.AppSettings;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.query.NativeQuery;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Occupancy analytics per floor and per room, computed by the database in one grouped
+ * query over the seats and their assignments.
+ *
+ * Every floor and room is listed, with zero counts when it has no seats yet.
+ *
+ * Reports are cached for a short time, per floor and for the whole office, and at most
+ * {@code stats.occupancy.maxReports} of them are kept. When a report expires only one
+ * caller runs the query again; concurrent callers wait for its result instead of sending
+ * the same aggregation to the database. Unknown floors get no report and are not cached.
+ */
+public class OccupancyReport {
+    private static final OccupancyReport INSTANCE = new OccupancyReport(
+        AppSettings.getLong("stats.occupancy.ttlMs", 5000),
+        AppSettings.getInt("stats.occupancy.maxReports", 256));
+
+    // Key of the report covering every floor
+    private static final long ALL_FLOORS = -1L;
+
+    // Seats and occupied seats per room, starting from the floors so that floors without
+    // rooms and rooms without seats are counted too (room_id is null for the former), then
+    // the seat count per room of every employee that has more than one seat; the second
+    // part is small and tells apart employees with several seats in one room from those
+    // spread over a floor
+    private static final String REPORT_QUERY =
+        "select f.id as floor_id, r.id as room_id, count(s.id) as seats, count(o.seat_id) as occupied, " +
+        "       cast(null as bigint) as employee_id, 0 as employee_seats " +
+        "from floors f " +
+        "left join office_rooms r on r.floor_id = f.id " +
+        "left join seats s on s.room_id = r.id " +
+        "left join (select distinct seat_id from employee_seat_assignments) o on o.seat_id = s.id " +
+        "%1$s " +
+        "group by f.id, r.id " +
+        "union all " +
+        "select r.floor_id, s.room_id, 0, 0, a.employee_id, count(*) " +
+        "from employee_seat_assignments a " +
+        "join seats s on s.id = a.seat_id " +
+        "join office_rooms r on r.id = s.room_id " +
+        "where a.employee_id in (select employee_id from employee_seat_assignments " +
+        "                        group by employee_id having count(*) > 1) " +
+        "%2$s " +
+        "group by r.floor_id, s.room_id, a.employee_id";
+
+    private final long ttlMillis;
+    private final int maxReports;
+    private final ConcurrentMap<Long, Report> reports = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, CompletableFuture<Report>> refreshes = new ConcurrentHashMap<>();
+
+    OccupancyReport(long ttlMillis, int maxReports) {
+        this.ttlMillis = ttlMillis;
+        this.maxReports = maxReports;
+    }
+
+    public static OccupancyReport getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Occupancy of one floor, or of every floor when floorId is null. Null when the floor
+     * does not exist.
+     */
+    public Report get(SessionFactory sessionFactory, Long floorId) {
+        long key = floorId != null ? floorId : ALL_FLOORS;
+        Report report = reports.get(key);
+        if (isFresh(report)) {
+            return report;
+        }
+
+        CompletableFuture<Report> refresh = new CompletableFuture<>();
+        CompletableFuture<Report> running = refreshes.putIfAbsent(key, refresh);
+        if (running != null) {
+            return await(running);
+        }
+        try {
+            // Another caller may have refreshed it between our two lookups
+            report = reports.get(key);
+            if (!isFresh(report)) {
+                report = load(sessionFactory, floorId);
+                if (report != null) {
+                    store(key, report);
+                }
+            }
+            refresh.complete(report);
+            return report;
+        } catch (RuntimeException e) {
+            refresh.completeExceptionally(e);
+            throw e;
+        } finally {
+            refreshes.remove(key, refresh);
+        }
+    }
+
+    /**
+     * Forget all cached reports.
+     */
+    public void clear() {
+        reports.clear();
+    }
+
+    /**
+     * Cache a report, first making room when the cache is full: expired reports go, then
+     * the oldest ones.
+     */
+    private void store(long key, Report report) {
+        if (!reports.containsKey(key) && reports.size() >= maxReports) {
+            reports.values().removeIf(cached -> !isFresh(cached));
+            while (!reports.isEmpty() && reports.size() >= maxReports) {
+                reports.entrySet().stream()
+                    .min(Comparator.comparingLong(entry -> entry.getValue().computedAtMillis))
+                    .ifPresent(oldest -> reports.remove(oldest.getKey(), oldest.getValue()));
+            }
+        }
+        reports.put(key, report);
+    }
+
+    private boolean isFresh(Report report) {
+        return report != null && System.currentTimeMillis() - report.computedAtMillis < ttlMillis;
+    }
+
+    private static Report await(CompletableFuture<Report> refresh) {
+        try {
+            return refresh.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Run the aggregation now, bypassing the cache. Null when the floor does not exist.
+     */
+    static Report load(SessionFactory sessionFactory, Long floorId) {
+        List<?> rows;
+        try (Session session = sessionFactory.openSession()) {
+            NativeQuery<?> query = session.createNativeQuery(String.format(REPORT_QUERY,
+                floorId != null ? "where f.id = :floorId" : "",
+                floorId != null ? "and r.floor_id = :floorId" : ""));
+            if (floorId != null) {
+                query.setParameter("floorId", floorId);
+            }
+            rows = query.list();
+        }
+        if (floorId != null && rows.isEmpty()) {
+            // Every floor has a row of its own, even without rooms
+            return null;
+        }
+
+        Map<Long, FloorStats> floors = new TreeMap<>();
+        // Seats per employee and floor, for those with more than one seat overall
+        Map<Long, Map<Long, Long>> employeeSeatsByFloor = new HashMap<>();
+        for (Object value : rows) {
+            Object[] row = (Object[]) value;
+            long floor = ((Number) row[0]).longValue();
+            FloorStats floorStats = floors.computeIfAbsent(floor, FloorStats::new);
+            if (row[1] == null) {
+                // A floor without rooms
+                continue;
+            }
+            long room = ((Number) row[1]).longValue();
+            RoomStats roomStats = floorStats.roomsById.computeIfAbsent(room, RoomStats::new);
+            if (row[4] == null) {
+                roomStats.seats = ((Number) row[2]).longValue();
+                roomStats.occupiedSeats = ((Number) row[3]).longValue();
+            } else {
+                long employeeSeats = ((Number) row[5]).longValue();
+                if (employeeSeats > 1) {
+                    roomStats.employeesWithMultipleSeats++;
+                }
+                employeeSeatsByFloor.computeIfAbsent(floor, key -> new HashMap<>())
+                    .merge(((Number) row[4]).longValue(), employeeSeats, Long::sum);
+            }
+        }
+
+        Report report = new Report(floorId);
+        for (FloorStats floorStats : floors.values()) {
+            for (RoomStats roomStats : floorStats.roomsById.values()) {
+                floorStats.seats += roomStats.seats;
+                floorStats.occupiedSeats += roomStats.occupiedSeats;
+                floorStats.rooms.add(roomStats);
+            }
+            floorStats.employeesWithMultipleSeats = employeeSeatsByFloor
+                .getOrDefault(floorStats.floorId, new HashMap<>())
+                .values().stream().filter(seats -> seats > 1).count();
+            report.seats += floorStats.seats;
+            report.occupiedSeats += floorStats.occupiedSeats;
+            report.floors.add(floorStats);
+        }
+        Map<Long, Long> employeeSeats = new HashMap<>();
+        employeeSeatsByFloor.values().forEach(seats -> seats.forEach(
+            (employee, count) -> employeeSeats.merge(employee, count, Long::sum)));
+        report.employeesWithMultipleSeats = employeeSeats.values().stream().filter(seats -> seats > 1).count();
+        return report;
+    }
+
+    private static double freeRatio(long occupied, long seats) {
+        return seats == 0 ? 0.0 : (double) (seats - occupied) / seats;
+    }
+
+    /**
+     * Occupancy totals of the office, or of one floor, with a breakdown per floor and room
+     */
+    public static class Report {
+        private final Long floorId;
+        private final LocalDateTime computedAt = LocalDateTime.now();
+        private final long computedAtMillis = System.currentTimeMillis();
+        private long seats;
+        private long occupiedSeats;
+        private long employeesWithMultipleSeats;
+        private final List<FloorStats> floors = new ArrayList<>();
+
+        Report(Long floorId) {
+            this.floorId = floorId;
+        }
+
+        public Long getFloorId() { return floorId; }
+        public LocalDateTime getComputedAt() { return computedAt; }
+        public long getSeats() { return seats; }
+        public long getOccupiedSeats() { return occupiedSeats; }
+        public long getEmployeesWithMultipleSeats() { return employeesWithMultipleSeats; }
+        public double getFreeRatio() { return freeRatio(occupiedSeats, seats); }
+        public List<FloorStats> getFloors() { return floors; }
+    }
+
+    public static class FloorStats {
+        private final long floorId;
+        private long seats;
+        private long occupiedSeats;
+        private long employeesWithMultipleSeats;
+        private final List<RoomStats> rooms = new ArrayList<>();
+        private final Map<Long, RoomStats> roomsById = new TreeMap<>();
+
+        FloorStats(long floorId) {
+            this.floorId = floorId;
+        }
+
+        public long getFloorId() { return floorId; }
+        public long getSeats() { return seats; }
+        public long getOccupiedSeats() { return occupiedSeats; }
+        public long getEmployeesWithMultipleSeats() { return employeesWithMultipleSeats; }
+        public double getFreeRatio() { return freeRatio(occupiedSeats, seats); }
+        public List<RoomStats> getRooms() { return rooms; }
+    }
+
+    public static class RoomStats {
+        private final long roomId;
+        private long seats;
+        private long occupiedSeats;
+        private long employeesWithMultipleSeats;
+
+        RoomStats(long roomId) {
+            this.roomId = roomId;
+        }
+
+        public long getRoomId() { return roomId; }
+        public long getSeats() { return seats; }
+        public long getOccupiedSeats() { return occupiedSeats; }
+        public long getEmployeesWithMultipleSeats() { return employeesWithMultipleSeats; }
+        public double getFreeRatio() { return freeRatio(occupiedSeats, seats); }
+    }
+}
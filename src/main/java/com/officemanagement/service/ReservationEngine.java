@@ -0,0 +1,382 @@
+package com.officemanagement.service;
+
+import com.officemanagement.util.HibernateUtil;
+import com.officemanagement.util.TransactionHooks;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory schedule of hot-desk reservations used for conflict checks and availability.
+ *
+ * Bookings of a seat (and of an employee) never overlap, so each schedule is a tree of
+ * disjoint intervals ordered by start time. Whether [start, end) is free only needs the
+ * interval with the greatest start before {@code end}: an O(log n) lookup, independent of
+ * how many bookings the building has.
+ *
+ * New bookings are first held in memory, which rejects concurrent conflicting requests,
+ * then persisted by the caller and either confirmed or released.
+ */
+public class ReservationEngine {
+    private static final Logger logger = LoggerFactory.getLogger(ReservationEngine.class);
+    private static final ReservationEngine INSTANCE = new ReservationEngine();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, IntervalSchedule> seatSchedules = new HashMap<>();
+    private final Map<Long, IntervalSchedule> employeeSchedules = new HashMap<>();
+    private final Map<Long, Booking> bookingsById = new HashMap<>();
+    private volatile boolean loaded;
+
+    public static ReservationEngine getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Load every reservation that has not ended yet from the database.
+     */
+    public void reload(SessionFactory sessionFactory) {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try (Session session = sessionFactory.openSession()) {
+            List<Object[]> rows = session.createQuery(
+                "select r.id, r.seatId, r.employeeId, r.startTime, r.endTime " +
+                "from SeatReservation r where r.endTime > :now", Object[].class)
+                .setParameter("now", LocalDateTime.now())
+                .list();
+
+            seatSchedules.clear();
+            employeeSchedules.clear();
+            bookingsById.clear();
+            for (Object[] row : rows) {
+                Booking booking = new Booking((Long) row[1], (Long) row[2],
+                    (LocalDateTime) row[3], (LocalDateTime) row[4]);
+                booking.reservationId = (Long) row[0];
+                add(booking);
+                bookingsById.put(booking.reservationId, booking);
+            }
+            loaded = true;
+            logger.info("Reservation engine loaded {} upcoming reservations in {} ms",
+                rows.size(), (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Try to hold all requested bookings at once. Either every booking is held, or none
+     * is and the returned hold lists the conflicting requests by their position.
+     */
+    public Hold hold(List<Booking> requests) {
+        ensureLoaded();
+        List<Conflict> conflicts = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            List<Booking> held = new ArrayList<>();
+            for (int i = 0; i < requests.size(); i++) {
+                Booking request = requests.get(i);
+                // Schedules are only created when a booking is added, rejected requests leave none behind
+                IntervalSchedule seatSchedule = seatSchedules.get(request.seatId);
+                IntervalSchedule employeeSchedule = employeeSchedules.get(request.employeeId);
+                // Past bookings can never conflict again, drop them while we are here
+                if (seatSchedule != null) {
+                    seatSchedule.endedBefore(now).forEach(this::forget);
+                }
+                if (employeeSchedule != null) {
+                    employeeSchedule.endedBefore(now).forEach(this::forget);
+                }
+
+                if (seatSchedule != null && seatSchedule.overlaps(request.start, request.end)) {
+                    conflicts.add(new Conflict(i, "Seat " + request.seatId + " is already booked in this period"));
+                } else if (employeeSchedule != null && employeeSchedule.overlaps(request.start, request.end)) {
+                    conflicts.add(new Conflict(i, "Employee " + request.employeeId + " already has a booking in this period"));
+                } else {
+                    // Held right away so later requests of the same batch see it
+                    add(request);
+                    held.add(request);
+                }
+            }
+            if (!conflicts.isEmpty()) {
+                held.forEach(this::remove);
+                return new Hold(Collections.emptyList(), conflicts);
+            }
+            return new Hold(held, conflicts);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a persisted reservation from the schedule once the transaction commits.
+     */
+    public void cancelAfterCommit(Session session, Long reservationId) {
+        TransactionHooks.afterCommit(session, () -> cancel(Collections.singletonList(reservationId)));
+    }
+
+    /**
+     * Drop the bookings of deleted seats once the transaction commits.
+     */
+    public void seatsRemovedAfterCommit(Session session, Collection<Long> seatIds) {
+        List<Long> removed = new ArrayList<>(seatIds);
+        TransactionHooks.afterCommit(session, () -> forgetSchedules(seatSchedules, removed));
+    }
+
+    /**
+     * Drop the bookings of deleted employees once the transaction commits.
+     */
+    public void employeesRemovedAfterCommit(Session session, Collection<Long> employeeIds) {
+        List<Long> removed = new ArrayList<>(employeeIds);
+        TransactionHooks.afterCommit(session, () -> forgetSchedules(employeeSchedules, removed));
+    }
+
+    private void forgetSchedules(Map<Long, IntervalSchedule> schedules, Collection<Long> keys) {
+        lock.writeLock().lock();
+        try {
+            for (Long key : keys) {
+                IntervalSchedule schedule = schedules.get(key);
+                if (schedule != null) {
+                    new ArrayList<>(schedule.byStart.values()).forEach(this::forget);
+                    schedules.remove(key);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void cancel(Collection<Long> reservationIds) {
+        lock.writeLock().lock();
+        try {
+            for (Long reservationId : reservationIds) {
+                Booking booking = bookingsById.get(reservationId);
+                if (booking != null) {
+                    forget(booking);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isFree(Long seatId, LocalDateTime start, LocalDateTime end) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            IntervalSchedule schedule = seatSchedules.get(seatId);
+            return schedule == null || !schedule.overlaps(start, end);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Whether the seat has a booking that has not ended at the given time. Such a seat
+     * cannot be assigned to anyone permanently.
+     */
+    public boolean isBookedAfter(Long seatId, LocalDateTime time) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            IntervalSchedule schedule = seatSchedules.get(seatId);
+            return schedule != null && schedule.endsAfter(time);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Subset of the candidate seats that have no booking overlapping [start, end).
+     * Costs O(log n) per candidate seat instead of a scan over all bookings.
+     */
+    public Roaring64Bitmap freeSeats(Roaring64Bitmap candidates, LocalDateTime start, LocalDateTime end) {
+        ensureLoaded();
+        Roaring64Bitmap free = new Roaring64Bitmap();
+        lock.readLock().lock();
+        try {
+            candidates.forEach(seatId -> {
+                IntervalSchedule schedule = seatSchedules.get(seatId);
+                if (schedule == null || !schedule.overlaps(start, end)) {
+                    free.addLong(seatId);
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        return free;
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    reload(HibernateUtil.getSessionFactory());
+                }
+            }
+        }
+    }
+
+    private void add(Booking booking) {
+        seatSchedules.computeIfAbsent(booking.seatId, id -> new IntervalSchedule()).add(booking);
+        employeeSchedules.computeIfAbsent(booking.employeeId, id -> new IntervalSchedule()).add(booking);
+    }
+
+    private void remove(Booking booking) {
+        remove(seatSchedules, booking.seatId, booking);
+        remove(employeeSchedules, booking.employeeId, booking);
+    }
+
+    private static void remove(Map<Long, IntervalSchedule> schedules, Long key, Booking booking) {
+        IntervalSchedule schedule = schedules.get(key);
+        if (schedule != null) {
+            schedule.remove(booking);
+            if (schedule.isEmpty()) {
+                schedules.remove(key);
+            }
+        }
+    }
+
+    private void forget(Booking booking) {
+        remove(booking);
+        if (booking.reservationId != null) {
+            bookingsById.remove(booking.reservationId);
+        }
+    }
+
+    /**
+     * Bookings held in memory while they are being persisted
+     */
+    public class Hold {
+        private final List<Booking> bookings;
+        private final List<Conflict> conflicts;
+
+        private Hold(List<Booking> bookings, List<Conflict> conflicts) {
+            this.bookings = bookings;
+            this.conflicts = conflicts;
+        }
+
+        public boolean isAccepted() {
+            return conflicts.isEmpty();
+        }
+
+        public List<Conflict> getConflicts() {
+            return conflicts;
+        }
+
+        /**
+         * Keep the held bookings, now identified by their persisted reservation IDs
+         * (in the same order as the requests).
+         */
+        public void confirm(List<Long> reservationIds) {
+            lock.writeLock().lock();
+            try {
+                for (int i = 0; i < bookings.size(); i++) {
+                    Booking booking = bookings.get(i);
+                    booking.reservationId = reservationIds.get(i);
+                    bookingsById.put(booking.reservationId, booking);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * Drop the held bookings, e.g. because persisting them failed.
+         */
+        public void release() {
+            lock.writeLock().lock();
+            try {
+                bookings.forEach(ReservationEngine.this::remove);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    public static class Booking {
+        private final Long seatId;
+        private final Long employeeId;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private Long reservationId;
+
+        public Booking(Long seatId, Long employeeId, LocalDateTime start, LocalDateTime end) {
+            this.seatId = seatId;
+            this.employeeId = employeeId;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    public static class Conflict {
+        private final int index;
+        private final String message;
+
+        Conflict(int index, String message) {
+            this.index = index;
+            this.message = message;
+        }
+
+        public int getIndex() { return index; }
+        public String getMessage() { return message; }
+    }
+
+    /**
+     * Disjoint half-open intervals ordered by start time.
+     */
+    static final class IntervalSchedule {
+        private final TreeMap<LocalDateTime, Booking> byStart = new TreeMap<>();
+
+        boolean overlaps(LocalDateTime start, LocalDateTime end) {
+            // Only the last interval starting before 'end' can reach into [start, end)
+            Map.Entry<LocalDateTime, Booking> candidate = byStart.lowerEntry(end);
+            return candidate != null && candidate.getValue().end.isAfter(start);
+        }
+
+        void add(Booking booking) {
+            byStart.put(booking.start, booking);
+        }
+
+        void remove(Booking booking) {
+            byStart.remove(booking.start, booking);
+        }
+
+        boolean isEmpty() {
+            return byStart.isEmpty();
+        }
+
+        /**
+         * Whether a booking ends after the given time; being disjoint, the last one ends last
+         */
+        boolean endsAfter(LocalDateTime time) {
+            Map.Entry<LocalDateTime, Booking> last = byStart.lastEntry();
+            return last != null && last.getValue().end.isAfter(time);
+        }
+
+        /**
+         * Bookings at the head of the schedule that ended at or before the given time
+         */
+        List<Booking> endedBefore(LocalDateTime time) {
+            List<Booking> ended = new ArrayList<>();
+            for (Booking booking : byStart.values()) {
+                if (booking.end.isAfter(time)) {
+                    break;
+                }
+                ended.add(booking);
+            }
+            return ended;
+        }
+    }
+}
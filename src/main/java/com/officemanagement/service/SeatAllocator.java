@@ -0,0 +1,447 @@
+package com.officemanagement.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Computes seat assignments for a batch of employees so that people of the same group sit
+ * together: preferably in one room, otherwise in as few rooms as possible, and on seats
+ * close to each other.
+ *
+ * A greedy pass places the groups room by room. Several workers then improve that plan in
+ * parallel with a local search (swapping two employees or moving one to a free seat) until
+ * the time budget runs out, and the best plan found wins.
+ *
+ * The allocator works on plain values only; loading candidates and persisting the result
+ * is up to the caller.
+ */
+public class SeatAllocator {
+    // Cost of spreading a group over one more room, in floor plan units (a seat is about 100 wide)
+    static final double ROOM_PENALTY = 1000;
+    private static final int DEADLINE_CHECK_INTERVAL = 256;
+
+    private final int workers;
+
+    public SeatAllocator(int workers) {
+        this.workers = Math.max(1, workers);
+    }
+
+    /**
+     * Employee to be seated, with the group it should sit with
+     */
+    public static class Member {
+        private final long employeeId;
+        private final String group;
+
+        public Member(long employeeId, String group) {
+            this.employeeId = employeeId;
+            this.group = group;
+        }
+    }
+
+    /**
+     * Free seat, with the center of its shape on the floor plan
+     */
+    public static class Slot {
+        private final long seatId;
+        private final long roomId;
+        private final double x;
+        private final double y;
+
+        public Slot(long seatId, long roomId, double x, double y) {
+            this.seatId = seatId;
+            this.roomId = roomId;
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+    public static class Assignment {
+        private final long employeeId;
+        private final long seatId;
+        private final long roomId;
+        private final String group;
+
+        Assignment(long employeeId, long seatId, long roomId, String group) {
+            this.employeeId = employeeId;
+            this.seatId = seatId;
+            this.roomId = roomId;
+            this.group = group;
+        }
+
+        public long getEmployeeId() { return employeeId; }
+        public long getSeatId() { return seatId; }
+        public long getRoomId() { return roomId; }
+        public String getGroup() { return group; }
+    }
+
+    public static class Plan {
+        private final List<Assignment> assignments;
+        private final List<Long> unassignedEmployeeIds;
+        private final double initialCost;
+        private final double cost;
+        private final long iterations;
+        private final long elapsedMillis;
+
+        Plan(List<Assignment> assignments, List<Long> unassignedEmployeeIds,
+             double initialCost, double cost, long iterations, long elapsedMillis) {
+            this.assignments = assignments;
+            this.unassignedEmployeeIds = unassignedEmployeeIds;
+            this.initialCost = initialCost;
+            this.cost = cost;
+            this.iterations = iterations;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public List<Assignment> getAssignments() { return assignments; }
+        public List<Long> getUnassignedEmployeeIds() { return unassignedEmployeeIds; }
+        public double getInitialCost() { return initialCost; }
+        public double getCost() { return cost; }
+        public long getIterations() { return iterations; }
+        public long getElapsedMillis() { return elapsedMillis; }
+    }
+
+    public Plan allocate(List<Member> members, List<Slot> slots, long timeBudgetMillis, long seed) {
+        long start = System.nanoTime();
+        Problem problem = new Problem(members, slots);
+        Solution initial = problem.greedy();
+        double initialCost = initial.totalCost();
+
+        long deadline = start + timeBudgetMillis * 1_000_000L;
+        // Each worker starts from the greedy plan with its own random sequence
+        List<Solution> results = IntStream.range(0, workers)
+            .parallel()
+            .mapToObj(worker -> problem.improve(initial.copy(), new Random(seed + worker), deadline))
+            .collect(Collectors.toList());
+
+        Solution best = results.stream()
+            .min(Comparator.comparingDouble(Solution::totalCost))
+            .orElse(initial);
+        // Costs were updated incrementally, settle rounding errors before reporting
+        best.recomputeCosts();
+        long iterations = results.stream().mapToLong(solution -> solution.iterations).sum();
+        return problem.toPlan(best, initialCost, iterations, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Immutable input, shared read-only by all workers
+     */
+    private static final class Problem {
+        private final Member[] members;
+        private final Slot[] slots;
+        private final int[] groupOf;
+        private final int[][] groupMembers;
+
+        Problem(List<Member> memberList, List<Slot> slotList) {
+            this.members = memberList.toArray(new Member[0]);
+            this.slots = slotList.toArray(new Slot[0]);
+
+            Map<String, Integer> groupIndexes = new LinkedHashMap<>();
+            Map<Integer, List<Integer>> byGroup = new HashMap<>();
+            groupOf = new int[members.length];
+            for (int m = 0; m < members.length; m++) {
+                int group = groupIndexes.computeIfAbsent(String.valueOf(members[m].group), key -> groupIndexes.size());
+                groupOf[m] = group;
+                byGroup.computeIfAbsent(group, key -> new ArrayList<>()).add(m);
+            }
+            groupMembers = new int[groupIndexes.size()][];
+            for (int g = 0; g < groupMembers.length; g++) {
+                groupMembers[g] = byGroup.get(g).stream().mapToInt(Integer::intValue).toArray();
+            }
+        }
+
+        /**
+         * Largest groups first. Each group starts in the smallest room that fits it whole (or the
+         * largest room if none does) and spills over into the nearest rooms, taking seats in order
+         * of distance from where the group started.
+         */
+        Solution greedy() {
+            Solution solution = new Solution(this);
+            Map<Long, List<Integer>> freeByRoom = new LinkedHashMap<>();
+            for (int s = 0; s < slots.length; s++) {
+                freeByRoom.computeIfAbsent(slots[s].roomId, key -> new ArrayList<>()).add(s);
+            }
+
+            Integer[] order = new Integer[groupMembers.length];
+            for (int g = 0; g < order.length; g++) {
+                order[g] = g;
+            }
+            Arrays.sort(order, (a, b) -> Integer.compare(groupMembers[b].length, groupMembers[a].length));
+
+            for (int group : order) {
+                int[] pending = groupMembers[group];
+                int placed = 0;
+                double anchorX = Double.NaN;
+                double anchorY = Double.NaN;
+                while (placed < pending.length && !freeByRoom.isEmpty()) {
+                    int remaining = pending.length - placed;
+                    Long room = Double.isNaN(anchorX)
+                        ? firstRoom(freeByRoom, remaining)
+                        : nearestRoom(freeByRoom, anchorX, anchorY);
+                    List<Integer> free = freeByRoom.get(room);
+
+                    if (Double.isNaN(anchorX)) {
+                        // Start from the top-left seat of the room
+                        Slot corner = free.stream().map(s -> slots[s])
+                            .min(Comparator.comparingDouble((Slot slot) -> slot.y).thenComparingDouble(slot -> slot.x))
+                            .get();
+                        anchorX = corner.x;
+                        anchorY = corner.y;
+                    }
+                    double ax = anchorX;
+                    double ay = anchorY;
+                    free.sort(Comparator.comparingDouble(s -> distance(slots[s], ax, ay)));
+
+                    int take = Math.min(remaining, free.size());
+                    for (int i = 0; i < take; i++) {
+                        solution.assign(pending[placed++], free.get(i));
+                    }
+                    free.subList(0, take).clear();
+                    if (free.isEmpty()) {
+                        freeByRoom.remove(room);
+                    }
+                }
+            }
+            solution.recomputeCosts();
+            return solution;
+        }
+
+        private Long firstRoom(Map<Long, List<Integer>> freeByRoom, int needed) {
+            Long bestFit = null;
+            Long largest = null;
+            for (Map.Entry<Long, List<Integer>> entry : freeByRoom.entrySet()) {
+                int free = entry.getValue().size();
+                if (free >= needed && (bestFit == null || free < freeByRoom.get(bestFit).size())) {
+                    bestFit = entry.getKey();
+                }
+                if (largest == null || free > freeByRoom.get(largest).size()) {
+                    largest = entry.getKey();
+                }
+            }
+            return bestFit != null ? bestFit : largest;
+        }
+
+        private Long nearestRoom(Map<Long, List<Integer>> freeByRoom, double x, double y) {
+            Long nearest = null;
+            double nearestDistance = Double.MAX_VALUE;
+            for (Map.Entry<Long, List<Integer>> entry : freeByRoom.entrySet()) {
+                for (int s : entry.getValue()) {
+                    double d = distance(slots[s], x, y);
+                    if (d < nearestDistance) {
+                        nearestDistance = d;
+                        nearest = entry.getKey();
+                    }
+                }
+            }
+            return nearest;
+        }
+
+        /**
+         * Simulated annealing: improvements are always kept, worse moves are accepted with a
+         * probability that shrinks as the deadline approaches.
+         */
+        Solution improve(Solution current, Random random, long deadline) {
+            Solution best = current.copy();
+            int[] assigned = IntStream.range(0, members.length).filter(m -> current.slotOf[m] >= 0).toArray();
+            if (assigned.length == 0) {
+                return best;
+            }
+
+            long start = System.nanoTime();
+            double span = Math.max(1, deadline - start);
+            double temperature = ROOM_PENALTY / 4;
+            long iterations = 0;
+            while (true) {
+                if (iterations % DEADLINE_CHECK_INTERVAL == 0) {
+                    long now = System.nanoTime();
+                    if (now >= deadline) {
+                        break;
+                    }
+                    temperature = ROOM_PENALTY / 4 * (1 - (now - start) / span);
+                }
+                iterations++;
+
+                int a = assigned[random.nextInt(assigned.length)];
+                int freeSlots = slots.length - assigned.length;
+                if (freeSlots > 0 && random.nextBoolean()) {
+                    int target = random.nextInt(slots.length);
+                    if (current.memberOf[target] >= 0) {
+                        continue;
+                    }
+                    int from = current.slotOf[a];
+                    double before = current.groupCost[groupOf[a]];
+                    current.move(a, target);
+                    double delta = current.refreshGroup(groupOf[a]) - before;
+                    if (!accept(delta, temperature, random)) {
+                        current.move(a, from);
+                        current.refreshGroup(groupOf[a]);
+                    }
+                } else {
+                    int b = assigned[random.nextInt(assigned.length)];
+                    int groupA = groupOf[a];
+                    int groupB = groupOf[b];
+                    // Swapping within a group never changes its cost
+                    if (groupA == groupB) {
+                        continue;
+                    }
+                    double before = current.groupCost[groupA] + current.groupCost[groupB];
+                    current.swap(a, b);
+                    double delta = current.refreshGroup(groupA) + current.refreshGroup(groupB) - before;
+                    if (!accept(delta, temperature, random)) {
+                        current.swap(a, b);
+                        current.refreshGroup(groupA);
+                        current.refreshGroup(groupB);
+                    }
+                }
+
+                if (current.total < best.total - 1e-9) {
+                    best = current.copy();
+                }
+            }
+            best.iterations = iterations;
+            return best;
+        }
+
+        private static boolean accept(double delta, double temperature, Random random) {
+            if (delta <= 0) {
+                return true;
+            }
+            return temperature > 0 && random.nextDouble() < Math.exp(-delta / temperature);
+        }
+
+        /**
+         * Spread of a group around its centroid, plus a penalty for every room beyond the first.
+         */
+        double groupCost(Solution solution, int group) {
+            int[] groupMembersOf = groupMembers[group];
+            double sumX = 0;
+            double sumY = 0;
+            int seated = 0;
+            for (int m : groupMembersOf) {
+                int s = solution.slotOf[m];
+                if (s >= 0) {
+                    sumX += slots[s].x;
+                    sumY += slots[s].y;
+                    seated++;
+                }
+            }
+            if (seated == 0) {
+                return 0;
+            }
+            double cx = sumX / seated;
+            double cy = sumY / seated;
+            double spread = 0;
+            List<Long> rooms = new ArrayList<>(4);
+            for (int m : groupMembersOf) {
+                int s = solution.slotOf[m];
+                if (s >= 0) {
+                    spread += distance(slots[s], cx, cy);
+                    if (!rooms.contains(slots[s].roomId)) {
+                        rooms.add(slots[s].roomId);
+                    }
+                }
+            }
+            return spread + ROOM_PENALTY * (rooms.size() - 1);
+        }
+
+        Plan toPlan(Solution solution, double initialCost, long iterations, long elapsedMillis) {
+            List<Assignment> assignments = new ArrayList<>();
+            List<Long> unassigned = new ArrayList<>();
+            for (int m = 0; m < members.length; m++) {
+                int s = solution.slotOf[m];
+                if (s >= 0) {
+                    assignments.add(new Assignment(members[m].employeeId, slots[s].seatId, slots[s].roomId, members[m].group));
+                } else {
+                    unassigned.add(members[m].employeeId);
+                }
+            }
+            assignments.sort(Comparator.comparing(Assignment::getGroup, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparingLong(Assignment::getSeatId));
+            Collections.sort(unassigned);
+            return new Plan(assignments, unassigned, initialCost, solution.totalCost(), iterations, elapsedMillis);
+        }
+
+        private static double distance(Slot slot, double x, double y) {
+            return Math.hypot(slot.x - x, slot.y - y);
+        }
+    }
+
+    /**
+     * Mutable assignment of members to slots, owned by a single worker
+     */
+    private static final class Solution {
+        private final Problem problem;
+        private final int[] slotOf;
+        private final int[] memberOf;
+        private final double[] groupCost;
+        private double total;
+        private long iterations;
+
+        Solution(Problem problem) {
+            this.problem = problem;
+            this.slotOf = new int[problem.members.length];
+            this.memberOf = new int[problem.slots.length];
+            this.groupCost = new double[problem.groupMembers.length];
+            Arrays.fill(slotOf, -1);
+            Arrays.fill(memberOf, -1);
+        }
+
+        private Solution(Solution other) {
+            this.problem = other.problem;
+            this.slotOf = other.slotOf.clone();
+            this.memberOf = other.memberOf.clone();
+            this.groupCost = other.groupCost.clone();
+            this.total = other.total;
+            this.iterations = other.iterations;
+        }
+
+        Solution copy() {
+            return new Solution(this);
+        }
+
+        void assign(int member, int slot) {
+            slotOf[member] = slot;
+            memberOf[slot] = member;
+        }
+
+        void move(int member, int slot) {
+            memberOf[slotOf[member]] = -1;
+            assign(member, slot);
+        }
+
+        void swap(int a, int b) {
+            int slotA = slotOf[a];
+            int slotB = slotOf[b];
+            assign(a, slotB);
+            assign(b, slotA);
+        }
+
+        double refreshGroup(int group) {
+            double cost = problem.groupCost(this, group);
+            total += cost - groupCost[group];
+            groupCost[group] = cost;
+            return cost;
+        }
+
+        void recomputeCosts() {
+            total = 0;
+            for (int g = 0; g < groupCost.length; g++) {
+                groupCost[g] = problem.groupCost(this, g);
+                total += groupCost[g];
+            }
+        }
+
+        double totalCost() {
+            return total;
+        }
+    }
+}
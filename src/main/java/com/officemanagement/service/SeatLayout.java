@@ -0,0 +1,183 @@
+package com.officemanagement.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lays out a grid of seats inside a room: rows and columns of equally sized seats, with
+ * optional aisles every few columns, centered in the room and optionally rotated around
+ * the room's center. Every seat also gets a number following the chosen scheme.
+ *
+ * The layout works on plain values only; persisting the seats is up to the caller.
+ */
+public class SeatLayout {
+    // Tolerance for seats touching the room walls after rotation
+    private static final double EPSILON = 1e-3;
+
+    public enum Numbering {
+        // 01, 02, 03 along each row, then the next row
+        ROW_MAJOR,
+        // 01, 02, 03 down each column, then the next column
+        COLUMN_MAJOR,
+        // Like ROW_MAJOR, but every other row is numbered backwards
+        SERPENTINE,
+        // A01, A02 for the first row, B01, B02 for the second
+        ROW_LETTER
+    }
+
+    private final int rows;
+    private final int columns;
+    private final double seatWidth;
+    private final double seatHeight;
+    private final double spacingX;
+    private final double spacingY;
+    private final int aisleEvery;
+    private final double aisleWidth;
+    private final double rotation;
+
+    public SeatLayout(int rows, int columns, double seatWidth, double seatHeight, double spacingX, double spacingY,
+                      int aisleEvery, double aisleWidth, double rotation) {
+        this.rows = rows;
+        this.columns = columns;
+        this.seatWidth = seatWidth;
+        this.seatHeight = seatHeight;
+        this.spacingX = spacingX;
+        this.spacingY = spacingY;
+        this.aisleEvery = aisleEvery;
+        this.aisleWidth = aisleWidth;
+        this.rotation = rotation;
+    }
+
+    /**
+     * Seat of the layout, with the top left corner of its unrotated shape on the floor plan
+     */
+    public static class Placement {
+        private final int row;
+        private final int column;
+        private final String seatNumber;
+        private final float x;
+        private final float y;
+        private final float width;
+        private final float height;
+        private final float rotation;
+
+        Placement(int row, int column, String seatNumber, float x, float y, float width, float height, float rotation) {
+            this.row = row;
+            this.column = column;
+            this.seatNumber = seatNumber;
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+            this.rotation = rotation;
+        }
+
+        public int getRow() { return row; }
+        public int getColumn() { return column; }
+        public String getSeatNumber() { return seatNumber; }
+        public float getX() { return x; }
+        public float getY() { return y; }
+        public float getWidth() { return width; }
+        public float getHeight() { return height; }
+        public float getRotation() { return rotation; }
+    }
+
+    public int size() {
+        return rows * columns;
+    }
+
+    public double getGridWidth() {
+        int aisles = aisleEvery > 0 ? (columns - 1) / aisleEvery : 0;
+        return columns * seatWidth + (columns - 1) * spacingX + aisles * aisleWidth;
+    }
+
+    public double getGridHeight() {
+        return rows * seatHeight + (rows - 1) * spacingY;
+    }
+
+    /**
+     * Place the seats in the given room rectangle, in numbering order.
+     *
+     * @return the seats, or null if the rotated grid does not fit in the room
+     */
+    public List<Placement> place(double roomX, double roomY, double roomWidth, double roomHeight,
+                                 Numbering numbering, String prefix, int startNumber) {
+        double centerX = roomX + roomWidth / 2;
+        double centerY = roomY + roomHeight / 2;
+        double left = centerX - getGridWidth() / 2;
+        double top = centerY - getGridHeight() / 2;
+        double radians = Math.toRadians(rotation);
+        double cos = Math.cos(radians);
+        double sin = Math.sin(radians);
+        // Extent of a rotated seat around its center
+        double halfExtentX = (Math.abs(seatWidth * cos) + Math.abs(seatHeight * sin)) / 2;
+        double halfExtentY = (Math.abs(seatWidth * sin) + Math.abs(seatHeight * cos)) / 2;
+
+        List<Placement> placements = new ArrayList<>(size());
+        for (int[] cell : order(numbering)) {
+            int row = cell[0];
+            int column = cell[1];
+            int aisles = aisleEvery > 0 ? column / aisleEvery : 0;
+            double seatCenterX = left + column * (seatWidth + spacingX) + aisles * aisleWidth + seatWidth / 2;
+            double seatCenterY = top + row * (seatHeight + spacingY) + seatHeight / 2;
+
+            // Turn the whole grid around the room center, each seat keeps facing the same way
+            double dx = seatCenterX - centerX;
+            double dy = seatCenterY - centerY;
+            double rotatedX = centerX + dx * cos - dy * sin;
+            double rotatedY = centerY + dx * sin + dy * cos;
+
+            if (rotatedX - halfExtentX < roomX - EPSILON || rotatedX + halfExtentX > roomX + roomWidth + EPSILON
+                || rotatedY - halfExtentY < roomY - EPSILON || rotatedY + halfExtentY > roomY + roomHeight + EPSILON) {
+                return null;
+            }
+
+            String seatNumber = prefix + label(numbering, row, column, placements.size() + startNumber, startNumber);
+            placements.add(new Placement(row, column, seatNumber,
+                (float) (rotatedX - seatWidth / 2), (float) (rotatedY - seatHeight / 2),
+                (float) seatWidth, (float) seatHeight, (float) rotation));
+        }
+        return placements;
+    }
+
+    private List<int[]> order(Numbering numbering) {
+        List<int[]> cells = new ArrayList<>(size());
+        if (numbering == Numbering.COLUMN_MAJOR) {
+            for (int column = 0; column < columns; column++) {
+                for (int row = 0; row < rows; row++) {
+                    cells.add(new int[] {row, column});
+                }
+            }
+            return cells;
+        }
+        for (int row = 0; row < rows; row++) {
+            boolean backwards = numbering == Numbering.SERPENTINE && row % 2 == 1;
+            for (int i = 0; i < columns; i++) {
+                cells.add(new int[] {row, backwards ? columns - 1 - i : i});
+            }
+        }
+        return cells;
+    }
+
+    private String label(Numbering numbering, int row, int column, int number, int startNumber) {
+        if (numbering == Numbering.ROW_LETTER) {
+            return rowLetters(row) + pad(column + startNumber, columns - 1 + startNumber);
+        }
+        return pad(number, size() - 1 + startNumber);
+    }
+
+    // A..Z, then AA, AB and so on, like spreadsheet columns
+    static String rowLetters(int row) {
+        StringBuilder letters = new StringBuilder();
+        for (int n = row + 1; n > 0; n = (n - 1) / 26) {
+            letters.insert(0, (char) ('A' + (n - 1) % 26));
+        }
+        return letters.toString();
+    }
+
+    // Numbers get as many digits as the largest one, at least two
+    private static String pad(int number, int largest) {
+        int digits = Math.max(2, String.valueOf(largest).length());
+        return String.format("%0" + digits + "d", number);
+    }
+}
@@ -0,0 +1,36 @@
+package com.officemanagement.service;
+
+import com.officemanagement.util.AppSettings;
+import com.officemanagement.util.StripedLocks;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * In-process locks guarding seat assignments, striped by seat ID.
+ *
+ * They serialize requests for the same seat inside this JVM before they reach the database,
+ * where the row lock taken on the seat does the same across instances. Release them only
+ * after the transaction has completed. A blocking {@link Lock#lock()} must come before any
+ * database lock, and several only through {@link #forSeats(Collection)}. Inside a
+ * transaction that already holds row locks, take them only with {@link Lock#tryLock()},
+ * skipping the seat when it is busy, as the automatic assignment does.
+ */
+public final class SeatLocks {
+    private static final StripedLocks LOCKS = new StripedLocks(AppSettings.getInt("seats.lockStripes", 64));
+
+    private SeatLocks() {
+    }
+
+    public static Lock forSeat(Long seatId) {
+        return LOCKS.forKey(seatId);
+    }
+
+    /**
+     * Locks for a set of seats, in the order they must be acquired.
+     */
+    public static List<Lock> forSeats(Collection<Long> seatIds) {
+        return LOCKS.forKeys(seatIds);
+    }
+}
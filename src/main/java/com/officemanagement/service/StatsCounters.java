@@ -0,0 +1,203 @@
+package com.officemanagement.service;
+
+import com.officemanagement.util.AppSettings;
+import com.officemanagement.util.HibernateUtil;
+import com.officemanagement.util.TransactionHooks;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory totals of employees, floors, rooms and seats behind {@code GET /stats}.
+ *
+ * The counters are seeded with one query at startup (or lazily on first use) and moved
+ * by the create and delete paths once their transaction commits, so reading them never
+ * touches the database. A periodic reconciliation against the database corrects any
+ * drift, for example from rows changed outside the application.
+ */
+public class StatsCounters {
+    private static final Logger logger = LoggerFactory.getLogger(StatsCounters.class);
+    private static final StatsCounters INSTANCE = new StatsCounters();
+
+    private static final String LOAD_QUERY =
+        "select (select count(*) from employees) as employees, (select count(*) from floors) as floors, " +
+        "(select count(*) from office_rooms) as rooms, (select count(*) from seats) as seats";
+
+    public enum Counter {
+        EMPLOYEES, FLOORS, ROOMS, SEATS
+    }
+
+    private final Map<Counter, LongAdder> counters = new EnumMap<>(Counter.class);
+    // Transactions with a change not applied yet, and changes applied so far: a reload is
+    // only safe when no change landed between its query and the reset of the counters
+    private final LongAdder pending = new LongAdder();
+    private final AtomicLong applied = new AtomicLong();
+    // Told about every change of the counters, on the thread that made it
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private final long reconcileIntervalSeconds = AppSettings.getLong("stats.reconcileIntervalSeconds", 300);
+    private ScheduledExecutorService scheduler;
+    private volatile boolean loaded;
+
+    private StatsCounters() {
+        for (Counter counter : Counter.values()) {
+            counters.put(counter, new LongAdder());
+        }
+    }
+
+    public static StatsCounters getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Seed all the counters from the database, discarding their current values.
+     */
+    public synchronized void reload(SessionFactory sessionFactory) {
+        long[] totals = count(sessionFactory);
+        set(totals);
+        loaded = true;
+        logger.info("Stats counters loaded: {} employees, {} floors, {} rooms, {} seats",
+            totals[0], totals[1], totals[2], totals[3]);
+    }
+
+    /**
+     * Compare the counters with the database and fix them if they drifted. Skipped when
+     * writes are in flight, since their changes may be counted twice or not at all.
+     *
+     * @return whether the counters were checked
+     */
+    public synchronized boolean reconcile(SessionFactory sessionFactory) {
+        if (!loaded) {
+            reload(sessionFactory);
+            return true;
+        }
+        long appliedBefore = applied.get();
+        if (pending.sum() != 0) {
+            return false;
+        }
+        long[] totals = count(sessionFactory);
+        if (pending.sum() != 0 || applied.get() != appliedBefore) {
+            return false;
+        }
+        for (Counter counter : Counter.values()) {
+            long current = counters.get(counter).sum();
+            if (current != totals[counter.ordinal()]) {
+                logger.warn("Stats counter {} drifted: {} in memory, {} in the database",
+                    counter, current, totals[counter.ordinal()]);
+            }
+        }
+        set(totals);
+        return true;
+    }
+
+    /**
+     * Add to a counter once the transaction of the session commits. The change stops being
+     * pending when the transaction ends, or at the latest when the session is closed.
+     */
+    public void addAfterCommit(Session session, Counter counter, long delta) {
+        pending.increment();
+        TransactionHooks.afterCompletionOrClose(session, committed -> {
+            if (committed) {
+                counters.get(counter).add(delta);
+                applied.incrementAndGet();
+            }
+            pending.decrement();
+            if (committed) {
+                notifyListeners();
+            }
+        });
+    }
+
+    /**
+     * Run the listener after every change of the counters. Listeners must be quick, they
+     * run on the thread of the committing request.
+     */
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    public long get(Counter counter) {
+        ensureLoaded();
+        return counters.get(counter).sum();
+    }
+
+    /**
+     * Reconcile the counters with the database in the background.
+     */
+    public synchronized void start(SessionFactory sessionFactory) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stats-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                if (!reconcile(sessionFactory)) {
+                    logger.debug("Stats reconciliation skipped, writes in flight");
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Stats reconciliation failed: {}", e.getMessage());
+            }
+        }, reconcileIntervalSeconds, reconcileIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    reload(HibernateUtil.getSessionFactory());
+                }
+            }
+        }
+    }
+
+    private void set(long[] totals) {
+        for (Counter counter : Counter.values()) {
+            LongAdder adder = counters.get(counter);
+            adder.reset();
+            adder.add(totals[counter.ordinal()]);
+        }
+        notifyListeners();
+    }
+
+    private void notifyListeners() {
+        for (Runnable listener : listeners) {
+            try {
+                listener.run();
+            } catch (RuntimeException e) {
+                logger.warn("Stats listener failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static long[] count(SessionFactory sessionFactory) {
+        try (Session session = sessionFactory.openSession()) {
+            Object[] row = (Object[]) session.createNativeQuery(LOAD_QUERY).uniqueResult();
+            long[] totals = new long[row.length];
+            for (int i = 0; i < row.length; i++) {
+                totals[i] = ((Number) row[i]).longValue();
+            }
+            return totals;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.officemanagement.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * Application level settings loaded from application.properties.
+ * A JVM system property with the same key overrides the file value.
+ */
+public final class AppSettings {
+    private static final Logger logger = LoggerFactory.getLogger(AppSettings.class);
+    private static final String SETTINGS_FILE = "application.properties";
+    private static final Properties properties = new Properties();
+
+    static {
+        try (InputStream input = Thread.currentThread().getContextClassLoader()
+                .getResourceAsStream(SETTINGS_FILE)) {
+            if (input != null) {
+                properties.load(input);
+                logger.info("Loaded application settings from {}", SETTINGS_FILE);
+            } else {
+                logger.warn("Application settings file not found: {}", SETTINGS_FILE);
+            }
+        } catch (IOException e) {
+            logger.warn("Could not load application settings from {}: {}", SETTINGS_FILE, e.getMessage());
+        }
+    }
+
+    private AppSettings() {
+    }
+
+    public static String get(String key, String defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null) {
+            value = properties.getProperty(key);
+        }
+        return value != null ? value.trim() : defaultValue;
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        String value = get(key, null);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid integer for setting {}: {}", key, value);
+            return defaultValue;
+        }
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        String value = get(key, null);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid long for setting {}: {}", key, value);
+            return defaultValue;
+        }
+    }
+
+    public static double getDouble(String key, double defaultValue) {
+        String value = get(key, null);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid number for setting {}: {}", key, value);
+            return defaultValue;
+        }
+    }
+
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = get(key, null);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        return Boolean.parseBoolean(value);
+    }
+}
@@ -0,0 +1,36 @@
+package com.officemanagement.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Splits large ID sets into chunks that fit in one SQL IN list, so that set-based
+ * statements stay well below the bind parameter limits of the drivers.
+ */
+public final class Batches {
+    public static final int IN_LIST_SIZE = 500;
+
+    private Batches() {
+    }
+
+    public static <T> List<List<T>> partition(Collection<T> values, int size) {
+        List<List<T>> chunks = new ArrayList<>((values.size() + size - 1) / size);
+        List<T> chunk = new ArrayList<>(Math.min(size, values.size()));
+        for (T value : values) {
+            chunk.add(value);
+            if (chunk.size() == size) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>(size);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    public static <T> List<List<T>> partition(Collection<T> values) {
+        return partition(values, IN_LIST_SIZE);
+    }
+}
@@ -0,0 +1,423 @@
+package com.officemanagement.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+/**
+ * Generates a synthetic campus of floors, rooms, seats and employees, and loads it with
+ * batched JDBC inserts, to run benchmarks and load tests at production scale.
+ *
+ * The same seed and volumes give the same data. Rooms are laid out on a grid of the floor
+ * and seats on a grid of the room, so no two rooms of a floor and no two seats of a room
+ * overlap. Names and occupations are drawn from skewed distributions, a few common names
+ * and occupations making up most of the staff. Rows are added after the existing ones,
+ * and the id sequences are moved past them so that the application can keep inserting.
+ *
+ * Load while the application is stopped: its in-memory indexes and caches do not see the
+ * rows written here until it restarts. Run against a database with
+ * {@code mvn exec:java -Dexec.mainClass=com.officemanagement.util.CampusGenerator
+ * -Dexec.args="jdbc:postgresql://localhost:5432/office_management postgres postgres floors=50"}.
+ */
+public class CampusGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(CampusGenerator.class);
+
+    private static final String[] FIRST_NAMES = {
+        "Marco", "Sofia", "Luca", "Giulia", "Alessandro", "Francesca", "Andrea", "Chiara", "Matteo", "Elena",
+        "James", "Emma", "Oliver", "Olivia", "William", "Ava", "Lucas", "Mia", "Noah", "Charlotte",
+        "Hans", "Anna", "Lukas", "Lena", "Pierre", "Camille", "Jean", "Louise", "Carlos", "Lucia",
+        "Javier", "Carmen", "Pedro", "Ines", "Jan", "Eva", "Piotr", "Zofia", "Hiroshi", "Yuki",
+        "Wei", "Mei", "Arjun", "Priya", "Omar", "Leila", "Ivan", "Olga", "Sean", "Aoife"
+    };
+    private static final String[] LAST_NAMES = {
+        "Rossi", "Smith", "Mueller", "Martin", "Garcia", "Kowalski", "Ferrari", "Johnson", "Schmidt", "Bernard",
+        "Fernandez", "Nowak", "Romano", "Williams", "Schneider", "Dubois", "Lopez", "Wisniewski", "Colombo",
+        "Brown", "Fischer", "Thomas", "Martinez", "Wojcik", "Ricci", "Jones", "Weber", "Robert", "Sanchez",
+        "Kaminska", "Marino", "Taylor", "Meyer", "Richard", "Perez", "Lewandowski", "Greco", "Davies", "Wagner",
+        "Petit", "Gomez", "Tanaka", "Conti", "Evans", "Becker", "Durand", "Ruiz", "Suzuki", "Esposito", "Wang",
+        "Li", "Zhang", "Patel", "Singh", "Kumar", "Haddad", "Ivanov", "Murphy", "Kelly", "O'Brien"
+    };
+    // Occupations with their share of the staff, in percent
+    private static final String[] OCCUPATIONS = {
+        "Software Engineer", "Sales Representative", "Customer Support Specialist", "Data Analyst",
+        "QA Engineer", "Marketing Specialist", "Product Manager", "UX Designer", "Project Manager",
+        "Team Lead", "Accountant", "DevOps Engineer", "Administrative Assistant", "HR Specialist",
+        "Research Scientist", "Database Administrator", "Security Engineer"
+    };
+    private static final int[] OCCUPATION_WEIGHTS = {22, 11, 10, 7, 6, 6, 5, 5, 5, 5, 4, 4, 3, 3, 2, 1, 1};
+    private static final String[] ROOM_KINDS = {"Open Space", "Team Room", "Project Room", "Focus Room"};
+
+    // Seat footprint and spacing, in floor plan units
+    private static final float SEAT_WIDTH = 80;
+    private static final float SEAT_HEIGHT = 60;
+    private static final float SEAT_GAP = 20;
+    private static final float ROOM_PADDING = 30;
+    private static final float CORRIDOR = 100;
+
+    private long seed = 1;
+    private int floors = 50;
+    private int roomsPerFloor = 100;
+    private int seatsPerRoom = 20;
+    private int employees = 80_000;
+    private double assignedRatio = 0.9;
+    private int batchSize = 1000;
+    private LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 8, 0);
+
+    public CampusGenerator seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public CampusGenerator floors(int floors) {
+        this.floors = floors;
+        return this;
+    }
+
+    public CampusGenerator roomsPerFloor(int roomsPerFloor) {
+        this.roomsPerFloor = roomsPerFloor;
+        return this;
+    }
+
+    public CampusGenerator seatsPerRoom(int seatsPerRoom) {
+        this.seatsPerRoom = seatsPerRoom;
+        return this;
+    }
+
+    public CampusGenerator employees(int employees) {
+        this.employees = employees;
+        return this;
+    }
+
+    /**
+     * Share of the employees that get a seat, as far as there are seats.
+     */
+    public CampusGenerator assignedRatio(double assignedRatio) {
+        this.assignedRatio = assignedRatio;
+        return this;
+    }
+
+    public CampusGenerator batchSize(int batchSize) {
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    public CampusGenerator createdAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+        return this;
+    }
+
+    /**
+     * Generate the campus into the database of the connection, committing as it goes.
+     */
+    public Summary load(Connection connection) throws SQLException {
+        long start = System.nanoTime();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            Summary summary = new Summary();
+            summary.firstFloorId = maxOf(connection, "select max(id) from floors") + 1;
+            summary.firstRoomId = maxOf(connection, "select max(id) from office_rooms") + 1;
+            summary.firstSeatId = maxOf(connection, "select max(id) from seats") + 1;
+            summary.firstEmployeeId = maxOf(connection, "select max(id) from employees") + 1;
+            int firstFloorNumber = (int) maxOf(connection, "select max(floor_number) from floors") + 1;
+
+            // Independent streams, so that changing the number of employees keeps the layout
+            SplittableRandom random = new SplittableRandom(seed);
+            SplittableRandom layout = random.split();
+            SplittableRandom people = random.split();
+            SplittableRandom seating = random.split();
+
+            loadFloors(connection, summary, firstFloorNumber, layout);
+            loadEmployees(connection, summary, people);
+            loadAssignments(connection, summary, seating);
+
+            restartSequence(connection, "floor_seq", summary.firstFloorId + summary.floors);
+            restartSequence(connection, "office_room_seq", summary.firstRoomId + summary.rooms);
+            restartSequence(connection, "seat_seq", summary.firstSeatId + summary.seats);
+            restartSequence(connection, "employee_seq", summary.firstEmployeeId + summary.employees);
+            connection.commit();
+
+            summary.millis = (System.nanoTime() - start) / 1_000_000;
+            logger.info("Generated campus with seed {}: {}", seed, summary);
+            return summary;
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private void loadFloors(Connection connection, Summary summary, int firstFloorNumber,
+                            SplittableRandom random) throws SQLException {
+        int seatColumns = (int) Math.ceil(Math.sqrt(seatsPerRoom));
+        int seatGridRows = (seatsPerRoom + seatColumns - 1) / Math.max(seatColumns, 1);
+        float minWidth = seatColumns * (SEAT_WIDTH + SEAT_GAP) - SEAT_GAP + 2 * ROOM_PADDING;
+        float minHeight = seatGridRows * (SEAT_HEIGHT + SEAT_GAP) - SEAT_GAP + 2 * ROOM_PADDING;
+        // Each room gets a cell of the floor grid, up to a quarter larger than its seats need
+        float cellWidth = minWidth * 1.25f + CORRIDOR;
+        float cellHeight = minHeight * 1.25f + CORRIDOR;
+        int roomColumns = (int) Math.ceil(Math.sqrt(roomsPerFloor));
+        Timestamp created = Timestamp.valueOf(createdAt);
+
+        try (Batch floorRows = new Batch(connection,
+                 "insert into floors (id, floor_number, name, created_at) values (?, ?, ?, ?)");
+             Batch roomRows = new Batch(connection,
+                 "insert into office_rooms (id, room_number, name, floor_id, x, y, width, height, created_at) " +
+                 "values (?, ?, ?, ?, ?, ?, ?, ?, ?)");
+             Batch seatRows = new Batch(connection,
+                 "insert into seats (id, seat_number, room_id, x, y, width, height, rotation, created_at) " +
+                 "values (?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (int f = 0; f < floors; f++) {
+                long floorId = summary.firstFloorId + f;
+                int floorNumber = firstFloorNumber + f;
+                floorRows.add(floorId, floorNumber, "Floor " + floorNumber, created);
+            }
+            floorRows.flush();
+            connection.commit();
+
+            float[] x = new float[roomsPerFloor];
+            float[] y = new float[roomsPerFloor];
+            float[] width = new float[roomsPerFloor];
+            float[] height = new float[roomsPerFloor];
+            for (int f = 0; f < floors; f++) {
+                long floorId = summary.firstFloorId + f;
+                int floorNumber = firstFloorNumber + f;
+                long firstRoomId = summary.firstRoomId + summary.rooms;
+                for (int r = 0; r < roomsPerFloor; r++) {
+                    width[r] = minWidth * (1 + 0.25f * (float) random.nextDouble());
+                    height[r] = minHeight * (1 + 0.25f * (float) random.nextDouble());
+                    x[r] = (r % roomColumns) * cellWidth;
+                    y[r] = (r / roomColumns) * cellHeight;
+                    String roomNumber = String.format("%d-%03d", floorNumber, r + 1);
+                    String name = ROOM_KINDS[random.nextInt(ROOM_KINDS.length)] + " " + roomNumber;
+                    roomRows.add(firstRoomId + r, roomNumber, name, floorId, x[r], y[r], width[r], height[r], created);
+                }
+                roomRows.flush();
+                summary.rooms += roomsPerFloor;
+
+                for (int r = 0; r < roomsPerFloor; r++) {
+                    long roomId = firstRoomId + r;
+                    // Center the seat grid in the room
+                    float left = x[r] + (width[r] - (minWidth - 2 * ROOM_PADDING)) / 2;
+                    float top = y[r] + (height[r] - (minHeight - 2 * ROOM_PADDING)) / 2;
+                    float rotation = random.nextInt(2) * 180f;
+                    for (int s = 0; s < seatsPerRoom; s++) {
+                        seatRows.add(summary.firstSeatId + summary.seats, "S" + (s + 1), roomId,
+                            left + (s % seatColumns) * (SEAT_WIDTH + SEAT_GAP),
+                            top + (s / seatColumns) * (SEAT_HEIGHT + SEAT_GAP),
+                            SEAT_WIDTH, SEAT_HEIGHT, rotation, created);
+                        summary.seats++;
+                    }
+                }
+                seatRows.flush();
+                connection.commit();
+                summary.floors++;
+            }
+        }
+    }
+
+    private void loadEmployees(Connection connection, Summary summary, SplittableRandom random) throws SQLException {
+        int totalWeight = 0;
+        for (int weight : OCCUPATION_WEIGHTS) {
+            totalWeight += weight;
+        }
+        Timestamp created = Timestamp.valueOf(createdAt);
+        try (Batch rows = new Batch(connection,
+                 "insert into employees (id, full_name, occupation, created_at) values (?, ?, ?, ?)")) {
+            for (int e = 0; e < employees; e++) {
+                String name = FIRST_NAMES[skewed(random, FIRST_NAMES.length)] + " "
+                    + LAST_NAMES[skewed(random, LAST_NAMES.length)];
+                int pick = random.nextInt(totalWeight);
+                int occupation = 0;
+                while (pick >= OCCUPATION_WEIGHTS[occupation]) {
+                    pick -= OCCUPATION_WEIGHTS[occupation];
+                    occupation++;
+                }
+                rows.add(summary.firstEmployeeId + e, name, OCCUPATIONS[occupation], created);
+                summary.employees++;
+            }
+            rows.flush();
+            connection.commit();
+        }
+    }
+
+    private void loadAssignments(Connection connection, Summary summary, SplittableRandom random) throws SQLException {
+        int assigned = (int) Math.min(Math.round(summary.employees * assignedRatio), summary.seats);
+        // The first seats of a random permutation, drawn one at a time
+        int[] seats = new int[summary.seats];
+        for (int s = 0; s < seats.length; s++) {
+            seats[s] = s;
+        }
+        try (Batch rows = new Batch(connection,
+                 "insert into employee_seat_assignments (employee_id, seat_id) values (?, ?)")) {
+            for (int e = 0; e < assigned; e++) {
+                int pick = e + random.nextInt(seats.length - e);
+                int seat = seats[pick];
+                seats[pick] = seats[e];
+                seats[e] = seat;
+                rows.add(summary.firstEmployeeId + e, summary.firstSeatId + seat);
+                summary.assignments++;
+            }
+            rows.flush();
+            connection.commit();
+        }
+    }
+
+    /**
+     * An index below {@code size}, small indexes being drawn far more often than large ones.
+     */
+    private static int skewed(SplittableRandom random, int size) {
+        double u = random.nextDouble();
+        return (int) (size * u * u);
+    }
+
+    private static long maxOf(Connection connection, String query) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(query)) {
+            result.next();
+            return result.getLong(1);
+        }
+    }
+
+    private static void restartSequence(Connection connection, String sequence, long next) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("alter sequence " + sequence + " restart with " + next);
+        }
+    }
+
+    /**
+     * Usage: {@code CampusGenerator <jdbc-url> <user> <password> [name=value...]} with the
+     * names seed, floors, roomsPerFloor, seatsPerRoom, employees, assignedRatio and batchSize.
+     */
+    public static void main(String[] args) throws SQLException {
+        if (args.length < 3) {
+            System.err.println("Usage: CampusGenerator <jdbc-url> <user> <password> [seed=1] [floors=50] "
+                + "[roomsPerFloor=100] [seatsPerRoom=20] [employees=80000] [assignedRatio=0.9] [batchSize=1000]");
+            System.exit(1);
+        }
+        CampusGenerator generator = new CampusGenerator();
+        for (int i = 3; i < args.length; i++) {
+            String[] option = args[i].split("=", 2);
+            String value = option.length > 1 ? option[1] : "";
+            switch (option[0]) {
+                case "seed": generator.seed(Long.parseLong(value)); break;
+                case "floors": generator.floors(Integer.parseInt(value)); break;
+                case "roomsPerFloor": generator.roomsPerFloor(Integer.parseInt(value)); break;
+                case "seatsPerRoom": generator.seatsPerRoom(Integer.parseInt(value)); break;
+                case "employees": generator.employees(Integer.parseInt(value)); break;
+                case "assignedRatio": generator.assignedRatio(Double.parseDouble(value)); break;
+                case "batchSize": generator.batchSize(Integer.parseInt(value)); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        try (Connection connection = DriverManager.getConnection(args[0], args[1], args[2])) {
+            System.out.println(generator.load(connection));
+        }
+    }
+
+    /**
+     * What was loaded, the new rows having consecutive ids from the first ones.
+     */
+    public static final class Summary {
+        private long firstFloorId;
+        private long firstRoomId;
+        private long firstSeatId;
+        private long firstEmployeeId;
+        private int floors;
+        private int rooms;
+        private int seats;
+        private int employees;
+        private int assignments;
+        private long millis;
+
+        public long getFirstFloorId() {
+            return firstFloorId;
+        }
+
+        public long getFirstRoomId() {
+            return firstRoomId;
+        }
+
+        public long getFirstSeatId() {
+            return firstSeatId;
+        }
+
+        public long getFirstEmployeeId() {
+            return firstEmployeeId;
+        }
+
+        public int getFloors() {
+            return floors;
+        }
+
+        public int getRooms() {
+            return rooms;
+        }
+
+        public int getSeats() {
+            return seats;
+        }
+
+        public int getEmployees() {
+            return employees;
+        }
+
+        public int getAssignments() {
+            return assignments;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        @Override
+        public String toString() {
+            return floors + " floors, " + rooms + " rooms, " + seats + " seats, " + employees + " employees, "
+                + assignments + " assignments in " + millis + " ms";
+        }
+    }
+
+    /**
+     * An insert statement executed every batchSize rows.
+     */
+    private final class Batch implements AutoCloseable {
+        private final PreparedStatement statement;
+        private int pending;
+
+        private Batch(Connection connection, String sql) throws SQLException {
+            this.statement = connection.prepareStatement(sql);
+        }
+
+        private void add(Object... values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                statement.setObject(i + 1, values[i]);
+            }
+            statement.addBatch();
+            if (++pending >= batchSize) {
+                flush();
+            }
+        }
+
+        private void flush() throws SQLException {
+            if (pending > 0) {
+                statement.executeBatch();
+                pending = 0;
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            statement.close();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.officemanagement.util;
+
+import org.hibernate.exception.ConstraintViolationException;
+
+import java.sql.SQLException;
+import java.util.Locale;
+
+/**
+ * Recognizes database constraint violations behind the exceptions thrown by Hibernate, so
+ * that resources can let the database enforce uniqueness and still answer with a precise
+ * message instead of checking with a query before every write.
+ */
+public final class ConstraintViolations {
+
+    private ConstraintViolations() {
+    }
+
+    /**
+     * Whether the error was caused by a violation of the named constraint.
+     */
+    public static boolean violates(Throwable error, String constraintName) {
+        String expected = constraintName.toLowerCase(Locale.ROOT);
+        for (Throwable cause = error; cause != null; cause = next(cause)) {
+            if (cause instanceof ConstraintViolationException) {
+                String name = ((ConstraintViolationException) cause).getConstraintName();
+                if (name != null && name.toLowerCase(Locale.ROOT).contains(expected)) {
+                    return true;
+                }
+            }
+            // Not every dialect extracts the name, the driver message always carries it
+            if (cause instanceof SQLException && cause.getMessage() != null
+                    && cause.getMessage().toLowerCase(Locale.ROOT).contains(expected)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Throwable next(Throwable error) {
+        Throwable cause = error.getCause();
+        return cause != error ? cause : null;
+    }
+}
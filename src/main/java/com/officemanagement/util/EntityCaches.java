@@ -0,0 +1,66 @@
+package com.officemanagement.util;
+
+import com.officemanagement.model.Floor;
+import com.officemanagement.model.OfficeRoom;
+import com.officemanagement.model.Seat;
+import org.ehcache.config.CacheConfiguration;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Builds the JCache manager behind the Hibernate second-level cache, with one Ehcache
+ * region per cached entity and collection.
+ *
+ * Every region keeps a bounded number of entries on the local heap and expires them after
+ * a time to live. Both come from application.properties as cache.maxEntries and
+ * cache.ttlSeconds, and can be set per region as cache.&lt;region&gt;.maxEntries and
+ * cache.&lt;region&gt;.ttlSeconds.
+ */
+public final class EntityCaches {
+    private static final Logger logger = LoggerFactory.getLogger(EntityCaches.class);
+
+    public static final List<String> REGIONS = Collections.unmodifiableList(Arrays.asList(
+        Floor.CACHE_REGION, Floor.ROOMS_CACHE_REGION,
+        OfficeRoom.CACHE_REGION, OfficeRoom.SEATS_CACHE_REGION,
+        Seat.CACHE_REGION));
+
+    private EntityCaches() {
+    }
+
+    /**
+     * Get the Ehcache manager with all the regions configured. Hibernate closes it together
+     * with the SessionFactory.
+     */
+    public static CacheManager createCacheManager() {
+        CachingProvider provider = Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(provider.getDefaultURI(), EntityCaches.class.getClassLoader());
+        for (String region : REGIONS) {
+            long maxEntries = AppSettings.getLong("cache." + region + ".maxEntries",
+                AppSettings.getLong("cache.maxEntries", 10000));
+            long ttlSeconds = AppSettings.getLong("cache." + region + ".ttlSeconds",
+                AppSettings.getLong("cache.ttlSeconds", 600));
+            CacheConfiguration<Object, Object> configuration = CacheConfigurationBuilder
+                .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(maxEntries))
+                .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ttlSeconds)))
+                .build();
+            if (cacheManager.getCache(region) == null) {
+                cacheManager.createCache(region, Eh107Configuration.fromEhcacheCacheConfiguration(configuration));
+            }
+            logger.info("Cache region {}: up to {} entries, time to live {} s", region, maxEntries, ttlSeconds);
+        }
+        return cacheManager;
+    }
+}
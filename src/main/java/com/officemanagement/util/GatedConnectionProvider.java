@@ -0,0 +1,102 @@
+package com.officemanagement.util;
+
+import org.hibernate.hikaricp.internal.HikariCPConnectionProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HikariCP behind an admission gate: a fair semaphore with as many permits as the pool
+ * has connections. With virtual threads there can be thousands of requests wanting a
+ * connection at once; the gate queues them in arrival order before they reach the pool,
+ * where they would all contend for the same few connections. A bounded queue (setting
+ * db.gate.maxWaiting) turns an overload into quick failures instead of a growing wait.
+ */
+public class GatedConnectionProvider extends HikariCPConnectionProvider {
+    private static final Logger logger = LoggerFactory.getLogger(GatedConnectionProvider.class);
+
+    private Semaphore permits;
+    private int maxWaiting;
+    private long timeoutNanos;
+    private final LongAdder rejected = new LongAdder();
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public void configure(Map props) {
+        super.configure(props);
+        int poolSize = parseInt(props.get("hibernate.hikari.maximumPoolSize"), 10);
+        long connectionTimeout = parseInt(props.get("hibernate.hikari.connectionTimeout"), 30000);
+        int configured = AppSettings.getInt("db.gate.permits", 0);
+        permits = new Semaphore(configured > 0 ? configured : poolSize, true);
+        maxWaiting = AppSettings.getInt("db.gate.maxWaiting", 0);
+        long timeoutMillis = AppSettings.getLong("db.gate.timeoutMs", 0);
+        timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis > 0 ? timeoutMillis : connectionTimeout);
+        logger.info("Connection admission gate with {} permits, {} waiting at most",
+            permits.availablePermits(), maxWaiting > 0 ? maxWaiting : "any number");
+    }
+
+    private static int parseInt(Object value, int defaultValue) {
+        try {
+            return value != null ? Integer.parseInt(value.toString().trim()) : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!permits.tryAcquire()) {
+            if (maxWaiting > 0 && permits.getQueueLength() >= maxWaiting) {
+                rejected.increment();
+                throw new SQLTransientConnectionException(
+                    "Connection admission queue is full (" + maxWaiting + " waiting)");
+            }
+            try {
+                if (!permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                    rejected.increment();
+                    throw new SQLTransientConnectionException("Connection not admitted within "
+                        + TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + " ms");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLTransientConnectionException("Interrupted waiting for a connection", e);
+            }
+        }
+        try {
+            return super.getConnection();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public void closeConnection(Connection connection) throws SQLException {
+        try {
+            super.closeConnection(connection);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Threads waiting at the gate for a permit.
+     */
+    public int getWaiting() {
+        return permits.getQueueLength();
+    }
+
+    /**
+     * Requests turned away by a full queue or a timeout at the gate.
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
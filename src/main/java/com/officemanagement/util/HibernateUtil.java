@@ -1,36 +1,145 @@
 package com.officemanagement.util;
 
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.cfg.Configuration;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class HibernateUtil {
     private static final Logger logger = LoggerFactory.getLogger(HibernateUtil.class);
-    private static final SessionFactory sessionFactory;
+    private static volatile SessionFactory sessionFactory;
+    private static volatile SessionFactory replicaSessionFactory;
+    private static CompletableFuture<SessionFactory> boot;
+    // Set by shutdown(), a boot still running then closes what it built instead of publishing it
+    private static boolean shutDown;
     private static final Properties hibernateProperties = new Properties();
     private static final Properties hikariProperties = new Properties();
 
-    static {
-        try {
-            // Load properties
+    /**
+     * Build the SessionFactory on a background thread, once. The server can answer (with
+     * 503 until the returned future completes) while the metamodel is built and the
+     * connection pool is filled.
+     */
+    public static synchronized CompletableFuture<SessionFactory> bootAsync() {
+        if (boot == null) {
+            boot = new CompletableFuture<>();
+            Thread thread = new Thread(() -> {
+                try {
+                    boot.complete(build());
+                } catch (Throwable ex) {
+                    logger.error("Initial SessionFactory creation failed", ex);
+                    boot.completeExceptionally(ex);
+                }
+            }, "hibernate-boot");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return boot;
+    }
+
+    private static SessionFactory build() {
+        long start = System.nanoTime();
+
+        // Load properties and create configuration
+        Configuration configuration = Startup.phase("config", () -> {
             loadProperties();
-            
-            // Create configuration
-            Configuration configuration = createConfiguration();
-            
-            // Build SessionFactory
-            sessionFactory = configuration.buildSessionFactory();
-            
-            // Log successful initialization
-            logger.info("Hibernate SessionFactory initialized successfully");
-        } catch (Throwable ex) {
-            logger.error("Initial SessionFactory creation failed", ex);
-            throw new ExceptionInInitializerError(ex);
+            return createConfiguration();
+        });
+
+        // Build SessionFactory: mappings, metamodel and schema validation
+        SessionFactory factory = Startup.phase("metamodel", () -> configuration.buildSessionFactory());
+
+        // Open the idle connections now rather than on the first requests
+        Startup.phase("pool warm-up", () -> warmUp(factory, warmupConnections(configuration)));
+        Metrics.getInstance().bindPool(factory, "primary");
+
+        // Optional read replica for read-only requests, the application runs without it
+        SessionFactory replica = null;
+        String replicaUrl = AppSettings.get("replica.url", "");
+        if (!replicaUrl.isEmpty()) {
+            try {
+                replica = Startup.phase("replica", () -> buildReplicaSessionFactory(replicaUrl,
+                    AppSettings.get("replica.username", ""), AppSettings.get("replica.password", "")));
+                Metrics.getInstance().bindPool(replica, "replica");
+            } catch (RuntimeException e) {
+                logger.error("Read replica SessionFactory creation failed, reading from the primary", e);
+            }
+        }
+
+        synchronized (HibernateUtil.class) {
+            if (shutDown) {
+                // The application stopped while this was being built: nobody else will close it
+                if (replica != null) {
+                    replica.close();
+                }
+                factory.close();
+                throw new IllegalStateException("Shut down while the SessionFactory was being built");
+            }
+            replicaSessionFactory = replica;
+            sessionFactory = factory;
+        }
+        logger.info("Hibernate SessionFactory initialized successfully in {} ms",
+            (System.nanoTime() - start) / 1_000_000);
+        return factory;
+    }
+
+    private static int warmupConnections(Configuration configuration) {
+        int minimumIdle = parseInt(configuration.getProperty("hibernate.hikari.minimumIdle"), 5);
+        int maximumPoolSize = parseInt(configuration.getProperty("hibernate.hikari.maximumPoolSize"), minimumIdle);
+        return Math.min(AppSettings.getInt("boot.warmupConnections", minimumIdle), maximumPoolSize);
+    }
+
+    private static int parseInt(String value, int defaultValue) {
+        try {
+            return value != null ? Integer.parseInt(value.trim()) : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static void warmUp(SessionFactory factory, int count) {
+        ConnectionProvider provider = ((SessionFactoryImplementor) factory).getServiceRegistry()
+            .getService(ConnectionProvider.class);
+        if (provider == null || count <= 0) {
+            return;
+        }
+        // Held together, so that each one is a separate physical connection
+        List<Connection> connections = new ArrayList<>(count);
+        try {
+            for (int i = 0; i < count; i++) {
+                Connection connection = provider.getConnection();
+                connections.add(connection);
+                if (!connection.isValid(5)) {
+                    logger.warn("Connection opened during pool warm-up is not valid");
+                }
+            }
+        } catch (SQLException e) {
+            // The pool opens the missing connections on demand
+            logger.warn("Pool warm-up stopped after {} connections: {}", connections.size(), e.getMessage());
+        } finally {
+            for (Connection connection : connections) {
+                try {
+                    provider.closeConnection(connection);
+                } catch (SQLException e) {
+                    logger.debug("Error returning a warm-up connection to the pool", e);
+                }
+            }
         }
     }
 
@@ -62,12 +171,42 @@ public class HibernateUtil {
         }
     }
 
+    /**
+     * Build a SessionFactory on a read replica of the primary database: same mappings and
+     * pool settings, but no schema management and no second-level cache, whose entries the
+     * writes on the primary would not evict. An empty user name or password means the one
+     * of the primary.
+     */
+    public static SessionFactory buildReplicaSessionFactory(String url, String username, String password) {
+        Properties primary = getHibernateProperties();
+        Map<String, String> overrides = new LinkedHashMap<>();
+        overrides.put("hibernate.connection.url", url);
+        if (!username.isEmpty()) {
+            overrides.put("hibernate.connection.username", username);
+        }
+        if (!password.isEmpty()) {
+            overrides.put("hibernate.connection.password", password);
+        }
+        overrides.put("hibernate.hbm2ddl.auto", "none");
+        overrides.put("hibernate.cache.use_second_level_cache", "false");
+        overrides.put("hibernate.cache.use_query_cache", "false");
+        overrides.put("hibernate.hikari.readOnly", "true");
+        // Pool MBeans are registered by name
+        overrides.put("hibernate.hikari.poolName",
+            primary.getProperty("hibernate.hikari.poolName", "OfficeManagementPool") + "-replica");
+        return createConfiguration(overrides).buildSessionFactory();
+    }
+
     private static Configuration createConfiguration() {
+        return createConfiguration(Map.of());
+    }
+
+    private static Configuration createConfiguration(Map<String, String> overrides) {
         Configuration configuration = new Configuration().configure();
         
         // Set the connection provider class first
         configuration.setProperty("hibernate.connection.provider_class", 
-            "org.hibernate.hikaricp.internal.HikariCPConnectionProvider");
+            GatedConnectionProvider.class.getName());
         
         // Apply HikariCP properties
         hikariProperties.forEach((key, value) -> {
@@ -84,22 +223,95 @@ public class HibernateUtil {
             configuration.setProperty(propertyKey, propertyValue);
             logger.debug("Setting custom property: {} = {}", propertyKey, propertyValue);
         });
+
+        // JVM system properties win over the files, e.g. -Dhibernate.connection.url=...
+        System.getProperties().stringPropertyNames().stream()
+            .filter(key -> key.startsWith("hibernate."))
+            .forEach(key -> configuration.setProperty(key, System.getProperty(key)));
+        overrides.forEach(configuration::setProperty);
+
+        // Statements and database time per HTTP request (see RequestStatements)
+        configuration.setProperty("hibernate.session_factory.statement_inspector", StatementCounter.class.getName());
+        configuration.setProperty("hibernate.session.events.auto", StatementTimer.class.getName());
+
+        // Bounded regions with time to live for the second-level cache
+        if (Boolean.parseBoolean(configuration.getProperty("hibernate.cache.use_second_level_cache"))) {
+            configuration.getProperties().put("hibernate.javax.cache.cache_manager",
+                EntityCaches.createCacheManager());
+        }
         
         return configuration;
     }
 
+    /**
+     * The SessionFactory, waiting for the boot to finish if it is still running.
+     */
     public static SessionFactory getSessionFactory() {
-        if (sessionFactory == null) {
-            throw new IllegalStateException("SessionFactory has not been initialized");
+        SessionFactory factory = sessionFactory;
+        if (factory != null) {
+            return factory;
+        }
+        try {
+            return bootAsync().join();
+        } catch (CompletionException e) {
+            throw new IllegalStateException("SessionFactory could not be initialized", e.getCause());
         }
-        return sessionFactory;
     }
 
+    public static boolean isBuilt() {
+        return sessionFactory != null;
+    }
+
+    /**
+     * The SessionFactory for the request on this thread: the read replica in a read-only
+     * request that {@link ReplicaRouting} sent there, the primary otherwise.
+     */
+    public static SessionFactory getRequestSessionFactory() {
+        SessionFactory routed = ReplicaRouting.current();
+        return routed != null ? routed : getSessionFactory();
+    }
+
+    /**
+     * Open a session for a request that only reads, on the SessionFactory of the request.
+     * Its entities are read-only, so it keeps no snapshot of their state for dirty checking,
+     * never flushes, and runs on a read-only connection.
+     */
+    public static Session openReadOnlySession() {
+        Session session = getRequestSessionFactory().openSession();
+        session.setDefaultReadOnly(true);
+        session.setHibernateFlushMode(FlushMode.MANUAL);
+        session.doWork(connection -> connection.setReadOnly(true));
+        return session;
+    }
+
+    /**
+     * The read replica SessionFactory, null unless {@code replica.url} is set.
+     */
+    public static SessionFactory getReplicaSessionFactory() {
+        return replicaSessionFactory;
+    }
+
+    /**
+     * Close the SessionFactories. A boot still running closes the ones it builds itself.
+     */
     public static void shutdown() {
+        synchronized (HibernateUtil.class) {
+            shutDown = true;
+        }
+        try {
+            SessionFactory replica = replicaSessionFactory;
+            if (replica != null && !replica.isClosed()) {
+                logger.info("Closing read replica SessionFactory");
+                replica.close();
+            }
+        } catch (Exception e) {
+            logger.error("Error closing read replica SessionFactory", e);
+        }
         try {
-            if (sessionFactory != null && !sessionFactory.isClosed()) {
+            SessionFactory factory = sessionFactory;
+            if (factory != null && !factory.isClosed()) {
                 logger.info("Closing Hibernate SessionFactory");
-                sessionFactory.close();
+                factory.close();
             }
         } catch (Exception e) {
             logger.error("Error closing SessionFactory", e);
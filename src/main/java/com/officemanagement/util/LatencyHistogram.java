@@ -0,0 +1,76 @@
+package com.officemanagement.util;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram with fixed buckets, written in the Prometheus text format.
+ *
+ * Recording only increments striped counters, so concurrent threads never wait on each
+ * other. Buckets are counted separately and summed into the cumulative Prometheus buckets
+ * when the histogram is written; a scrape running next to recordings may see a count one
+ * recording ahead of a bucket, which Prometheus tolerates.
+ */
+public class LatencyHistogram {
+    // Upper bounds in seconds, the default buckets of the Prometheus client libraries
+    public static final double[] DEFAULT_BUCKETS =
+        {0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+
+    private final long[] boundsNanos;
+    private final double[] boundsSeconds;
+    // One more than the bounds, for the recordings above the last one
+    private final LongAdder[] buckets;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+
+    public LatencyHistogram() {
+        this(DEFAULT_BUCKETS);
+    }
+
+    public LatencyHistogram(double[] boundsSeconds) {
+        this.boundsSeconds = boundsSeconds.clone();
+        this.boundsNanos = new long[boundsSeconds.length];
+        for (int i = 0; i < boundsSeconds.length; i++) {
+            boundsNanos[i] = (long) (boundsSeconds[i] * 1e9);
+        }
+        this.buckets = new LongAdder[boundsSeconds.length + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        int bucket = 0;
+        while (bucket < boundsNanos.length && nanos > boundsNanos[bucket]) {
+            bucket++;
+        }
+        buckets[bucket].increment();
+        sumNanos.add(nanos);
+        count.increment();
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * Append the _bucket, _sum and _count lines of this histogram.
+     *
+     * @param labels label pairs without braces, for example {@code resource="FloorResource"},
+     *               or an empty string
+     */
+    public void write(StringBuilder out, String name, String labels) {
+        String prefix = labels.isEmpty() ? "" : labels + ",";
+        long cumulative = 0;
+        for (int i = 0; i < boundsSeconds.length; i++) {
+            cumulative += buckets[i].sum();
+            out.append(name).append("_bucket{").append(prefix).append("le=\"")
+                .append(boundsSeconds[i]).append("\"} ").append(cumulative).append('\n');
+        }
+        cumulative += buckets[boundsSeconds.length].sum();
+        out.append(name).append("_bucket{").append(prefix).append("le=\"+Inf\"} ")
+            .append(cumulative).append('\n');
+        String braces = labels.isEmpty() ? "" : "{" + labels + "}";
+        out.append(name).append("_sum").append(braces).append(' ').append(sumNanos.sum() / 1e9).append('\n');
+        out.append(name).append("_count").append(braces).append(' ').append(cumulative).append('\n');
+    }
+}
@@ -0,0 +1,272 @@
+package com.officemanagement.util;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.service.UnknownUnwrapTypeException;
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Metrics behind {@code GET /metrics}, in the Prometheus text format: the connection pools,
+ * the Hibernate statistics and the latency of each resource method.
+ *
+ * Pool and Hibernate values are read when scraped. Request latencies are recorded into
+ * {@link LatencyHistogram}s, one per resource method and status class, looked up without
+ * locking or allocating once they exist; their labels are only rendered when scraped.
+ */
+public class Metrics {
+    private static final Logger logger = LoggerFactory.getLogger(Metrics.class);
+    private static final Metrics INSTANCE = new Metrics();
+
+    // Per resource method, one histogram per status class (1xx to 5xx)
+    private final Map<Method, AtomicReferenceArray<LatencyHistogram>> requests = new ConcurrentHashMap<>();
+    // Per pool name
+    private final Map<String, Pool> pools = new ConcurrentHashMap<>();
+
+    private Metrics() {
+    }
+
+    public static Metrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Record a request handled by a resource method.
+     */
+    public void recordRequest(Method method, int status, long nanos) {
+        AtomicReferenceArray<LatencyHistogram> byStatus = requests.get(method);
+        if (byStatus == null) {
+            byStatus = requests.computeIfAbsent(method, key -> new AtomicReferenceArray<>(6));
+        }
+        int statusClass = Math.max(0, Math.min(5, status / 100));
+        LatencyHistogram histogram = byStatus.get(statusClass);
+        if (histogram == null) {
+            byStatus.compareAndSet(statusClass, null, new LatencyHistogram());
+            histogram = byStatus.get(statusClass);
+        }
+        histogram.record(nanos);
+    }
+
+    /**
+     * Expose the HikariCP pool of a SessionFactory, and time the connection acquisitions.
+     * SessionFactories on another connection provider are left out.
+     */
+    public void bindPool(SessionFactory sessionFactory, String database) {
+        ConnectionProvider provider = ((SessionFactoryImplementor) sessionFactory).getServiceRegistry()
+            .getService(ConnectionProvider.class);
+        DataSource unwrapped = null;
+        try {
+            // Not every provider that unwraps to a DataSource says so in isUnwrappableAs
+            unwrapped = provider != null ? provider.unwrap(DataSource.class) : null;
+        } catch (UnknownUnwrapTypeException e) {
+            logger.debug("Connection provider {} has no DataSource", provider);
+        }
+        if (!(unwrapped instanceof HikariDataSource)) {
+            logger.info("No HikariCP pool to expose for the {} database", database);
+            return;
+        }
+        HikariDataSource dataSource = (HikariDataSource) unwrapped;
+        Pool pool = new Pool(database, dataSource,
+            provider instanceof GatedConnectionProvider ? (GatedConnectionProvider) provider : null);
+        pools.put(dataSource.getPoolName(), pool);
+        try {
+            dataSource.setMetricsTrackerFactory(pool);
+        } catch (RuntimeException e) {
+            logger.warn("Connection acquire times of pool {} are not recorded: {}",
+                dataSource.getPoolName(), e.getMessage());
+        }
+    }
+
+    /**
+     * All the metrics in the Prometheus text exposition format.
+     */
+    public String scrape() {
+        StringBuilder out = new StringBuilder(16 * 1024);
+        writePools(out);
+        if (HibernateUtil.isBuilt()) {
+            Map<String, Statistics> databases = new LinkedHashMap<>();
+            databases.put("primary", HibernateUtil.getSessionFactory().getStatistics());
+            SessionFactory replica = HibernateUtil.getReplicaSessionFactory();
+            if (replica != null) {
+                databases.put("replica", replica.getStatistics());
+            }
+            databases.values().removeIf(statistics -> !statistics.isStatisticsEnabled());
+            if (!databases.isEmpty()) {
+                writeStatistics(out, databases);
+            }
+        }
+        writeRequests(out);
+        return out.toString();
+    }
+
+    private void writePools(StringBuilder out) {
+        Map<String, Pool> sorted = new TreeMap<>(pools);
+        writeGauge(out, sorted, "hikari_connections_active", "Connections in use",
+            HikariPoolMXBean::getActiveConnections);
+        writeGauge(out, sorted, "hikari_connections_idle", "Connections waiting in the pool",
+            HikariPoolMXBean::getIdleConnections);
+        writeGauge(out, sorted, "hikari_connections_pending", "Threads waiting for a connection",
+            HikariPoolMXBean::getThreadsAwaitingConnection);
+        writeGauge(out, sorted, "hikari_connections", "Open connections",
+            HikariPoolMXBean::getTotalConnections);
+
+        header(out, "hikari_connections_max", "Maximum pool size", "gauge");
+        sorted.forEach((name, pool) -> out.append("hikari_connections_max{").append(pool.labels).append("} ")
+            .append(pool.dataSource.getMaximumPoolSize()).append('\n'));
+        header(out, "hikari_connection_timeouts_total", "Acquisitions that timed out", "counter");
+        sorted.forEach((name, pool) -> out.append("hikari_connection_timeouts_total{").append(pool.labels)
+            .append("} ").append(pool.timeouts.sum()).append('\n'));
+        header(out, "hikari_connection_acquire_seconds", "Time to get a connection from the pool", "histogram");
+        sorted.forEach((name, pool) -> pool.acquire.write(out, "hikari_connection_acquire_seconds", pool.labels));
+
+        header(out, "db_admission_waiting", "Threads waiting at the admission gate of the pool", "gauge");
+        sorted.forEach((name, pool) -> {
+            if (pool.gate != null) {
+                out.append("db_admission_waiting{").append(pool.labels).append("} ")
+                    .append(pool.gate.getWaiting()).append('\n');
+            }
+        });
+        header(out, "db_admission_rejected_total", "Connection requests turned away by the admission gate", "counter");
+        sorted.forEach((name, pool) -> {
+            if (pool.gate != null) {
+                out.append("db_admission_rejected_total{").append(pool.labels).append("} ")
+                    .append(pool.gate.getRejected()).append('\n');
+            }
+        });
+    }
+
+    private static void writeGauge(StringBuilder out, Map<String, Pool> pools, String name, String help,
+                                   ToLongFunction<HikariPoolMXBean> value) {
+        header(out, name, help, "gauge");
+        pools.forEach((poolName, pool) -> {
+            HikariPoolMXBean bean = pool.dataSource.getHikariPoolMXBean();
+            if (bean != null) {
+                out.append(name).append('{').append(pool.labels).append("} ")
+                    .append(value.applyAsLong(bean)).append('\n');
+            }
+        });
+    }
+
+    private static void writeStatistics(StringBuilder out, Map<String, Statistics> databases) {
+        statistic(out, databases, "hibernate_sessions_opened_total", "Sessions opened", "counter",
+            Statistics::getSessionOpenCount);
+        statistic(out, databases, "hibernate_transactions_total", "Transactions completed", "counter",
+            Statistics::getTransactionCount);
+        statistic(out, databases, "hibernate_statements_prepared_total", "JDBC statements prepared", "counter",
+            Statistics::getPrepareStatementCount);
+        statistic(out, databases, "hibernate_flushes_total", "Session flushes", "counter",
+            Statistics::getFlushCount);
+        statistic(out, databases, "hibernate_query_executions_total", "HQL and native queries executed", "counter",
+            Statistics::getQueryExecutionCount);
+        statistic(out, databases, "hibernate_query_execution_seconds_total", "Time spent executing queries",
+            "counter", statistics -> {
+                long queryMillis = 0;
+                for (String query : statistics.getQueries()) {
+                    queryMillis += statistics.getQueryStatistics(query).getExecutionTotalTime();
+                }
+                return queryMillis / 1000.0;
+            });
+        statistic(out, databases, "hibernate_query_execution_max_seconds", "Slowest query execution", "gauge",
+            statistics -> statistics.getQueryExecutionMaxTime() / 1000.0);
+        statistic(out, databases, "hibernate_entity_loads_total", "Entities loaded", "counter",
+            Statistics::getEntityLoadCount);
+        statistic(out, databases, "hibernate_entity_fetches_total", "Entities fetched lazily", "counter",
+            Statistics::getEntityFetchCount);
+        statistic(out, databases, "hibernate_entity_inserts_total", "Entities inserted", "counter",
+            Statistics::getEntityInsertCount);
+        statistic(out, databases, "hibernate_entity_updates_total", "Entities updated", "counter",
+            Statistics::getEntityUpdateCount);
+        statistic(out, databases, "hibernate_entity_deletes_total", "Entities deleted", "counter",
+            Statistics::getEntityDeleteCount);
+        statistic(out, databases, "hibernate_collection_loads_total", "Collections loaded", "counter",
+            Statistics::getCollectionLoadCount);
+        statistic(out, databases, "hibernate_second_level_cache_hits_total", "Second-level cache hits", "counter",
+            Statistics::getSecondLevelCacheHitCount);
+        statistic(out, databases, "hibernate_second_level_cache_misses_total", "Second-level cache misses",
+            "counter", Statistics::getSecondLevelCacheMissCount);
+        statistic(out, databases, "hibernate_second_level_cache_puts_total", "Second-level cache puts", "counter",
+            Statistics::getSecondLevelCachePutCount);
+    }
+
+    /**
+     * One metric family: its header once, then a sample per database.
+     */
+    private static void statistic(StringBuilder out, Map<String, Statistics> databases, String name, String help,
+                                  String type, Function<Statistics, Number> value) {
+        header(out, name, help, type);
+        databases.forEach((database, statistics) -> out.append(name).append("{database=\"").append(database)
+            .append("\"} ").append(value.apply(statistics)).append('\n'));
+    }
+
+    private void writeRequests(StringBuilder out) {
+        header(out, "http_server_requests_seconds", "Time to handle a request, per resource method", "histogram");
+        Map<String, LatencyHistogram> sorted = new TreeMap<>();
+        requests.forEach((method, byStatus) -> {
+            String labels = "resource=\"" + method.getDeclaringClass().getSimpleName()
+                + "\",method=\"" + method.getName() + "\",status=\"";
+            for (int statusClass = 0; statusClass < byStatus.length(); statusClass++) {
+                LatencyHistogram histogram = byStatus.get(statusClass);
+                if (histogram != null) {
+                    sorted.put(labels + statusClass + "xx\"", histogram);
+                }
+            }
+        });
+        sorted.forEach((labels, histogram) -> histogram.write(out, "http_server_requests_seconds", labels));
+    }
+
+    private static void header(StringBuilder out, String name, String help, String type) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    /**
+     * A HikariCP pool, and the tracker of its connection acquisitions.
+     */
+    private static final class Pool implements MetricsTrackerFactory, IMetricsTracker {
+        private final String labels;
+        private final HikariDataSource dataSource;
+        private final LatencyHistogram acquire =
+            new LatencyHistogram(new double[] {0.0001, 0.0005, 0.001, 0.005, 0.01, 0.05, 0.1, 0.5, 1, 5});
+        private final LongAdder timeouts = new LongAdder();
+        private final GatedConnectionProvider gate;
+
+        private Pool(String database, HikariDataSource dataSource, GatedConnectionProvider gate) {
+            this.labels = "pool=\"" + dataSource.getPoolName() + "\",database=\"" + database + "\"";
+            this.dataSource = dataSource;
+            this.gate = gate;
+        }
+
+        @Override
+        public IMetricsTracker create(String poolName, PoolStats poolStats) {
+            return this;
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            acquire.record(elapsedAcquiredNanos);
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            timeouts.increment();
+        }
+    }
+}
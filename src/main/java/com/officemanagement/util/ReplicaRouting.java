@@ -0,0 +1,224 @@
+package com.officemanagement.util;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends read-only requests to the optional read replica while it keeps up with the primary.
+ *
+ * Both databases are compared by position in the primary's write-ahead log. Every
+ * {@code replica.lagCheckIntervalMs} the position of the primary is sampled, then the
+ * position up to which the replica has replayed the log. The replica has every write
+ * committed before the latest sample it replayed past, and its lag is the time since that
+ * sample: an idle primary does not move, so an idle replica shows no lag. A lag that is
+ * unknown or above {@code replica.maxLagMs} sends every read back to the primary.
+ *
+ * A client that just wrote passes the consistency token of its write, the position of the
+ * primary right after the commit, and is served by the replica only once the replica has
+ * replayed up to it: it always reads its own writes.
+ */
+public class ReplicaRouting {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRouting.class);
+    private static final ReplicaRouting INSTANCE = new ReplicaRouting();
+
+    // Write-ahead log positions of a PostgreSQL primary and of its standby
+    static final String POSTGRES_PRIMARY_POSITION_QUERY = "select pg_current_wal_lsn()::text";
+    static final String POSTGRES_REPLAY_POSITION_QUERY = "select pg_last_wal_replay_lsn()::text";
+    // Samples of the primary position the replica has not replayed yet, kept at most
+    private static final int MAX_SAMPLES = 1000;
+
+    // Session factory of the request being handled, set by ReplicaRoutingFilter
+    private static final ThreadLocal<SessionFactory> current = new ThreadLocal<>();
+
+    private volatile SessionFactory primary;
+    private volatile SessionFactory replica;
+    private volatile String primaryPositionQuery;
+    private volatile String replayPositionQuery;
+    private volatile long maxLagMillis;
+    // Last measured lag, negative while unknown, and the position the replica replayed up to
+    private volatile long lagMillis = -1;
+    private volatile long replayedTo = -1;
+    // Time and position of the primary at each check, oldest first; guarded by this
+    private final Deque<long[]> samples = new ArrayDeque<>();
+    private long caughtUpAt;
+    private ScheduledExecutorService scheduler;
+
+    private ReplicaRouting() {
+    }
+
+    public static ReplicaRouting getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Start routing reads to the replica, and measure its lag in the background.
+     */
+    public synchronized void start(SessionFactory primarySessionFactory, SessionFactory replicaSessionFactory) {
+        stop();
+        primaryPositionQuery = AppSettings.get("replica.primaryPositionQuery", POSTGRES_PRIMARY_POSITION_QUERY);
+        replayPositionQuery = AppSettings.get("replica.replayPositionQuery", POSTGRES_REPLAY_POSITION_QUERY);
+        maxLagMillis = AppSettings.getLong("replica.maxLagMs", 2000);
+        primary = primarySessionFactory;
+        replica = replicaSessionFactory;
+        caughtUpAt = System.currentTimeMillis();
+        checkLag();
+
+        long interval = AppSettings.getLong("replica.lagCheckIntervalMs", 1000);
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::checkLag, interval, interval, TimeUnit.MILLISECONDS);
+        logger.info("Routing read-only requests to the read replica (maximum lag {} ms)", maxLagMillis);
+    }
+
+    /**
+     * Send every request to the primary again. Closing the replica is left to its owner.
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        replica = null;
+        primary = null;
+        lagMillis = -1;
+        replayedTo = -1;
+        samples.clear();
+    }
+
+    public boolean isEnabled() {
+        return replica != null;
+    }
+
+    /**
+     * Measure the replica lag. A failed measurement leaves the lag unknown, so reads go to
+     * the primary until the next one succeeds.
+     */
+    public synchronized void checkLag() {
+        SessionFactory replicaSessionFactory = replica;
+        SessionFactory primarySessionFactory = primary;
+        if (replicaSessionFactory == null || primarySessionFactory == null) {
+            return;
+        }
+        try {
+            // The primary first: whatever it had committed by now, the replica has once it
+            // replays past this position
+            long checkedAt = System.currentTimeMillis();
+            samples.addLast(new long[] {checkedAt, position(primarySessionFactory, primaryPositionQuery)});
+            if (samples.size() > MAX_SAMPLES) {
+                samples.removeFirst();
+            }
+            long replayed = position(replicaSessionFactory, replayPositionQuery);
+            while (!samples.isEmpty() && samples.peekFirst()[1] <= replayed) {
+                caughtUpAt = samples.removeFirst()[0];
+            }
+            replayedTo = replayed;
+            long millis = Math.max(0, checkedAt - caughtUpAt);
+            lagMillis = millis;
+            if (millis > maxLagMillis) {
+                logger.warn("Read replica is {} ms behind, reading from the primary", millis);
+            }
+        } catch (RuntimeException e) {
+            if (lagMillis >= 0) {
+                logger.warn("Could not measure the read replica lag, reading from the primary: {}", e.getMessage());
+            }
+            lagMillis = -1;
+        }
+    }
+
+    /**
+     * The session factory for a read-only request, null for the primary.
+     *
+     * @param consistencyToken token of the last write of the client, if any
+     */
+    public SessionFactory route(Long consistencyToken) {
+        SessionFactory sessionFactory = replica;
+        long lag = lagMillis;
+        if (sessionFactory == null || lag < 0 || lag > maxLagMillis) {
+            return null;
+        }
+        if (consistencyToken != null && consistencyToken > replayedTo) {
+            // The replica has not replayed this client's last write yet
+            return null;
+        }
+        return sessionFactory;
+    }
+
+    /**
+     * Token handed to a client after a write: the position of the primary once the write
+     * is committed. Replicas that replayed up to it have the write. When the position
+     * cannot be read, the token keeps the client on the primary until its next write.
+     */
+    public long writeToken() {
+        SessionFactory sessionFactory = primary;
+        if (sessionFactory == null) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            return position(sessionFactory, primaryPositionQuery);
+        } catch (RuntimeException e) {
+            logger.warn("Could not read the position of the primary, the writer reads from the primary: {}",
+                e.getMessage());
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private static long position(SessionFactory sessionFactory, String query) {
+        try (Session session = sessionFactory.openSession()) {
+            Object position = session.createNativeQuery(query).uniqueResult();
+            if (position == null) {
+                throw new IllegalStateException("No log position from '" + query + "'");
+            }
+            return position instanceof Number ? ((Number) position).longValue() : parseLsn(position.toString());
+        }
+    }
+
+    /**
+     * A PostgreSQL log sequence number, two hexadecimal halves such as 16/B374D848, as one
+     * number that grows with the position.
+     */
+    static long parseLsn(String lsn) {
+        int slash = lsn.indexOf('/');
+        if (slash < 0) {
+            return Long.parseLong(lsn.trim());
+        }
+        return (Long.parseLong(lsn.substring(0, slash).trim(), 16) << 32)
+            | Long.parseLong(lsn.substring(slash + 1).trim(), 16);
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", isEnabled());
+        status.put("lagMs", lagMillis);
+        status.put("maxLagMs", maxLagMillis);
+        return status;
+    }
+
+    /**
+     * The session factory chosen for the request on this thread, null outside read-only
+     * requests routed to the replica.
+     */
+    public static SessionFactory current() {
+        return current.get();
+    }
+
+    public static void use(SessionFactory sessionFactory) {
+        if (sessionFactory != null) {
+            current.set(sessionFactory);
+        } else {
+            current.remove();
+        }
+    }
+}
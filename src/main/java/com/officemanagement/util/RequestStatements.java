@@ -0,0 +1,103 @@
+package com.officemanagement.util;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * JDBC statements run on behalf of one HTTP request: how many, how long they took, and how
+ * often each SQL string came back. The same SELECT prepared over and over within one
+ * request is the mark of an N+1 query.
+ *
+ * Statements are attributed through the thread handling the request, so work handed to
+ * other threads is not counted.
+ */
+public class RequestStatements {
+    private static final ThreadLocal<RequestStatements> current = new ThreadLocal<>();
+    // Told about every completed request, used by the tests
+    private static final List<Consumer<RequestStatements>> listeners = new CopyOnWriteArrayList<>();
+
+    private final String method;
+    private final String path;
+    private final Map<String, Integer> counts = new LinkedHashMap<>();
+    private int statements;
+    private long nanos;
+
+    private RequestStatements(String method, String path) {
+        this.method = method;
+        this.path = path;
+    }
+
+    /**
+     * Start counting the statements of a request on this thread.
+     */
+    public static RequestStatements begin(String method, String path) {
+        RequestStatements statements = new RequestStatements(method, path);
+        current.set(statements);
+        return statements;
+    }
+
+    /**
+     * Stop counting on this thread, and return what was counted, null if nothing was started.
+     */
+    public static RequestStatements end() {
+        RequestStatements statements = current.get();
+        current.remove();
+        if (statements != null) {
+            listeners.forEach(listener -> listener.accept(statements));
+        }
+        return statements;
+    }
+
+    public static RequestStatements current() {
+        return current.get();
+    }
+
+    public static void addListener(Consumer<RequestStatements> listener) {
+        listeners.add(listener);
+    }
+
+    public static void removeListener(Consumer<RequestStatements> listener) {
+        listeners.remove(listener);
+    }
+
+    void prepared(String sql) {
+        statements++;
+        counts.merge(sql, 1, Integer::sum);
+    }
+
+    void executed(long elapsedNanos) {
+        nanos += elapsedNanos;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public double getMillis() {
+        return nanos / 1e6;
+    }
+
+    /**
+     * SQL strings prepared at least {@code threshold} times, with their counts.
+     */
+    public Map<String, Integer> repeated(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        counts.forEach((sql, count) -> {
+            if (count >= threshold) {
+                repeated.put(sql, count);
+            }
+        });
+        return repeated;
+    }
+}
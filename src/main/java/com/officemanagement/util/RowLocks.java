@@ -0,0 +1,37 @@
+package com.officemanagement.util;
+
+import org.hibernate.Session;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Row locks for set-based writes. Rows are always locked in ID order, the same order the
+ * in-process seat stripes use, so that two bulk operations never wait on each other in a
+ * cycle.
+ */
+public final class RowLocks {
+
+    private RowLocks() {
+    }
+
+    /**
+     * SELECT ... FOR UPDATE on the rows of a table, in ID order.
+     *
+     * @return the IDs of the rows that exist
+     */
+    public static List<Long> forUpdate(Session session, String table, Collection<Long> ids) {
+        List<Long> locked = new ArrayList<>();
+        for (List<Long> chunk : Batches.partition(new TreeSet<>(ids))) {
+            for (Object id : session.createNativeQuery(
+                    "select id from " + table + " where id in (:ids) order by id for update")
+                    .setParameterList("ids", chunk)
+                    .list()) {
+                locked.add(((Number) id).longValue());
+            }
+        }
+        return locked;
+    }
+}
@@ -0,0 +1,51 @@
+package com.officemanagement.util;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+/**
+ * Turns on the Hibernate SQL log, with the bound parameters, for single requests only, so
+ * that SQL can be inspected in production without formatting and writing every statement
+ * of every request. Installed as a turbo filter in logback.xml.
+ *
+ * Outside of such requests the levels configured for {@code org.hibernate.SQL} and
+ * {@code org.hibernate.type.descriptor.sql.BasicBinder} apply as usual.
+ */
+public class SqlLogging extends TurboFilter {
+    private static final String STATEMENTS = "org.hibernate.SQL";
+    private static final String PARAMETERS = "org.hibernate.type.descriptor.sql.BasicBinder";
+
+    private static final ThreadLocal<Boolean> enabled = new ThreadLocal<>();
+
+    /**
+     * Log the SQL run by this thread until {@link #end()}.
+     */
+    public static void begin() {
+        enabled.set(Boolean.TRUE);
+    }
+
+    public static void end() {
+        enabled.remove();
+    }
+
+    public static boolean isEnabled() {
+        return enabled.get() != null;
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // Called on every log statement of the application, so only a ThreadLocal lookup
+        // for the two Hibernate loggers and nothing for the others
+        if (logger == null) {
+            return FilterReply.NEUTRAL;
+        }
+        String name = logger.getName();
+        if ((name.equals(STATEMENTS) || name.equals(PARAMETERS)) && isEnabled()) {
+            return FilterReply.ACCEPT;
+        }
+        return FilterReply.NEUTRAL;
+    }
+}
@@ -0,0 +1,96 @@
+package com.officemanagement.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Progress of the application startup, which runs in the background while the server
+ * already answers: the duration of each phase and whether the application is ready.
+ */
+public final class Startup {
+    private static final Logger logger = LoggerFactory.getLogger(Startup.class);
+
+    public enum State {
+        STARTING, READY, FAILED
+    }
+
+    // Phase name to duration in milliseconds, in the order the phases ran
+    private static final Map<String, Long> phases = Collections.synchronizedMap(new LinkedHashMap<>());
+    private static volatile CompletableFuture<?> completion;
+
+    private Startup() {
+    }
+
+    /**
+     * Run one phase of the startup and log how long it took.
+     */
+    public static <T> T phase(String name, Supplier<T> step) {
+        long start = System.nanoTime();
+        T result = step.get();
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        phases.put(name, millis);
+        logger.info("Startup phase '{}' finished in {} ms", name, millis);
+        return result;
+    }
+
+    public static void phase(String name, Runnable step) {
+        phase(name, () -> {
+            step.run();
+            return null;
+        });
+    }
+
+    /**
+     * The application is ready once the given startup completes normally.
+     */
+    public static void track(CompletableFuture<?> startup) {
+        completion = startup;
+    }
+
+    /**
+     * Without a tracked startup, for example in tests, the application counts as ready once
+     * the SessionFactory is built.
+     */
+    public static State state() {
+        CompletableFuture<?> startup = completion;
+        if (startup == null) {
+            return HibernateUtil.isBuilt() ? State.READY : State.STARTING;
+        }
+        if (!startup.isDone()) {
+            return State.STARTING;
+        }
+        return startup.isCompletedExceptionally() ? State.FAILED : State.READY;
+    }
+
+    /**
+     * Why the startup failed, null unless it did.
+     */
+    public static String failure() {
+        CompletableFuture<?> startup = completion;
+        if (startup == null || !startup.isCompletedExceptionally()) {
+            return null;
+        }
+        try {
+            startup.join();
+            return null;
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            return cause.getClass().getSimpleName() + ": " + cause.getMessage();
+        } catch (RuntimeException e) {
+            return e.toString();
+        }
+    }
+
+    public static Map<String, Long> phases() {
+        synchronized (phases) {
+            return new LinkedHashMap<>(phases);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.officemanagement.util;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the statements Hibernate prepares into the {@link RequestStatements} of the
+ * current request. The SQL is passed on unchanged.
+ */
+public class StatementCounter implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        RequestStatements statements = RequestStatements.current();
+        if (statements != null) {
+            statements.prepared(sql);
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,38 @@
+package com.officemanagement.util;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Adds the time spent executing JDBC statements and batches to the
+ * {@link RequestStatements} of the current request. Hibernate creates one per session.
+ */
+public class StatementTimer extends BaseSessionEventListener {
+    private long start;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        start = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        record();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        start = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        record();
+    }
+
+    private void record() {
+        RequestStatements statements = RequestStatements.current();
+        if (statements != null) {
+            statements.executed(System.nanoTime() - start);
+        }
+    }
+}
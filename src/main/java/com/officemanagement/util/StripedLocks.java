@@ -0,0 +1,66 @@
+package com.officemanagement.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed set of locks shared by key, so that operations on the same entity are serialized
+ * while operations on different entities mostly proceed in parallel. Two keys may map to
+ * the same stripe: callers holding several stripes must take them through
+ * {@link #forKeys(Collection)}, which orders them, or only with {@link Lock#tryLock()}.
+ */
+public final class StripedLocks {
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    public StripedLocks(int stripeCount) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("Stripe count must be positive");
+        }
+        // Round up to a power of two so that a stripe is picked with a mask
+        int size = 1;
+        while (size < stripeCount) {
+            size <<= 1;
+        }
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    public Lock forKey(long key) {
+        return stripes[indexOf(key)];
+    }
+
+    private int indexOf(long key) {
+        int hash = Long.hashCode(key);
+        // Spread the high bits so that keys with a common stride do not pile up on one stripe
+        hash ^= (hash >>> 16);
+        return hash & mask;
+    }
+
+    /**
+     * Distinct stripes covering all keys, in a fixed global order. Locking them in the
+     * returned order cannot deadlock with other callers doing the same.
+     */
+    public List<Lock> forKeys(Collection<Long> keys) {
+        TreeSet<Integer> indexes = new TreeSet<>();
+        for (Long key : keys) {
+            indexes.add(indexOf(key));
+        }
+        List<Lock> locks = new ArrayList<>(indexes.size());
+        for (Integer index : indexes) {
+            locks.add(stripes[index]);
+        }
+        return locks;
+    }
+
+    public int size() {
+        return stripes.length;
+    }
+}
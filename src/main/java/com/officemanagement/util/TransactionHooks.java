@@ -0,0 +1,81 @@
+package com.officemanagement.util;
+
+import org.hibernate.BaseSessionEventListener;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Helpers to run side effects (in-memory indexes, event fan-out) only once
+ * the surrounding Hibernate transaction has actually committed.
+ */
+public final class TransactionHooks {
+    private static final Logger logger = LoggerFactory.getLogger(TransactionHooks.class);
+
+    private TransactionHooks() {
+    }
+
+    /**
+     * Register an action that runs after the current transaction of the session commits.
+     * The action is skipped on rollback, and failures are logged instead of being
+     * propagated to the caller, since the database work is already durable.
+     */
+    public static void afterCommit(Session session, Runnable action) {
+        afterCompletion(session, committed -> {
+            if (committed) {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Register an action that runs once the current transaction of the session ends,
+     * whether it committed or not. The action is told which of the two happened.
+     */
+    public static void afterCompletion(Session session, Consumer<Boolean> action) {
+        session.getTransaction().registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    action.accept(status == Status.STATUS_COMMITTED);
+                } catch (RuntimeException e) {
+                    logger.error("After-completion action failed", e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Like {@link #afterCompletion(Session, Consumer)}, but also runs, as a rollback, when
+     * the session is closed without the transaction having ended, as when an exception
+     * leaves the transaction open. Either way the action runs exactly once.
+     */
+    public static void afterCompletionOrClose(Session session, Consumer<Boolean> action) {
+        AtomicBoolean done = new AtomicBoolean();
+        Consumer<Boolean> once = committed -> {
+            if (done.compareAndSet(false, true)) {
+                action.accept(committed);
+            }
+        };
+        afterCompletion(session, once);
+        session.addEventListeners(new BaseSessionEventListener() {
+            @Override
+            public void end() {
+                try {
+                    once.accept(false);
+                } catch (RuntimeException e) {
+                    logger.error("After-completion action failed", e);
+                }
+            }
+        });
+    }
+}
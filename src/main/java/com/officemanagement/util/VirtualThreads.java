@@ -0,0 +1,54 @@
+package com.officemanagement.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Virtual threads on Java 21 or later. The sources stay on Java 11, so the executor is
+ * looked up at runtime (the java21 Maven profile builds for a runtime that has it).
+ */
+public final class VirtualThreads {
+    private static final Method NEW_EXECUTOR = lookup();
+
+    private VirtualThreads() {
+    }
+
+    private static Method lookup() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    public static boolean isAvailable() {
+        return NEW_EXECUTOR != null;
+    }
+
+    /**
+     * An executor that starts a new virtual thread for every task.
+     *
+     * @throws IllegalStateException on a runtime without virtual threads
+     */
+    public static ExecutorService newPerTaskExecutor() {
+        if (NEW_EXECUTOR == null) {
+            throw new IllegalStateException("Virtual threads need Java 21 or later, this is Java "
+                + Runtime.version().feature());
+        }
+        try {
+            return (ExecutorService) NEW_EXECUTOR.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create a virtual thread executor", e);
+        }
+    }
+
+    /**
+     * Whether the setting asks for virtual threads: "true" always, "false" never, and
+     * "auto" when the runtime has them.
+     */
+    public static boolean enabled(String setting) {
+        String value = AppSettings.get(setting, "auto").trim();
+        return "auto".equalsIgnoreCase(value) ? isAvailable() : Boolean.parseBoolean(value);
+    }
+}
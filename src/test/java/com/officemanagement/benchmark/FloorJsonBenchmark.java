@@ -0,0 +1,51 @@
+package com.officemanagement.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.officemanagement.model.Floor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON of the floor graph answered by {@code GET /floors/{id}}, written with the same
+ * ObjectMapper setup as {@link com.officemanagement.config.JerseyConfig}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FloorJsonBenchmark {
+    @Param({"20"})
+    private int rooms;
+
+    @Param({"50"})
+    private int seatsPerRoom;
+
+    private ObjectMapper mapper;
+    private Floor floor;
+
+    @Setup
+    public void setup() {
+        mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        floor = OfficeData.floor(rooms, seatsPerRoom);
+    }
+
+    @Benchmark
+    public byte[] serializeFloor() throws Exception {
+        return mapper.writeValueAsBytes(floor);
+    }
+}
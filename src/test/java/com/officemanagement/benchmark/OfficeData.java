@@ -0,0 +1,74 @@
+package com.officemanagement.benchmark;
+
+import com.officemanagement.model.Employee;
+import com.officemanagement.model.Floor;
+import com.officemanagement.model.OfficeRoom;
+import com.officemanagement.model.Seat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Floor graphs built in memory for the benchmarks: rooms in a row, seats in a grid inside
+ * each room, and one employee on every other seat.
+ */
+final class OfficeData {
+    static final String[] OCCUPATIONS = {"Engineer", "Designer", "Manager", "Analyst", "Support", "Sales"};
+
+    private OfficeData() {
+    }
+
+    /**
+     * A floor graph built in memory, with ids as if it had been loaded.
+     */
+    static Floor floor(int rooms, int seatsPerRoom) {
+        LocalDateTime now = LocalDateTime.of(2024, 3, 21, 9, 0);
+        long[] ids = {1};
+        Floor floor = new Floor();
+        floor.setId(ids[0]++);
+        floor.setName("Floor 1");
+        floor.setFloorNumber(1);
+        floor.setCreatedAt(now);
+        for (int r = 0; r < rooms; r++) {
+            OfficeRoom room = room(floor, r, seatsPerRoom, now);
+            room.setId(ids[0]++);
+            floor.getRooms().add(room);
+            for (Seat seat : room.getSeats()) {
+                seat.setId(ids[0]++);
+                for (Employee employee : seat.getEmployees()) {
+                    employee.setId(ids[0]++);
+                }
+            }
+        }
+        return floor;
+    }
+
+    private static OfficeRoom room(Floor floor, int index, int seats, LocalDateTime now) {
+        int columns = (int) Math.ceil(Math.sqrt(seats));
+        OfficeRoom room = new OfficeRoom();
+        room.setFloor(floor);
+        room.setName("Room " + index);
+        room.setRoomNumber("R" + index);
+        room.setX(index * 1000f);
+        room.setY(0f);
+        room.setWidth(columns * 120f + 40f);
+        room.setHeight(columns * 120f + 40f);
+        room.setCreatedAt(now);
+        for (int s = 0; s < seats; s++) {
+            Seat seat = new Seat();
+            seat.setRoom(room);
+            seat.setSeatNumber("S" + s);
+            seat.setX(room.getX() + 20f + (s % columns) * 120f);
+            seat.setY(20f + (s / columns) * 120f);
+            seat.setCreatedAt(now);
+            room.getSeats().add(seat);
+            if (s % 2 == 0) {
+                Employee employee = new Employee();
+                employee.setFullName("Employee " + index + "-" + s);
+                employee.setOccupation(OCCUPATIONS[(index + s) % OCCUPATIONS.length]);
+                employee.setCreatedAt(now);
+                employee.addSeat(seat);
+            }
+        }
+        return room;
+    }
+}
@@ -0,0 +1,89 @@
+package com.officemanagement.benchmark;
+
+import com.officemanagement.resource.FloorResource;
+import com.officemanagement.util.CampusGenerator;
+import com.officemanagement.util.HibernateUtil;
+import org.hibernate.Session;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.inject.Provider;
+import javax.ws.rs.core.Response;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The floor graph of {@code GET /floors/{id}} for a floor of 20 rooms of 50 seats, loaded
+ * in a regular and in a read-only session. Run with {@code -prof gc} to compare the heap
+ * allocated per load.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadOnlySessionBenchmark {
+    @Param({"regular", "readOnly"})
+    private String sessionType;
+
+    private FloorResource floors;
+    private Long floorId;
+    // Sessions opened by the current call, closed after it as at the end of a request
+    private final List<Session> sessions = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            CampusGenerator.Summary campus = session.doReturningWork(connection -> new CampusGenerator()
+                .seed(42)
+                .floors(1)
+                .roomsPerFloor(20)
+                .seatsPerRoom(50)
+                .employees(1000)
+                .load(connection));
+            floorId = campus.getFirstFloorId();
+        }
+        boolean readOnly = "readOnly".equals(sessionType);
+        Provider<Session> requestSession = () -> {
+            Session session = readOnly
+                ? HibernateUtil.openReadOnlySession()
+                : HibernateUtil.getSessionFactory().openSession();
+            sessions.add(session);
+            return session;
+        };
+        floors = new FloorResource(requestSession);
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeSessions() {
+        sessions.forEach(Session::close);
+        sessions.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        HibernateUtil.shutdown();
+    }
+
+    @Benchmark
+    public Response getFloor() {
+        Response response = floors.getFloor(floorId);
+        if (response.getStatus() != Response.Status.OK.getStatusCode()) {
+            throw new IllegalStateException("Status " + response.getStatus());
+        }
+        return response;
+    }
+}
@@ -0,0 +1,129 @@
+package com.officemanagement.benchmark;
+
+import com.officemanagement.model.OfficeRoom;
+import com.officemanagement.model.Seat;
+import com.officemanagement.resource.EmployeeResource;
+import com.officemanagement.resource.RoomResource;
+import com.officemanagement.util.CampusGenerator;
+import com.officemanagement.util.HibernateUtil;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.inject.Provider;
+import javax.ws.rs.core.Response;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resource methods called directly, against the in-memory H2 database of the tests
+ * filled by {@link CampusGenerator} with 5 floors of 10 rooms of 60 seats and 2400
+ * employees, 90% of them seated.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResourceBenchmark {
+    private static final int SEATS_PER_ROOM = 60;
+
+    private SessionFactory sessionFactory;
+    private RoomResource rooms;
+    private EmployeeResource employees;
+    private Long roomId;
+    // Two layouts of the room, applied in turn so that every call changes all 60 seats
+    private final List<Map<String, Object>> geometries = new ArrayList<>();
+    private int geometry;
+    // Read-only sessions opened by the current call, closed after it as at the end of a request
+    private final List<Session> readOnlySessions = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        sessionFactory = HibernateUtil.getSessionFactory();
+        try (Session session = sessionFactory.openSession()) {
+            CampusGenerator.Summary campus = session.doReturningWork(connection -> new CampusGenerator()
+                .seed(42)
+                .floors(5)
+                .roomsPerFloor(10)
+                .seatsPerRoom(SEATS_PER_ROOM)
+                .employees(2400)
+                .load(connection));
+            roomId = campus.getFirstRoomId();
+            List<Seat> seats = new ArrayList<>(session.get(OfficeRoom.class, roomId).getSeats());
+            geometries.add(geometry(seats, 0f));
+            geometries.add(geometry(seats, 10f));
+        }
+        Provider<Session> readOnlySession = () -> {
+            Session session = HibernateUtil.openReadOnlySession();
+            readOnlySessions.add(session);
+            return session;
+        };
+        rooms = new RoomResource(readOnlySession);
+        employees = new EmployeeResource(readOnlySession);
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeReadOnlySessions() {
+        readOnlySessions.forEach(Session::close);
+        readOnlySessions.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        HibernateUtil.shutdown();
+    }
+
+    @Benchmark
+    public Response getRoom() {
+        return ok(rooms.getRoom(roomId));
+    }
+
+    @Benchmark
+    public Response searchEmployees() {
+        return ok(employees.searchEmployees("engineer", 2, 20));
+    }
+
+    @Benchmark
+    public Response updateRoomGeometry() {
+        geometry ^= 1;
+        return ok(rooms.updateRoomGeometry(roomId, geometries.get(geometry)));
+    }
+
+    private static Map<String, Object> geometry(List<Seat> seats, float offset) {
+        Map<String, Object> seatGeometries = new HashMap<>();
+        for (Seat seat : seats) {
+            Map<String, Object> seatGeometry = new HashMap<>();
+            seatGeometry.put("x", seat.getX() + offset);
+            seatGeometry.put("y", seat.getY() + offset);
+            seatGeometry.put("rotation", offset * 9);
+            seatGeometries.put(String.valueOf(seat.getId()), seatGeometry);
+        }
+        Map<String, Object> geometry = new HashMap<>();
+        geometry.put("x", offset);
+        geometry.put("seats", seatGeometries);
+        return geometry;
+    }
+
+    private static Response ok(Response response) {
+        if (response.getStatus() != Response.Status.OK.getStatusCode()) {
+            throw new IllegalStateException("Status " + response.getStatus() + ": " + response.getEntity());
+        }
+        return response;
+    }
+}
@@ -0,0 +1,134 @@
+package com.officemanagement.benchmark;
+
+import com.officemanagement.config.JerseyConfig;
+import com.officemanagement.load.EmbeddedServer;
+import com.officemanagement.util.CampusGenerator;
+import com.officemanagement.util.HibernateUtil;
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.hibernate.Session;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput over HTTP with 512 concurrent clients, half of them on a query that holds its
+ * connection for queryMillis (a slow database) and half on GET /stats, which never touches
+ * the database. On 200 platform threads the slow queries take up the whole pool waiting at
+ * the connection admission gate, and the fast requests queue behind them. On virtual
+ * threads only the slow queries wait. The virtual mode needs Java 21 (profile java21):
+ *
+ *   mvn verify -Pbenchmark,java21 -Djmh.args=ThreadModeBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ThreadModeBenchmark {
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"20"})
+    public long queryMillis;
+
+    private HttpServer server;
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private HttpRequest slowQuery;
+    private HttpRequest stats;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            session.doReturningWork(connection -> new CampusGenerator()
+                .seed(42)
+                .floors(2)
+                .roomsPerFloor(10)
+                .seatsPerRoom(20)
+                .employees(300)
+                .load(connection));
+        }
+        SlowQueryResource.millis = queryMillis;
+        JerseyConfig config = new JerseyConfig();
+        config.register(SlowQueryResource.class);
+        server = EmbeddedServer.start(config, 0, threads);
+        String base = "http://localhost:" + EmbeddedServer.port(server) + "/api/";
+        slowQuery = HttpRequest.newBuilder(URI.create(base + "benchmark/slow-query")).build();
+        stats = HttpRequest.newBuilder(URI.create(base + "stats")).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (server != null) {
+            server.shutdownNow();
+        }
+        HibernateUtil.shutdown();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(256)
+    public int slowQuery() throws IOException, InterruptedException {
+        return send(slowQuery);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(256)
+    public int stats() throws IOException, InterruptedException {
+        return send(stats);
+    }
+
+    private int send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(request.uri() + " answered " + response.statusCode());
+        }
+        return response.body().length();
+    }
+
+    /**
+     * A query that keeps its connection for a while after the database answered, as a slow
+     * PostgreSQL would. The wait is a plain sleep, so a virtual thread gives up its carrier.
+     */
+    @Path("/benchmark")
+    public static class SlowQueryResource {
+        static volatile long millis;
+
+        @GET
+        @Path("/slow-query")
+        @Produces(MediaType.TEXT_PLAIN)
+        public String slowQuery() throws InterruptedException {
+            try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+                session.beginTransaction();
+                Number seats = (Number) session.createQuery("select count(s) from Seat s").uniqueResult();
+                Thread.sleep(millis);
+                session.getTransaction().commit();
+                return String.valueOf(seats);
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.officemanagement.event;
+
+import org.glassfish.jersey.media.sse.OutboundEvent;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.sse.OutboundSseEvent;
+import javax.ws.rs.sse.Sse;
+import javax.ws.rs.sse.SseBroadcaster;
+import javax.ws.rs.sse.SseEventSink;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FloorEventBroadcasterTest {
+
+    @Test
+    void testDiffsAreDeliveredInVersionOrder() throws Exception {
+        FloorEventBroadcaster broadcaster = new FloorEventBroadcaster(16, 2);
+        RecordingSink sink = new RecordingSink(null);
+        broadcaster.subscribe(1L, sink, new TestSse());
+
+        for (int i = 0; i < 5; i++) {
+            broadcaster.publish(FloorChange.updated(1L, FloorChange.ROOM, 10L, Collections.singletonMap("x", i)));
+        }
+        // Changes for other floors must not reach this subscriber
+        broadcaster.publish(FloorChange.updated(2L, FloorChange.ROOM, 20L, Collections.singletonMap("x", 1)));
+
+        assertTrue(sink.awaitEvents(6), "Expected sync event and five diffs");
+        assertEquals(FloorSubscription.SYNC_EVENT, sink.events.get(0).getName());
+        for (int i = 1; i <= 5; i++) {
+            OutboundSseEvent event = sink.events.get(i);
+            assertEquals(FloorSubscription.DIFF_EVENT, event.getName());
+            assertEquals(String.valueOf(i), event.getId());
+            assertTrue(event.getData().toString().contains("\"entityId\":10"));
+        }
+        assertEquals(5, broadcaster.currentVersion(1L));
+    }
+
+    @Test
+    void testSlowSubscriberIsAskedToResync() throws Exception {
+        FloorEventBroadcaster broadcaster = new FloorEventBroadcaster(4, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingSink slowSink = new RecordingSink(release);
+        FloorSubscription subscription = broadcaster.subscribe(1L, slowSink, new TestSse());
+
+        // The first diff blocks the dispatcher, the rest pile up and overflow the queue
+        long start = System.nanoTime();
+        for (int i = 0; i < 50; i++) {
+            broadcaster.publish(FloorChange.updated(1L, FloorChange.SEAT, 5L, Collections.singletonMap("y", i)));
+        }
+        long publishMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(publishMillis < 1000, "Publishing must not wait for slow subscribers");
+        assertTrue(subscription.getDroppedEvents() > 0, "Overflowing diffs should be dropped");
+
+        release.countDown();
+        assertTrue(slowSink.awaitEvent(FloorSubscription.RESYNC_EVENT), "Slow subscriber should get a resync hint");
+        // Whether through diffs or a resync, the subscriber eventually catches up with the last version
+        assertTrue(slowSink.awaitEventId("50"), "Subscriber should catch up with the latest version");
+    }
+
+    @Test
+    void testClosedSinkIsUnsubscribed() throws Exception {
+        FloorEventBroadcaster broadcaster = new FloorEventBroadcaster(4, 1);
+        RecordingSink sink = new RecordingSink(null);
+        broadcaster.subscribe(3L, sink, new TestSse());
+        assertEquals(1, broadcaster.subscriberCount(3L));
+
+        sink.close();
+        broadcaster.publish(FloorChange.updated(3L, FloorChange.ROOM, 1L, Collections.singletonMap("x", 1)));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (broadcaster.subscriberCount(3L) > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, broadcaster.subscriberCount(3L));
+    }
+
+    private static class TestSse implements Sse {
+        @Override
+        public OutboundSseEvent.Builder newEventBuilder() {
+            return new OutboundEvent.Builder();
+        }
+
+        @Override
+        public SseBroadcaster newBroadcaster() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static class RecordingSink implements SseEventSink {
+        private final List<OutboundSseEvent> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch blockUntil;
+        private volatile boolean closed;
+
+        RecordingSink(CountDownLatch blockUntil) {
+            this.blockUntil = blockUntil;
+        }
+
+        @Override
+        public boolean isClosed() {
+            return closed;
+        }
+
+        @Override
+        public CompletionStage<?> send(OutboundSseEvent event) {
+            if (blockUntil != null && FloorSubscription.DIFF_EVENT.equals(event.getName())) {
+                try {
+                    blockUntil.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            events.add(event);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        boolean awaitEvents(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (events.size() < count && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            return events.size() >= count;
+        }
+
+        boolean awaitEvent(String name) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (lastEvent(name) == null && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            return lastEvent(name) != null;
+        }
+
+        boolean awaitEventId(String id) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (System.currentTimeMillis() < deadline) {
+                for (OutboundSseEvent event : events) {
+                    if (id.equals(event.getId())) {
+                        return true;
+                    }
+                }
+                Thread.sleep(10);
+            }
+            return false;
+        }
+
+        OutboundSseEvent lastEvent(String name) {
+            OutboundSseEvent last = null;
+            for (OutboundSseEvent event : events) {
+                if (name.equals(event.getName())) {
+                    last = event;
+                }
+            }
+            return last;
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.officemanagement.event;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.officemanagement.model.Employee;
+import com.officemanagement.model.Floor;
+import com.officemanagement.model.OfficeRoom;
+import com.officemanagement.model.OutboxEvent;
+import com.officemanagement.resource.BaseResourceTest;
+import com.sun.net.httpserver.HttpServer;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.ws.rs.core.Response;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the relay against a file sink and a local webhook stub that fails on demand.
+ */
+public class OutboxRelayTest extends BaseResourceTest {
+    private HttpServer webhook;
+    private final List<String> webhookBodies = new CopyOnWriteArrayList<>();
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    public void stopWebhook() {
+        if (webhook != null) {
+            webhook.stop(0);
+        }
+    }
+
+    @Test
+    public void testEventsAreDeliveredAtLeastOnceToEverySink() throws Exception {
+        Long seatId = createSeatThroughApi();
+        Employee employee = createEmployee("Outbox Tester");
+        commitAndStartNewTransaction();
+
+        given()
+        .when()
+            .put(getApiPath("/employees/" + employee.getId() + "/assign-seat/" + seatId))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode());
+
+        // seat.created, assignment.created and seat.updated, written with the changes
+        assertEquals(3L, pendingEvents());
+
+        Path file = tempDir.resolve("events.ndjson");
+        OutboxRelay relay = new OutboxRelay(
+            Arrays.asList(new NdjsonFileSink(file), new WebhookSink(startWebhook(), Duration.ofSeconds(5))),
+            2, 10, 100, 60000);
+
+        // The webhook refuses the first batch: nothing is deleted, the file already has it
+        failuresLeft.set(1);
+        assertThrows(IOException.class, () -> relay.relayOnce(sessionFactory));
+        assertEquals(3L, pendingEvents());
+        assertEquals(2, Files.readAllLines(file).size());
+
+        // The retry only goes to the sink that missed the batch
+        assertEquals(2, relay.relayOnce(sessionFactory));
+        assertEquals(1, relay.relayOnce(sessionFactory));
+        assertEquals(0, relay.relayOnce(sessionFactory));
+        assertEquals(0L, pendingEvents());
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(3, lines.size());
+        List<String> types = new ArrayList<>();
+        long previousId = 0;
+        for (String line : lines) {
+            JsonNode event = objectMapper.readTree(line);
+            assertTrue(event.get("id").asLong() > previousId, "Events are delivered in id order");
+            previousId = event.get("id").asLong();
+            types.add(event.get("type").asText());
+        }
+        assertEquals(Arrays.asList("seat.created", "assignment.created", "seat.updated"), types);
+        JsonNode assignment = objectMapper.readTree(lines.get(1));
+        assertEquals(employee.getId().longValue(), assignment.get("payload").get("employeeId").asLong());
+        assertEquals(seatId.longValue(), assignment.get("payload").get("seatId").asLong());
+
+        // Two refused and accepted posts of the first batch, then the last event
+        assertEquals(3, webhookBodies.size());
+        assertEquals(webhookBodies.get(0), webhookBodies.get(1));
+        assertEquals(1, webhookBodies.get(2).split("\n").length);
+
+        OutboxRelay.Metrics metrics = relay.metrics(sessionFactory);
+        assertEquals(3, metrics.getDeliveredEvents());
+        assertEquals(2, metrics.getDeliveredBatches());
+        assertEquals(1, metrics.getFailedAttempts());
+        assertEquals(0, metrics.getPendingEvents());
+        assertTrue(metrics.getMaxLagMillis() >= metrics.getLastLagMillis());
+    }
+
+    @Test
+    public void testClaimedEventsAreSkippedWhileBeingDelivered() throws Exception {
+        createSeatThroughApi();
+        assertEquals(1L, pendingEvents());
+
+        OutboxRelay other = new OutboxRelay(Collections.singletonList(new NdjsonFileSink(tempDir.resolve("other.ndjson"))),
+            10, 10, 100, 60000);
+        AtomicInteger seenByOther = new AtomicInteger(-1);
+        OutboxSink sink = new OutboxSink() {
+            @Override
+            public String getName() {
+                return "probe";
+            }
+
+            @Override
+            public void deliver(List<OutboxEvent> events) throws IOException {
+                // No transaction or row lock is held here, the claim alone keeps the other relay away
+                try {
+                    seenByOther.set(other.relayOnce(sessionFactory));
+                } catch (Exception e) {
+                    throw new IOException(e);
+                }
+            }
+        };
+
+        assertEquals(1, new OutboxRelay(Collections.singletonList(sink), 10, 10, 100, 60000).relayOnce(sessionFactory));
+        assertEquals(0, seenByOther.get());
+        assertEquals(0L, pendingEvents());
+    }
+
+    @Test
+    public void testRejectedChangesWriteNoEvents() {
+        createSeatThroughApi();
+        long before = pendingEvents();
+
+        // Same seat number again: the insert is rolled back, and its event with it
+        Map<String, Object> duplicate = new HashMap<>();
+        duplicate.put("seatNumber", "O-1");
+        duplicate.put("room", reference(roomId()));
+        given()
+            .contentType(ContentType.JSON)
+            .body(duplicate)
+        .when()
+            .post(getApiPath("/seats"))
+        .then()
+            .statusCode(Response.Status.CONFLICT.getStatusCode());
+
+        assertEquals(before, pendingEvents());
+    }
+
+    @Test
+    public void testBulkDeletesRecordRemovedAssignments() {
+        Long seatId = createSeatThroughApi();
+        Long leaving = assignedEmployee("Leaving Employee", seatId);
+        Long staying = assignedEmployee("Staying Employee", seatId);
+        session.clear();
+        session.createQuery("delete from OutboxEvent").executeUpdate();
+        commitAndStartNewTransaction();
+
+        given()
+            .contentType(ContentType.JSON)
+            .body(Collections.singletonMap("ids", Collections.singletonList(leaving)))
+        .when()
+            .post(getApiPath("/employees/delete"))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode());
+
+        given()
+            .contentType(ContentType.JSON)
+            .body(Collections.singletonMap("ids", Collections.singletonList(seatId)))
+        .when()
+            .post(getApiPath("/seats/delete"))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode());
+
+        session.clear();
+        List<OutboxEvent> events = session.createQuery("from OutboxEvent e order by e.id", OutboxEvent.class).list();
+        List<String> types = new ArrayList<>();
+        events.forEach(event -> types.add(event.getEventType()));
+        assertEquals(Arrays.asList("assignment.deleted", "seat.updated", "assignment.deleted", "seat.deleted"), types);
+        assertEquals(leaving, events.get(0).getAggregateId());
+        assertEquals(staying, events.get(2).getAggregateId());
+        assertTrue(events.get(2).getPayload().contains("\"seatId\":" + seatId));
+    }
+
+    @Test
+    public void testRoomMoveRecordsChangesOnBothFloors() {
+        Long seatId = createSeatThroughApi();
+        Long roomId = roomId();
+        Long fromFloorId = session.get(OfficeRoom.class, roomId).getFloor().getId();
+        Floor target = createFloor(2);
+        session.createQuery("delete from OutboxEvent").executeUpdate();
+        commitAndStartNewTransaction();
+
+        Map<String, Object> update = new HashMap<>();
+        update.put("name", "Outbox Room");
+        update.put("roomNumber", "O");
+        update.put("floor", reference(target.getId()));
+        given()
+            .contentType(ContentType.JSON)
+            .body(update)
+        .when()
+            .put(getApiPath("/rooms/" + roomId))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode());
+
+        session.clear();
+        List<String> events = new ArrayList<>();
+        for (OutboxEvent event : session.createQuery("from OutboxEvent e order by e.id", OutboxEvent.class).list()) {
+            events.add(event.getEventType() + " " + event.getAggregateId() + " " + event.getFloorId());
+        }
+        assertEquals(Arrays.asList(
+            "seat.deleted " + seatId + " " + fromFloorId,
+            "room.deleted " + roomId + " " + fromFloorId,
+            "room.created " + roomId + " " + target.getId(),
+            "seat.created " + seatId + " " + target.getId()), events);
+    }
+
+    private Long assignedEmployee(String name, Long seatId) {
+        Employee employee = createEmployee(name);
+        commitAndStartNewTransaction();
+
+        given()
+        .when()
+            .put(getApiPath("/employees/" + employee.getId() + "/assign-seat/" + seatId))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode());
+        return employee.getId();
+    }
+
+    private Long createSeatThroughApi() {
+        OfficeRoom room = createRoom(createFloor(1), "O");
+        commitAndStartNewTransaction();
+
+        Map<String, Object> seat = new HashMap<>();
+        seat.put("seatNumber", "O-1");
+        seat.put("capacity", 2);
+        seat.put("room", reference(room.getId()));
+        return given()
+            .contentType(ContentType.JSON)
+            .body(seat)
+        .when()
+            .post(getApiPath("/seats"))
+        .then()
+            .statusCode(Response.Status.CREATED.getStatusCode())
+            .extract()
+            .jsonPath()
+            .getLong("id");
+    }
+
+    private Long roomId() {
+        session.clear();
+        return session.createQuery("select r.id from OfficeRoom r where r.roomNumber = 'O'", Long.class)
+            .uniqueResult();
+    }
+
+    private long pendingEvents() {
+        session.clear();
+        return session.createQuery("select count(e) from OutboxEvent e", Long.class).uniqueResult();
+    }
+
+    private Map<String, Object> reference(Long id) {
+        Map<String, Object> reference = new HashMap<>();
+        reference.put("id", id);
+        return reference;
+    }
+
+    private URI startWebhook() throws IOException {
+        webhook = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        webhook.createContext("/events", exchange -> {
+            try (InputStream body = exchange.getRequestBody()) {
+                webhookBodies.add(new String(body.readAllBytes(), StandardCharsets.UTF_8));
+            }
+            int status = failuresLeft.getAndUpdate(left -> Math.max(0, left - 1)) > 0 ? 503 : 204;
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        webhook.start();
+        return URI.create("http://localhost:" + webhook.getAddress().getPort() + "/events");
+    }
+}
@@ -0,0 +1,205 @@
+package com.officemanagement.event;
+
+import org.glassfish.jersey.media.sse.OutboundEvent;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.sse.OutboundSseEvent;
+import javax.ws.rs.sse.Sse;
+import javax.ws.rs.sse.SseBroadcaster;
+import javax.ws.rs.sse.SseEventSink;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatsBroadcasterTest {
+    private final AtomicLong seats = new AtomicLong(10);
+
+    @Test
+    void testBurstOfChangesIsPushedOncePerInterval() throws Exception {
+        StatsBroadcaster broadcaster = broadcaster(300, 0);
+        RecordingSink sink = new RecordingSink();
+        broadcaster.subscribe(sink, new TestSse());
+        assertTrue(sink.awaitEvents(1), "Subscribers should get the current stats on connect");
+        assertTrue(sink.events.get(0).getData().toString().contains("\"totalSeats\":10"));
+
+        // A thousand writes in a row
+        for (int i = 0; i < 1000; i++) {
+            seats.incrementAndGet();
+            broadcaster.changed();
+        }
+        assertTrue(sink.awaitData("\"totalSeats\":1010"), "The latest stats should be pushed");
+        Thread.sleep(600);
+        assertTrue(sink.events.size() <= 3, "Changes should be folded together, got " + sink.events.size());
+        assertTrue(sink.events.get(sink.events.size() - 1).getData().toString().contains("\"totalSeats\":1010"));
+    }
+
+    @Test
+    void testUnchangedStatsAreNotPushed() throws Exception {
+        StatsBroadcaster broadcaster = broadcaster(0, 0);
+        RecordingSink sink = new RecordingSink();
+        broadcaster.subscribe(sink, new TestSse());
+        assertTrue(sink.awaitEvents(1));
+
+        broadcaster.changed();
+        Thread.sleep(200);
+        assertEquals(1, sink.events.size(), "Nothing changed, nothing should be sent");
+
+        seats.set(11);
+        broadcaster.changed();
+        assertTrue(sink.awaitEvents(2));
+        assertEquals("2", sink.events.get(1).getId());
+    }
+
+    @Test
+    void testClosedSinksAreDropped() throws Exception {
+        StatsBroadcaster broadcaster = broadcaster(0, 0);
+        RecordingSink open = new RecordingSink();
+        RecordingSink closed = new RecordingSink();
+        broadcaster.subscribe(open, new TestSse());
+        broadcaster.subscribe(closed, new TestSse());
+        assertTrue(closed.awaitEvents(1));
+        assertEquals(2, broadcaster.subscriberCount());
+
+        closed.close();
+        seats.set(12);
+        broadcaster.changed();
+        assertTrue(open.awaitData("\"totalSeats\":12"));
+        assertEquals(1, broadcaster.subscriberCount());
+        assertEquals(1, closed.events.size());
+    }
+
+    @Test
+    void testSlowSubscriberDoesNotDelayOthers() throws Exception {
+        StatsBroadcaster broadcaster = broadcaster(0, 0);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingSink slow = new RecordingSink() {
+            @Override
+            public CompletionStage<?> send(OutboundSseEvent event) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.send(event);
+            }
+        };
+        RecordingSink fast = new RecordingSink();
+        broadcaster.subscribe(slow, new TestSse());
+        broadcaster.subscribe(fast, new TestSse());
+
+        // Far more snapshots than the slow subscriber's queue holds
+        for (int i = 0; i < 50; i++) {
+            seats.incrementAndGet();
+            broadcaster.changed();
+            Thread.sleep(2);
+        }
+        assertTrue(fast.awaitData("\"totalSeats\":60"), "A stuck subscriber should not hold up the others");
+
+        release.countDown();
+        assertTrue(slow.awaitData("\"totalSeats\":60"), "The slow subscriber should catch up with the latest stats");
+        assertTrue(slow.events.size() < 50, "The backlog should have been dropped, got " + slow.events.size());
+    }
+
+    @Test
+    void testIdleSubscribersGetHeartbeats() throws Exception {
+        StatsBroadcaster broadcaster = broadcaster(0, 100);
+        RecordingSink sink = new RecordingSink();
+        broadcaster.subscribe(sink, new TestSse());
+
+        assertTrue(sink.awaitEvents(3));
+        OutboundSseEvent heartbeat = sink.events.get(sink.events.size() - 1);
+        assertNull(heartbeat.getData());
+        assertEquals(StatsBroadcaster.HEARTBEAT_COMMENT, heartbeat.getComment());
+    }
+
+    @Test
+    void testFailedHeartbeatDropsTheSubscriber() throws Exception {
+        StatsBroadcaster broadcaster = broadcaster(0, 100);
+        RecordingSink gone = new RecordingSink() {
+            @Override
+            public CompletionStage<?> send(OutboundSseEvent event) {
+                if (event.getData() == null) {
+                    throw new IllegalStateException("Connection reset");
+                }
+                return super.send(event);
+            }
+        };
+        broadcaster.subscribe(gone, new TestSse());
+        assertTrue(gone.awaitEvents(1));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (broadcaster.subscriberCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, broadcaster.subscriberCount());
+        assertTrue(gone.isClosed());
+    }
+
+    private StatsBroadcaster broadcaster(long minIntervalMillis, long heartbeatMillis) {
+        return new StatsBroadcaster(this::snapshot, minIntervalMillis, 4, 2, heartbeatMillis);
+    }
+
+    private Map<String, Long> snapshot() {
+        return Map.of("totalSeats", seats.get());
+    }
+
+    private static class TestSse implements Sse {
+        @Override
+        public OutboundSseEvent.Builder newEventBuilder() {
+            return new OutboundEvent.Builder();
+        }
+
+        @Override
+        public SseBroadcaster newBroadcaster() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static class RecordingSink implements SseEventSink {
+        private final List<OutboundSseEvent> events = new CopyOnWriteArrayList<>();
+        private volatile boolean closed;
+
+        @Override
+        public boolean isClosed() {
+            return closed;
+        }
+
+        @Override
+        public CompletionStage<?> send(OutboundSseEvent event) {
+            events.add(event);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        boolean awaitEvents(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (events.size() < count && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            return events.size() >= count;
+        }
+
+        boolean awaitData(String fragment) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (System.currentTimeMillis() < deadline) {
+                for (OutboundSseEvent event : events) {
+                    if (event.getData() != null && event.getData().toString().contains(fragment)) {
+                        return true;
+                    }
+                }
+                Thread.sleep(10);
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.officemanagement.filter;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * The filter with a platform thread pool in place of virtual threads, which the test
+ * runtime may not have.
+ */
+public class VirtualThreadFilterTest {
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final VirtualThreadFilter filter = new VirtualThreadFilter(executor);
+
+    @AfterEach
+    public void tearDown() {
+        filter.destroy();
+    }
+
+    @Test
+    public void testRequestContinuesOnAnotherThread() throws Exception {
+        HttpServletRequest request = request("/api/floors/1", "application/json");
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        AsyncContext async = mock(AsyncContext.class);
+        when(request.startAsync(request, response)).thenReturn(async);
+        AtomicReference<Thread> handledOn = new AtomicReference<>();
+        FilterChain chain = (req, res) -> handledOn.set(Thread.currentThread());
+
+        filter.doFilter(request, response, chain);
+
+        verify(async, timeout(1000)).complete();
+        assertNotNull(handledOn.get());
+        assertNotSame(Thread.currentThread(), handledOn.get());
+        verify(async).setTimeout(0);
+    }
+
+    @Test
+    public void testFailureIsAnsweredAndCompletes() throws Exception {
+        HttpServletRequest request = request("/api/rooms/1", "application/json");
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        AsyncContext async = mock(AsyncContext.class);
+        when(request.startAsync(request, response)).thenReturn(async);
+
+        filter.doFilter(request, response, (req, res) -> {
+            throw new IllegalStateException("boom");
+        });
+
+        verify(async, timeout(1000)).complete();
+        verify(response).sendError(500);
+    }
+
+    @Test
+    public void testEventStreamsStayOnTheContainerThread() throws Exception {
+        HttpServletRequest request = request("/api/floors/1/events", "text/event-stream");
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        AtomicReference<Thread> handledOn = new AtomicReference<>();
+
+        filter.doFilter(request, response, (req, res) -> handledOn.set(Thread.currentThread()));
+
+        assertSame(Thread.currentThread(), handledOn.get());
+        verify(request, never()).startAsync(any(), any());
+    }
+
+    private static HttpServletRequest request(String uri, String accept) {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.isAsyncSupported()).thenReturn(true);
+        when(request.getRequestURI()).thenReturn(uri);
+        when(request.getHeader("Accept")).thenReturn(accept);
+        return request;
+    }
+}
@@ -0,0 +1,53 @@
+package com.officemanagement.load;
+
+import com.officemanagement.util.VirtualThreads;
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.grizzly.http.server.NetworkListener;
+import org.glassfish.grizzly.threadpool.ThreadPoolConfig;
+import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpServerFactory;
+import org.glassfish.jersey.server.ResourceConfig;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * The application on Grizzly in this JVM, with requests handled either by a fixed pool of
+ * platform threads, the way a servlet container does, or by one virtual thread each (what
+ * VirtualThreadFilter does in a servlet container).
+ */
+public final class EmbeddedServer {
+    // Tomcat's default maxThreads
+    public static final int PLATFORM_THREADS = 200;
+
+    private EmbeddedServer() {
+    }
+
+    /**
+     * Start serving the application under /api/.
+     *
+     * @param port    0 for any free port, see {@link #port(HttpServer)}
+     * @param threads "platform" or "virtual"
+     */
+    public static HttpServer start(ResourceConfig config, int port, String threads) throws IOException {
+        HttpServer server = GrizzlyHttpServerFactory.createHttpServer(
+            URI.create("http://localhost:" + port + "/api/"), config, false);
+        NetworkListener listener = server.getListeners().iterator().next();
+        if ("virtual".equals(threads)) {
+            listener.getTransport().setWorkerThreadPool(VirtualThreads.newPerTaskExecutor());
+        } else if ("platform".equals(threads)) {
+            listener.getTransport().setWorkerThreadPoolConfig(ThreadPoolConfig.defaultConfig()
+                .setPoolName("http-worker")
+                .setCorePoolSize(PLATFORM_THREADS)
+                .setMaxPoolSize(PLATFORM_THREADS)
+                .setQueueLimit(-1));
+        } else {
+            throw new IllegalArgumentException("Unknown thread mode " + threads + ", expected platform or virtual");
+        }
+        server.start();
+        return server;
+    }
+
+    public static int port(HttpServer server) {
+        return server.getListeners().iterator().next().getPort();
+    }
+}
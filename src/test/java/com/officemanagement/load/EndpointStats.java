@@ -0,0 +1,78 @@
+package com.officemanagement.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latencies of the requests to one endpoint, recorded by a single worker and merged
+ * into the totals at the end of the run.
+ *
+ * The response time is measured from the moment the request was due by the schedule, not
+ * from the moment it was sent. A worker stuck on a slow response sends its next requests
+ * late, and counting from their send time would hide the wait they would have had in
+ * front of a real client (coordinated omission). The service time, from send to response,
+ * is kept next to it to show how much of the latency is queueing.
+ */
+final class EndpointStats {
+    private static final long MAX_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    private final Histogram responseTime = new Histogram(MAX_NANOS, 3);
+    private final Histogram serviceTime = new Histogram(MAX_NANOS, 3);
+    private long errors;
+
+    /**
+     * @param due  when the schedule wanted the request to be sent, in {@link System#nanoTime()}
+     * @param sent when it was sent
+     * @param done when the response was read
+     */
+    void record(long due, long sent, long done, boolean error) {
+        responseTime.recordValue(Math.min(done - due, MAX_NANOS));
+        serviceTime.recordValue(Math.min(done - sent, MAX_NANOS));
+        if (error) {
+            errors++;
+        }
+    }
+
+    void add(EndpointStats other) {
+        responseTime.add(other.responseTime);
+        serviceTime.add(other.serviceTime);
+        errors += other.errors;
+    }
+
+    long requests() {
+        return responseTime.getTotalCount();
+    }
+
+    long errors() {
+        return errors;
+    }
+
+    Histogram responseTime() {
+        return responseTime;
+    }
+
+    Histogram serviceTime() {
+        return serviceTime;
+    }
+
+    /**
+     * Mean, percentiles and maximum of a histogram, in milliseconds.
+     */
+    static Map<String, Double> summary(Histogram histogram) {
+        Map<String, Double> summary = new LinkedHashMap<>();
+        summary.put("mean", millis(histogram.getMean()));
+        summary.put("p50", millis(histogram.getValueAtPercentile(50)));
+        summary.put("p90", millis(histogram.getValueAtPercentile(90)));
+        summary.put("p99", millis(histogram.getValueAtPercentile(99)));
+        summary.put("p999", millis(histogram.getValueAtPercentile(99.9)));
+        summary.put("max", millis(histogram.getMaxValue()));
+        return summary;
+    }
+
+    private static double millis(double nanos) {
+        return Math.round(nanos / 1e3) / 1e3;
+    }
+}
@@ -0,0 +1,73 @@
+package com.officemanagement.load;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EndpointStatsTest {
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * A worker due every 10 ms whose server stalls once for a second: the requests that
+     * should have gone out during the stall count as waiting for it.
+     */
+    @Test
+    public void testStallCountsForTheRequestsItDelayed() {
+        Schedule schedule = new Schedule(0, 10 * MILLIS);
+        EndpointStats stats = new EndpointStats();
+        long now = 0;
+        for (int i = 0; i < 1000; i++) {
+            long due = schedule.next(now);
+            long sent = Math.max(now, due);
+            long done = sent + (i == 100 ? 1000 * MILLIS : MILLIS);
+            stats.record(due, sent, done, false);
+            now = done;
+        }
+
+        Map<String, Double> service = EndpointStats.summary(stats.serviceTime());
+        Map<String, Double> latency = EndpointStats.summary(stats.responseTime());
+        assertEquals(1000, stats.requests());
+        assertEquals(1.0, service.get("p50"), 0.01);
+        assertEquals(1.0, service.get("p99"), 0.01);
+        // About a hundred requests waited behind the stall, from a second down to a few ms
+        assertTrue(latency.get("p90") > 50, "p90 " + latency.get("p90"));
+        assertTrue(latency.get("p99") > 800, "p99 " + latency.get("p99"));
+        assertEquals(1000.0, latency.get("max"), 1.0);
+    }
+
+    @Test
+    public void testWithoutIntervalOnlyServiceTimeCounts() {
+        Schedule schedule = new Schedule(0, 0);
+        EndpointStats stats = new EndpointStats();
+        stats.record(schedule.next(5 * MILLIS), 5 * MILLIS, 505 * MILLIS, true);
+
+        assertEquals(1, stats.errors());
+        assertEquals(EndpointStats.summary(stats.serviceTime()), EndpointStats.summary(stats.responseTime()));
+    }
+
+    @Test
+    public void testReportMergesEndpoints() {
+        EndpointStats floors = new EndpointStats();
+        EndpointStats search = new EndpointStats();
+        floors.record(0, 0, 2 * MILLIS, false);
+        search.record(0, 0, 4 * MILLIS, true);
+        Map<String, EndpointStats> endpoints = new TreeMap<>();
+        endpoints.put("GET /floors/{id}", floors);
+        endpoints.put("GET /employees/search", search);
+
+        Map<String, Object> report = LoadReport.build(Map.of("workers", 2), endpoints, 1);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> total = (Map<String, Object>) report.get("total");
+        assertEquals(2L, total.get("requests"));
+        assertEquals(1L, total.get("errors"));
+        assertEquals(2.0, total.get("throughput"));
+
+        String html = LoadReport.html(report);
+        assertTrue(html.contains("GET /floors/{id}"));
+        assertTrue(html.contains("<td>Total</td>"));
+    }
+}
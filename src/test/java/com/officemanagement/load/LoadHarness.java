@@ -0,0 +1,430 @@
+package com.officemanagement.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.officemanagement.config.HibernateContextListener;
+import com.officemanagement.config.JerseyConfig;
+import com.officemanagement.service.OccupancyIndex;
+import com.officemanagement.service.StatsCounters;
+import com.officemanagement.util.AppSettings;
+import com.officemanagement.util.CampusGenerator;
+import com.officemanagement.util.HibernateUtil;
+import com.officemanagement.util.Startup;
+import com.officemanagement.util.VirtualThreads;
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Closed-loop load test of the whole application: starts it in this JVM on Grizzly, fills
+ * the database with a {@link CampusGenerator} campus, and has a fixed number of workers
+ * send a mix of the requests of the floor plan editor, each worker at its share of a
+ * target rate. Writes a JSON and an HTML report of the throughput and latency percentiles
+ * per endpoint (see {@link EndpointStats}).
+ *
+ * Runs against the in-memory H2 database of the tests, or a local PostgreSQL with
+ * {@code -Dload.database=postgres}. Settings are {@code load.*} system properties, see
+ * the README.
+ */
+public class LoadHarness {
+    private static final Logger logger = LoggerFactory.getLogger(LoadHarness.class);
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    // What the search box sends while people type names and occupations
+    private static final String[] SEARCHES = {
+        "m", "ma", "mar", "marco", "l", "lu", "luc", "luca", "s", "so", "sof", "sofia",
+        "e", "en", "eng", "engineer", "sa", "sal", "sales", "an", "anal", "analyst",
+        "r", "ro", "ros", "rossi", "sm", "smi", "smith", "ga", "garc", "garcia"
+    };
+    // Rooms a worker edits, with their seat positions fetched once
+    private static final int ROOMS_PER_WORKER = 8;
+
+    enum Operation {
+        FLOOR, SEARCH, ASSIGN, GEOMETRY, SVG
+    }
+
+    private final HttpClient client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(10))
+        .build();
+    private final Map<Operation, Integer> mix;
+    private final int totalWeight;
+    private final int workers;
+    private final double rate;
+    private final CampusGenerator.Summary campus;
+    private final int roomsPerFloor;
+    private final int seatsPerRoom;
+    private final String baseUri;
+
+    private LoadHarness(String baseUri, CampusGenerator.Summary campus, int roomsPerFloor, int seatsPerRoom) {
+        this.baseUri = baseUri;
+        this.campus = campus;
+        this.roomsPerFloor = roomsPerFloor;
+        this.seatsPerRoom = seatsPerRoom;
+        this.mix = parseMix(AppSettings.get("load.mix", "floor=35,search=30,assign=10,geometry=15,svg=10"));
+        this.totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        this.workers = AppSettings.getInt("load.workers", 32);
+        this.rate = AppSettings.getDouble("load.rate", 400);
+    }
+
+    public static void main(String[] args) throws Exception {
+        if ("postgres".equals(AppSettings.get("load.database", "h2"))) {
+            usePostgres();
+        }
+        HibernateContextListener listener = new HibernateContextListener();
+        listener.contextInitialized(null);
+        HttpServer server = null;
+        try {
+            awaitStartup();
+            SessionFactory sessionFactory = HibernateUtil.getSessionFactory();
+            int roomsPerFloor = AppSettings.getInt("load.roomsPerFloor", 40);
+            int seatsPerRoom = AppSettings.getInt("load.seatsPerRoom", 20);
+            CampusGenerator generator = new CampusGenerator()
+                .seed(AppSettings.getLong("load.seed", 42))
+                .floors(AppSettings.getInt("load.floors", 10))
+                .roomsPerFloor(roomsPerFloor)
+                .seatsPerRoom(seatsPerRoom)
+                .employees(AppSettings.getInt("load.employees", 6000));
+            CampusGenerator.Summary campus;
+            try (Session session = sessionFactory.openSession()) {
+                campus = session.doReturningWork(generator::load);
+            }
+            // The generator writes around the in-memory state of the application
+            OccupancyIndex.getInstance().rebuild(sessionFactory);
+            StatsCounters.getInstance().reload(sessionFactory);
+
+            JerseyConfig config = new JerseyConfig();
+            config.packages("com.officemanagement.config");
+            server = EmbeddedServer.start(config, AppSettings.getInt("load.port", 8081),
+                AppSettings.get("load.serverThreads", "platform"));
+            int port = EmbeddedServer.port(server);
+
+            LoadHarness harness = new LoadHarness("http://localhost:" + port + "/api/", campus, roomsPerFloor, seatsPerRoom);
+            harness.uploadFloorPlans(Paths.get(AppSettings.get("load.svgDir", ".devcontainer/svg_floor_plans")));
+            Map<String, Object> report = harness.run();
+
+            Path reportDir = Paths.get(AppSettings.get("load.reportDir", "target/load-report"));
+            LoadReport.write(report, reportDir);
+            logger.info("Load report written to {}", reportDir.toAbsolutePath());
+        } finally {
+            if (server != null) {
+                server.shutdownNow();
+            }
+            listener.contextDestroyed(null);
+        }
+    }
+
+    private static void usePostgres() {
+        System.setProperty("hibernate.connection.driver_class", "org.postgresql.Driver");
+        System.setProperty("hibernate.connection.url",
+            AppSettings.get("load.url", "jdbc:postgresql://localhost:5432/office_management?reWriteBatchedInserts=true"));
+        System.setProperty("hibernate.connection.username", AppSettings.get("load.username", "postgres"));
+        System.setProperty("hibernate.connection.password", AppSettings.get("load.password", "postgres"));
+        System.setProperty("hibernate.dialect", "org.hibernate.dialect.PostgreSQL95Dialect");
+        System.setProperty("hibernate.hbm2ddl.auto", "validate");
+    }
+
+    private static void awaitStartup() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(2);
+        while (Startup.state() == Startup.State.STARTING && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        if (Startup.state() != Startup.State.READY) {
+            throw new IllegalStateException("Application did not start: " + Startup.failure());
+        }
+    }
+
+    /**
+     * Give every floor a plan, from the SVG files of the directory or a generated one.
+     */
+    private void uploadFloorPlans(Path directory) throws IOException, InterruptedException {
+        List<String> plans = new ArrayList<>();
+        if (Files.isDirectory(directory)) {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.filter(f -> f.toString().endsWith(".svg")).sorted().collect(Collectors.toList())) {
+                    plans.add(Files.readString(file));
+                }
+            }
+        }
+        if (plans.isEmpty()) {
+            plans.add(generatedPlan());
+        }
+        for (int f = 0; f < campus.getFloors(); f++) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUri + "floors/" + (campus.getFirstFloorId() + f) + "/svg"))
+                .header("Content-Type", "text/plain")
+                .PUT(HttpRequest.BodyPublishers.ofString(plans.get(f % plans.size())))
+                .build();
+            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            if (status >= 400) {
+                throw new IllegalStateException("Floor plan upload answered " + status);
+            }
+        }
+    }
+
+    private static String generatedPlan() {
+        StringBuilder svg = new StringBuilder("<svg xmlns=\"http://www.w3.org/2000/svg\" viewBox=\"0 0 10000 10000\">");
+        for (int i = 0; i < 2000; i++) {
+            svg.append("<rect x=\"").append(i % 50 * 200).append("\" y=\"").append(i / 50 * 200)
+                .append("\" width=\"180\" height=\"180\" fill=\"none\" stroke=\"#333\"/>");
+        }
+        return svg.append("</svg>").toString();
+    }
+
+    private Map<String, Object> run() throws InterruptedException {
+        int warmupSeconds = AppSettings.getInt("load.warmupSeconds", 10);
+        int durationSeconds = AppSettings.getInt("load.durationSeconds", 30);
+        boolean virtualThreads = AppSettings.getBoolean("load.virtualThreads", false);
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+        // Each worker sends its share of the rate, a rate of 0 sends as fast as the responses come
+        long interval = rate > 0 ? (long) (1e9 * workers / rate) : 0;
+
+        logger.info("Running {} workers at {} requests/s for {} s after {} s of warm-up",
+            workers, rate > 0 ? rate : "unlimited", durationSeconds, warmupSeconds);
+        List<Worker> running = new ArrayList<>();
+        ExecutorService executor = virtualThreads ? VirtualThreads.newPerTaskExecutor() : Executors.newFixedThreadPool(workers);
+        for (int i = 0; i < workers; i++) {
+            // Staggered so the workers' requests are spread over the interval, not sent in bursts
+            Worker worker = new Worker(i, new Schedule(start + i * interval / workers, interval), measureFrom, end);
+            running.add(worker);
+            executor.execute(worker);
+        }
+        executor.shutdown();
+        executor.awaitTermination(durationSeconds + warmupSeconds + 600, TimeUnit.SECONDS);
+
+        Map<String, EndpointStats> endpoints = new TreeMap<>();
+        for (Worker worker : running) {
+            worker.stats.forEach((endpoint, stats) ->
+                endpoints.computeIfAbsent(endpoint, key -> new EndpointStats()).add(stats));
+        }
+
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("workers", workers);
+        settings.put("targetRate", rate);
+        settings.put("threads", virtualThreads ? "virtual" : "platform");
+        settings.put("serverThreads", AppSettings.get("load.serverThreads", "platform"));
+        settings.put("warmupSeconds", warmupSeconds);
+        settings.put("durationSeconds", durationSeconds);
+        settings.put("mix", mix.entrySet().stream().collect(Collectors.toMap(
+            entry -> entry.getKey().name().toLowerCase(Locale.ROOT), Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new)));
+        settings.put("database", AppSettings.get("load.database", "h2"));
+        settings.put("campus", campus.toString());
+        Map<String, Object> report = LoadReport.build(settings, endpoints, durationSeconds);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> total = (Map<String, Object>) report.get("total");
+        logger.info("{} requests, {} errors, {} requests/s, latency {} ms", total.get("requests"), total.get("errors"),
+            total.get("throughput"), total.get("latencyMs"));
+        if (rate > 0 && (double) total.get("throughput") < rate * 0.9) {
+            logger.warn("The application kept up with {} of the {} requests/s asked, latencies include the backlog",
+                total.get("throughput"), rate);
+        }
+        return report;
+    }
+
+    private static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new LinkedHashMap<>();
+        for (String part : value.split(",")) {
+            String[] weight = part.trim().split("=");
+            int share = Integer.parseInt(weight[1].trim());
+            if (share > 0) {
+                mix.put(Operation.valueOf(weight[0].trim().toUpperCase(Locale.ROOT)), share);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("Empty load.mix " + value);
+        }
+        return mix;
+    }
+
+    /**
+     * Sends requests as the schedule asks, one at a time, and records the ones sent after
+     * the warm-up.
+     */
+    private final class Worker implements Runnable {
+        private final int index;
+        private final Schedule schedule;
+        private final long measureFrom;
+        private final long end;
+        private final SplittableRandom random;
+        private final Map<String, EndpointStats> stats = new HashMap<>();
+        // Seat taken by the last assign, given back by the next one
+        private long assignedEmployee = -1;
+        private long assignedSeat;
+        // Seat positions of the rooms this worker drags seats in
+        private final Map<Long, Map<String, float[]>> rooms = new HashMap<>();
+
+        private Worker(int index, Schedule schedule, long measureFrom, long end) {
+            this.index = index;
+            this.schedule = schedule;
+            this.measureFrom = measureFrom;
+            this.end = end;
+            this.random = new SplittableRandom(AppSettings.getLong("load.seed", 42) * 31 + index);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    long due = schedule.next(System.nanoTime());
+                    long wait = due - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    if (System.nanoTime() >= end) {
+                        return;
+                    }
+                    Call call = next(pick());
+                    long sent = System.nanoTime();
+                    boolean error;
+                    try {
+                        HttpResponse<byte[]> response = client.send(call.request, HttpResponse.BodyHandlers.ofByteArray());
+                        error = response.statusCode() >= 400;
+                    } catch (IOException e) {
+                        error = true;
+                    }
+                    long done = System.nanoTime();
+                    // Once the server falls behind, requests are sent long after they were due:
+                    // the window holds the ones sent in it, with the time since they were due
+                    if (sent >= measureFrom) {
+                        stats.computeIfAbsent(call.endpoint, key -> new EndpointStats()).record(due, sent, done, error);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                logger.error("Worker {} stopped", index, e);
+            }
+        }
+
+        private Operation pick() {
+            int pick = random.nextInt(totalWeight);
+            for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+                pick -= entry.getValue();
+                if (pick < 0) {
+                    return entry.getKey();
+                }
+            }
+            throw new IllegalStateException();
+        }
+
+        private Call next(Operation operation) throws IOException, InterruptedException {
+            switch (operation) {
+                case FLOOR:
+                    return new Call("GET /floors/{id}", get("floors/" + floor()));
+                case SEARCH:
+                    return new Call("GET /employees/search",
+                        get("employees/search?size=20&search=" + SEARCHES[random.nextInt(SEARCHES.length)]));
+                case ASSIGN:
+                    return assign();
+                case GEOMETRY:
+                    return drag();
+                case SVG:
+                    return new Call("GET /floors/{id}/svg", get("floors/" + floor() + "/svg"));
+                default:
+                    throw new IllegalArgumentException(operation.name());
+            }
+        }
+
+        private long floor() {
+            return campus.getFirstFloorId() + random.nextInt(campus.getFloors());
+        }
+
+        /**
+         * Assign a random seat to one of the employees of this worker, or give back the
+         * seat assigned last time.
+         */
+        private Call assign() {
+            if (assignedEmployee >= 0) {
+                String path = "employees/" + assignedEmployee + "/unassign-seat/" + assignedSeat;
+                assignedEmployee = -1;
+                return new Call("DELETE /employees/{id}/unassign-seat/{seatId}",
+                    HttpRequest.newBuilder(URI.create(baseUri + path)).DELETE().build());
+            }
+            int ownEmployees = Math.max(1, (campus.getEmployees() - index + workers - 1) / workers);
+            assignedEmployee = campus.getFirstEmployeeId() + index + (long) random.nextInt(ownEmployees) * workers;
+            assignedSeat = campus.getFirstSeatId() + random.nextInt(campus.getSeats());
+            return new Call("PUT /employees/{id}/assign-seat/{seatId}",
+                HttpRequest.newBuilder(URI.create(baseUri + "employees/" + assignedEmployee + "/assign-seat/" + assignedSeat))
+                    .PUT(HttpRequest.BodyPublishers.noBody())
+                    .build());
+        }
+
+        /**
+         * Move one seat of one of the rooms of this worker by a few units, as a drag in the
+         * floor plan editor does.
+         */
+        private Call drag() throws IOException, InterruptedException {
+            int ownRooms = Math.max(1, Math.min(ROOMS_PER_WORKER, (campus.getRooms() - index + workers - 1) / workers));
+            long roomId = campus.getFirstRoomId() + (index + (long) random.nextInt(ownRooms) * workers) % campus.getRooms();
+            Map<String, float[]> seats = rooms.get(roomId);
+            if (seats == null) {
+                seats = seatPositions(roomId);
+                rooms.put(roomId, seats);
+            }
+            List<String> ids = new ArrayList<>(seats.keySet());
+            String seatId = ids.get(random.nextInt(ids.size()));
+            float[] position = seats.get(seatId);
+            position[0] += random.nextInt(11) - 5;
+            position[1] += random.nextInt(11) - 5;
+            Map<String, Object> geometry = Map.of("seats", Map.of(seatId, Map.of("x", position[0], "y", position[1])));
+            return new Call("PATCH /rooms/{id}/geometry",
+                HttpRequest.newBuilder(URI.create(baseUri + "rooms/" + roomId + "/geometry"))
+                    .header("Content-Type", "application/json")
+                    .method("PATCH", HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(geometry)))
+                    .build());
+        }
+
+        private Map<String, float[]> seatPositions(long roomId) throws IOException, InterruptedException {
+            HttpResponse<byte[]> response = client.send(get("rooms/" + roomId), HttpResponse.BodyHandlers.ofByteArray());
+            Map<String, float[]> seats = new TreeMap<>();
+            for (JsonNode seat : mapper.readTree(response.body()).path("seats")) {
+                seats.put(seat.get("id").asText(), new float[] {(float) seat.get("x").asDouble(), (float) seat.get("y").asDouble()});
+            }
+            if (seats.isEmpty()) {
+                throw new IllegalStateException("Room " + roomId + " has no seats");
+            }
+            return seats;
+        }
+
+        private HttpRequest get(String path) {
+            return HttpRequest.newBuilder(URI.create(baseUri + path)).GET().build();
+        }
+    }
+
+    private static final class Call {
+        private final String endpoint;
+        private final HttpRequest request;
+
+        private Call(String endpoint, HttpRequest request) {
+            this.endpoint = endpoint;
+            this.request = request;
+        }
+    }
+}
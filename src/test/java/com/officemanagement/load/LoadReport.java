@@ -0,0 +1,97 @@
+package com.officemanagement.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The results of a load run, as report.json for scripts and report.html for people.
+ */
+final class LoadReport {
+    private static final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private static final String[] COLUMNS = {"p50", "p99", "p999", "max"};
+
+    private LoadReport() {
+    }
+
+    static Map<String, Object> build(Map<String, Object> settings, Map<String, EndpointStats> endpoints, int durationSeconds) {
+        EndpointStats total = new EndpointStats();
+        Map<String, Object> perEndpoint = new LinkedHashMap<>();
+        endpoints.forEach((endpoint, stats) -> {
+            total.add(stats);
+            perEndpoint.put(endpoint, entry(stats, durationSeconds));
+        });
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("settings", settings);
+        report.put("total", entry(total, durationSeconds));
+        report.put("endpoints", perEndpoint);
+        return report;
+    }
+
+    private static Map<String, Object> entry(EndpointStats stats, int durationSeconds) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("requests", stats.requests());
+        entry.put("errors", stats.errors());
+        entry.put("throughput", Math.round(stats.requests() * 10.0 / durationSeconds) / 10.0);
+        entry.put("latencyMs", EndpointStats.summary(stats.responseTime()));
+        entry.put("serviceTimeMs", EndpointStats.summary(stats.serviceTime()));
+        return entry;
+    }
+
+    static void write(Map<String, Object> report, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        mapper.writeValue(directory.resolve("report.json").toFile(), report);
+        Files.writeString(directory.resolve("report.html"), html(report));
+    }
+
+    @SuppressWarnings("unchecked")
+    static String html(Map<String, Object> report) {
+        StringBuilder html = new StringBuilder()
+            .append("<!DOCTYPE html>\n<html><head><meta charset=\"utf-8\"><title>Load report</title>\n")
+            .append("<style>body{font-family:sans-serif}table{border-collapse:collapse}")
+            .append("td,th{border:1px solid #ccc;padding:4px 8px;text-align:right}")
+            .append("td:first-child,th:first-child{text-align:left}</style></head><body>\n")
+            .append("<h1>Load report</h1>\n<table>\n");
+        ((Map<String, Object>) report.get("settings")).forEach((name, value) ->
+            html.append("<tr><th>").append(escape(name)).append("</th><td>")
+                .append(escape(String.valueOf(value))).append("</td></tr>\n"));
+        html.append("</table>\n<h2>Endpoints</h2>\n<p>Latency counts from when a request was due, ")
+            .append("service time from when it was sent. Times in milliseconds.</p>\n<table>\n<tr>")
+            .append("<th>Endpoint</th><th>Requests</th><th>Errors</th><th>Requests/s</th>");
+        for (String column : COLUMNS) {
+            html.append("<th>Latency ").append(column).append("</th>");
+        }
+        for (String column : COLUMNS) {
+            html.append("<th>Service ").append(column).append("</th>");
+        }
+        html.append("</tr>\n");
+        ((Map<String, Object>) report.get("endpoints")).forEach((endpoint, entry) ->
+            row(html, endpoint, (Map<String, Object>) entry));
+        row(html, "Total", (Map<String, Object>) report.get("total"));
+        return html.append("</table>\n</body></html>\n").toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void row(StringBuilder html, String endpoint, Map<String, Object> entry) {
+        html.append("<tr><td>").append(escape(endpoint)).append("</td><td>").append(entry.get("requests"))
+            .append("</td><td>").append(entry.get("errors")).append("</td><td>").append(entry.get("throughput"))
+            .append("</td>");
+        for (String times : new String[] {"latencyMs", "serviceTimeMs"}) {
+            Map<String, Double> summary = (Map<String, Double>) entry.get(times);
+            for (String column : COLUMNS) {
+                html.append("<td>").append(summary.get(column)).append("</td>");
+            }
+        }
+        html.append("</tr>\n");
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
@@ -0,0 +1,28 @@
+package com.officemanagement.load;
+
+/**
+ * When the requests of a worker are due: at a fixed interval from the start, however long
+ * the earlier ones took. Without an interval every request is due when it is sent, which
+ * measures the service time only.
+ */
+final class Schedule {
+    private final long intervalNanos;
+    private long next;
+
+    Schedule(long startNanos, long intervalNanos) {
+        this.intervalNanos = intervalNanos;
+        this.next = startNanos;
+    }
+
+    /**
+     * When the next request is due, given the current time.
+     */
+    long next(long now) {
+        if (intervalNanos <= 0) {
+            return now;
+        }
+        long due = next;
+        next += intervalNanos;
+        return due;
+    }
+}
@@ -0,0 +1,225 @@
+package com.officemanagement.resource;
+
+import com.officemanagement.model.Employee;
+import com.officemanagement.model.Floor;
+import com.officemanagement.model.OfficeRoom;
+import com.officemanagement.model.Seat;
+import io.restassured.http.ContentType;
+import io.restassured.path.json.JsonPath;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.core.Response;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AllocationResourceTest extends BaseResourceTest {
+
+    @Test
+    public void testPreviewAndApply() {
+        Floor floor = createFloor(1);
+        OfficeRoom roomA = createRoom(floor, "A");
+        OfficeRoom roomB = createRoom(floor, "B");
+        roomB.setX(2000f);
+        for (int i = 0; i < 6; i++) {
+            createSeat(roomA, "A-" + i).setX(i * 100f);
+            createSeat(roomB, "B-" + i).setX(2000 + i * 100f);
+        }
+        Seat oldSeat = createSeat(createRoom(createFloor(2), "Old"), "Old-1");
+        List<Employee> engineers = createEmployees("Engineer", 5);
+        List<Employee> designers = createEmployees("Designer", 4);
+        engineers.get(0).addSeat(oldSeat);
+        session.update(engineers.get(0));
+        commitAndStartNewTransaction();
+
+        Map<String, Object> request = new HashMap<>();
+        request.put("occupation", "engineer");
+        request.put("floorId", floor.getId());
+        request.put("timeBudgetMs", 50);
+
+        JsonPath plan = given()
+            .contentType(ContentType.JSON)
+            .body(request)
+        .when()
+            .post(getApiPath("/allocations/preview"))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode())
+            .body("assignments", hasSize(5))
+            .body("unassignedEmployeeIds", hasSize(0))
+            .body("assignments.group", everyItem(equalTo("Engineer")))
+            .extract()
+            .jsonPath();
+
+        // The whole team fits into one room
+        Set<Object> rooms = new HashSet<>(plan.getList("assignments.roomId"));
+        assertEquals(1, rooms.size());
+
+        // Previewing changes nothing
+        session.clear();
+        assertEquals(1L, countAssignments());
+
+        List<Map<String, Object>> assignments = new ArrayList<>();
+        for (Map<String, Object> assignment : plan.<Map<String, Object>>getList("assignments")) {
+            Map<String, Object> planned = new HashMap<>();
+            planned.put("employeeId", assignment.get("employeeId"));
+            planned.put("seatId", assignment.get("seatId"));
+            assignments.add(planned);
+        }
+        Map<String, Object> apply = new HashMap<>();
+        apply.put("assignments", assignments);
+
+        given()
+            .contentType(ContentType.JSON)
+            .body(apply)
+        .when()
+            .post(getApiPath("/allocations/apply"))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode())
+            .body("assigned", equalTo(5));
+
+        // The engineer who had a seat elsewhere moved with the team
+        session.clear();
+        assertEquals(5L, countAssignments());
+        Employee moved = session.get(Employee.class, engineers.get(0).getId());
+        assertEquals(1, moved.getSeats().size());
+        assertNotEquals(oldSeat.getId(), moved.getSeats().iterator().next().getId());
+
+        // Applying the same plan again just keeps everyone where they are
+        given()
+            .contentType(ContentType.JSON)
+            .body(apply)
+        .when()
+            .post(getApiPath("/allocations/apply"))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode());
+
+        // Seating the designers on the engineers' seats fails as a whole
+        List<Map<String, Object>> clashing = new ArrayList<>();
+        for (int i = 0; i < designers.size(); i++) {
+            Map<String, Object> planned = new HashMap<>();
+            planned.put("employeeId", designers.get(i).getId());
+            planned.put("seatId", assignments.get(i).get("seatId"));
+            clashing.add(planned);
+        }
+        Map<String, Object> clash = new HashMap<>();
+        clash.put("assignments", clashing);
+        given()
+            .contentType(ContentType.JSON)
+            .body(clash)
+        .when()
+            .post(getApiPath("/allocations/apply"))
+        .then()
+            .statusCode(Response.Status.CONFLICT.getStatusCode())
+            .body("unavailableSeatIds", hasSize(4));
+
+        session.clear();
+        assertEquals(5L, countAssignments());
+    }
+
+    @Test
+    public void testBookedSeatsAreNotAllocated() {
+        Floor floor = createFloor(1);
+        OfficeRoom room = createRoom(floor, "A");
+        Seat free = createSeat(room, "A-1");
+        Seat booked = createSeat(room, "A-2");
+        List<Employee> engineers = createEmployees("Engineer", 2);
+        Employee guest = createEmployee("Guest");
+        guest.setOccupation("Visitor");
+        commitAndStartNewTransaction();
+
+        Map<String, Object> booking = new HashMap<>();
+        booking.put("seatId", booked.getId());
+        booking.put("employeeId", guest.getId());
+        booking.put("date", LocalDate.now().plusDays(1).toString());
+        booking.put("slot", "FULL_DAY");
+        given()
+            .contentType(ContentType.JSON)
+            .body(Collections.singletonList(booking))
+        .when()
+            .post(getApiPath("/reservations"))
+        .then()
+            .statusCode(Response.Status.CREATED.getStatusCode());
+
+        Map<String, Object> request = new HashMap<>();
+        request.put("occupation", "Engineer");
+        request.put("floorId", floor.getId());
+        given()
+            .contentType(ContentType.JSON)
+            .body(request)
+        .when()
+            .post(getApiPath("/allocations/preview"))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode())
+            .body("assignments.seatId", contains(free.getId().intValue()))
+            .body("unassignedEmployeeIds", hasSize(1));
+
+        // A plan made before the booking is refused as a whole
+        List<Map<String, Object>> assignments = new ArrayList<>();
+        Seat[] seats = {free, booked};
+        for (int i = 0; i < seats.length; i++) {
+            Map<String, Object> planned = new HashMap<>();
+            planned.put("employeeId", engineers.get(i).getId());
+            planned.put("seatId", seats[i].getId());
+            assignments.add(planned);
+        }
+        given()
+            .contentType(ContentType.JSON)
+            .body(Collections.singletonMap("assignments", assignments))
+        .when()
+            .post(getApiPath("/allocations/apply"))
+        .then()
+            .statusCode(Response.Status.CONFLICT.getStatusCode())
+            .body("unavailableSeatIds", contains(booked.getId().intValue()));
+
+        session.clear();
+        assertEquals(0L, countAssignments());
+    }
+
+    @Test
+    public void testPreviewValidation() {
+        Map<String, Object> request = new HashMap<>();
+        request.put("floorId", 1);
+
+        given()
+            .contentType(ContentType.JSON)
+            .body(request)
+        .when()
+            .post(getApiPath("/allocations/preview"))
+        .then()
+            .statusCode(Response.Status.BAD_REQUEST.getStatusCode());
+
+        request.put("occupation", "Engineer");
+        request.put("timeBudgetMs", 3_600_000);
+        given()
+            .contentType(ContentType.JSON)
+            .body(request)
+        .when()
+            .post(getApiPath("/allocations/preview"))
+        .then()
+            .statusCode(Response.Status.BAD_REQUEST.getStatusCode());
+    }
+
+    private long countAssignments() {
+        return ((Number) session.createNativeQuery("select count(*) from employee_seat_assignments")
+            .getSingleResult()).longValue();
+    }
+
+    private List<Employee> createEmployees(String occupation, int count) {
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Employee employee = createEmployee(occupation + " " + i);
+            employee.setOccupation(occupation);
+            employees.add(employee);
+        }
+        return employees;
+    }
+}
@@ -4,6 +4,21 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.fasterxml.jackson.jaxrs.json.JacksonJsonProvider;
 import com.officemanagement.config.JerseyConfig;
+import com.officemanagement.config.ReadOnlySessionFeature;
+import com.officemanagement.config.ReadinessFilter;
+import com.officemanagement.config.ReplicaRoutingFilter;
+import com.officemanagement.config.RequestMetricsListener;
+import com.officemanagement.config.SqlLoggingFilter;
+import com.officemanagement.config.StatementBudgetFilter;
+import com.officemanagement.model.Employee;
+import com.officemanagement.model.Floor;
+import com.officemanagement.model.OfficeRoom;
+import com.officemanagement.model.Seat;
+import com.officemanagement.service.FloorHeatmap;
+import com.officemanagement.service.OccupancyIndex;
+import com.officemanagement.service.OccupancyReport;
+import com.officemanagement.service.ReservationEngine;
+import com.officemanagement.service.StatsCounters;
 import com.officemanagement.util.HibernateUtil;
 import io.restassured.RestAssured;
 import io.restassured.config.ObjectMapperConfig;
@@ -19,12 +34,14 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.RegisterExtension;
 import org.junit.jupiter.api.parallel.Execution;
 import org.junit.jupiter.api.parallel.ExecutionMode;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import javax.ws.rs.ApplicationPath;
 import javax.ws.rs.core.Application;
+import java.time.LocalDateTime;
 
 @ExtendWith(MockitoExtension.class)
 @Execution(ExecutionMode.SAME_THREAD)
@@ -36,6 +53,9 @@ public abstract class BaseResourceTest extends JerseyTest {
     protected Session session;
     protected Transaction transaction;
 
+    @RegisterExtension
+    protected final StatementCountExtension statements = new StatementCountExtension();
+
     @BeforeAll
     public static void setupClass() {
         if (!initialized) {
@@ -72,11 +92,15 @@ public abstract class BaseResourceTest extends JerseyTest {
         ResourceConfig config = new ResourceConfig();
         
         // Register resources
+        config.register(AllocationResource.class);
         config.register(EmployeeResource.class);
         config.register(FloorResource.class);
         config.register(RoomResource.class);
         config.register(SeatResource.class);
+        config.register(ReservationResource.class);
         config.register(StatsResource.class);
+        config.register(HealthResource.class);
+        config.register(MetricsResource.class);
         
         // Register JSON provider
         JacksonJsonProvider jsonProvider = new JacksonJsonProvider(objectMapper);
@@ -84,6 +108,12 @@ public abstract class BaseResourceTest extends JerseyTest {
         
         // Register other providers
         config.register(JerseyConfig.class);
+        config.register(ReadinessFilter.class);
+        config.register(ReadOnlySessionFeature.class);
+        config.register(ReplicaRoutingFilter.class);
+        config.register(RequestMetricsListener.class);
+        config.register(StatementBudgetFilter.class);
+        config.register(SqlLoggingFilter.class);
         
         // Set the application path
         config.setApplicationName("api");
@@ -114,6 +144,9 @@ public abstract class BaseResourceTest extends JerseyTest {
         
         // Truncate all tables
         session.createNativeQuery("TRUNCATE TABLE employee_seat_assignments").executeUpdate();
+        session.createNativeQuery("TRUNCATE TABLE seat_reservations").executeUpdate();
+        session.createNativeQuery("TRUNCATE TABLE outbox_events").executeUpdate();
+        session.createNativeQuery("TRUNCATE TABLE occupancy_samples").executeUpdate();
         session.createNativeQuery("TRUNCATE TABLE seats").executeUpdate();
         session.createNativeQuery("TRUNCATE TABLE employees").executeUpdate();
         session.createNativeQuery("TRUNCATE TABLE office_rooms").executeUpdate();
@@ -125,6 +158,8 @@ public abstract class BaseResourceTest extends JerseyTest {
         session.createNativeQuery("ALTER SEQUENCE employee_seq RESTART WITH 1").executeUpdate();
         session.createNativeQuery("ALTER SEQUENCE office_room_seq RESTART WITH 1").executeUpdate();
         session.createNativeQuery("ALTER SEQUENCE floor_seq RESTART WITH 1").executeUpdate();
+        // outbox_event_seq, occupancy_sample_seq and seat_reservation_seq are left alone:
+        // their generators hand out blocks of 50 from memory
         
         // Re-enable foreign key checks
         session.createNativeQuery("SET REFERENTIAL_INTEGRITY TRUE").executeUpdate();
@@ -132,6 +167,13 @@ public abstract class BaseResourceTest extends JerseyTest {
         // Commit the changes
         transaction.commit();
         transaction = session.beginTransaction();
+
+        // Reset in-memory state derived from the database
+        OccupancyIndex.getInstance().rebuild(sessionFactory);
+        ReservationEngine.getInstance().reload(sessionFactory);
+        StatsCounters.getInstance().reload(sessionFactory);
+        OccupancyReport.getInstance().clear();
+        FloorHeatmap.getInstance().clear();
     }
 
     @AfterEach
@@ -163,4 +205,59 @@ public abstract class BaseResourceTest extends JerseyTest {
     protected String getApiPath(String path) {
         return path.startsWith("/") ? path : "/" + path;
     }
+
+    // Fixtures saved in the test session, visible to the API once committed
+
+    protected Floor createFloor(int floorNumber) {
+        Floor floor = new Floor();
+        floor.setName("Floor " + floorNumber);
+        floor.setFloorNumber(floorNumber);
+        floor.setCreatedAt(LocalDateTime.now());
+        session.save(floor);
+        return floor;
+    }
+
+    protected OfficeRoom createRoom(Floor floor, String roomNumber) {
+        OfficeRoom room = new OfficeRoom();
+        room.setName("Room " + roomNumber);
+        room.setRoomNumber(roomNumber);
+        room.setFloor(floor);
+        room.setCreatedAt(LocalDateTime.now());
+        session.save(room);
+        return room;
+    }
+
+    protected Seat createSeat(OfficeRoom room, String seatNumber) {
+        Seat seat = new Seat();
+        seat.setSeatNumber(seatNumber);
+        seat.setRoom(room);
+        seat.setCreatedAt(LocalDateTime.now());
+        session.save(seat);
+        return seat;
+    }
+
+    protected Employee createEmployee(String fullName) {
+        Employee employee = new Employee();
+        employee.setFullName(fullName);
+        employee.setOccupation("Engineer");
+        employee.setCreatedAt(LocalDateTime.now());
+        session.save(employee);
+        return employee;
+    }
+
+    /**
+     * Floor 1 with rooms R0, R1... each holding seats S0, S1... and one employee per seat.
+     */
+    protected Floor createFloor(int rooms, int seatsPerRoom) {
+        Floor floor = createFloor(1);
+        for (int r = 0; r < rooms; r++) {
+            OfficeRoom room = createRoom(floor, "R" + r);
+            for (int s = 0; s < seatsPerRoom; s++) {
+                Seat seat = createSeat(room, "S" + s);
+                Employee employee = createEmployee("Employee " + r + "-" + s);
+                employee.addSeat(seat);
+            }
+        }
+        return floor;
+    }
 } 
\ No newline at end of file
@@ -4,11 +4,19 @@ import com.officemanagement.model.Employee;
 import com.officemanagement.model.Floor;
 import com.officemanagement.model.OfficeRoom;
 import com.officemanagement.model.Seat;
+import com.officemanagement.service.OccupancyIndex;
+import com.officemanagement.util.HibernateUtil;
 import io.restassured.http.ContentType;
 import org.junit.jupiter.api.Test;
 
 import javax.ws.rs.core.Response;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -812,6 +820,74 @@ public class EmployeeResourceTest extends BaseResourceTest {
             .statusCode(Response.Status.NOT_FOUND.getStatusCode());
     }
 
+    @Test
+    public void testBulkDeleteEmployees() {
+        Floor floor = new Floor();
+        floor.setName("Test Floor");
+        floor.setFloorNumber(1);
+        floor.setCreatedAt(LocalDateTime.now());
+        session.save(floor);
+
+        OfficeRoom room = new OfficeRoom();
+        room.setName("Test Room");
+        room.setRoomNumber("101");
+        room.setFloor(floor);
+        room.setCreatedAt(LocalDateTime.now());
+        session.save(room);
+
+        Seat shared = new Seat();
+        shared.setSeatNumber("S1");
+        shared.setRoom(room);
+        shared.setCapacity(3);
+        shared.setCreatedAt(LocalDateTime.now());
+        session.save(shared);
+
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Employee employee = new Employee();
+            employee.setFullName("Employee " + i);
+            employee.setOccupation("Tester");
+            employee.setCreatedAt(LocalDateTime.now());
+            employee.addSeat(shared);
+            session.save(employee);
+            employees.add(employee);
+        }
+        commitAndStartNewTransaction();
+        OccupancyIndex.getInstance().rebuild(HibernateUtil.getSessionFactory());
+
+        Map<String, Object> request = new HashMap<>();
+        request.put("ids", Arrays.asList(employees.get(0).getId(), employees.get(1).getId(), 999999L));
+
+        given()
+            .contentType(ContentType.JSON)
+            .body(request)
+        .when()
+            .post(getApiPath("/employees/delete"))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode())
+            .body("deleted", equalTo(2))
+            .body("notFoundIds", contains(999999));
+
+        // The seat keeps its remaining employee, in the database and in the index
+        session.clear();
+        assertEquals(1L, session.createQuery("select count(e) from Employee e", Long.class).uniqueResult());
+        Seat updatedSeat = session.get(Seat.class, shared.getId());
+        assertEquals(1, updatedSeat.getEmployees().size());
+        assertEquals(employees.get(2).getId(), updatedSeat.getEmployees().iterator().next().getId());
+        assertTrue(OccupancyIndex.getInstance().isOccupied(shared.getId()));
+
+        request.put("ids", Collections.singletonList(employees.get(2).getId()));
+        given()
+            .contentType(ContentType.JSON)
+            .body(request)
+        .when()
+            .post(getApiPath("/employees/delete"))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode())
+            .body("deleted", equalTo(1));
+        assertFalse(OccupancyIndex.getInstance().isOccupied(shared.getId()));
+    }
+
     private void createTestEmployee(String fullName, String occupation) {
         Employee employee = new Employee();
         employee.setFullName(fullName);
@@ -0,0 +1,158 @@
+package com.officemanagement.resource;
+
+import com.officemanagement.model.Floor;
+import com.officemanagement.model.OfficeRoom;
+import com.officemanagement.model.Seat;
+import io.restassured.http.ContentType;
+import org.hibernate.Session;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.core.Response;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the second-level cache serves repeated reads and never hands out data
+ * that a write already changed.
+ */
+public class EntityCacheTest extends BaseResourceTest {
+    private static final int READS = 100;
+
+    @Test
+    public void testRepeatedReadsHitTheCache() {
+        Floor floor = createFloor(1);
+        List<OfficeRoom> rooms = new ArrayList<>();
+        List<Seat> seats = new ArrayList<>();
+        for (int r = 0; r < 4; r++) {
+            OfficeRoom room = createRoom(floor, "R" + r);
+            rooms.add(room);
+            for (int s = 0; s < 25; s++) {
+                seats.add(createSeat(room, "R" + r + "-" + s));
+            }
+        }
+        commitAndStartNewTransaction();
+
+        Statistics statistics = sessionFactory.getStatistics();
+
+        // Every read starts from an empty cache
+        statistics.clear();
+        for (int i = 0; i < READS; i++) {
+            sessionFactory.getCache().evictAllRegions();
+            read(rooms, seats, i);
+        }
+        long coldStatements = statistics.getPrepareStatementCount();
+
+        // Same reads with the cache warmed up by the first one
+        read(rooms, seats, 0);
+        statistics.clear();
+        for (int i = 0; i < READS; i++) {
+            read(rooms, seats, i);
+        }
+        long warmStatements = statistics.getPrepareStatementCount();
+        long hits = statistics.getSecondLevelCacheHitCount();
+        long misses = statistics.getSecondLevelCacheMissCount();
+        double hitRatio = hits / (double) (hits + misses);
+
+        assertTrue(hitRatio > 0.95, "Warm reads should be served from the cache, hit ratio " + hitRatio
+            + " (" + hits + " hits, " + misses + " misses)");
+        assertTrue(warmStatements < coldStatements,
+            "The cache should save statements, " + warmStatements + " vs " + coldStatements);
+
+        given()
+        .when()
+            .get(getApiPath("/stats/cache"))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode())
+            .body("enabled", equalTo(true))
+            .body("regions", hasSize(5))
+            .body("regions.region", equalTo(Arrays.asList("floors", "floor-rooms", "rooms", "room-seats", "seats")));
+    }
+
+    @Test
+    public void testWritesInvalidateCachedEntries() {
+        Floor floor = createFloor(1);
+        OfficeRoom roomA = createRoom(floor, "A");
+        OfficeRoom roomB = createRoom(floor, "B");
+        Seat seat = createSeat(roomA, "A-1");
+        commitAndStartNewTransaction();
+
+        // Cache both rooms with their seats
+        assertEquals(1, seatCount(roomA.getId()));
+        assertEquals(0, seatCount(roomB.getId()));
+
+        // Moving a seat drops the cached seat lists of both rooms
+        Map<String, Object> update = new HashMap<>();
+        update.put("seatNumber", "B-1");
+        update.put("room", Map.of("id", roomB.getId()));
+        update.put("capacity", 1);
+        given()
+            .contentType(ContentType.JSON)
+            .body(update)
+        .when()
+            .put(getApiPath("/seats/" + seat.getId()))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode());
+
+        assertEquals(0, seatCount(roomA.getId()));
+        assertEquals(1, seatCount(roomB.getId()));
+        try (Session reader = sessionFactory.openSession()) {
+            assertEquals("B-1", reader.get(Seat.class, seat.getId()).getSeatNumber());
+        }
+
+        // Seats inserted with plain JDBC
+        Map<String, Object> layout = new HashMap<>();
+        layout.put("rows", 2);
+        layout.put("columns", 3);
+        given()
+            .contentType(ContentType.JSON)
+            .body(layout)
+        .when()
+            .post(getApiPath("/rooms/" + roomA.getId() + "/seats/generate"))
+        .then()
+            .statusCode(Response.Status.CREATED.getStatusCode());
+        assertEquals(6, seatCount(roomA.getId()));
+
+        // Seats removed with bulk statements
+        Map<String, Object> delete = new HashMap<>();
+        delete.put("ids", List.of(seat.getId()));
+        given()
+            .contentType(ContentType.JSON)
+            .body(delete)
+        .when()
+            .post(getApiPath("/seats/delete"))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode());
+        assertEquals(0, seatCount(roomB.getId()));
+        try (Session reader = sessionFactory.openSession()) {
+            assertNull(reader.get(Seat.class, seat.getId()));
+        }
+    }
+
+    private void read(List<OfficeRoom> rooms, List<Seat> seats, int i) {
+        given()
+        .when()
+            .get(getApiPath("/seats/" + seats.get(i % seats.size()).getId()))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode());
+        given()
+        .when()
+            .get(getApiPath("/rooms/" + rooms.get(i % rooms.size()).getId()))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode());
+    }
+
+    private int seatCount(Long roomId) {
+        try (Session reader = sessionFactory.openSession()) {
+            return reader.get(OfficeRoom.class, roomId).getSeats().size();
+        }
+    }
+}
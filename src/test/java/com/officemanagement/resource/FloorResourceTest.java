@@ -1,16 +1,24 @@
 package com.officemanagement.resource;
 
+import com.officemanagement.model.Employee;
 import com.officemanagement.model.Floor;
 import com.officemanagement.model.FloorPlanimetry;
 import com.officemanagement.model.OfficeRoom;
+import com.officemanagement.model.Seat;
+import com.officemanagement.service.OccupancyIndex;
 import io.restassured.http.ContentType;
 import org.junit.jupiter.api.Test;
 
+import javax.imageio.ImageIO;
 import javax.ws.rs.core.Response;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.time.LocalDateTime;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class FloorResourceTest extends BaseResourceTest {
 
@@ -347,6 +355,216 @@ public class FloorResourceTest extends BaseResourceTest {
             .body(equalTo(svgContent));
     }
 
+    @Test
+    public void testGetFloorHeatmap() throws Exception {
+        Floor floor = new Floor();
+        floor.setName("Heatmap Floor");
+        floor.setFloorNumber(1);
+        floor.setCreatedAt(LocalDateTime.now());
+        session.save(floor);
+        // A black wall along the top of the plan
+        session.save(new FloorPlanimetry(floor,
+            "<svg viewBox=\"0 0 1000 500\"><rect x=\"0\" y=\"0\" width=\"1000\" height=\"20\" style=\"fill:#000000\"/></svg>"));
+
+        OfficeRoom room = new OfficeRoom();
+        room.setName("Open Space");
+        room.setRoomNumber("101");
+        room.setFloor(floor);
+        room.setX(0f);
+        room.setY(0f);
+        room.setWidth(1000f);
+        room.setHeight(500f);
+        room.setCreatedAt(LocalDateTime.now());
+        session.save(room);
+        Seat taken = createHeatmapSeat(room, "T", 100f);
+        Seat free = createHeatmapSeat(room, "F", 800f);
+
+        Employee employee = new Employee();
+        employee.setFullName("Heatmap Tester");
+        employee.setOccupation("Tester");
+        employee.setCreatedAt(LocalDateTime.now());
+        session.save(employee);
+        commitAndStartNewTransaction();
+
+        given()
+        .when()
+            .put(getApiPath("/employees/" + employee.getId() + "/assign-seat/" + taken.getId()))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode());
+
+        BufferedImage image = heatmap(floor.getId());
+        assertEquals(1200, image.getWidth());
+        assertEquals(600, image.getHeight());
+        // Seat centers, scaled by 1.2 from the 1000 units wide plan
+        Color atTaken = new Color(image.getRGB(150, 270));
+        Color atFree = new Color(image.getRGB(990, 270));
+        assertTrue(atTaken.getRed() > atTaken.getBlue(), "The taken seat should be hot, was " + atTaken);
+        assertTrue(atFree.getBlue() > atFree.getRed(), "The free seat should be cold, was " + atFree);
+        Color wall = new Color(image.getRGB(600, 10));
+        assertTrue(wall.getRed() < 50 && wall.getGreen() < 50 && wall.getBlue() < 50, "The plan should be drawn");
+        Color clear = new Color(image.getRGB(600, 500));
+        assertEquals(Color.WHITE, clear, "No heat far from the seats");
+
+        // Served from the cache until the assignments change
+        long statements = sessionFactory.getStatistics().getPrepareStatementCount();
+        heatmap(floor.getId());
+        assertEquals(statements, sessionFactory.getStatistics().getPrepareStatementCount());
+
+        given()
+        .when()
+            .put(getApiPath("/employees/" + employee.getId() + "/assign-seat/" + free.getId()))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode());
+        atFree = new Color(heatmap(floor.getId()).getRGB(990, 270));
+        assertTrue(atFree.getRed() > atFree.getBlue(), "The newly taken seat should be hot, was " + atFree);
+
+        given()
+        .when()
+            .get(getApiPath("/floors/9999/heatmap.png"))
+        .then()
+            .statusCode(Response.Status.NOT_FOUND.getStatusCode());
+    }
+
+    @Test
+    public void testFloorHeatmapOfTallPlanAndNewRooms() throws Exception {
+        Floor floor = new Floor();
+        floor.setName("Tower Floor");
+        floor.setFloorNumber(2);
+        floor.setCreatedAt(LocalDateTime.now());
+        session.save(floor);
+        session.save(new FloorPlanimetry(floor, "<svg viewBox=\"0 0 100 1000\"></svg>"));
+        commitAndStartNewTransaction();
+
+        // Ten times higher than wide: narrower than the configured width, same scale on both axes
+        BufferedImage image = heatmap(floor.getId());
+        assertEquals(480, image.getWidth());
+        assertEquals(4800, image.getHeight());
+
+        OfficeRoom room = new OfficeRoom();
+        room.setName("Corridor");
+        room.setRoomNumber("201");
+        room.setFloor(floor);
+        room.setX(10f);
+        room.setY(10f);
+        room.setWidth(80f);
+        room.setHeight(500f);
+        given()
+            .contentType(ContentType.JSON)
+            .body(room)
+        .when()
+            .post(getApiPath("/rooms"))
+        .then()
+            .statusCode(Response.Status.CREATED.getStatusCode());
+
+        // The outline of the new room is drawn, not the cached image without it
+        Color outline = new Color(heatmap(floor.getId()).getRGB(240, 48));
+        assertTrue(outline.getRed() < 100, "The new room should be outlined, was " + outline);
+    }
+
+    private BufferedImage heatmap(Long floorId) throws Exception {
+        byte[] png = given()
+        .when()
+            .get(getApiPath("/floors/" + floorId + "/heatmap.png"))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode())
+            .contentType("image/png")
+            .extract().asByteArray();
+        return ImageIO.read(new ByteArrayInputStream(png));
+    }
+
+    private Seat createHeatmapSeat(OfficeRoom room, String seatNumber, float x) {
+        Seat seat = new Seat();
+        seat.setSeatNumber(seatNumber);
+        seat.setRoom(room);
+        seat.setX(x);
+        seat.setY(200f);
+        seat.setWidth(50f);
+        seat.setHeight(50f);
+        seat.setCreatedAt(LocalDateTime.now());
+        session.save(seat);
+        return seat;
+    }
+
+    @Test
+    public void testGetFloorOccupancy() {
+        Floor floor = new Floor();
+        floor.setName("Occupancy Floor");
+        floor.setFloorNumber(4);
+        floor.setCreatedAt(LocalDateTime.now());
+        session.save(floor);
+
+        OfficeRoom roomA = createRoom(floor, "401");
+        OfficeRoom roomB = createRoom(floor, "402");
+        Seat seatA1 = createSeat(roomA, "401-01");
+        Seat seatA2 = createSeat(roomA, "401-02");
+        Seat seatB1 = createSeat(roomB, "402-01");
+
+        Employee alice = new Employee();
+        alice.setFullName("Alice");
+        alice.setOccupation("Engineer");
+        alice.setCreatedAt(LocalDateTime.now());
+        alice.addSeat(seatA1);
+        session.save(alice);
+
+        Employee bob = new Employee();
+        bob.setFullName("Bob");
+        bob.setOccupation("Engineer");
+        bob.setCreatedAt(LocalDateTime.now());
+        session.save(bob);
+        commitAndStartNewTransaction();
+
+        // Simulate application startup, which builds the index from the assignments table
+        OccupancyIndex.getInstance().rebuild(sessionFactory);
+
+        given()
+        .when()
+            .get(getApiPath("/floors/" + floor.getId() + "/occupancy"))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode())
+            .body("totalSeats", equalTo(3))
+            .body("occupiedSeats", equalTo(1))
+            .body("freeSeatIds", containsInAnyOrder(seatA2.getId().intValue(), seatB1.getId().intValue()))
+            .body("rooms.find { it.roomId == " + roomA.getId() + " }.occupancyRatio", equalTo(0.5f));
+
+        // Assignments made through the API are reflected once committed
+        given()
+        .when()
+            .put(getApiPath("/employees/" + bob.getId() + "/assign-seat/" + seatB1.getId()))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode());
+
+        given()
+        .when()
+            .get(getApiPath("/floors/" + floor.getId() + "/occupancy"))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode())
+            .body("occupiedSeats", equalTo(2))
+            .body("freeSeatIds", contains(seatA2.getId().intValue()))
+            .body("rooms.find { it.roomId == " + roomB.getId() + " }.occupancyRatio", equalTo(1.0f));
+
+        // Deleting a seat removes it from the index
+        given()
+        .when()
+            .delete(getApiPath("/seats/" + seatA2.getId()))
+        .then()
+            .statusCode(Response.Status.NO_CONTENT.getStatusCode());
+
+        given()
+        .when()
+            .get(getApiPath("/floors/" + floor.getId() + "/occupancy"))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode())
+            .body("totalSeats", equalTo(2))
+            .body("occupancyRatio", equalTo(1.0f))
+            .body("freeSeatIds", hasSize(0));
+
+        given()
+        .when()
+            .get(getApiPath("/floors/" + (floor.getId() + 1000) + "/occupancy"))
+        .then()
+            .statusCode(Response.Status.NOT_FOUND.getStatusCode());
+    }
+
     private void createTestFloor(String name, int floorNumber) {
         Floor floor = new Floor();
         floor.setName(name);
@@ -7,12 +7,20 @@ import io.restassured.http.ContentType;
 import org.junit.jupiter.api.Test;
 
 import javax.ws.rs.core.Response;
+import javax.ws.rs.sse.InboundSseEvent;
+import javax.ws.rs.sse.SseEventSource;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class GeometryResourceTest extends BaseResourceTest {
 
@@ -222,4 +230,69 @@ public class GeometryResourceTest extends BaseResourceTest {
         assert updatedRoom.getWidth() == 400.0f;
         assert updatedRoom.getHeight() == 200.0f; // Should remain unchanged
     }
-} 
\ No newline at end of file
+
+    @Test
+    public void testGeometryUpdateIsStreamedToFloorSubscribers() throws Exception {
+        Floor floor = new Floor();
+        floor.setName("Streamed Floor");
+        floor.setFloorNumber(1);
+        floor.setCreatedAt(LocalDateTime.now());
+        session.save(floor);
+
+        OfficeRoom room = new OfficeRoom();
+        room.setName("Streamed Room");
+        room.setRoomNumber("101");
+        room.setFloor(floor);
+        room.setCreatedAt(LocalDateTime.now());
+        session.save(room);
+
+        commitAndStartNewTransaction();
+
+        BlockingQueue<InboundSseEvent> events = new LinkedBlockingQueue<>();
+        try (SseEventSource eventSource = SseEventSource
+                .target(target("floors/" + floor.getId() + "/events"))
+                .build()) {
+            eventSource.register(events::add);
+            eventSource.open();
+
+            InboundSseEvent sync = events.poll(5, TimeUnit.SECONDS);
+            assertNotNull(sync, "Subscriber should receive the current floor version");
+            assertEquals("sync", sync.getName());
+
+            Map<String, Object> geometryData = new HashMap<>();
+            geometryData.put("x", 42);
+            geometryData.put("width", 300);
+
+            given()
+                .contentType(ContentType.JSON)
+                .body(geometryData)
+            .when()
+                .patch(getApiPath("/rooms/" + room.getId() + "/geometry"))
+            .then()
+                .statusCode(Response.Status.OK.getStatusCode());
+
+            InboundSseEvent diff = events.poll(5, TimeUnit.SECONDS);
+            assertNotNull(diff, "Subscriber should receive the geometry diff");
+            assertEquals("diff", diff.getName());
+
+            @SuppressWarnings("unchecked")
+            Map<String, Object> payload = objectMapper.readValue(diff.readData(), Map.class);
+            assertEquals("room", payload.get("entityType"));
+            assertEquals(room.getId().intValue(), payload.get("entityId"));
+            @SuppressWarnings("unchecked")
+            Map<String, Object> changes = (Map<String, Object>) payload.get("changes");
+            // Width did not change, so only x is part of the diff
+            assertEquals(42.0, changes.get("x"));
+            assertTrue(!changes.containsKey("width"));
+        }
+    }
+
+    @Test
+    public void testEventStreamForNonExistentFloor() {
+        given()
+        .when()
+            .get(getApiPath("/floors/99999/events"))
+        .then()
+            .statusCode(Response.Status.NOT_FOUND.getStatusCode());
+    }
+}
@@ -0,0 +1,103 @@
+package com.officemanagement.resource;
+
+import com.officemanagement.util.Startup;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+
+public class HealthResourceTest extends BaseResourceTest {
+
+    @AfterEach
+    public void restoreStartup() {
+        Startup.track(CompletableFuture.completedFuture(null));
+    }
+
+    @Test
+    public void testReadyAfterStartup() {
+        given()
+            .when()
+            .get(getApiPath("/health/ready"))
+            .then()
+            .statusCode(200)
+            .body("status", equalTo("READY"))
+            .body("phases", hasKey("metamodel"))
+            .body("phases", hasKey("pool warm-up"));
+    }
+
+    @Test
+    public void testRequestsAreRefusedUntilStartupIsDone() {
+        CompletableFuture<Void> startup = new CompletableFuture<>();
+        Startup.track(startup);
+
+        given()
+            .when()
+            .get(getApiPath("/floors"))
+            .then()
+            .statusCode(503)
+            .header("Retry-After", notNullValue());
+
+        given()
+            .when()
+            .get(getApiPath("/health/live"))
+            .then()
+            .statusCode(200)
+            .body("status", equalTo("UP"));
+
+        given()
+            .when()
+            .get(getApiPath("/health/ready"))
+            .then()
+            .statusCode(503)
+            .header("Retry-After", notNullValue())
+            .body("status", equalTo("STARTING"));
+
+        startup.complete(null);
+
+        given()
+            .when()
+            .get(getApiPath("/floors"))
+            .then()
+            .statusCode(200);
+
+        given()
+            .when()
+            .get(getApiPath("/health/ready"))
+            .then()
+            .statusCode(200)
+            .body("status", equalTo("READY"));
+    }
+
+    @Test
+    public void testFailedStartupIsReported() {
+        CompletableFuture<Void> startup = new CompletableFuture<>();
+        startup.completeExceptionally(new IllegalStateException("database unreachable"));
+        Startup.track(startup);
+
+        given()
+            .when()
+            .get(getApiPath("/floors"))
+            .then()
+            .statusCode(503);
+
+        given()
+            .when()
+            .get(getApiPath("/health/ready"))
+            .then()
+            .statusCode(503)
+            .body("status", equalTo("FAILED"))
+            .body("error", containsString("database unreachable"));
+
+        // Nothing brings a failed startup back, the process has to be restarted
+        given()
+            .when()
+            .get(getApiPath("/health/live"))
+            .then()
+            .statusCode(503)
+            .body("status", equalTo("DOWN"))
+            .body("error", containsString("database unreachable"));
+    }
+}
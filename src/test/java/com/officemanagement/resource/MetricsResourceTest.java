@@ -0,0 +1,78 @@
+package com.officemanagement.resource;
+
+import com.officemanagement.util.LatencyHistogram;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsResourceTest extends BaseResourceTest {
+
+    @Test
+    public void testScrapeExposesPoolHibernateAndRequests() {
+        for (int i = 0; i < 3; i++) {
+            given().when().get(getApiPath("/floors")).then().statusCode(200);
+        }
+        given().when().get(getApiPath("/floors/999")).then().statusCode(404);
+
+        String metrics = given()
+        .when()
+            .get(getApiPath("/metrics"))
+        .then()
+            .statusCode(200)
+            .contentType(startsWith("text/plain"))
+            .body(containsString("# TYPE http_server_requests_seconds histogram"))
+            .body(containsString("# TYPE hikari_connections_active gauge"))
+            .body(containsString("hikari_connections_max{pool=\"OfficeManagementPool\",database=\"primary\"} 20"))
+            .body(containsString("hikari_connection_acquire_seconds_count{pool=\"OfficeManagementPool\""))
+            .body(containsString("hibernate_query_executions_total{database=\"primary\"}"))
+            .body(containsString("hibernate_second_level_cache_hits_total{database=\"primary\"}"))
+            .extract().asString();
+
+        assertTrue(metrics.matches("(?s).*http_server_requests_seconds_count"
+            + "\\{resource=\"FloorResource\",method=\"getAllFloors\",status=\"2xx\"} [3-9].*"), metrics);
+        assertTrue(metrics.contains("http_server_requests_seconds_count"
+            + "{resource=\"FloorResource\",method=\"getFloor\",status=\"4xx\"}"), metrics);
+
+        // Every metric family is declared once
+        Set<String> families = new HashSet<>();
+        for (String line : metrics.split("\n")) {
+            if (line.startsWith("# TYPE ")) {
+                assertTrue(families.add(line), "Declared twice: " + line);
+            }
+        }
+    }
+
+    @Test
+    public void testHistogramBucketsAreCumulative() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram(new double[] {0.001, 0.01});
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 4; i++) {
+            pool.execute(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    histogram.record(500_000);      // 0.5 ms
+                    histogram.record(5_000_000);    // 5 ms
+                    histogram.record(50_000_000);   // 50 ms
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        StringBuilder out = new StringBuilder();
+        histogram.write(out, "test_seconds", "name=\"x\"");
+        String text = out.toString();
+        assertTrue(text.contains("test_seconds_bucket{name=\"x\",le=\"0.001\"} 4000\n"), text);
+        assertTrue(text.contains("test_seconds_bucket{name=\"x\",le=\"0.01\"} 8000\n"), text);
+        assertTrue(text.contains("test_seconds_bucket{name=\"x\",le=\"+Inf\"} 12000\n"), text);
+        assertTrue(text.contains("test_seconds_count{name=\"x\"} 12000\n"), text);
+        assertTrue(text.contains("test_seconds_sum{name=\"x\"} 222.0\n"), text);
+    }
+}
@@ -0,0 +1,89 @@
+package com.officemanagement.resource;
+
+import com.officemanagement.model.Floor;
+import com.officemanagement.util.HibernateUtil;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReadOnlySessionTest extends BaseResourceTest {
+    @Test
+    public void testReadOnlySessionNeverWrites() {
+        Floor floor = createFloor(1, 1);
+        commitAndStartNewTransaction();
+
+        try (Session readOnly = HibernateUtil.openReadOnlySession()) {
+            assertTrue(readOnly.isDefaultReadOnly());
+            assertEquals(FlushMode.MANUAL, readOnly.getHibernateFlushMode());
+            assertTrue(readOnly.doReturningWork(Connection::isReadOnly));
+
+            Transaction tx = readOnly.beginTransaction();
+            Floor loaded = readOnly.get(Floor.class, floor.getId());
+            assertTrue(readOnly.isReadOnly(loaded));
+            loaded.setName("Changed");
+            readOnly.flush();
+            tx.commit();
+        }
+
+        try (Session check = sessionFactory.openSession()) {
+            assertEquals("Floor 1", check.get(Floor.class, floor.getId()).getName());
+        }
+    }
+
+    @Test
+    public void testReadEndpointsStillAnswer() {
+        Floor floor = createFloor(4, 5);
+        commitAndStartNewTransaction();
+
+        given()
+        .when()
+            .get(getApiPath("/floors/" + floor.getId()))
+        .then()
+            .statusCode(200)
+            .body("rooms", hasSize(4))
+            .body("rooms[0].seats", hasSize(5));
+
+        given()
+        .when()
+            .get(getApiPath("/rooms"))
+        .then()
+            .statusCode(200)
+            .body("$", hasSize(4));
+    }
+
+    @Test
+    public void testRequestSessionIsClosedWhenTheRequestEnds() throws Exception {
+        Floor floor = createFloor(1, 1);
+        commitAndStartNewTransaction();
+        Statistics statistics = sessionFactory.getStatistics();
+        long opened = statistics.getSessionOpenCount();
+        long closed = statistics.getSessionCloseCount();
+
+        given()
+        .when()
+            .get(getApiPath("/floors/" + floor.getId()))
+        .then()
+            .statusCode(200);
+        given()
+        .when()
+            .get(getApiPath("/floors/" + (floor.getId() + 1000)))
+        .then()
+            .statusCode(404);
+
+        // The request scope may end just after the response went out
+        long deadline = System.currentTimeMillis() + 2000;
+        while (statistics.getSessionCloseCount() - closed < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, statistics.getSessionOpenCount() - opened, "One session per request");
+        assertEquals(2, statistics.getSessionCloseCount() - closed, "Every request session is closed");
+    }
+}
@@ -0,0 +1,216 @@
+package com.officemanagement.resource;
+
+import com.officemanagement.config.ReplicaRoutingFilter;
+import com.officemanagement.model.Floor;
+import com.officemanagement.util.HibernateUtil;
+import com.officemanagement.util.ReplicaRouting;
+import io.restassured.http.ContentType;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.core.Response;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Routing between two H2 databases, the second one standing in for the read replica.
+ * Replication is simulated by copying the primary into the replica with SCRIPT and RUNSCRIPT.
+ */
+public class ReplicaRoutingTest extends BaseResourceTest {
+    private static final String REPLICA_URL =
+        "jdbc:h2:mem:replicadb;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH";
+
+    private static final String POSITION_QUERY = "select coalesce(max(id), 0) from floors";
+
+    private static SessionFactory replica;
+    private static Path snapshot;
+
+    @BeforeEach
+    public void startReplica() throws Exception {
+        if (replica == null) {
+            replica = HibernateUtil.buildReplicaSessionFactory(REPLICA_URL, "", "");
+            snapshot = Files.createTempFile("replica", ".sql");
+        }
+        // The tests only write floors, so the highest floor ID stands in for the log
+        // position; the lag is measured only when the test asks for it
+        System.setProperty("replica.primaryPositionQuery", POSITION_QUERY);
+        System.setProperty("replica.replayPositionQuery", POSITION_QUERY);
+        System.setProperty("replica.lagCheckIntervalMs", "3600000");
+        replicate();
+        ReplicaRouting.getInstance().start(sessionFactory, replica);
+    }
+
+    @AfterEach
+    public void stopReplica() {
+        ReplicaRouting.getInstance().stop();
+        System.clearProperty("replica.primaryPositionQuery");
+        System.clearProperty("replica.replayPositionQuery");
+        System.clearProperty("replica.lagCheckIntervalMs");
+        System.clearProperty("replica.maxLagMs");
+    }
+
+    @AfterAll
+    public static void closeReplica() throws Exception {
+        if (replica != null) {
+            replica.close();
+            replica = null;
+            Files.deleteIfExists(snapshot);
+        }
+    }
+
+    @Test
+    public void testReadsAreServedByTheReplica() throws Exception {
+        createFloor("Replicated Floor", 1);
+        replicate();
+        ReplicaRouting.getInstance().checkLag();
+
+        // Written after the replica caught up
+        String token = createFloor("Recent Floor", 2);
+
+        given()
+        .when()
+            .get(getApiPath("/floors"))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode())
+            .header(ReplicaRoutingFilter.READ_SOURCE, "replica")
+            .body("name", contains("Replicated Floor"));
+
+        // The writer reads its own write from the primary
+        given()
+            .header(ReplicaRoutingFilter.CONSISTENCY_TOKEN, token)
+        .when()
+            .get(getApiPath("/floors"))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode())
+            .header(ReplicaRoutingFilter.READ_SOURCE, "primary")
+            .body("name", containsInAnyOrder("Replicated Floor", "Recent Floor"));
+
+        // Back to the replica once it has the write
+        replicate();
+        ReplicaRouting.getInstance().checkLag();
+
+        given()
+            .header(ReplicaRoutingFilter.CONSISTENCY_TOKEN, token)
+        .when()
+            .get(getApiPath("/floors"))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode())
+            .header(ReplicaRoutingFilter.READ_SOURCE, "replica")
+            .body("name", containsInAnyOrder("Replicated Floor", "Recent Floor"));
+    }
+
+    @Test
+    public void testLaggingReplicaIsBypassed() throws Exception {
+        System.setProperty("replica.maxLagMs", "50");
+        ReplicaRouting.getInstance().start(sessionFactory, replica);
+
+        // A write the replica does not receive
+        createFloor("Unreplicated Floor", 1);
+        ReplicaRouting.getInstance().checkLag();
+        Thread.sleep(100);
+        ReplicaRouting.getInstance().checkLag();
+
+        given()
+        .when()
+            .get(getApiPath("/floors"))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode())
+            .header(ReplicaRoutingFilter.READ_SOURCE, "primary");
+
+        // Neither is a replica whose lag cannot be measured
+        replicate();
+        ReplicaRouting.getInstance().checkLag();
+        executeOnReplica("DROP ALL OBJECTS");
+        ReplicaRouting.getInstance().checkLag();
+
+        given()
+        .when()
+            .get(getApiPath("/floors"))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode())
+            .header(ReplicaRoutingFilter.READ_SOURCE, "primary");
+    }
+
+    @Test
+    public void testIdleReplicaIsNotLagging() throws Exception {
+        createFloor("Replicated Floor", 1);
+        replicate();
+        ReplicaRouting.getInstance().checkLag();
+
+        // Nothing is written for longer than the maximum lag
+        System.setProperty("replica.maxLagMs", "50");
+        ReplicaRouting.getInstance().start(sessionFactory, replica);
+        Thread.sleep(100);
+        ReplicaRouting.getInstance().checkLag();
+
+        given()
+        .when()
+            .get(getApiPath("/floors"))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode())
+            .header(ReplicaRoutingFilter.READ_SOURCE, "replica");
+    }
+
+    @Test
+    public void testOnlyReadOnlyMethodsAreRouted() {
+        String token = createFloor("Ground Floor", 0);
+        Long floorId = session.createQuery("select f.id from Floor f", Long.class).uniqueResult();
+        given()
+            .header(ReplicaRoutingFilter.CONSISTENCY_TOKEN, token)
+        .when()
+            .get(getApiPath("/floors/" + floorId + "/occupancy"))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode())
+            .header(ReplicaRoutingFilter.READ_SOURCE, nullValue());
+    }
+
+    private String createFloor(String name, int number) {
+        Floor floor = new Floor();
+        floor.setName(name);
+        floor.setFloorNumber(number);
+        floor.setCreatedAt(LocalDateTime.now());
+
+        return given()
+            .contentType(ContentType.JSON)
+            .body(floor)
+        .when()
+            .post(getApiPath("/floors"))
+        .then()
+            .statusCode(Response.Status.CREATED.getStatusCode())
+            .header(ReplicaRoutingFilter.CONSISTENCY_TOKEN, notNullValue())
+            .header(ReplicaRoutingFilter.READ_SOURCE, nullValue())
+            .extract().header(ReplicaRoutingFilter.CONSISTENCY_TOKEN);
+    }
+
+    /**
+     * Copy the committed state of the primary into the replica, with no lag.
+     */
+    private void replicate() throws SQLException {
+        commitAndStartNewTransaction();
+        session.doWork(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SCRIPT TO '" + snapshot + "'");
+            }
+        });
+        executeOnReplica("DROP ALL OBJECTS");
+        executeOnReplica("RUNSCRIPT FROM '" + snapshot + "'");
+    }
+
+    private void executeOnReplica(String sql) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(REPLICA_URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package com.officemanagement.resource;
+
+import com.officemanagement.model.Employee;
+import com.officemanagement.model.Floor;
+import com.officemanagement.model.OfficeRoom;
+import com.officemanagement.model.Seat;
+import com.officemanagement.service.OccupancyIndex;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.core.Response;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class ReservationResourceTest extends BaseResourceTest {
+    private Floor floor;
+    private Seat hotDesk1;
+    private Seat hotDesk2;
+    private Seat assignedSeat;
+    private Employee alice;
+    private Employee bob;
+    private String tomorrow;
+
+    @BeforeEach
+    public void createFixtures() {
+        floor = new Floor();
+        floor.setName("Hot Desk Floor");
+        floor.setFloorNumber(5);
+        floor.setCreatedAt(LocalDateTime.now());
+        session.save(floor);
+
+        OfficeRoom room = new OfficeRoom();
+        room.setName("Open Space");
+        room.setRoomNumber("501");
+        room.setFloor(floor);
+        room.setCreatedAt(LocalDateTime.now());
+        session.save(room);
+
+        hotDesk1 = createSeat(room, "501-01");
+        hotDesk2 = createSeat(room, "501-02");
+        assignedSeat = createSeat(room, "501-03");
+
+        alice = createEmployee("Alice");
+        bob = createEmployee("Bob");
+        Employee carol = createEmployee("Carol");
+        carol.addSeat(assignedSeat);
+        session.update(carol);
+        commitAndStartNewTransaction();
+
+        // Simulate application startup, which builds the index from the assignments table
+        OccupancyIndex.getInstance().rebuild(sessionFactory);
+        tomorrow = LocalDate.now().plusDays(1).toString();
+    }
+
+    @Test
+    public void testCreateReservations() {
+        given()
+            .contentType(ContentType.JSON)
+            .body(Arrays.asList(
+                booking(hotDesk1, alice, tomorrow, "MORNING"),
+                booking(hotDesk1, bob, tomorrow, "AFTERNOON")))
+        .when()
+            .post(getApiPath("/reservations"))
+        .then()
+            .statusCode(Response.Status.CREATED.getStatusCode())
+            .body("$", hasSize(2))
+            .body("[0].id", notNullValue())
+            .body("[0].seatId", equalTo(hotDesk1.getId().intValue()))
+            .body("[1].employeeId", equalTo(bob.getId().intValue()));
+    }
+
+    @Test
+    public void testOverlappingReservationIsRejected() {
+        given()
+            .contentType(ContentType.JSON)
+            .body(Collections.singletonList(booking(hotDesk1, alice, tomorrow, "FULL_DAY")))
+        .when()
+            .post(getApiPath("/reservations"))
+        .then()
+            .statusCode(Response.Status.CREATED.getStatusCode());
+
+        // Same seat, overlapping slot: the whole batch is rejected, including the valid booking
+        given()
+            .contentType(ContentType.JSON)
+            .body(Arrays.asList(
+                booking(hotDesk2, bob, tomorrow, "MORNING"),
+                booking(hotDesk1, bob, tomorrow, "AFTERNOON")))
+        .when()
+            .post(getApiPath("/reservations"))
+        .then()
+            .statusCode(Response.Status.CONFLICT.getStatusCode())
+            .body("conflicts", hasSize(1))
+            .body("conflicts[0].index", equalTo(1));
+
+        // The rejected batch left nothing behind, so hotDesk2 is still bookable
+        given()
+            .contentType(ContentType.JSON)
+            .body(Collections.singletonList(booking(hotDesk2, bob, tomorrow, "MORNING")))
+        .when()
+            .post(getApiPath("/reservations"))
+        .then()
+            .statusCode(Response.Status.CREATED.getStatusCode());
+
+        // An employee cannot be on two seats at the same time
+        given()
+            .contentType(ContentType.JSON)
+            .body(Collections.singletonList(booking(hotDesk2, alice, tomorrow, "AFTERNOON")))
+        .when()
+            .post(getApiPath("/reservations"))
+        .then()
+            .statusCode(Response.Status.CONFLICT.getStatusCode())
+            .body("conflicts[0].message", containsString("Employee"));
+    }
+
+    @Test
+    public void testInvalidReservations() {
+        given()
+            .contentType(ContentType.JSON)
+            .body(Collections.singletonList(booking(hotDesk1, alice, LocalDate.now().minusDays(1).toString(), "FULL_DAY")))
+        .when()
+            .post(getApiPath("/reservations"))
+        .then()
+            .statusCode(Response.Status.BAD_REQUEST.getStatusCode());
+
+        Map<String, Object> unknownSeat = booking(hotDesk1, alice, tomorrow, "FULL_DAY");
+        unknownSeat.put("seatId", 999);
+        given()
+            .contentType(ContentType.JSON)
+            .body(Collections.singletonList(unknownSeat))
+        .when()
+            .post(getApiPath("/reservations"))
+        .then()
+            .statusCode(Response.Status.BAD_REQUEST.getStatusCode());
+
+        // Permanently assigned seats are not available for hot-desking
+        given()
+            .contentType(ContentType.JSON)
+            .body(Collections.singletonList(booking(assignedSeat, alice, tomorrow, "FULL_DAY")))
+        .when()
+            .post(getApiPath("/reservations"))
+        .then()
+            .statusCode(Response.Status.CONFLICT.getStatusCode());
+    }
+
+    @Test
+    public void testBookedSeatCannotBeAssigned() {
+        given()
+            .contentType(ContentType.JSON)
+            .body(Collections.singletonList(booking(hotDesk1, alice, tomorrow, "MORNING")))
+        .when()
+            .post(getApiPath("/reservations"))
+        .then()
+            .statusCode(Response.Status.CREATED.getStatusCode());
+
+        given()
+        .when()
+            .put(getApiPath("/employees/" + bob.getId() + "/assign-seat/" + hotDesk1.getId()))
+        .then()
+            .statusCode(Response.Status.CONFLICT.getStatusCode())
+            .body(containsString("reservations"));
+
+        given()
+        .when()
+            .put(getApiPath("/employees/" + bob.getId() + "/assign-seat/" + hotDesk2.getId()))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode());
+    }
+
+    @Test
+    public void testConcurrentAssignmentAndBookingOfASeat() throws Exception {
+        List<Seat> seats = new ArrayList<>();
+        List<Employee> bookers = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            seats.add(createSeat(hotDesk1.getRoom(), "race-" + i));
+            bookers.add(createEmployee("Booker " + i));
+        }
+        commitAndStartNewTransaction();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> assignments = new ArrayList<>();
+            List<Future<Integer>> bookings = new ArrayList<>();
+            for (int i = 0; i < seats.size(); i++) {
+                Seat seat = seats.get(i);
+                Employee booker = bookers.get(i);
+                assignments.add(executor.submit(() -> given()
+                    .when()
+                        .put(getApiPath("/employees/" + bob.getId() + "/assign-seat/" + seat.getId()))
+                    .then()
+                        .extract()
+                        .statusCode()));
+                bookings.add(executor.submit(() -> given()
+                        .contentType(ContentType.JSON)
+                        .body(Collections.singletonList(booking(seat, booker, tomorrow, "MORNING")))
+                    .when()
+                        .post(getApiPath("/reservations"))
+                    .then()
+                        .extract()
+                        .statusCode()));
+            }
+            for (int i = 0; i < seats.size(); i++) {
+                int assigned = assignments.get(i).get(60, TimeUnit.SECONDS);
+                int booked = bookings.get(i).get(60, TimeUnit.SECONDS);
+                assertFalse(assigned == Response.Status.OK.getStatusCode()
+                        && booked == Response.Status.CREATED.getStatusCode(),
+                    "Seat " + seats.get(i).getSeatNumber() + " was both assigned and booked");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testAvailability() {
+        String morningFrom = tomorrow + "T08:00";
+        String morningTo = tomorrow + "T13:00";
+
+        given()
+            .queryParam("floorId", floor.getId())
+            .queryParam("from", morningFrom)
+            .queryParam("to", morningTo)
+        .when()
+            .get(getApiPath("/reservations/availability"))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode())
+            .body("freeSeatIds", containsInAnyOrder(hotDesk1.getId().intValue(), hotDesk2.getId().intValue()));
+
+        Integer reservationId = given()
+            .contentType(ContentType.JSON)
+            .body(Collections.singletonList(booking(hotDesk1, alice, tomorrow, "MORNING")))
+        .when()
+            .post(getApiPath("/reservations"))
+        .then()
+            .statusCode(Response.Status.CREATED.getStatusCode())
+            .extract()
+            .path("[0].id");
+
+        given()
+            .queryParam("floorId", floor.getId())
+            .queryParam("from", morningFrom)
+            .queryParam("to", morningTo)
+        .when()
+            .get(getApiPath("/reservations/availability"))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode())
+            .body("freeSeatIds", contains(hotDesk2.getId().intValue()));
+
+        // The afternoon does not overlap the morning booking
+        given()
+            .queryParam("floorId", floor.getId())
+            .queryParam("from", tomorrow + "T13:00")
+            .queryParam("to", tomorrow + "T18:00")
+        .when()
+            .get(getApiPath("/reservations/availability"))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode())
+            .body("freeSeatIds", hasSize(2));
+
+        given()
+        .when()
+            .delete(getApiPath("/reservations/" + reservationId))
+        .then()
+            .statusCode(Response.Status.NO_CONTENT.getStatusCode());
+
+        given()
+            .queryParam("floorId", floor.getId())
+            .queryParam("from", morningFrom)
+            .queryParam("to", morningTo)
+        .when()
+            .get(getApiPath("/reservations/availability"))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode())
+            .body("freeSeatIds", hasSize(2));
+    }
+
+    @Test
+    public void testBatchOfReservations() {
+        // More bookings than one JDBC batch, spread over consecutive days
+        List<Map<String, Object>> bookings = new ArrayList<>();
+        for (int day = 1; day <= 60; day++) {
+            bookings.add(booking(hotDesk2, bob, LocalDate.now().plusDays(day).toString(), "FULL_DAY"));
+        }
+
+        given()
+            .contentType(ContentType.JSON)
+            .body(bookings)
+        .when()
+            .post(getApiPath("/reservations"))
+        .then()
+            .statusCode(Response.Status.CREATED.getStatusCode())
+            .body("$", hasSize(60))
+            .body("id", everyItem(notNullValue()));
+    }
+
+    @Test
+    public void testDeletingSeatDropsReservations() {
+        given()
+            .contentType(ContentType.JSON)
+            .body(Collections.singletonList(booking(hotDesk1, alice, tomorrow, "FULL_DAY")))
+        .when()
+            .post(getApiPath("/reservations"))
+        .then()
+            .statusCode(Response.Status.CREATED.getStatusCode());
+
+        given()
+        .when()
+            .delete(getApiPath("/seats/" + hotDesk1.getId()))
+        .then()
+            .statusCode(Response.Status.NO_CONTENT.getStatusCode());
+
+        // Alice's schedule is free again
+        given()
+            .contentType(ContentType.JSON)
+            .body(Collections.singletonList(booking(hotDesk2, alice, tomorrow, "FULL_DAY")))
+        .when()
+            .post(getApiPath("/reservations"))
+        .then()
+            .statusCode(Response.Status.CREATED.getStatusCode());
+    }
+
+    private Map<String, Object> booking(Seat seat, Employee employee, String date, String slot) {
+        Map<String, Object> booking = new HashMap<>();
+        booking.put("seatId", seat.getId());
+        booking.put("employeeId", employee.getId());
+        booking.put("date", date);
+        booking.put("slot", slot);
+        return booking;
+    }
+}
@@ -8,10 +8,16 @@ import org.junit.jupiter.api.Test;
 
 import javax.ws.rs.core.Response;
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 
 public class RoomResourceTest extends BaseResourceTest {
@@ -249,4 +255,118 @@ public class RoomResourceTest extends BaseResourceTest {
             .body("[0].room", nullValue())
             .body("[0].planimetry", nullValue());
     }
-} 
\ No newline at end of file
+
+    @Test
+    public void testGenerateSeatGrid() {
+        OfficeRoom room = createOpenSpace();
+
+        Map<String, Object> layout = new HashMap<>();
+        layout.put("rows", 10);
+        layout.put("columns", 20);
+        layout.put("seatWidth", 80);
+        layout.put("seatHeight", 60);
+        layout.put("spacingX", 20);
+        layout.put("spacingY", 40);
+        layout.put("aisleEvery", 10);
+        layout.put("aisleWidth", 100);
+        layout.put("numbering", "ROW_LETTER");
+
+        given()
+            .contentType(ContentType.JSON)
+            .body(layout)
+        .when()
+            .post(getApiPath("/rooms/" + room.getId() + "/seats/generate"))
+        .then()
+            .statusCode(Response.Status.CREATED.getStatusCode())
+            .body("created", equalTo(200))
+            .body("seats", hasSize(200))
+            .body("seats[0].seatNumber", equalTo("OS-A01"))
+            .body("seats[199].seatNumber", equalTo("OS-J20"));
+
+        session.clear();
+        List<Seat> seats = session.createQuery("from Seat s where s.room.id = :roomId", Seat.class)
+            .setParameter("roomId", room.getId())
+            .list();
+        assertEquals(200, seats.size());
+        for (Seat seat : seats) {
+            assertTrue(seat.getX() >= room.getX() && seat.getX() + seat.getWidth() <= room.getX() + room.getWidth());
+            assertTrue(seat.getY() >= room.getY() && seat.getY() + seat.getHeight() <= room.getY() + room.getHeight());
+        }
+
+        // Generating the same numbers again is a conflict, and nothing is added
+        given()
+            .contentType(ContentType.JSON)
+            .body(layout)
+        .when()
+            .post(getApiPath("/rooms/" + room.getId() + "/seats/generate"))
+        .then()
+            .statusCode(Response.Status.CONFLICT.getStatusCode());
+
+        // New seats still get fresh IDs from the same sequence
+        Seat single = new Seat();
+        single.setSeatNumber("Extra");
+        single.setRoom(room);
+        single.setCreatedAt(LocalDateTime.now());
+        session.save(single);
+        commitAndStartNewTransaction();
+        assertEquals(201L, session.createQuery("select count(s) from Seat s", Long.class).uniqueResult());
+    }
+
+    @Test
+    public void testGenerateSeatGridValidation() {
+        OfficeRoom room = createOpenSpace();
+
+        Map<String, Object> layout = new HashMap<>();
+        layout.put("rows", 0);
+        layout.put("columns", 5);
+        given()
+            .contentType(ContentType.JSON)
+            .body(layout)
+        .when()
+            .post(getApiPath("/rooms/" + room.getId() + "/seats/generate"))
+        .then()
+            .statusCode(Response.Status.BAD_REQUEST.getStatusCode());
+
+        // 40 seats of 100 in a row are wider than the room
+        layout.put("rows", 1);
+        layout.put("columns", 40);
+        given()
+            .contentType(ContentType.JSON)
+            .body(layout)
+        .when()
+            .post(getApiPath("/rooms/" + room.getId() + "/seats/generate"))
+        .then()
+            .statusCode(Response.Status.BAD_REQUEST.getStatusCode())
+            .body(equalTo("The layout does not fit in the room"));
+
+        layout.put("columns", 5);
+        given()
+            .contentType(ContentType.JSON)
+            .body(layout)
+        .when()
+            .post(getApiPath("/rooms/99999/seats/generate"))
+        .then()
+            .statusCode(Response.Status.NOT_FOUND.getStatusCode());
+    }
+
+    private OfficeRoom createOpenSpace() {
+        Floor floor = new Floor();
+        floor.setName("Open Plan Floor");
+        floor.setFloorNumber(1);
+        floor.setCreatedAt(LocalDateTime.now());
+        session.save(floor);
+
+        OfficeRoom room = new OfficeRoom();
+        room.setName("Open Space");
+        room.setRoomNumber("OS");
+        room.setFloor(floor);
+        room.setX(500f);
+        room.setY(200f);
+        room.setWidth(2400f);
+        room.setHeight(1100f);
+        room.setCreatedAt(LocalDateTime.now());
+        session.save(room);
+        commitAndStartNewTransaction();
+        return room;
+    }
+}
@@ -0,0 +1,169 @@
+package com.officemanagement.resource;
+
+import com.officemanagement.model.Employee;
+import com.officemanagement.model.Floor;
+import com.officemanagement.model.OfficeRoom;
+import com.officemanagement.model.Seat;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.core.Response;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Hammers the assignment endpoints from many threads at once and checks that no seat
+ * ends up with more employees than it allows.
+ */
+public class SeatAssignmentConcurrencyTest extends BaseResourceTest {
+    private static final int THREADS = 16;
+
+    @Test
+    public void testConcurrentAssignmentsRespectCapacity() throws Exception {
+        Floor floor = createFloor(1);
+        OfficeRoom room = createRoom(floor, "R-1");
+        List<Seat> seats = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Seat seat = createSeat(room, "S-" + i);
+            seat.setCapacity(2);
+            seats.add(seat);
+        }
+        List<Employee> employees = createEmployees(60);
+        commitAndStartNewTransaction();
+
+        // Six clerks per seat try to assign someone at the same moment
+        List<Callable<Integer>> requests = new ArrayList<>();
+        for (int i = 0; i < employees.size(); i++) {
+            String path = "/employees/" + employees.get(i).getId() + "/assign-seat/" + seats.get(i % seats.size()).getId();
+            requests.add(() -> given().when().put(getApiPath(path)).then().extract().statusCode());
+        }
+
+        List<Integer> statuses = runConcurrently(requests);
+
+        assertEquals(20, countStatus(statuses, Response.Status.OK));
+        assertEquals(40, countStatus(statuses, Response.Status.CONFLICT));
+        for (Map.Entry<Long, Integer> entry : assignmentsPerSeat().entrySet()) {
+            assertEquals(2, entry.getValue(), "Seat " + entry.getKey() + " should be exactly full");
+        }
+    }
+
+    @Test
+    public void testSingleSeatTakesOneEmployee() throws Exception {
+        Seat seat = createSeat(createRoom(createFloor(1), "R-1"), "S-1");
+        seat.setCapacity(1);
+        List<Employee> employees = createEmployees(8);
+        commitAndStartNewTransaction();
+
+        List<Callable<Integer>> requests = new ArrayList<>();
+        for (Employee employee : employees) {
+            String path = "/employees/" + employee.getId() + "/assign-seat/" + seat.getId();
+            requests.add(() -> given().when().put(getApiPath(path)).then().extract().statusCode());
+        }
+        List<Integer> statuses = runConcurrently(requests);
+
+        assertEquals(1, countStatus(statuses, Response.Status.OK));
+        assertEquals(7, countStatus(statuses, Response.Status.CONFLICT));
+        assertEquals(1, assignmentsPerSeat().get(seat.getId()));
+    }
+
+    @Test
+    public void testConcurrentAutoAssignmentNeverDoubleBooks() throws Exception {
+        Floor floor = createFloor(1);
+        OfficeRoom roomA = createRoom(floor, "A");
+        OfficeRoom roomB = createRoom(floor, "B");
+        for (int i = 0; i < 6; i++) {
+            createSeat(roomA, "A-" + i);
+            createSeat(roomB, "B-" + i);
+        }
+        List<Employee> employees = createEmployees(30);
+        commitAndStartNewTransaction();
+
+        List<Callable<Integer>> requests = new ArrayList<>();
+        for (Employee employee : employees) {
+            String path = "/employees/" + employee.getId() + "/assign-seat/auto";
+            requests.add(() -> given().queryParam("floorId", floor.getId())
+                .when().put(getApiPath(path)).then().extract().statusCode());
+        }
+
+        List<Integer> statuses = runConcurrently(requests);
+
+        Map<Long, Integer> perSeat = assignmentsPerSeat();
+        for (Map.Entry<Long, Integer> entry : perSeat.entrySet()) {
+            assertEquals(1, entry.getValue(), "Seat " + entry.getKey() + " was handed out twice");
+        }
+        // Every success got its own seat, and only a full floor turns requests away
+        assertEquals(countStatus(statuses, Response.Status.OK), perSeat.size());
+        assertEquals(statuses.size(), countStatus(statuses, Response.Status.OK) + countStatus(statuses, Response.Status.CONFLICT));
+        assertTrue(perSeat.size() >= 10, "Most seats should have been assigned, got " + perSeat.size());
+    }
+
+    @Test
+    public void testAutoAssignmentRequiresScope() {
+        List<Employee> employees = createEmployees(1);
+        commitAndStartNewTransaction();
+
+        given()
+        .when()
+            .put(getApiPath("/employees/" + employees.get(0).getId() + "/assign-seat/auto"))
+        .then()
+            .statusCode(Response.Status.BAD_REQUEST.getStatusCode());
+    }
+
+    private List<Integer> runConcurrently(List<Callable<Integer>> requests) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startGate = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (Callable<Integer> request : requests) {
+                futures.add(executor.submit(() -> {
+                    startGate.await();
+                    return request.call();
+                }));
+            }
+            startGate.countDown();
+
+            List<Integer> statuses = new ArrayList<>();
+            for (Future<Integer> future : futures) {
+                statuses.add(future.get(60, TimeUnit.SECONDS));
+            }
+            return statuses;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long countStatus(List<Integer> statuses, Response.Status status) {
+        return statuses.stream().filter(code -> code == status.getStatusCode()).count();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, Integer> assignmentsPerSeat() {
+        session.clear();
+        List<Object[]> rows = session.createNativeQuery(
+            "select seat_id, count(*) from employee_seat_assignments group by seat_id")
+            .list();
+        Map<Long, Integer> perSeat = new HashMap<>();
+        for (Object[] row : rows) {
+            perSeat.put(((Number) row[0]).longValue(), ((Number) row[1]).intValue());
+        }
+        return perSeat;
+    }
+
+    private List<Employee> createEmployees(int count) {
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            employees.add(createEmployee("Employee " + i));
+        }
+        return employees;
+    }
+}
@@ -4,11 +4,17 @@ import com.officemanagement.model.Floor;
 import com.officemanagement.model.OfficeRoom;
 import com.officemanagement.model.Seat;
 import com.officemanagement.model.Employee;
+import com.officemanagement.service.OccupancyIndex;
+import com.officemanagement.util.HibernateUtil;
 import io.restassured.http.ContentType;
 import org.junit.jupiter.api.Test;
 
 import javax.ws.rs.core.Response;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.equalTo;
@@ -120,6 +126,34 @@ public class SeatResourceTest extends BaseResourceTest {
             .post(getApiPath("/seats"))
         .then()
             .statusCode(Response.Status.CONFLICT.getStatusCode());
+
+        // Surrounding spaces do not make a different number, neither on create nor on update
+        seat2.setSeatNumber(" A1 ");
+        given()
+            .contentType(ContentType.JSON)
+            .body(seat2)
+        .when()
+            .post(getApiPath("/seats"))
+        .then()
+            .statusCode(Response.Status.CONFLICT.getStatusCode());
+
+        seat2.setSeatNumber("A2");
+        Integer seat2Id = given()
+            .contentType(ContentType.JSON)
+            .body(seat2)
+        .when()
+            .post(getApiPath("/seats"))
+        .then()
+            .statusCode(Response.Status.CREATED.getStatusCode())
+            .extract().path("id");
+        seat2.setSeatNumber("A1 ");
+        given()
+            .contentType(ContentType.JSON)
+            .body(seat2)
+        .when()
+            .put(getApiPath("/seats/" + seat2Id))
+        .then()
+            .statusCode(Response.Status.CONFLICT.getStatusCode());
     }
 
     @Test
@@ -188,6 +222,38 @@ public class SeatResourceTest extends BaseResourceTest {
             .statusCode(Response.Status.NOT_FOUND.getStatusCode());
     }
 
+    @Test
+    public void testUpdateWithoutCapacityKeepsIt() {
+        OfficeRoom room = createRoom(createFloor(1), "101");
+        Seat seat = createSeat(room, "A1");
+        seat.setCapacity(2);
+        createEmployee("Employee 1").addSeat(seat);
+        createEmployee("Employee 2").addSeat(seat);
+        commitAndStartNewTransaction();
+
+        Map<String, Object> update = new HashMap<>();
+        update.put("seatNumber", "A2");
+        update.put("room", Map.of("id", room.getId()));
+        given()
+            .contentType(ContentType.JSON)
+            .body(update)
+        .when()
+            .put(getApiPath("/seats/" + seat.getId()))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode())
+            .body("capacity", equalTo(2));
+
+        // An explicit capacity still has to cover the employees already there
+        update.put("capacity", 1);
+        given()
+            .contentType(ContentType.JSON)
+            .body(update)
+        .when()
+            .put(getApiPath("/seats/" + seat.getId()))
+        .then()
+            .statusCode(Response.Status.BAD_REQUEST.getStatusCode());
+    }
+
     @Test
     public void testMultipleEmployeesPerSeat() {
         // Create necessary test data
@@ -407,4 +473,79 @@ public class SeatResourceTest extends BaseResourceTest {
         assertEquals(0, verifiedSeat.getEmployees().size());
         assertTrue(verifiedSeat.getEmployees().isEmpty());
     }
-} 
\ No newline at end of file
+
+    @Test
+    public void testBulkDeleteSeats() {
+        Floor floor = new Floor();
+        floor.setName("Test Floor");
+        floor.setFloorNumber(1);
+        floor.setCreatedAt(LocalDateTime.now());
+        session.save(floor);
+
+        OfficeRoom room = new OfficeRoom();
+        room.setName("Test Room");
+        room.setRoomNumber("101");
+        room.setFloor(floor);
+        room.setCreatedAt(LocalDateTime.now());
+        session.save(room);
+
+        List<Long> seatIds = new ArrayList<>();
+        Seat kept = null;
+        for (int i = 0; i < 5; i++) {
+            Seat seat = new Seat();
+            seat.setSeatNumber("B" + i);
+            seat.setRoom(room);
+            seat.setCreatedAt(LocalDateTime.now());
+            session.save(seat);
+            if (i < 4) {
+                seatIds.add(seat.getId());
+            } else {
+                kept = seat;
+            }
+        }
+
+        Employee employee = new Employee();
+        employee.setFullName("Test Employee");
+        employee.setOccupation("Tester");
+        employee.setCreatedAt(LocalDateTime.now());
+        session.save(employee);
+        employee.addSeat(session.get(Seat.class, seatIds.get(0)));
+        employee.addSeat(kept);
+        commitAndStartNewTransaction();
+        OccupancyIndex.getInstance().rebuild(HibernateUtil.getSessionFactory());
+        assertTrue(OccupancyIndex.getInstance().seatsOnFloor(floor.getId()).contains(seatIds.get(0)));
+
+        List<Long> requested = new ArrayList<>(seatIds);
+        requested.add(999999L);
+        Map<String, Object> request = new HashMap<>();
+        request.put("ids", requested);
+
+        given()
+            .contentType(ContentType.JSON)
+            .body(request)
+        .when()
+            .post(getApiPath("/seats/delete"))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode())
+            .body("deleted", equalTo(4))
+            .body("notFoundIds", hasSize(1))
+            .body("notFoundIds[0]", equalTo(999999));
+
+        session.clear();
+        assertEquals(1L, session.createQuery("select count(s) from Seat s", Long.class).uniqueResult());
+        Employee updatedEmployee = session.get(Employee.class, employee.getId());
+        assertEquals(1, updatedEmployee.getSeats().size());
+        assertEquals(kept.getId(), updatedEmployee.getSeats().iterator().next().getId());
+        assertFalse(OccupancyIndex.getInstance().seatsOnFloor(floor.getId()).contains(seatIds.get(0)));
+
+        // An empty list is rejected
+        request.put("ids", new ArrayList<>());
+        given()
+            .contentType(ContentType.JSON)
+            .body(request)
+        .when()
+            .post(getApiPath("/seats/delete"))
+        .then()
+            .statusCode(Response.Status.BAD_REQUEST.getStatusCode());
+    }
+}
@@ -0,0 +1,91 @@
+package com.officemanagement.resource;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.officemanagement.config.SqlLoggingFilter;
+import com.officemanagement.model.Floor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SqlLoggingTest extends BaseResourceTest {
+    private final ListAppender<ILoggingEvent> statements = new ListAppender<>();
+    private final ListAppender<ILoggingEvent> parameters = new ListAppender<>();
+
+    @BeforeEach
+    public void captureSql() {
+        attach("org.hibernate.SQL", statements);
+        attach("org.hibernate.type.descriptor.sql.BasicBinder", parameters);
+        System.setProperty("log.sql.token", "let-me-see");
+    }
+
+    @AfterEach
+    public void releaseSql() {
+        detach("org.hibernate.SQL", statements);
+        detach("org.hibernate.type.descriptor.sql.BasicBinder", parameters);
+        System.clearProperty("log.sql.token");
+        System.clearProperty("log.sql.sampleRate");
+    }
+
+    @Test
+    public void testSqlIsOnlyLoggedForRequestsAskingForIt() {
+        Long floorId = createFloor();
+
+        given().get(getApiPath("/floors/" + floorId)).then().statusCode(200);
+        given().header(SqlLoggingFilter.LOG_SQL, "wrong").get(getApiPath("/floors/" + floorId)).then().statusCode(200);
+        assertTrue(statements.list.isEmpty(), "Logged " + messages(statements));
+
+        given().header(SqlLoggingFilter.LOG_SQL, "let-me-see").get(getApiPath("/floors/" + floorId)).then().statusCode(200);
+        assertTrue(messages(statements).stream().anyMatch(sql -> sql.contains("from floors")),
+            "Logged " + messages(statements));
+        assertTrue(messages(parameters).stream().anyMatch(binding -> binding.endsWith("[" + floorId + "]")),
+            "Logged " + messages(parameters));
+
+        // Back to silence for the next request on the same thread
+        statements.list.clear();
+        given().get(getApiPath("/floors/" + floorId)).then().statusCode(200);
+        assertTrue(statements.list.isEmpty(), "Logged " + messages(statements));
+    }
+
+    @Test
+    public void testSampledRequestsAreLogged() {
+        Long floorId = createFloor();
+        System.setProperty("log.sql.sampleRate", "1");
+
+        given().get(getApiPath("/floors/" + floorId)).then().statusCode(200);
+        assertFalse(statements.list.isEmpty());
+    }
+
+    private Long createFloor() {
+        Floor floor = new Floor();
+        floor.setName("Logged Floor");
+        floor.setFloorNumber(1);
+        floor.setCreatedAt(LocalDateTime.now());
+        session.save(floor);
+        commitAndStartNewTransaction();
+        return floor.getId();
+    }
+
+    private static void attach(String name, ListAppender<ILoggingEvent> appender) {
+        appender.start();
+        ((Logger) LoggerFactory.getLogger(name)).addAppender(appender);
+    }
+
+    private static void detach(String name, ListAppender<ILoggingEvent> appender) {
+        ((Logger) LoggerFactory.getLogger(name)).detachAppender(appender);
+        appender.stop();
+    }
+
+    private static List<String> messages(ListAppender<ILoggingEvent> appender) {
+        return appender.list.stream().map(ILoggingEvent::getFormattedMessage).collect(Collectors.toList());
+    }
+}
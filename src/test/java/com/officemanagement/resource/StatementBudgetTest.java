@@ -0,0 +1,73 @@
+package com.officemanagement.resource;
+
+import com.officemanagement.model.Employee;
+import com.officemanagement.model.Floor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.core.Response;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+
+public class StatementBudgetTest extends BaseResourceTest {
+
+    @AfterEach
+    public void clearBudget() {
+        System.clearProperty("query.budget.maxStatements");
+        System.clearProperty("query.budget.failOnExceed");
+    }
+
+    @Test
+    public void testServerTimingReportsStatements() {
+        Floor floor = createFloor(2, 3);
+        commitAndStartNewTransaction();
+
+        given()
+        .when()
+            .get(getApiPath("/floors/" + floor.getId()))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode())
+            .header("Server-Timing", matchesPattern("db;dur=\\d+\\.\\d{3};desc=\"\\d+ statements\""));
+    }
+
+    @Test
+    public void testStatementsPerEndpoint() {
+        Floor floor = createFloor(3, 4);
+        commitAndStartNewTransaction();
+
+        // The floor graph in one query however many rooms and seats, plus the planimetry
+        given().get(getApiPath("/floors/" + floor.getId())).then().statusCode(200);
+        statements.assertStatements("GET", "/floors/" + floor.getId(), 2);
+        statements.assertNoRepeatedStatements("GET", "/floors/" + floor.getId());
+
+        // Rooms of a single floor, so a single planimetry
+        given().get(getApiPath("/rooms")).then().statusCode(200);
+        statements.assertStatements("GET", "/rooms", 2);
+
+        // The page and its total count
+        given().queryParam("search", "Employee").get(getApiPath("/employees/search")).then().statusCode(200);
+        statements.assertStatements("GET", "/employees/search", 2);
+    }
+
+    @Test
+    public void testExceededBudgetFailsWhenAsked() {
+        Floor floor = createFloor(1, 1);
+        commitAndStartNewTransaction();
+
+        System.setProperty("query.budget.maxStatements", "0");
+        given()
+        .when()
+            .get(getApiPath("/floors/" + floor.getId()))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode());
+
+        System.setProperty("query.budget.failOnExceed", "true");
+        given()
+        .when()
+            .get(getApiPath("/floors/" + floor.getId()))
+        .then()
+            .statusCode(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode())
+            .body(startsWith("Statement budget exceeded"));
+    }
+}
@@ -0,0 +1,59 @@
+package com.officemanagement.resource;
+
+import com.officemanagement.util.RequestStatements;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Records the JDBC statements of every request a test sends, so that it can assert how
+ * many queries an endpoint runs and catch N+1 regressions.
+ */
+public class StatementCountExtension implements BeforeEachCallback, AfterEachCallback {
+    private final List<RequestStatements> requests = new CopyOnWriteArrayList<>();
+    private final Consumer<RequestStatements> listener = requests::add;
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        requests.clear();
+        RequestStatements.addListener(listener);
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        RequestStatements.removeListener(listener);
+    }
+
+    /**
+     * The statements of the last request with this method and path, for example
+     * {@code last("GET", "/floors/1")}.
+     */
+    public RequestStatements last(String method, String path) {
+        for (int i = requests.size() - 1; i >= 0; i--) {
+            RequestStatements request = requests.get(i);
+            if (request.getMethod().equals(method) && request.getPath().equals(path)) {
+                return request;
+            }
+        }
+        return fail("No " + method + " " + path + " request was recorded");
+    }
+
+    public void assertStatements(String method, String path, int expected) {
+        RequestStatements request = last(method, path);
+        assertEquals(expected, request.getStatements(),
+            method + " " + path + " ran " + request.getStatements() + " statements, repeated: "
+                + request.repeated(2));
+    }
+
+    public void assertNoRepeatedStatements(String method, String path) {
+        Map<String, Integer> repeated = last(method, path).repeated(2);
+        assertTrue(repeated.isEmpty(), method + " " + path + " repeated statements: " + repeated);
+    }
+}
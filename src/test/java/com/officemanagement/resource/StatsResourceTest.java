@@ -4,16 +4,31 @@ import com.officemanagement.model.Employee;
 import com.officemanagement.model.Floor;
 import com.officemanagement.model.OfficeRoom;
 import com.officemanagement.model.Seat;
+import com.officemanagement.service.OccupancyReport;
+import com.officemanagement.service.StatsCounters;
 import io.restassured.http.ContentType;
+import org.hibernate.Session;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import javax.ws.rs.core.Response;
+import javax.ws.rs.sse.InboundSseEvent;
+import javax.ws.rs.sse.SseEventSource;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class StatsResourceTest extends BaseResourceTest {
 
@@ -47,6 +62,221 @@ public class StatsResourceTest extends BaseResourceTest {
             .body("totalSeats", is(2));
     }
 
+    @Test
+    public void testStatsFollowWritesWithoutQueries() {
+        Long seatId = session.createQuery("select s.id from Seat s where s.seatNumber = 'A1'", Long.class)
+            .uniqueResult();
+        given()
+        .when()
+            .delete(getApiPath("/seats/" + seatId))
+        .then()
+            .statusCode(Response.Status.NO_CONTENT.getStatusCode());
+        createTestEmployee("Test Employee 3", "Tester");
+
+        long statements = sessionFactory.getStatistics().getPrepareStatementCount();
+        given()
+        .when()
+            .get(getApiPath("/stats"))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode())
+            .body("totalEmployees", is(3))
+            .body("totalSeats", is(1));
+        assertEquals(statements, sessionFactory.getStatistics().getPrepareStatementCount(),
+            "The stats should be answered from memory");
+    }
+
+    @Test
+    public void testReconcileFixesDrift() {
+        // Written behind the application's back
+        Employee employee = new Employee();
+        employee.setFullName("Imported Employee");
+        employee.setOccupation("Developer");
+        employee.setCreatedAt(LocalDateTime.now());
+        session.save(employee);
+        commitAndStartNewTransaction();
+
+        given()
+        .when()
+            .get(getApiPath("/stats"))
+        .then()
+            .body("totalEmployees", is(2));
+
+        assertTrue(StatsCounters.getInstance().reconcile(sessionFactory));
+        given()
+        .when()
+            .get(getApiPath("/stats"))
+        .then()
+            .body("totalEmployees", is(3))
+            .body("totalFloors", is(1))
+            .body("totalOffices", is(1))
+            .body("totalSeats", is(2));
+    }
+
+    @Test
+    public void testSessionClosedMidTransactionDoesNotBlockReconcile() {
+        StatsCounters.getInstance().reconcile(sessionFactory);
+        try (Session abandoned = sessionFactory.openSession()) {
+            abandoned.beginTransaction();
+            StatsCounters.getInstance().addAfterCommit(abandoned, StatsCounters.Counter.FLOORS, 1);
+            assertFalse(StatsCounters.getInstance().reconcile(sessionFactory));
+            // Closed with the transaction still open, as after an exception
+        }
+        assertTrue(StatsCounters.getInstance().reconcile(sessionFactory));
+    }
+
+    @Test
+    public void testStatsStreamPushesWrites() throws Exception {
+        BlockingQueue<InboundSseEvent> events = new LinkedBlockingQueue<>();
+        try (SseEventSource eventSource = SseEventSource
+                .target(target("stats/stream"))
+                .build()) {
+            eventSource.register(events::add);
+            eventSource.open();
+
+            InboundSseEvent initial = events.poll(5, TimeUnit.SECONDS);
+            assertNotNull(initial, "Subscriber should receive the current stats");
+            assertEquals("stats", initial.getName());
+            assertTrue(initial.readData().contains("\"totalEmployees\":2"));
+
+            createTestEmployee("Test Employee 3", "Tester");
+
+            boolean pushed = false;
+            long deadline = System.currentTimeMillis() + 5000;
+            while (!pushed && System.currentTimeMillis() < deadline) {
+                InboundSseEvent event = events.poll(100, TimeUnit.MILLISECONDS);
+                pushed = event != null && event.readData().contains("\"totalEmployees\":3");
+            }
+            assertTrue(pushed, "The new employee should be pushed to the subscriber");
+        }
+    }
+
+    @Test
+    public void testOccupancyPerFloorAndRoom() {
+        // One employee on both seats of the room
+        Employee employee = session.createQuery("from Employee e where e.fullName = 'Test Employee 1'", Employee.class)
+            .uniqueResult();
+        for (Seat seat : session.createQuery("from Seat s", Seat.class).list()) {
+            employee.addSeat(seat);
+        }
+        commitAndStartNewTransaction();
+        Long floorId = session.createQuery("select f.id from Floor f", Long.class).uniqueResult();
+
+        given()
+        .when()
+            .get(getApiPath("/stats/occupancy"))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode())
+            .body("seats", is(2))
+            .body("occupiedSeats", is(2))
+            .body("employeesWithMultipleSeats", is(1))
+            .body("freeRatio", is(0.0f))
+            .body("floors", hasSize(1))
+            .body("floors[0].rooms", hasSize(1))
+            .body("floors[0].rooms[0].employeesWithMultipleSeats", is(1));
+
+        given()
+            .queryParam("floorId", floorId)
+        .when()
+            .get(getApiPath("/stats/occupancy"))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode())
+            .body("floorId", is(floorId.intValue()))
+            .body("floors[0].floorId", is(floorId.intValue()))
+            .body("floors[0].seats", is(2))
+            .body("floors[0].occupiedSeats", is(2));
+
+        given()
+            .queryParam("floorId", floorId + 1000)
+        .when()
+            .get(getApiPath("/stats/occupancy"))
+        .then()
+            .statusCode(Response.Status.NOT_FOUND.getStatusCode());
+    }
+
+    @Test
+    public void testOccupancyListsFloorsAndRoomsWithoutSeats() {
+        Floor emptyFloor = new Floor();
+        emptyFloor.setName("Empty Floor");
+        emptyFloor.setFloorNumber(9);
+        emptyFloor.setCreatedAt(LocalDateTime.now());
+        session.save(emptyFloor);
+        OfficeRoom emptyRoom = new OfficeRoom();
+        emptyRoom.setName("Empty Room");
+        emptyRoom.setRoomNumber("901");
+        emptyRoom.setFloor(emptyFloor);
+        emptyRoom.setCreatedAt(LocalDateTime.now());
+        session.save(emptyRoom);
+        Floor bareFloor = new Floor();
+        bareFloor.setName("Bare Floor");
+        bareFloor.setFloorNumber(10);
+        bareFloor.setCreatedAt(LocalDateTime.now());
+        session.save(bareFloor);
+        commitAndStartNewTransaction();
+
+        given()
+        .when()
+            .get(getApiPath("/stats/occupancy"))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode())
+            .body("seats", is(2))
+            .body("floors", hasSize(3));
+
+        given()
+            .queryParam("floorId", emptyFloor.getId())
+        .when()
+            .get(getApiPath("/stats/occupancy"))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode())
+            .body("seats", is(0))
+            .body("floors[0].floorId", is(emptyFloor.getId().intValue()))
+            .body("floors[0].rooms", hasSize(1))
+            .body("floors[0].rooms[0].roomId", is(emptyRoom.getId().intValue()))
+            .body("floors[0].rooms[0].seats", is(0))
+            .body("floors[0].rooms[0].freeRatio", is(0.0f));
+
+        given()
+            .queryParam("floorId", bareFloor.getId())
+        .when()
+            .get(getApiPath("/stats/occupancy"))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode())
+            .body("floors", hasSize(1))
+            .body("floors[0].seats", is(0))
+            .body("floors[0].rooms", hasSize(0));
+    }
+
+    @Test
+    public void testOccupancyIsComputedOncePerTtl() throws Exception {
+        int callers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        CountDownLatch start = new CountDownLatch(1);
+        long statements = sessionFactory.getStatistics().getPrepareStatementCount();
+        try {
+            List<Future<OccupancyReport.Report>> reports = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                reports.add(executor.submit(() -> {
+                    start.await();
+                    return OccupancyReport.getInstance().get(sessionFactory, null);
+                }));
+            }
+            start.countDown();
+            for (Future<OccupancyReport.Report> report : reports) {
+                assertEquals(2, report.get().getSeats());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        given()
+        .when()
+            .get(getApiPath("/stats/occupancy"))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode())
+            .body("seats", is(2));
+
+        assertEquals(statements + 1, sessionFactory.getStatistics().getPrepareStatementCount(),
+            "Concurrent and repeated calls should share one aggregation query");
+    }
+
     private void createTestEmployee(String fullName, String occupation) {
         Employee employee = new Employee();
         employee.setFullName(fullName);
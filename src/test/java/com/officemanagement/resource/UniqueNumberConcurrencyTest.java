@@ -0,0 +1,147 @@
+package com.officemanagement.resource;
+
+import com.officemanagement.model.Floor;
+import com.officemanagement.model.OfficeRoom;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.core.Response;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Creates the same floor, room and seat number from many threads at once and checks that
+ * the database lets exactly one of them through.
+ */
+public class UniqueNumberConcurrencyTest extends BaseResourceTest {
+    private static final int THREADS = 16;
+
+    @Test
+    public void testConcurrentFloorCreationKeepsNumbersUnique() throws Exception {
+        Map<String, Object> floor = new HashMap<>();
+        floor.put("name", "Contested Floor");
+        floor.put("floorNumber", 7);
+
+        List<Integer> statuses = postConcurrently("/floors", floor);
+
+        assertEquals(1, countStatus(statuses, Response.Status.CREATED));
+        assertEquals(THREADS - 1, countStatus(statuses, Response.Status.CONFLICT));
+        assertEquals(1L, count("select count(*) from floors where floor_number = 7"));
+    }
+
+    @Test
+    public void testConcurrentRoomCreationKeepsNumbersUnique() throws Exception {
+        Floor floor = createFloor(1);
+        commitAndStartNewTransaction();
+
+        Map<String, Object> room = new HashMap<>();
+        room.put("name", "Contested Room");
+        room.put("roomNumber", "R-1");
+        room.put("floor", reference(floor.getId()));
+
+        List<Integer> statuses = postConcurrently("/rooms", room);
+
+        assertEquals(1, countStatus(statuses, Response.Status.CREATED));
+        assertEquals(THREADS - 1, countStatus(statuses, Response.Status.CONFLICT));
+        assertEquals(1L, count("select count(*) from office_rooms where room_number = 'R-1'"));
+    }
+
+    @Test
+    public void testConcurrentSeatCreationKeepsNumbersUnique() throws Exception {
+        OfficeRoom room = createRoom(createFloor(1), "R-1");
+        commitAndStartNewTransaction();
+
+        Map<String, Object> seat = new HashMap<>();
+        seat.put("seatNumber", "S-1");
+        seat.put("room", reference(room.getId()));
+
+        List<Integer> statuses = postConcurrently("/seats", seat);
+
+        assertEquals(1, countStatus(statuses, Response.Status.CREATED));
+        assertEquals(THREADS - 1, countStatus(statuses, Response.Status.CONFLICT));
+        assertEquals(1L, count("select count(*) from seats where seat_number = 'S-1'"));
+    }
+
+    @Test
+    public void testConcurrentRenamesToTheSameFloorNumber() throws Exception {
+        List<Floor> floors = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            floors.add(createFloor(100 + i));
+        }
+        commitAndStartNewTransaction();
+
+        List<Callable<Integer>> requests = new ArrayList<>();
+        for (Floor floor : floors) {
+            Map<String, Object> body = new HashMap<>();
+            body.put("name", floor.getName());
+            body.put("floorNumber", 42);
+            String path = "/floors/" + floor.getId();
+            requests.add(() -> given().contentType(ContentType.JSON).body(body)
+                .when().put(getApiPath(path)).then().extract().statusCode());
+        }
+
+        List<Integer> statuses = runConcurrently(requests);
+
+        assertEquals(1, countStatus(statuses, Response.Status.OK));
+        assertEquals(THREADS - 1, countStatus(statuses, Response.Status.CONFLICT));
+        assertEquals(1L, count("select count(*) from floors where floor_number = 42"));
+    }
+
+    private List<Integer> postConcurrently(String path, Map<String, Object> body) throws Exception {
+        List<Callable<Integer>> requests = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            requests.add(() -> given().contentType(ContentType.JSON).body(body)
+                .when().post(getApiPath(path)).then().extract().statusCode());
+        }
+        return runConcurrently(requests);
+    }
+
+    private List<Integer> runConcurrently(List<Callable<Integer>> requests) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startGate = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (Callable<Integer> request : requests) {
+                futures.add(executor.submit(() -> {
+                    startGate.await();
+                    return request.call();
+                }));
+            }
+            startGate.countDown();
+
+            List<Integer> statuses = new ArrayList<>();
+            for (Future<Integer> future : futures) {
+                statuses.add(future.get(60, TimeUnit.SECONDS));
+            }
+            return statuses;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long countStatus(List<Integer> statuses, Response.Status status) {
+        return statuses.stream().filter(code -> code == status.getStatusCode()).count();
+    }
+
+    private long count(String sql) {
+        session.clear();
+        return ((Number) session.createNativeQuery(sql).getSingleResult()).longValue();
+    }
+
+    private Map<String, Object> reference(Long id) {
+        Map<String, Object> reference = new HashMap<>();
+        reference.put("id", id);
+        return reference;
+    }
+}
@@ -0,0 +1,204 @@
+package com.officemanagement.service;
+
+import com.officemanagement.model.Employee;
+import com.officemanagement.model.Floor;
+import com.officemanagement.model.OccupancySample;
+import com.officemanagement.model.OccupancySample.Resolution;
+import com.officemanagement.model.OfficeRoom;
+import com.officemanagement.model.Seat;
+import com.officemanagement.resource.BaseResourceTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.core.Response;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Samples two hours of occupancy with a fake clock and checks the rollups, the retention
+ * and the choice of resolution of the history endpoint.
+ */
+public class OccupancyHistoryTest extends BaseResourceTest {
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 4, 9, 0, 15);
+
+    private final OccupancyHistory history = OccupancyHistory.getInstance();
+    private Floor floor;
+    private OfficeRoom room;
+    private Employee employee;
+    private Seat seat;
+
+    @BeforeEach
+    public void createFloor() {
+        floor = new Floor();
+        floor.setName("History Floor");
+        floor.setFloorNumber(1);
+        floor.setCreatedAt(LocalDateTime.now());
+        session.save(floor);
+
+        room = new OfficeRoom();
+        room.setName("History Room");
+        room.setRoomNumber("H1");
+        room.setFloor(floor);
+        room.setCreatedAt(LocalDateTime.now());
+        session.save(room);
+
+        for (String number : new String[] {"H1-1", "H1-2"}) {
+            Seat created = new Seat();
+            created.setSeatNumber(number);
+            created.setRoom(room);
+            created.setCreatedAt(LocalDateTime.now());
+            session.save(created);
+            seat = created;
+        }
+
+        employee = new Employee();
+        employee.setFullName("History Tester");
+        employee.setOccupation("Tester");
+        employee.setCreatedAt(LocalDateTime.now());
+        session.save(employee);
+        commitAndStartNewTransaction();
+    }
+
+    @Test
+    public void testMinutesAreRolledUpIntoHoursAndDays() {
+        // One seat taken from 9 to 10, none from 10 to 11
+        assign(true);
+        sampleMinutes(START, 60);
+        assign(false);
+        sampleMinutes(START.plusHours(1), 60);
+
+        // Hour rows for 9 and 10 for the office, the floor and the room
+        assertEquals(6, history.rollup(sessionFactory, START.plusHours(2)));
+        assertEquals(0, history.rollup(sessionFactory, START.plusHours(2)), "Rolling up twice adds nothing");
+
+        List<OccupancySample> hours = history.query(sessionFactory, floor.getId(), room.getId(),
+            START.minusHours(1), START.plusHours(3), Resolution.HOUR);
+        assertEquals(2, hours.size());
+        assertEquals(LocalDateTime.of(2024, 3, 4, 9, 0), hours.get(0).getBucketStart());
+        assertEquals(60, hours.get(0).getSamples());
+        assertEquals(2, hours.get(0).getSeats());
+        assertEquals(1.0, hours.get(0).getOccupiedAvg(), 1e-9);
+        assertEquals(0.0, hours.get(1).getOccupiedAvg(), 1e-9);
+
+        // The day is complete at midnight
+        assertEquals(3, history.rollup(sessionFactory, LocalDateTime.of(2024, 3, 5, 0, 5)));
+        List<OccupancySample> days = history.query(sessionFactory, null, null,
+            START.minusDays(1), START.plusDays(1), Resolution.DAY);
+        assertEquals(1, days.size());
+        assertEquals(120, days.get(0).getSamples());
+        assertEquals(0.5, days.get(0).getOccupiedAvg(), 1e-9);
+        assertEquals(0, days.get(0).getOccupiedMin());
+        assertEquals(1, days.get(0).getOccupiedMax());
+    }
+
+    @Test
+    public void testRetentionOnlyDropsSummarizedRows() {
+        assign(true);
+        sampleMinutes(START, 10);
+        // A second sample within the same minute writes nothing
+        history.sample(sessionFactory, START.plusMinutes(9).plusSeconds(30));
+        LocalDateTime muchLater = START.plusDays(30);
+
+        // Nothing summarizes the minutes yet
+        assertEquals(0, history.purge(sessionFactory, muchLater));
+
+        history.rollup(sessionFactory, muchLater);
+        assertEquals(30, history.purge(sessionFactory, muchLater));
+        assertTrue(history.query(sessionFactory, floor.getId(), null,
+            START.minusDays(1), muchLater, Resolution.MINUTE).isEmpty());
+        assertEquals(1, history.query(sessionFactory, floor.getId(), null,
+            START.minusDays(1), muchLater, Resolution.HOUR).size());
+        assertEquals(1, history.query(sessionFactory, floor.getId(), null,
+            START.minusDays(1), muchLater, Resolution.DAY).size());
+    }
+
+    @Test
+    public void testHistoryEndpointPicksResolution() {
+        // Recent enough for every resolution to be retained
+        LocalDateTime start = LocalDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.HOURS).minusHours(3);
+        assign(true);
+        sampleMinutes(start.plusSeconds(15), 90);
+        history.rollup(sessionFactory, start.plusHours(2));
+
+        given()
+            .queryParam("floorId", floor.getId())
+            .queryParam("from", start.toString())
+            .queryParam("to", start.plusHours(1).toString())
+        .when()
+            .get(getApiPath("/stats/history"))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode())
+            .body("floorId", is(floor.getId().intValue()))
+            .body("resolution", is("minute"))
+            .body("points", hasSize(60))
+            .body("points[0].seats", is(2))
+            .body("points[0].occupiedAvg", is(1.0f))
+            .body("points[0].freeRatio", is(0.5f));
+
+        // The same hour given in another offset
+        given()
+            .queryParam("floorId", floor.getId())
+            .queryParam("from", start.atOffset(ZoneOffset.UTC).withOffsetSameInstant(ZoneOffset.ofHours(2)).toString())
+            .queryParam("to", start.plusHours(1).toString())
+        .when()
+            .get(getApiPath("/stats/history"))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode())
+            .body("points", hasSize(60));
+
+        // Too many minutes for a week, hours instead
+        given()
+            .queryParam("floorId", floor.getId())
+            .queryParam("roomId", room.getId())
+            .queryParam("from", start.minusDays(3).toString())
+            .queryParam("to", start.plusDays(4).toString())
+        .when()
+            .get(getApiPath("/stats/history"))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode())
+            .body("resolution", is("hour"))
+            .body("points", hasSize(2))
+            .body("points.samples", contains(60, 30));
+
+        // Past the retention of minutes and hours
+        given()
+            .queryParam("from", start.minusYears(1).toString())
+            .queryParam("to", start.minusYears(1).plusHours(1).toString())
+        .when()
+            .get(getApiPath("/stats/history"))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode())
+            .body("resolution", is("day"))
+            .body("points", hasSize(0));
+
+        given()
+            .queryParam("resolution", "century")
+        .when()
+            .get(getApiPath("/stats/history"))
+        .then()
+            .statusCode(Response.Status.BAD_REQUEST.getStatusCode());
+    }
+
+    private void assign(boolean assigned) {
+        Employee managed = session.get(Employee.class, employee.getId());
+        Seat managedSeat = session.get(Seat.class, seat.getId());
+        if (assigned) {
+            managed.addSeat(managedSeat);
+        } else {
+            managed.removeSeat(managedSeat);
+        }
+        commitAndStartNewTransaction();
+    }
+
+    private void sampleMinutes(LocalDateTime from, int minutes) {
+        for (int i = 0; i < minutes; i++) {
+            history.sample(sessionFactory, from.plusMinutes(i));
+        }
+    }
+}
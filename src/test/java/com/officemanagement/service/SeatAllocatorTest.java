@@ -0,0 +1,104 @@
+package com.officemanagement.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeatAllocatorTest {
+
+    @Test
+    void testGroupsAreKeptInOneRoomWhenTheyFit() {
+        // Three rooms of 6 seats side by side, two teams of 5 and one of 4
+        List<SeatAllocator.Slot> slots = new ArrayList<>();
+        long seatId = 1;
+        for (long room = 1; room <= 3; room++) {
+            for (int i = 0; i < 6; i++) {
+                slots.add(new SeatAllocator.Slot(seatId++, room, room * 1000 + (i % 3) * 100, (i / 3) * 100));
+            }
+        }
+        List<SeatAllocator.Member> members = new ArrayList<>();
+        long employeeId = 1;
+        for (String team : new String[] {"Engineer", "Designer", "Sales"}) {
+            int size = team.equals("Sales") ? 4 : 5;
+            for (int i = 0; i < size; i++) {
+                members.add(new SeatAllocator.Member(employeeId++, team));
+            }
+        }
+
+        SeatAllocator.Plan plan = new SeatAllocator(2).allocate(members, slots, 50, 42);
+
+        assertEquals(14, plan.getAssignments().size());
+        assertTrue(plan.getUnassignedEmployeeIds().isEmpty());
+        assertDistinctSeats(plan);
+        Map<String, Set<Long>> roomsByGroup = new HashMap<>();
+        for (SeatAllocator.Assignment assignment : plan.getAssignments()) {
+            roomsByGroup.computeIfAbsent(assignment.getGroup(), key -> new HashSet<>()).add(assignment.getRoomId());
+        }
+        roomsByGroup.forEach((group, rooms) -> assertEquals(1, rooms.size(), group + " should sit in one room"));
+        assertTrue(plan.getCost() <= plan.getInitialCost() + 1e-6);
+    }
+
+    @Test
+    void testOnlyOneGroupIsSplitWhenRoomsAreTooSmall() {
+        // Rooms of 5 and 3 seats far apart, two teams of 4: one team cannot sit together
+        List<SeatAllocator.Slot> slots = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            slots.add(new SeatAllocator.Slot(i + 1, 1, i * 100, 0));
+        }
+        for (int i = 0; i < 3; i++) {
+            slots.add(new SeatAllocator.Slot(i + 10, 2, 5000 + i * 100, 0));
+        }
+        List<SeatAllocator.Member> members = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            members.add(new SeatAllocator.Member(i + 1, "A"));
+            members.add(new SeatAllocator.Member(i + 100, "B"));
+        }
+
+        SeatAllocator.Plan plan = new SeatAllocator(4).allocate(members, slots, 200, 7);
+
+        assertEquals(8, plan.getAssignments().size());
+        assertDistinctSeats(plan);
+        // One team has to be split, but never both
+        long splitGroups = plan.getAssignments().stream()
+            .collect(Collectors.groupingBy(SeatAllocator.Assignment::getGroup,
+                Collectors.mapping(SeatAllocator.Assignment::getRoomId, Collectors.toSet())))
+            .values().stream().filter(rooms -> rooms.size() > 1).count();
+        assertEquals(1, splitGroups);
+        assertTrue(plan.getIterations() > 0);
+        assertTrue(plan.getCost() <= plan.getInitialCost() + 1e-6);
+    }
+
+    @Test
+    void testMoreEmployeesThanSeats() {
+        List<SeatAllocator.Slot> slots = new ArrayList<>();
+        slots.add(new SeatAllocator.Slot(1, 1, 0, 0));
+        slots.add(new SeatAllocator.Slot(2, 1, 100, 0));
+        List<SeatAllocator.Member> members = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            members.add(new SeatAllocator.Member(i, "Engineer"));
+        }
+
+        SeatAllocator.Plan plan = new SeatAllocator(1).allocate(members, slots, 10, 1);
+
+        assertEquals(2, plan.getAssignments().size());
+        assertEquals(3, plan.getUnassignedEmployeeIds().size());
+        assertDistinctSeats(plan);
+    }
+
+    private void assertDistinctSeats(SeatAllocator.Plan plan) {
+        Set<Long> seats = new HashSet<>();
+        Set<Long> employees = new HashSet<>();
+        for (SeatAllocator.Assignment assignment : plan.getAssignments()) {
+            assertTrue(seats.add(assignment.getSeatId()), "Seat " + assignment.getSeatId() + " used twice");
+            assertTrue(employees.add(assignment.getEmployeeId()), "Employee " + assignment.getEmployeeId() + " seated twice");
+        }
+    }
+}
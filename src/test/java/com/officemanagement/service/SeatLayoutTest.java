@@ -0,0 +1,69 @@
+package com.officemanagement.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeatLayoutTest {
+
+    @Test
+    void testGridIsCenteredInTheRoom() {
+        // Two rows of three 100x50 seats, 20 apart: 340 x 120
+        SeatLayout layout = new SeatLayout(2, 3, 100, 50, 20, 20, 0, 0, 0);
+
+        List<SeatLayout.Placement> seats = layout.place(0, 0, 540, 320, SeatLayout.Numbering.ROW_MAJOR, "R-", 1);
+
+        assertEquals(6, seats.size());
+        assertEquals(100f, seats.get(0).getX(), 1e-3);
+        assertEquals(100f, seats.get(0).getY(), 1e-3);
+        assertEquals(340f, seats.get(2).getX(), 1e-3);
+        assertEquals(170f, seats.get(3).getY(), 1e-3);
+        assertEquals("R-01", seats.get(0).getSeatNumber());
+        assertEquals("R-06", seats.get(5).getSeatNumber());
+    }
+
+    @Test
+    void testNumberingSchemes() {
+        SeatLayout layout = new SeatLayout(2, 3, 10, 10, 0, 0, 0, 0, 0);
+
+        assertEquals(List.of("01", "02", "03", "04", "05", "06"), numbers(layout, SeatLayout.Numbering.ROW_MAJOR, 1));
+        assertEquals(List.of("10", "11", "12", "13", "14", "15"), numbers(layout, SeatLayout.Numbering.ROW_MAJOR, 10));
+        assertEquals(List.of(0, 1, 2, 5, 4, 3), cells(layout, SeatLayout.Numbering.SERPENTINE));
+        assertEquals(List.of(0, 3, 1, 4, 2, 5), cells(layout, SeatLayout.Numbering.COLUMN_MAJOR));
+        assertEquals(List.of("A01", "A02", "A03", "B01", "B02", "B03"), numbers(layout, SeatLayout.Numbering.ROW_LETTER, 1));
+        assertEquals("AA", SeatLayout.rowLetters(26));
+    }
+
+    @Test
+    void testAislesAndRotationMustFitTheRoom() {
+        // Four columns with an aisle in the middle: 4 * 100 + 200 = 600 wide
+        SeatLayout layout = new SeatLayout(1, 4, 100, 100, 0, 0, 2, 200, 0);
+        assertEquals(600, layout.getGridWidth(), 1e-9);
+        List<SeatLayout.Placement> seats = layout.place(0, 0, 600, 100, SeatLayout.Numbering.ROW_MAJOR, "", 1);
+        assertEquals(400f, seats.get(2).getX(), 1e-3);
+
+        // Turned by 90 degrees the same row needs a tall room
+        SeatLayout rotated = new SeatLayout(1, 4, 100, 100, 0, 0, 2, 200, 90);
+        assertNull(rotated.place(0, 0, 600, 100, SeatLayout.Numbering.ROW_MAJOR, "", 1));
+        List<SeatLayout.Placement> column = rotated.place(0, 0, 100, 600, SeatLayout.Numbering.ROW_MAJOR, "", 1);
+        assertNotNull(column);
+        assertEquals(0f, column.get(0).getX(), 1e-3);
+        assertEquals(90f, column.get(0).getRotation(), 1e-3);
+    }
+
+    private List<String> numbers(SeatLayout layout, SeatLayout.Numbering numbering, int start) {
+        return layout.place(0, 0, 1000, 1000, numbering, "", start).stream()
+            .map(SeatLayout.Placement::getSeatNumber)
+            .collect(Collectors.toList());
+    }
+
+    // Grid cells (row * 3 + column) in numbering order
+    private List<Integer> cells(SeatLayout layout, SeatLayout.Numbering numbering) {
+        return layout.place(0, 0, 1000, 1000, numbering, "", 1).stream()
+            .map(seat -> seat.getRow() * 3 + seat.getColumn())
+            .collect(Collectors.toList());
+    }
+}
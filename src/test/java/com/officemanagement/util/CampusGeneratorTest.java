@@ -0,0 +1,177 @@
+package com.officemanagement.util;
+
+import com.officemanagement.model.Floor;
+import com.officemanagement.resource.BaseResourceTest;
+import io.restassured.http.ContentType;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.core.Response;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CampusGeneratorTest extends BaseResourceTest {
+
+    @Test
+    public void testGeneratesRequestedVolumes() throws Exception {
+        CampusGenerator.Summary summary = load(small(7));
+
+        assertEquals(3, summary.getFloors());
+        assertEquals(3, count("select count(*) from floors"));
+        assertEquals(18, count("select count(*) from office_rooms"));
+        assertEquals(180, count("select count(*) from seats"));
+        assertEquals(150, count("select count(*) from employees"));
+        assertEquals(120, count("select count(*) from employee_seat_assignments"));
+        assertEquals(120, count("select count(distinct seat_id) from employee_seat_assignments"));
+
+        given()
+        .when()
+            .get(getApiPath("/floors"))
+        .then()
+            .statusCode(Response.Status.OK.getStatusCode())
+            .body("$", hasSize(3));
+
+        // The sequences were moved past the generated rows
+        Floor floor = new Floor();
+        floor.setName("Added Floor");
+        floor.setFloorNumber(100);
+        floor.setCreatedAt(LocalDateTime.now());
+        given()
+            .contentType(ContentType.JSON)
+            .body(floor)
+        .when()
+            .post(getApiPath("/floors"))
+        .then()
+            .statusCode(Response.Status.CREATED.getStatusCode())
+            .body("id", equalTo((int) (summary.getFirstFloorId() + 3)));
+    }
+
+    @Test
+    public void testSameSeedGivesSameCampus() throws Exception {
+        CampusGenerator.Summary first = load(small(7));
+        CampusGenerator.Summary second = load(small(7));
+        CampusGenerator.Summary other = load(small(8));
+
+        assertEquals(rows(first), rows(second));
+        assertNotEquals(rows(first), rows(other));
+    }
+
+    @Test
+    public void testRoomsAndSeatsDoNotOverlap() throws Exception {
+        load(small(11));
+
+        List<double[]> rooms = rectangles("select x, y, width, height, floor_id from office_rooms");
+        assertNoOverlap(rooms);
+        List<double[]> seats = rectangles("select s.x, s.y, s.width, s.height, s.room_id from seats s");
+        assertNoOverlap(seats);
+
+        // Every seat lies inside its room
+        assertEquals(0, count("select count(*) from seats s join office_rooms r on r.id = s.room_id " +
+            "where s.x < r.x or s.y < r.y or s.x + s.width > r.x + r.width or s.y + s.height > r.y + r.height"));
+    }
+
+    private static CampusGenerator small(long seed) {
+        return new CampusGenerator()
+            .seed(seed)
+            .floors(3)
+            .roomsPerFloor(6)
+            .seatsPerRoom(10)
+            .employees(150)
+            .assignedRatio(0.8)
+            .batchSize(40);
+    }
+
+    private CampusGenerator.Summary load(CampusGenerator generator) throws SQLException {
+        ConnectionProvider provider = ((SessionFactoryImplementor) sessionFactory).getServiceRegistry()
+            .getService(ConnectionProvider.class);
+        Connection connection = provider.getConnection();
+        try {
+            return generator.load(connection);
+        } finally {
+            provider.closeConnection(connection);
+        }
+    }
+
+    /**
+     * The generated rows with their ids made relative to the first ids of the load.
+     */
+    private List<String> rows(CampusGenerator.Summary summary) throws SQLException {
+        List<String> rows = new ArrayList<>();
+        rows.addAll(query("select id - " + summary.getFirstRoomId() + ", x, y, width, height " +
+            "from office_rooms where id >= " + summary.getFirstRoomId() + " and id < " +
+            (summary.getFirstRoomId() + summary.getRooms()) + " order by id"));
+        rows.addAll(query("select id - " + summary.getFirstSeatId() + ", seat_number, x, y, rotation " +
+            "from seats where id >= " + summary.getFirstSeatId() + " and id < " +
+            (summary.getFirstSeatId() + summary.getSeats()) + " order by id"));
+        rows.addAll(query("select id - " + summary.getFirstEmployeeId() + ", full_name, occupation " +
+            "from employees where id >= " + summary.getFirstEmployeeId() + " and id < " +
+            (summary.getFirstEmployeeId() + summary.getEmployees()) + " order by id"));
+        rows.addAll(query("select employee_id - " + summary.getFirstEmployeeId() + ", seat_id - " +
+            summary.getFirstSeatId() + " from employee_seat_assignments where employee_id >= " +
+            summary.getFirstEmployeeId() + " and employee_id < " +
+            (summary.getFirstEmployeeId() + summary.getEmployees()) + " order by employee_id"));
+        return rows;
+    }
+
+    private static void assertNoOverlap(List<double[]> rectangles) {
+        for (int i = 0; i < rectangles.size(); i++) {
+            for (int j = i + 1; j < rectangles.size(); j++) {
+                double[] a = rectangles.get(i);
+                double[] b = rectangles.get(j);
+                // Only rectangles of the same floor or room may not overlap
+                if (a[4] != b[4]) {
+                    continue;
+                }
+                boolean overlap = a[0] < b[0] + b[2] && b[0] < a[0] + a[2]
+                    && a[1] < b[1] + b[3] && b[1] < a[1] + a[3];
+                assertFalse(overlap, "Overlapping rectangles " + i + " and " + j);
+            }
+        }
+    }
+
+    private List<double[]> rectangles(String sql) throws SQLException {
+        return session.doReturningWork(connection -> {
+            List<double[]> rectangles = new ArrayList<>();
+            try (Statement statement = connection.createStatement();
+                 ResultSet result = statement.executeQuery(sql)) {
+                while (result.next()) {
+                    rectangles.add(new double[] {result.getDouble(1), result.getDouble(2),
+                        result.getDouble(3), result.getDouble(4), result.getDouble(5)});
+                }
+            }
+            return rectangles;
+        });
+    }
+
+    private List<String> query(String sql) {
+        return session.doReturningWork(connection -> {
+            List<String> rows = new ArrayList<>();
+            try (Statement statement = connection.createStatement();
+                 ResultSet result = statement.executeQuery(sql)) {
+                int columns = result.getMetaData().getColumnCount();
+                while (result.next()) {
+                    StringBuilder row = new StringBuilder();
+                    for (int i = 1; i <= columns; i++) {
+                        row.append(result.getString(i)).append('|');
+                    }
+                    rows.add(row.toString());
+                }
+            }
+            return rows;
+        });
+    }
+
+    private long count(String sql) {
+        return Long.parseLong(query(sql).get(0).replace("|", ""));
+    }
+}
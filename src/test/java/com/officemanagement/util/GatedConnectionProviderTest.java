@@ -0,0 +1,83 @@
+package com.officemanagement.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GatedConnectionProviderTest {
+    private GatedConnectionProvider provider;
+
+    @BeforeEach
+    public void setUp() {
+        Map<String, Object> props = new HashMap<>();
+        props.put("hibernate.connection.url", "jdbc:h2:mem:gate;DB_CLOSE_DELAY=-1");
+        props.put("hibernate.connection.username", "sa");
+        props.put("hibernate.connection.password", "");
+        props.put("hibernate.hikari.maximumPoolSize", "2");
+        props.put("hibernate.hikari.minimumIdle", "0");
+        props.put("hibernate.hikari.connectionTimeout", "250");
+        props.put("hibernate.hikari.poolName", "GateTestPool");
+        provider = new GatedConnectionProvider();
+        provider.configure(props);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        provider.stop();
+    }
+
+    @Test
+    public void testWaitersAreAdmittedAsConnectionsComeBack() throws Exception {
+        Connection first = provider.getConnection();
+        Connection second = provider.getConnection();
+        CompletableFuture<Connection> third = CompletableFuture.supplyAsync(() -> {
+            try {
+                return provider.getConnection();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (provider.getWaiting() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, provider.getWaiting());
+        provider.closeConnection(first);
+
+        Connection admitted = third.get(1, TimeUnit.SECONDS);
+        assertTrue(admitted.isValid(1));
+        assertEquals(0, provider.getWaiting());
+        assertEquals(0, provider.getRejected());
+        provider.closeConnection(second);
+        provider.closeConnection(admitted);
+    }
+
+    @Test
+    public void testWaitIsBoundedByTheConnectionTimeout() throws Exception {
+        Connection first = provider.getConnection();
+        Connection second = provider.getConnection();
+
+        long start = System.nanoTime();
+        SQLTransientConnectionException e = assertThrows(SQLTransientConnectionException.class,
+            provider::getConnection);
+        assertTrue(e.getMessage().contains("not admitted"), e.getMessage());
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(200));
+        assertEquals(1, provider.getRejected());
+
+        // The failed request took no permit with it
+        provider.closeConnection(first);
+        Connection third = provider.getConnection();
+        provider.closeConnection(second);
+        provider.closeConnection(third);
+    }
+}